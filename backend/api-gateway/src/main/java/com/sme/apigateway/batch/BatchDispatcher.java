@@ -0,0 +1,221 @@
+package com.sme.apigateway.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sme.apigateway.loadbalancer.UpstreamInstance;
+import com.sme.apigateway.loadbalancer.UpstreamPool;
+import com.sme.apigateway.loadbalancer.UpstreamRegistry;
+import com.sme.apigateway.policy.AccessLevel;
+import com.sme.apigateway.policy.RoutePolicy;
+import com.sme.apigateway.ratelimit.TenantPlanResolver;
+import com.sme.apigateway.ratelimit.TenantRateLimiter;
+import com.sme.apigateway.resilience.RouteGuard;
+import com.sme.apigateway.resilience.RouteGuardRegistry;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.shared.InternalIdentityCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs the sub-requests of a batch against the gateway's own routes. The caller is authenticated
+ * once by the controller; each sub-request is then matched to a route, charged against the tenant
+ * rate limit and the route's concurrency guard, and sent to an instance of the route's pool, just
+ * as it would be when sent on its own. Results are emitted in completion order. Each sub-response
+ * is buffered whole, up to {@code batch.max-response-bytes}; a larger one becomes an item error.
+ */
+@Component
+public class BatchDispatcher {
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    @Autowired
+    private RoutePolicy routePolicy;
+
+    @Autowired
+    private InternalIdentityCodec identityCodec;
+
+    @Autowired
+    private TenantRateLimiter rateLimiter;
+
+    @Autowired
+    private TenantPlanResolver planResolver;
+
+    @Autowired
+    private RouteGuardRegistry routeGuards;
+
+    @Autowired
+    private UpstreamRegistry upstreamRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${batch.max-concurrency:6}")
+    private int maxConcurrency;
+
+    @Value("${batch.item-timeout-ms:30000}")
+    private long itemTimeoutMillis;
+
+    @Value("${batch.max-response-bytes:4194304}")
+    private int maxResponseBytes;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = WebClient.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+    }
+
+    public Flux<BatchItemResult> dispatch(ServerWebExchange exchange, JwtClaims claims, List<BatchItem> items) {
+        String identity = identityCodec.encode(claims.getUserId(), claims.getUsername(), claims.getCompanyId(),
+                claims.getEffectiveRoles());
+        return Flux.fromIterable(items)
+                .flatMap(item -> dispatchOne(exchange, claims, identity, item), maxConcurrency);
+    }
+
+    private Mono<BatchItemResult> dispatchOne(ServerWebExchange exchange, JwtClaims claims, String identity,
+                                              BatchItem item) {
+        String id = item.getId();
+        if (item.getPath() == null || !item.getPath().startsWith("/api/") || item.getPath().startsWith("/api/batch")) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_REQUEST.value(), "Unsupported path"));
+        }
+        HttpMethod method = HttpMethod.valueOf(item.getMethod() != null ? item.getMethod().toUpperCase() : "GET");
+        URI relative;
+        try {
+            relative = URI.create(item.getPath());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_REQUEST.value(), "Invalid path"));
+        }
+        // Routing decodes the path itself, so only spellings it sees unchanged are accepted
+        String path = RoutePolicy.normalize(relative.getRawPath());
+        if (path == null || relative.getRawPath().indexOf(';') >= 0
+                || !path.equals(UriUtils.decode(relative.getRawPath(), StandardCharsets.UTF_8))) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_REQUEST.value(), "Invalid path"));
+        }
+        AccessLevel access = routePolicy.classify(path);
+        if (access == AccessLevel.PUBLIC) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_REQUEST.value(), "Unsupported path"));
+        }
+        if (access == AccessLevel.ADMIN && !routePolicy.isAdminClient(exchange.getRequest())) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.FORBIDDEN.value(), "Access denied: IP not whitelisted"));
+        }
+        if (claims.getCompanyId() != null) {
+            long retryAfter = rateLimiter.tryAcquire(claims.getCompanyId(), planResolver.budgetFor(claims));
+            if (retryAfter != 0) {
+                return Mono.just(BatchItemResult.error(id, HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded"));
+            }
+        }
+
+        ServerWebExchange probe = exchange.mutate()
+                .request(r -> r.method(method).path(relative.getRawPath()))
+                .build();
+        return findRoute(probe)
+                .flatMap(route -> forward(route, method, relative, item, identity, claims))
+                .defaultIfEmpty(BatchItemResult.error(id, HttpStatus.NOT_FOUND.value(), "No route for path"));
+    }
+
+    private Mono<Route> findRoute(ServerWebExchange probe) {
+        return routeLocator.getRoutes()
+                .concatMap(route -> Mono.from(route.getPredicate().apply(probe))
+                        .filter(Boolean::booleanValue)
+                        .map(matched -> route))
+                .next();
+    }
+
+    private Mono<BatchItemResult> forward(Route route, HttpMethod method, URI relative, BatchItem item,
+                                          String identity, JwtClaims claims) {
+        String id = item.getId();
+        UpstreamPool pool = "lb".equals(route.getUri().getScheme()) ? upstreamRegistry.getPool(route.getUri().getHost()) : null;
+        if (pool == null) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_GATEWAY.value(), "No upstream for route " + route.getId()));
+        }
+
+        RouteGuard guard = routeGuards.forRoute(route.getId());
+        RouteGuard.Rejection rejection = guard.tryAdmit(System.currentTimeMillis());
+        if (rejection != RouteGuard.Rejection.NONE) {
+            return Mono.just(BatchItemResult.error(id, HttpStatus.SERVICE_UNAVAILABLE.value(), "Service temporarily unavailable"));
+        }
+        UpstreamInstance instance = pool.choose();
+        if (instance == null) {
+            guard.cancel();
+            return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_GATEWAY.value(), "No upstream for route " + route.getId()));
+        }
+
+        long start = System.nanoTime();
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(instance.getUri().resolve(relative))
+                .header(InternalIdentityCodec.HEADER, identity)
+                .header("X-User-ID", claims.getUserId())
+                .header("X-User-Name", claims.getUsername())
+                .header("X-Company-ID", claims.getCompanyId())
+                .header("X-User-Role", claims.getRole());
+        if (item.getBody() != null) {
+            request.contentType(MediaType.APPLICATION_JSON).bodyValue(item.getBody());
+        }
+        return request.exchangeToMono(response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> {
+                            guard.complete(response.statusCode(), start);
+                            pool.release(instance, !isUpstreamFailure(response.statusCode().value()));
+                            boolean json = response.headers().contentType()
+                                    .map(MediaType.APPLICATION_JSON::isCompatibleWith)
+                                    .orElse(false);
+                            return BatchItemResult.of(id, response.statusCode().value(), json ? parse(body) : body);
+                        })
+                        // The instance answered; only relaying its body failed, so it is not held against it
+                        .onErrorResume(e -> e instanceof DataBufferLimitException || e instanceof CodecException, e -> {
+                            guard.complete(response.statusCode(), start);
+                            pool.release(instance, !isUpstreamFailure(response.statusCode().value()));
+                            return Mono.just(BatchItemResult.error(id, response.statusCode().value(),
+                                    e instanceof DataBufferLimitException
+                                            ? "Response body exceeds " + maxResponseBytes + " bytes"
+                                            : "Response body could not be read"));
+                        }))
+                .timeout(Duration.ofMillis(itemTimeoutMillis))
+                .onErrorResume(e -> {
+                    guard.complete(false, System.currentTimeMillis());
+                    pool.release(instance, false);
+                    return Mono.just(BatchItemResult.error(id, HttpStatus.BAD_GATEWAY.value(), "Upstream request failed"));
+                })
+                .doOnCancel(() -> {
+                    guard.cancel();
+                    pool.release(instance, true);
+                });
+    }
+
+    private Object parse(String body) {
+        if (body.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    private static boolean isUpstreamFailure(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sme.apigateway.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One sub-request of a {@code /api/batch} call. {@code path} may carry a query string;
+ * {@code id} is echoed back so the caller can match results that arrive out of order.
+ */
+public class BatchItem {
+
+    private String id;
+    private String method = "GET";
+    private String path;
+    private JsonNode body;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    public JsonNode getBody() { return body; }
+    public void setBody(JsonNode body) { this.body = body; }
+}
@@ -0,0 +1,36 @@
+package com.sme.apigateway.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one sub-request. {@code body} is parsed JSON when the backend answered with JSON,
+ * otherwise the raw text; gateway-side failures carry an {@code error} message instead.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private final String id;
+    private final int status;
+    private final Object body;
+    private final String error;
+
+    private BatchItemResult(String id, int status, Object body, String error) {
+        this.id = id;
+        this.status = status;
+        this.body = body;
+        this.error = error;
+    }
+
+    public static BatchItemResult of(String id, int status, Object body) {
+        return new BatchItemResult(id, status, body, null);
+    }
+
+    public static BatchItemResult error(String id, int status, String error) {
+        return new BatchItemResult(id, status, null, error);
+    }
+
+    public String getId() { return id; }
+    public int getStatus() { return status; }
+    public Object getBody() { return body; }
+    public String getError() { return error; }
+}
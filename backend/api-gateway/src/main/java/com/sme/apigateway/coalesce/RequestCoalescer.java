@@ -0,0 +1,154 @@
+package com.sme.apigateway.coalesce;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight registry for identical GETs. The first request for a key becomes the leader and
+ * goes upstream; requests for the same key that arrive while it is in flight wait for the leader's
+ * response instead. With a non-zero micro-cache window the leader's response is also served to
+ * requests arriving shortly after it completed.
+ */
+@Component
+public class RequestCoalescer {
+
+    @Value("${coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${coalesce.paths:/api/projects/**,/api/tasks/**}")
+    private String pathSpec;
+
+    @Value("${coalesce.micro-cache-ms:0}")
+    private long microCacheMillis;
+
+    @Value("${coalesce.micro-cache.max-entries:1000}")
+    private int maxCacheEntries;
+
+    @Value("${coalesce.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    private final List<PathPattern> patterns = new ArrayList<>();
+    private final Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, SharedResponse> microCache = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder notShared = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        PathPatternParser parser = new PathPatternParser();
+        for (String pattern : pathSpec.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(parser.parse(pattern.trim()));
+            }
+        }
+    }
+
+    public int getMaxBodyBytes() { return maxBodyBytes; }
+
+    public boolean appliesTo(String path) {
+        if (!enabled) {
+            return false;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns a micro-cached response for the key, or null. */
+    public SharedResponse cached(String key) {
+        if (microCacheMillis <= 0) {
+            return null;
+        }
+        SharedResponse response = microCache.get(key);
+        if (response == null) {
+            return null;
+        }
+        if (response.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            microCache.remove(key, response);
+            return null;
+        }
+        cacheHits.increment();
+        return response;
+    }
+
+    /**
+     * Registers the caller as leader for the key. Returns null if it is now the leader and must call
+     * {@link #publish} or {@link #abandon} with the given sink, otherwise the leader's pending response.
+     */
+    public Mono<SharedResponse> joinOrLead(String key, Sinks.One<SharedResponse> sink) {
+        Sinks.One<SharedResponse> existing = inFlight.putIfAbsent(key, sink);
+        if (existing == null) {
+            leaders.increment();
+            return null;
+        }
+        coalesced.increment();
+        return existing.asMono();
+    }
+
+    public void publish(String key, Sinks.One<SharedResponse> sink, int status, HttpHeaders headers, byte[] body) {
+        long now = System.currentTimeMillis();
+        SharedResponse response = new SharedResponse(status, headers, body, now + microCacheMillis);
+        if (microCacheMillis > 0) {
+            if (microCache.size() >= maxCacheEntries) {
+                evictExpired(now);
+            }
+            if (microCache.size() < maxCacheEntries) {
+                microCache.put(key, response);
+            }
+        }
+        inFlight.remove(key, sink);
+        sink.tryEmitValue(response);
+    }
+
+    /** The leader's response could not be shared; waiters fall back to their own upstream call. */
+    public void abandon(String key, Sinks.One<SharedResponse> sink) {
+        notShared.increment();
+        inFlight.remove(key, sink);
+        sink.tryEmitEmpty();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<SharedResponse> it = microCache.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().getExpiresAtMillis() <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long upstream = leaders.sum();
+        long served = coalesced.sum() + cacheHits.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("upstreamCalls", upstream);
+        stats.put("coalesced", coalesced.sum());
+        stats.put("microCacheHits", cacheHits.sum());
+        stats.put("notShared", notShared.sum());
+        stats.put("hitRatio", upstream + served == 0 ? 0.0 : (double) served / (upstream + served));
+        stats.put("inFlight", inFlight.size());
+        stats.put("microCacheSize", microCache.size());
+        return stats;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sme.apigateway.coalesce;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A fully buffered upstream response that can be replayed to coalesced waiters and micro-cache hits.
+ */
+public final class SharedResponse {
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final long expiresAtMillis;
+
+    SharedResponse(int status, HttpHeaders headers, byte[] body, long expiresAtMillis) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public int getStatus() { return status; }
+    public HttpHeaders getHeaders() { return headers; }
+    public byte[] getBody() { return body; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
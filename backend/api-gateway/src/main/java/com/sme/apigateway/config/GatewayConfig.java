@@ -1,7 +1,9 @@
 package com.sme.apigateway.config;
 
 import com.sme.apigateway.filter.AuthenticationFilter;
+import com.sme.apigateway.filter.TenantRateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
@@ -13,44 +15,53 @@ public class GatewayConfig {
     @Autowired
     private AuthenticationFilter authFilter;
 
+    @Autowired
+    private TenantRateLimitFilter rateLimitFilter;
+
     @Bean
     public RouteLocator routes(RouteLocatorBuilder builder) {
         return builder.routes()
             .route("user-service-auth", r -> r.path("/api/auth/**")
-                .uri("http://localhost:8081"))
+                .uri("lb://user-service"))
             .route("user-service", r -> r.path("/api/users/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8092"))
+                .filters(this::secured)
+                .uri("lb://user-service"))
             .route("company-service", r -> r.path("/api/companies/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8082"))
+                .filters(this::secured)
+                .uri("lb://company-service"))
             .route("timesheet-service", r -> r.path("/api/timesheets/**", "/api/tasks/**", "/api/projects/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8083"))
+                .filters(this::secured)
+                .uri("lb://timesheet-service"))
             .route("payroll-service", r -> r.path("/api/payrolls/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8084"))
+                .filters(this::secured)
+                .uri("lb://payroll-service"))
             .route("hr-service", r -> r.path("/api/employees/**", "/api/attendance/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8085"))
+                .filters(this::secured)
+                .uri("lb://hr-service"))
             .route("invoice-service", r -> r.path("/api/invoices/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8086"))
+                .filters(this::secured)
+                .uri("lb://invoice-service"))
             .route("quote-service", r -> r.path("/api/quotes/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8087"))
+                .filters(this::secured)
+                .uri("lb://quote-service"))
             .route("procurement-service", r -> r.path("/api/purchase-orders/**", "/api/inventory-items/**", "/api/suppliers/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8088"))
+                .filters(this::secured)
+                .uri("lb://procurement-service"))
             .route("appendix-service", r -> r.path("/api/appendices/**", "/api/appendix-items/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8089"))
+                .filters(this::secured)
+                .uri("lb://appendix-service"))
             .route("leave-service", r -> r.path("/api/leaves/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8090"))
+                .filters(this::secured)
+                .uri("lb://leave-service"))
             .route("tools-equipment-service", r -> r.path("/api/tools/**", "/api/tool-transactions/**")
-                .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config())))
-                .uri("http://localhost:8091"))
+                .filters(this::secured)
+                .uri("lb://tools-equipment-service"))
             .build();
     }
+
+    // Authentication first: the rate limiter keys on the tenant taken from the verified token
+    private GatewayFilterSpec secured(GatewayFilterSpec f) {
+        return f.filter(authFilter.apply(new AuthenticationFilter.Config()))
+                .filter(rateLimitFilter.apply(new TenantRateLimitFilter.Config()));
+    }
 }
\ No newline at end of file
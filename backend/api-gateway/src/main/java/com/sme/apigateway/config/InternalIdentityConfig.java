@@ -0,0 +1,16 @@
+package com.sme.apigateway.config;
+
+import com.sme.shared.InternalIdentityCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InternalIdentityConfig {
+
+    @Bean
+    public InternalIdentityCodec internalIdentityCodec(@Value("${internal.identity.secret}") String secret,
+                                                       @Value("${internal.identity.ttl-ms:60000}") long ttlMillis) {
+        return new InternalIdentityCodec(secret, ttlMillis);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sme.apigateway.config;
+
+import com.sme.apigateway.metrics.GatewayMetrics;
+import com.sme.apigateway.metrics.UpstreamMetricsRecorder;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HttpClientCustomizer upstreamMetricsCustomizer(GatewayMetrics metrics) {
+        UpstreamMetricsRecorder recorder = new UpstreamMetricsRecorder(metrics);
+        return httpClient -> httpClient.metrics(true, () -> recorder);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sme.apigateway.controller;
+
+import com.sme.apigateway.batch.BatchDispatcher;
+import com.sme.apigateway.batch.BatchItem;
+import com.sme.apigateway.batch.BatchItemResult;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Fans out an array of sub-requests to the gateway's routes in one round trip. The response is a
+ * JSON array streamed as sub-requests complete, one {@link BatchItemResult} per item.
+ */
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private BatchDispatcher dispatcher;
+
+    @Value("${batch.max-requests:20}")
+    private int maxRequests;
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Flux<BatchItemResult>> batch(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @RequestBody List<BatchItem> items,
+            ServerWebExchange exchange) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        JwtClaims claims;
+        try {
+            claims = claimsCache.resolve(authHeader.substring(7));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (items.isEmpty() || items.size() > maxRequests) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dispatcher.dispatch(exchange, claims, items));
+    }
+}
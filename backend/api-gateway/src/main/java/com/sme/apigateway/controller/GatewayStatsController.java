@@ -0,0 +1,80 @@
+package com.sme.apigateway.controller;
+
+import com.sme.apigateway.coalesce.RequestCoalescer;
+import com.sme.apigateway.loadbalancer.UpstreamInstance;
+import com.sme.apigateway.loadbalancer.UpstreamPool;
+import com.sme.apigateway.loadbalancer.UpstreamRegistry;
+import com.sme.apigateway.ratelimit.TenantRateLimiter;
+import com.sme.apigateway.resilience.RouteGuardRegistry;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/gateway/stats")
+public class GatewayStatsController {
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private TenantRateLimiter rateLimiter;
+
+    @Autowired
+    private UpstreamRegistry upstreamRegistry;
+
+    @Autowired
+    private RouteGuardRegistry routeGuards;
+
+    @Autowired
+    private RequestCoalescer coalescer;
+
+    @GetMapping("/jwt-cache")
+    public Map<String, Object> jwtCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", claimsCache.getHits());
+        stats.put("misses", claimsCache.getMisses());
+        stats.put("evictions", claimsCache.getEvictions());
+        stats.put("size", claimsCache.getSize());
+        return stats;
+    }
+
+    @GetMapping("/rate-limits")
+    public Map<String, Map<String, Object>> rateLimitStats() {
+        return rateLimiter.snapshot();
+    }
+
+    @GetMapping("/upstreams")
+    public Map<String, List<Map<String, Object>>> upstreamStats() {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        for (UpstreamPool pool : upstreamRegistry.getPools()) {
+            List<Map<String, Object>> instances = new ArrayList<>();
+            for (UpstreamInstance instance : pool.getInstances()) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("uri", instance.getUri().toString());
+                stats.put("inFlight", instance.getInFlight());
+                stats.put("ejected", instance.isEjected(System.currentTimeMillis()));
+                instances.add(stats);
+            }
+            result.put(pool.getServiceId(), instances);
+        }
+        return result;
+    }
+
+    @GetMapping("/routes")
+    public Map<String, Map<String, Object>> routeStats() {
+        return routeGuards.snapshot();
+    }
+
+    @GetMapping("/coalescing")
+    public Map<String, Object> coalescingStats() {
+        return coalescer.stats();
+    }
+}
@@ -0,0 +1,108 @@
+package com.sme.apigateway.controller;
+
+import com.sme.apigateway.coalesce.RequestCoalescer;
+import com.sme.apigateway.loadbalancer.UpstreamInstance;
+import com.sme.apigateway.loadbalancer.UpstreamPool;
+import com.sme.apigateway.loadbalancer.UpstreamRegistry;
+import com.sme.apigateway.metrics.GatewayMetrics;
+import com.sme.apigateway.metrics.PrometheusWriter;
+import com.sme.apigateway.ratelimit.TenantRateLimiter;
+import com.sme.apigateway.resilience.RouteGuardRegistry;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prometheus scrape endpoint for the gateway: request latency histograms plus the counters already
+ * kept by the JWT cache, rate limiter, route guards, upstream pools and request coalescer.
+ */
+@RestController
+public class MetricsController {
+
+    @Autowired
+    private GatewayMetrics metrics;
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private TenantRateLimiter rateLimiter;
+
+    @Autowired
+    private RouteGuardRegistry routeGuards;
+
+    @Autowired
+    private UpstreamRegistry upstreamRegistry;
+
+    @Autowired
+    private RequestCoalescer coalescer;
+
+    @GetMapping("/gateway/metrics")
+    public ResponseEntity<String> prometheus() {
+        PrometheusWriter out = new PrometheusWriter();
+        metrics.writePrometheus(out);
+
+        out.type("gateway_jwt_cache_requests_total", "counter", "JWT claims cache lookups by result");
+        out.sample("gateway_jwt_cache_requests_total", claimsCache.getHits(), "result", "hit");
+        out.sample("gateway_jwt_cache_requests_total", claimsCache.getMisses(), "result", "miss");
+        out.type("gateway_jwt_cache_size", "gauge", "Entries in the JWT claims cache");
+        out.sample("gateway_jwt_cache_size", claimsCache.getSize());
+
+        // Summed per plan: per-tenant series would grow with the customer base
+        Map<String, long[]> byPlan = new TreeMap<>();
+        for (Map<String, Object> tenant : rateLimiter.snapshot().values()) {
+            long[] totals = byPlan.computeIfAbsent((String) tenant.get("plan"), p -> new long[2]);
+            totals[0] += (Long) tenant.get("admitted");
+            totals[1] += (Long) tenant.get("rejected");
+        }
+        out.type("gateway_ratelimit_requests_total", "counter", "Tenant rate limiter decisions by plan");
+        for (Map.Entry<String, long[]> e : byPlan.entrySet()) {
+            out.sample("gateway_ratelimit_requests_total", e.getValue()[0], "plan", e.getKey(), "result", "admitted");
+            out.sample("gateway_ratelimit_requests_total", e.getValue()[1], "plan", e.getKey(), "result", "rejected");
+        }
+
+        Map<String, Map<String, Object>> guards = routeGuards.snapshot();
+        out.type("gateway_route_concurrency_limit", "gauge", "Current adaptive concurrency limit by route");
+        guards.forEach((route, s) -> out.sample("gateway_route_concurrency_limit", (Integer) s.get("limit"), "route", route));
+        out.type("gateway_route_circuit_open", "gauge", "1 if the route's circuit breaker is not closed");
+        guards.forEach((route, s) -> out.sample("gateway_route_circuit_open",
+                "CLOSED".equals(s.get("breaker")) ? 0 : 1, "route", route));
+        out.type("gateway_route_shed_total", "counter", "Requests shed by route guards by reason");
+        guards.forEach((route, s) -> {
+            out.sample("gateway_route_shed_total", (Long) s.get("limitRejections"), "route", route, "reason", "concurrency_limit");
+            out.sample("gateway_route_shed_total", (Long) s.get("breakerRejections"), "route", route, "reason", "circuit_open");
+        });
+
+        out.type("gateway_upstream_in_flight", "gauge", "Requests in flight per upstream instance");
+        for (UpstreamPool pool : upstreamRegistry.getPools()) {
+            for (UpstreamInstance instance : pool.getInstances()) {
+                out.sample("gateway_upstream_in_flight", instance.getInFlight(),
+                        "service", pool.getServiceId(), "instance", instance.getUri().toString());
+            }
+        }
+        out.type("gateway_upstream_ejected", "gauge", "1 if the upstream instance is currently ejected");
+        long now = System.currentTimeMillis();
+        for (UpstreamPool pool : upstreamRegistry.getPools()) {
+            for (UpstreamInstance instance : pool.getInstances()) {
+                out.sample("gateway_upstream_ejected", instance.isEjected(now) ? 1 : 0,
+                        "service", pool.getServiceId(), "instance", instance.getUri().toString());
+            }
+        }
+
+        Map<String, Object> coalescing = coalescer.stats();
+        out.type("gateway_coalesce_requests_total", "counter", "Coalescing outcomes for eligible GETs");
+        out.sample("gateway_coalesce_requests_total", (Long) coalescing.get("upstreamCalls"), "result", "upstream");
+        out.sample("gateway_coalesce_requests_total", (Long) coalescing.get("coalesced"), "result", "coalesced");
+        out.sample("gateway_coalesce_requests_total", (Long) coalescing.get("microCacheHits"), "result", "micro_cache");
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, PrometheusWriter.CONTENT_TYPE)
+                .body(out.toString());
+    }
+}
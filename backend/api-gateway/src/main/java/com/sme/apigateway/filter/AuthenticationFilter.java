@@ -1,8 +1,11 @@
 package com.sme.apigateway.filter;
 
-import com.sme.apigateway.util.JwtUtil;
+import com.sme.apigateway.policy.AccessLevel;
+import com.sme.apigateway.policy.RoutePolicy;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.apigateway.util.JwtClaimsCache;
+import com.sme.shared.InternalIdentityCodec;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
@@ -13,25 +16,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.Set;
-import java.util.HashSet;
-import java.util.Arrays;
-
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtClaimsCache claimsCache;
 
-    private static Set<String> ADMIN_IP_WHITELIST = new HashSet<>(Arrays.asList("127.0.0.1", "::1"));
+    @Autowired
+    private InternalIdentityCodec identityCodec;
 
     @Autowired
-    public void setAdminIpWhitelist(@Value("${admin.ip.whitelist:127.0.0.1,::1}") String whitelist) {
-        ADMIN_IP_WHITELIST = new HashSet<>();
-        for (String ip : whitelist.split(",")) {
-            ADMIN_IP_WHITELIST.add(ip.trim());
-        }
-    }
+    private RoutePolicy routePolicy;
 
     public AuthenticationFilter() {
         super(Config.class);
@@ -41,19 +36,18 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
-            String path = request.getURI().getPath();
-            String remoteIp = request.getHeaders().getFirst("X-Forwarded-For");
-            if (remoteIp == null) {
-                remoteIp = request.getRemoteAddress() != null ? request.getRemoteAddress().getAddress().getHostAddress() : null;
+            String path = RoutePolicy.normalize(request.getPath().pathWithinApplication().value());
+            if (path == null) {
+                return onError(exchange, "Invalid path", HttpStatus.BAD_REQUEST);
             }
-            // IP whitelist for admin endpoints
-            if ((path.startsWith("/api/users/") || path.startsWith("/api/companies/")) &&
-                    (remoteIp == null || !ADMIN_IP_WHITELIST.contains(remoteIp))) {
+            AccessLevel access = routePolicy.classify(path);
+            // IP allowlist for admin endpoints
+            if (access == AccessLevel.ADMIN && !routePolicy.isAdminClient(request)) {
                 return onError(exchange, "Access denied: IP not whitelisted", HttpStatus.FORBIDDEN);
             }
 
-            // Skip authentication for auth endpoints
-            if (request.getURI().getPath().contains("/api/auth/")) {
+            // Skip authentication for public endpoints such as login
+            if (access == AccessLevel.PUBLIC) {
                 return chain.filter(exchange);
             }
 
@@ -69,16 +63,19 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             String token = authHeader.substring(7);
 
             try {
-                if (!jwtUtil.validateToken(token)) {
-                    return onError(exchange, "Invalid JWT token", HttpStatus.UNAUTHORIZED);
-                }
+                // Verified once per token and then served from the cache for repeat requests
+                JwtClaims claims = claimsCache.resolve(token);
+                exchange.getAttributes().put(JwtClaims.ATTRIBUTE, claims);
 
-                // Add user information to headers for downstream services
+                // Add user information to headers for downstream services. Services trust the signed
+                // identity header instead of parsing the JWT again.
                 ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                        .header("X-User-ID", jwtUtil.getUserIdFromToken(token))
-                        .header("X-User-Name", jwtUtil.getUsernameFromToken(token))
-                        .header("X-Company-ID", jwtUtil.getCompanyIdFromToken(token))
-                        .header("X-User-Role", jwtUtil.getRoleFromToken(token))
+                        .header(InternalIdentityCodec.HEADER, identityCodec.encode(
+                                claims.getUserId(), claims.getUsername(), claims.getCompanyId(), claims.getEffectiveRoles()))
+                        .header("X-User-ID", claims.getUserId())
+                        .header("X-User-Name", claims.getUsername())
+                        .header("X-Company-ID", claims.getCompanyId())
+                        .header("X-User-Role", claims.getRole())
                         .build();
 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
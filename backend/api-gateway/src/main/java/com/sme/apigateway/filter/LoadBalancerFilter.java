@@ -0,0 +1,73 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.loadbalancer.UpstreamInstance;
+import com.sme.apigateway.loadbalancer.UpstreamPool;
+import com.sme.apigateway.loadbalancer.UpstreamRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * Resolves {@code lb://service-id} route URIs against {@link UpstreamRegistry}. Runs right after the
+ * request URL is built from the route and before the stock no-load-balancer filter would reject it.
+ * 502, 503 and 504 responses and connection errors count as failures for passive ejection.
+ */
+@Component
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    @Autowired
+    private UpstreamRegistry registry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !"lb".equals(url.getScheme())) {
+            return chain.filter(exchange);
+        }
+
+        UpstreamPool pool = registry.getPool(url.getHost());
+        UpstreamInstance instance = pool != null ? pool.choose() : null;
+        if (instance == null) {
+            return Mono.error(NotFoundException.create(true, "No upstream instances for " + url.getHost()));
+        }
+
+        URI target = instance.getUri();
+        URI requestUrl = UriComponentsBuilder.fromUri(url)
+                .scheme(target.getScheme())
+                .host(target.getHost())
+                .port(target.getPort())
+                .build(true)
+                .toUri();
+        addOriginalRequestUrl(exchange, url);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+
+        return chain.filter(exchange)
+                .doOnSuccess(v -> pool.release(instance, !isUpstreamFailure(exchange.getResponse().getStatusCode())))
+                .doOnError(e -> pool.release(instance, false))
+                .doOnCancel(() -> pool.release(instance, true));
+    }
+
+    private static boolean isUpstreamFailure(HttpStatusCode status) {
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
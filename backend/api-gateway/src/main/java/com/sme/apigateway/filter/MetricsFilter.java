@@ -0,0 +1,60 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.metrics.GatewayMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Times every routed request end to end, first in the chain so filter overhead and rejections by
+ * later filters are included. Time to first byte is taken when the response is committed, which
+ * happens once the upstream's response headers have arrived.
+ */
+@Component
+public class MetricsFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private GatewayMetrics metrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+        long start = System.nanoTime();
+        metrics.requestStarted(routeId);
+        exchange.getResponse().beforeCommit(() -> {
+            metrics.recordFirstByte(routeId, System.nanoTime() - start);
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> metrics.requestFinished(routeId, status(exchange, signal), System.nanoTime() - start));
+    }
+
+    private static String status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return "cancelled";
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.ON_ERROR && (status == null || status.is2xxSuccessful())) {
+            return "error";
+        }
+        return status != null ? Integer.toString(status.value()) : "200";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.policy.RoutePolicy;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards the gateway's own stats and metrics endpoints. They are served by the gateway rather
+ * than routed, so {@link AuthenticationFilter} never sees them, and they report on every tenant:
+ * callers need a valid token with an operator role and a client address on the admin allowlist.
+ */
+@Component
+public class OperatorEndpointFilter implements WebFilter, Ordered {
+
+    @Autowired
+    private RoutePolicy routePolicy;
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = RoutePolicy.normalize(request.getPath().pathWithinApplication().value());
+        if (path == null) {
+            return onError(exchange, HttpStatus.BAD_REQUEST);
+        }
+        if (!routePolicy.isOperatorPath(path)) {
+            return chain.filter(exchange);
+        }
+
+        if (!routePolicy.isAdminClient(request)) {
+            return onError(exchange, HttpStatus.FORBIDDEN);
+        }
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return onError(exchange, HttpStatus.UNAUTHORIZED);
+        }
+
+        JwtClaims claims;
+        try {
+            claims = claimsCache.resolve(authHeader.substring(7));
+        } catch (Exception e) {
+            return onError(exchange, HttpStatus.UNAUTHORIZED);
+        }
+        if (!routePolicy.hasOperatorRole(claims.getEffectiveRoles())) {
+            return onError(exchange, HttpStatus.FORBIDDEN);
+        }
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus httpStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(httpStatus);
+        return response.setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,181 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.coalesce.RequestCoalescer;
+import com.sme.apigateway.coalesce.SharedResponse;
+import com.sme.apigateway.policy.RoutePolicy;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Collapses identical concurrent GETs into one upstream call. Requests are identical when tenant,
+ * roles, path and query match; only paths listed in {@code coalesce.paths} take part, since their
+ * responses must not depend on the individual user.
+ *
+ * <p>Runs ahead of the response writer so the leader's body can be captured as it streams out.
+ * That is also ahead of the route's authentication filter, so the token is resolved here from
+ * the shared claims cache; requests with a bad token are left for the authentication filter to reject.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private RequestCoalescer coalescer;
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private RoutePolicy routePolicy;
+
+    @Value("${coalesce.wait-timeout-ms:10000}")
+    private long waitTimeoutMillis;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String rawPath = request.getURI().getRawPath();
+        String path = RoutePolicy.normalize(rawPath);
+        if (request.getMethod() != HttpMethod.GET || path == null || !coalescer.appliesTo(rawPath)
+                || !routePolicy.isAllowed(request, path)) {
+            return chain.filter(exchange);
+        }
+        JwtClaims claims = resolveClaims(request);
+        if (claims == null || claims.getCompanyId() == null) {
+            return chain.filter(exchange);
+        }
+
+        String query = request.getURI().getRawQuery();
+        String key = claims.getCompanyId() + '\n' + String.join(",", claims.getEffectiveRoles()) + '\n'
+                + rawPath + (query != null ? "?" + query : "");
+
+        SharedResponse cached = coalescer.cached(key);
+        if (cached != null) {
+            return replay(exchange, cached);
+        }
+
+        Sinks.One<SharedResponse> sink = Sinks.one();
+        Mono<SharedResponse> leader = coalescer.joinOrLead(key, sink);
+        if (leader != null) {
+            // Waiters whose leader fails, times out or produces an unshareable response go upstream themselves
+            return leader.timeout(Duration.ofMillis(waitTimeoutMillis))
+                    .map(Optional::of)
+                    .onErrorReturn(Optional.empty())
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent() ? replay(exchange, shared.get()) : chain.filter(exchange));
+        }
+
+        CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), coalescer.getMaxBodyBytes());
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    HttpStatusCode status = capturing.getStatusCode();
+                    if (signal == SignalType.ON_COMPLETE && capturing.isCaptured()
+                            && status != null && status.is2xxSuccessful()) {
+                        coalescer.publish(key, sink, status.value(), shareableHeaders(capturing.getHeaders()),
+                                capturing.getBody());
+                    } else {
+                        coalescer.abandon(key, sink);
+                    }
+                });
+    }
+
+    private JwtClaims resolveClaims(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return claimsCache.resolve(authHeader.substring(7));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static HttpHeaders shareableHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(source);
+        headers.remove(HttpHeaders.SET_COOKIE);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.CONNECTION);
+        return headers;
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(shared.getStatus()));
+        response.getHeaders().putAll(shared.getHeaders());
+        response.getHeaders().setContentLength(shared.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.getBody())));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    /** Passes the body through unchanged while keeping a copy, up to a size limit. */
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final int maxBytes;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean overflow;
+        private volatile boolean complete;
+
+        CapturingResponse(ServerHttpResponse delegate, int maxBytes) {
+            super(delegate);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(this::capture)
+                    .doOnComplete(() -> complete = true));
+        }
+
+        private void capture(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (overflow || body.size() + length > maxBytes) {
+                overflow = true;
+                return;
+            }
+            byte[] bytes = new byte[length];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            body.write(bytes, 0, length);
+        }
+
+        boolean isCaptured() {
+            return complete && !overflow;
+        }
+
+        byte[] getBody() {
+            return body.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.ratelimit.PlanBudget;
+import com.sme.apigateway.ratelimit.TenantPlanResolver;
+import com.sme.apigateway.ratelimit.TenantRateLimiter;
+import com.sme.apigateway.util.JwtClaims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-tenant admission control. Must run after {@link AuthenticationFilter}, which publishes the
+ * caller's claims; requests without a company id are not limited.
+ */
+@Component
+public class TenantRateLimitFilter extends AbstractGatewayFilterFactory<TenantRateLimitFilter.Config> {
+
+    @Autowired
+    private TenantRateLimiter rateLimiter;
+
+    @Autowired
+    private TenantPlanResolver planResolver;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    public TenantRateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            JwtClaims claims = exchange.getAttribute(JwtClaims.ATTRIBUTE);
+            if (!enabled || claims == null || claims.getCompanyId() == null) {
+                return chain.filter(exchange);
+            }
+
+            PlanBudget budget = planResolver.budgetFor(claims);
+            long retryAfterSeconds = rateLimiter.tryAcquire(claims.getCompanyId(), budget);
+            if (retryAfterSeconds == 0) {
+                return chain.filter(exchange);
+            }
+
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return response.setComplete();
+        };
+    }
+
+    public static class Config {
+        // Put configuration properties here if needed
+    }
+}
@@ -0,0 +1,28 @@
+package com.sme.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Passive health checking and slow-start tuning shared by all upstream pools.
+ */
+@Component
+public class LoadBalancerSettings {
+
+    @Value("${upstream.ejection.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${upstream.ejection.base-ms:30000}")
+    private long baseEjectionMillis;
+
+    @Value("${upstream.ejection.max-ms:300000}")
+    private long maxEjectionMillis;
+
+    @Value("${upstream.slow-start-ms:30000}")
+    private long slowStartMillis;
+
+    public int getFailureThreshold() { return failureThreshold; }
+    public long getBaseEjectionMillis() { return baseEjectionMillis; }
+    public long getMaxEjectionMillis() { return maxEjectionMillis; }
+    public long getSlowStartMillis() { return slowStartMillis; }
+}
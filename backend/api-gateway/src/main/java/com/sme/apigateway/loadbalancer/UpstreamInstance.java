@@ -0,0 +1,39 @@
+package com.sme.apigateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One backend instance of a service together with its in-flight count and passive health state.
+ * Health fields are only mutated under the owning pool's lock; the in-flight counter is lock-free.
+ */
+public final class UpstreamInstance {
+
+    private final URI uri;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    int consecutiveFailures;
+    int ejections;
+    volatile long ejectedUntilMillis;
+    volatile long warmingSinceMillis;
+
+    UpstreamInstance(URI uri, long now) {
+        this.uri = uri;
+        this.warmingSinceMillis = now;
+    }
+
+    public URI getUri() { return uri; }
+    public int getInFlight() { return inFlight.get(); }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public boolean isEjected(long now) {
+        return ejectedUntilMillis > now;
+    }
+}
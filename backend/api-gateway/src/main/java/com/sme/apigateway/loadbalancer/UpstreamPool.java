@@ -0,0 +1,119 @@
+package com.sme.apigateway.loadbalancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The instances behind one service id. Picks the instance with the fewest in-flight requests,
+ * ejects instances after consecutive failures and ramps recovered or newly added instances back
+ * in over a slow-start window.
+ */
+public class UpstreamPool {
+
+    private final String serviceId;
+    private final LoadBalancerSettings settings;
+    private final AtomicInteger offset = new AtomicInteger();
+
+    private volatile List<UpstreamInstance> instances = Collections.emptyList();
+
+    UpstreamPool(String serviceId, LoadBalancerSettings settings) {
+        this.serviceId = serviceId;
+        this.settings = settings;
+    }
+
+    public String getServiceId() { return serviceId; }
+    public List<UpstreamInstance> getInstances() { return instances; }
+
+    /** Replaces the member list, keeping the health state of instances that are still present. */
+    synchronized void update(List<URI> uris) {
+        long now = System.currentTimeMillis();
+        Map<URI, UpstreamInstance> current = new LinkedHashMap<>();
+        for (UpstreamInstance instance : instances) {
+            current.put(instance.getUri(), instance);
+        }
+        List<UpstreamInstance> updated = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            UpstreamInstance existing = current.get(uri);
+            updated.add(existing != null ? existing : new UpstreamInstance(uri, instances.isEmpty() ? 0 : now));
+        }
+        instances = Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Chooses an instance and counts the request as in flight on it. The caller must
+     * {@link #release} the instance once the request completes.
+     *
+     * @return the chosen instance, or null if the pool is empty
+     */
+    public UpstreamInstance choose() {
+        List<UpstreamInstance> candidates = instances;
+        int size = candidates.size();
+        if (size == 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        // Rotate the starting point so ties do not always land on the first instance
+        int start = (offset.getAndIncrement() & 0x7fffffff) % size;
+        UpstreamInstance best = null;
+        double bestScore = Double.MAX_VALUE;
+        UpstreamInstance soonestBack = null;
+        for (int i = 0; i < size; i++) {
+            UpstreamInstance instance = candidates.get((start + i) % size);
+            if (instance.isEjected(now)) {
+                if (soonestBack == null || instance.ejectedUntilMillis < soonestBack.ejectedUntilMillis) {
+                    soonestBack = instance;
+                }
+                continue;
+            }
+            double score = (instance.getInFlight() + 1) / weight(instance, now);
+            if (score < bestScore) {
+                bestScore = score;
+                best = instance;
+            }
+        }
+        // Every instance ejected: keep serving from the one due back first rather than failing outright
+        UpstreamInstance chosen = best != null ? best : soonestBack;
+        chosen.acquire();
+        return chosen;
+    }
+
+    public void release(UpstreamInstance instance, boolean success) {
+        instance.release();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (success) {
+                instance.consecutiveFailures = 0;
+                if (!instance.isEjected(now) && instance.ejectedUntilMillis != 0) {
+                    instance.ejections = 0;
+                    instance.ejectedUntilMillis = 0;
+                }
+                return;
+            }
+            if (++instance.consecutiveFailures < settings.getFailureThreshold() || instance.isEjected(now)) {
+                return;
+            }
+            // Back off exponentially on repeated ejections, capped at the max ejection time
+            long ejection = Math.min(settings.getMaxEjectionMillis(),
+                    settings.getBaseEjectionMillis() << Math.min(instance.ejections, 16));
+            instance.ejections++;
+            instance.consecutiveFailures = 0;
+            instance.ejectedUntilMillis = now + ejection;
+            instance.warmingSinceMillis = instance.ejectedUntilMillis;
+        }
+    }
+
+    /** Linear slow-start ramp from 10% to full weight after joining or returning from ejection. */
+    private double weight(UpstreamInstance instance, long now) {
+        long slowStart = settings.getSlowStartMillis();
+        long age = now - instance.warmingSinceMillis;
+        if (slowStart <= 0 || age >= slowStart) {
+            return 1.0;
+        }
+        return 0.1 + 0.9 * Math.max(0, age) / slowStart;
+    }
+}
@@ -0,0 +1,134 @@
+package com.sme.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service id to instance pool mapping. Pools come from the static {@code upstream.pools.<service-id>}
+ * properties and, optionally, a properties-format registry file ({@code service-id=url,url}) that is
+ * re-read whenever it changes on disk. File entries override the static list for the same service.
+ */
+@Component
+public class UpstreamRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRegistry.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private LoadBalancerSettings settings;
+
+    @Value("${upstream.registry-file:}")
+    private String registryFile;
+
+    @Value("${upstream.registry-refresh-ms:5000}")
+    private long refreshMillis;
+
+    private final Map<String, UpstreamPool> pools = new ConcurrentHashMap<>();
+    private Map<String, String> staticPools = Collections.emptyMap();
+    private volatile long nextCheckMillis;
+    private volatile long registryModifiedMillis = -1;
+
+    @PostConstruct
+    public void init() {
+        staticPools = Binder.get(environment)
+                .bind("upstream.pools", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap());
+        apply(Collections.emptyMap());
+        refreshIfChanged(System.currentTimeMillis());
+    }
+
+    /** Returns the pool for the service id, or null if no instances are registered for it. */
+    public UpstreamPool getPool(String serviceId) {
+        long now = System.currentTimeMillis();
+        if (now >= nextCheckMillis) {
+            refreshIfChanged(now);
+        }
+        return pools.get(serviceId);
+    }
+
+    public Collection<UpstreamPool> getPools() {
+        return pools.values();
+    }
+
+    private synchronized void refreshIfChanged(long now) {
+        if (now < nextCheckMillis) {
+            return;
+        }
+        nextCheckMillis = now + refreshMillis;
+        if (registryFile == null || registryFile.trim().isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(registryFile);
+        try {
+            long modified = Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0;
+            if (modified == registryModifiedMillis) {
+                return;
+            }
+            Map<String, String> fromFile = new HashMap<>();
+            if (modified != 0) {
+                Properties properties = new Properties();
+                try (Reader reader = Files.newBufferedReader(path)) {
+                    properties.load(reader);
+                }
+                for (String name : properties.stringPropertyNames()) {
+                    fromFile.put(name, properties.getProperty(name));
+                }
+            }
+            apply(fromFile);
+            registryModifiedMillis = modified;
+            logger.info("Loaded upstream registry {} ({} services)", path, fromFile.size());
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep serving from the last good registry
+            logger.warn("Cannot read upstream registry {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void apply(Map<String, String> fromFile) {
+        Map<String, String> merged = new HashMap<>(staticPools);
+        merged.putAll(fromFile);
+        // Parse everything before touching the live pools so a bad entry leaves them unchanged
+        Map<String, List<URI>> parsed = new HashMap<>();
+        for (Map.Entry<String, String> entry : merged.entrySet()) {
+            parsed.put(entry.getKey(), parse(entry.getValue()));
+        }
+        for (Map.Entry<String, List<URI>> entry : parsed.entrySet()) {
+            pools.computeIfAbsent(entry.getKey(), id -> new UpstreamPool(id, settings)).update(entry.getValue());
+        }
+        pools.keySet().retainAll(merged.keySet());
+    }
+
+    private static List<URI> parse(String spec) {
+        List<URI> uris = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                uris.add(URI.create(trimmed));
+            }
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sme.apigateway.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency per route and status, time to first response byte per route, in-flight gauges
+ * per route, and connect times and errors per upstream address.
+ */
+@Component
+public class GatewayMetrics {
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Map<String, LatencyHistogram>> latency = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> firstByte = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> connect = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> upstreamErrors = new ConcurrentHashMap<>();
+
+    public void requestStarted(String route) {
+        inFlight.computeIfAbsent(route, r -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void requestFinished(String route, String status, long nanos) {
+        inFlight.get(route).decrementAndGet();
+        latency.computeIfAbsent(route, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, s -> new LatencyHistogram())
+                .record(nanos / 1000);
+    }
+
+    public void recordFirstByte(String route, long nanos) {
+        firstByte.computeIfAbsent(route, r -> new LatencyHistogram()).record(nanos / 1000);
+    }
+
+    public void recordConnect(String upstream, long nanos) {
+        connect.computeIfAbsent(upstream, u -> new LatencyHistogram()).record(nanos / 1000);
+    }
+
+    public void recordUpstreamError(String upstream) {
+        upstreamErrors.computeIfAbsent(upstream, u -> new LongAdder()).increment();
+    }
+
+    /** Writes all series in the Prometheus text exposition format. */
+    public void writePrometheus(PrometheusWriter out) {
+        out.type("gateway_request_duration_seconds", "summary",
+                "Time from receiving a request to completing its response, by route and status");
+        for (Map.Entry<String, Map<String, LatencyHistogram>> route : new TreeMap<>(latency).entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> status : new TreeMap<>(route.getValue()).entrySet()) {
+                out.summary("gateway_request_duration_seconds", status.getValue(),
+                        "route", route.getKey(), "status", status.getKey());
+            }
+        }
+
+        out.type("gateway_upstream_first_byte_seconds", "summary",
+                "Time from receiving a request until the response starts, by route");
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(firstByte).entrySet()) {
+            out.summary("gateway_upstream_first_byte_seconds", e.getValue(), "route", e.getKey());
+        }
+
+        out.type("gateway_requests_in_flight", "gauge", "Requests currently being handled, by route");
+        for (Map.Entry<String, AtomicInteger> e : new TreeMap<>(inFlight).entrySet()) {
+            out.sample("gateway_requests_in_flight", e.getValue().get(), "route", e.getKey());
+        }
+
+        out.type("gateway_upstream_connect_seconds", "summary", "TCP connect time to upstream instances");
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(connect).entrySet()) {
+            out.summary("gateway_upstream_connect_seconds", e.getValue(), "upstream", e.getKey());
+        }
+
+        out.type("gateway_upstream_errors_total", "counter", "Connection and protocol errors talking to upstream instances");
+        for (Map.Entry<String, LongAdder> e : new TreeMap<>(upstreamErrors).entrySet()) {
+            out.sample("gateway_upstream_errors_total", e.getValue().sum(), "upstream", e.getKey());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sme.apigateway.metrics;
+
+/**
+ * Minimal writer for the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    public void type(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /** Writes one sample; {@code labels} alternates label names and values. */
+    public void sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null);
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    /** Writes quantiles, sum and count of a histogram as a summary in seconds. */
+    public void summary(String name, LatencyHistogram histogram, String... labels) {
+        long[] values = histogram.quantiles(GatewayMetrics.QUANTILES);
+        for (int i = 0; i < values.length; i++) {
+            out.append(name);
+            appendLabels(labels, Double.toString(GatewayMetrics.QUANTILES[i]));
+            out.append(' ').append(format(values[i] / 1_000_000d)).append('\n');
+        }
+        out.append(name).append("_sum");
+        appendLabels(labels, null);
+        out.append(' ').append(format(histogram.getSumMicros() / 1_000_000d)).append('\n');
+        out.append(name).append("_count");
+        appendLabels(labels, null);
+        out.append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private void appendLabels(String[] labels, String quantile) {
+        if (labels.length == 0 && quantile == null) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        if (quantile != null) {
+            if (labels.length > 0) {
+                out.append(',');
+            }
+            out.append("quantile=\"").append(quantile).append('"');
+        }
+        out.append('}');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
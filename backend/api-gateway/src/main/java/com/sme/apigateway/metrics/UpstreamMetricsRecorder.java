@@ -0,0 +1,82 @@
+package com.sme.apigateway.metrics;
+
+import reactor.netty.http.client.HttpClientMetricsRecorder;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+
+/**
+ * Feeds connect times and errors from the gateway's Netty HTTP client into {@link GatewayMetrics},
+ * keyed by upstream address. Per-request timings are taken by the metrics filter instead.
+ */
+public class UpstreamMetricsRecorder implements HttpClientMetricsRecorder {
+
+    private final GatewayMetrics metrics;
+
+    public UpstreamMetricsRecorder(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void recordConnectTime(SocketAddress remoteAddress, Duration time, String status) {
+        metrics.recordConnect(name(remoteAddress), time.toNanos());
+        if (!"SUCCESS".equals(status)) {
+            metrics.recordUpstreamError(name(remoteAddress));
+        }
+    }
+
+    @Override
+    public void incrementErrorsCount(SocketAddress remoteAddress) {
+        metrics.recordUpstreamError(name(remoteAddress));
+    }
+
+    @Override
+    public void incrementErrorsCount(SocketAddress remoteAddress, String uri) {
+        metrics.recordUpstreamError(name(remoteAddress));
+    }
+
+    @Override
+    public void recordDataReceivedTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+    }
+
+    @Override
+    public void recordDataSentTime(SocketAddress remoteAddress, String uri, String method, Duration time) {
+    }
+
+    @Override
+    public void recordResponseTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+    }
+
+    @Override
+    public void recordDataReceived(SocketAddress remoteAddress, long bytes) {
+    }
+
+    @Override
+    public void recordDataReceived(SocketAddress remoteAddress, String uri, long bytes) {
+    }
+
+    @Override
+    public void recordDataSent(SocketAddress remoteAddress, long bytes) {
+    }
+
+    @Override
+    public void recordDataSent(SocketAddress remoteAddress, String uri, long bytes) {
+    }
+
+    @Override
+    public void recordTlsHandshakeTime(SocketAddress remoteAddress, Duration time, String status) {
+    }
+
+    @Override
+    public void recordResolveAddressTime(SocketAddress remoteAddress, Duration time, String status) {
+    }
+
+    private static String name(SocketAddress address) {
+        if (address instanceof InetSocketAddress) {
+            InetSocketAddress inet = (InetSocketAddress) address;
+            return inet.getHostString() + ":" + inet.getPort();
+        }
+        return String.valueOf(address);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sme.apigateway.policy;
+
+/**
+ * What a request path requires before it is routed.
+ */
+public enum AccessLevel {
+    /** No token required. */
+    PUBLIC,
+    /** A valid bearer token. */
+    AUTHENTICATED,
+    /** A valid bearer token and a client address on the admin allowlist. */
+    ADMIN
+}
@@ -0,0 +1,255 @@
+package com.sme.apigateway.policy;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Binary prefix trie of IPv4 and IPv6 CIDR ranges. A bare address is a single-host range.
+ * Lookups parse the address text in place (e.g. one entry of an {@code X-Forwarded-For} chain)
+ * and walk at most 32 or 128 nodes without allocating; IPv4-mapped IPv6 addresses are matched
+ * against the IPv4 ranges.
+ */
+final class CidrTrie {
+
+    private static final class Node {
+        Node zero;
+        Node one;
+        boolean terminal;
+    }
+
+    private static final ThreadLocal<int[]> GROUPS = ThreadLocal.withInitial(() -> new int[8]);
+
+    private final Node v4 = new Node();
+    private final Node v6 = new Node();
+    private boolean empty = true;
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /** Adds an address or CIDR range such as {@code 10.0.0.0/8} or {@code fd00::/8}. */
+    void add(String cidr) {
+        String text = cidr.trim();
+        int slash = text.indexOf('/');
+        String address = slash < 0 ? text : text.substring(0, slash);
+        if (!isLiteral(address)) {
+            throw new IllegalArgumentException("Not an IP address or CIDR range: " + cidr);
+        }
+        byte[] bytes;
+        try {
+            bytes = InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an IP address or CIDR range: " + cidr, e);
+        }
+        int bits = bytes.length * 8;
+        int prefix = slash < 0 ? bits : Integer.parseInt(text.substring(slash + 1).trim());
+        if (prefix < 0 || prefix > bits) {
+            throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+        }
+        Node node = bytes.length == 4 ? v4 : v6;
+        for (int i = 0; i < prefix && !node.terminal; i++) {
+            boolean one = (bytes[i >>> 3] & (0x80 >>> (i & 7))) != 0;
+            if (one) {
+                node = node.one != null ? node.one : (node.one = new Node());
+            } else {
+                node = node.zero != null ? node.zero : (node.zero = new Node());
+            }
+        }
+        node.terminal = true;
+        empty = false;
+    }
+
+    boolean contains(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself, which avoids copying the byte array
+            return containsV4(address.hashCode());
+        }
+        if (address instanceof Inet6Address) {
+            byte[] bytes = address.getAddress();
+            long hi = 0;
+            long lo = 0;
+            for (int i = 0; i < 8; i++) {
+                hi = (hi << 8) | (bytes[i] & 0xff);
+                lo = (lo << 8) | (bytes[i + 8] & 0xff);
+            }
+            return containsV6(hi, lo);
+        }
+        return false;
+    }
+
+    /** Matches the address written in {@code text[start, end)}; surrounding spaces, brackets and a port are ignored. */
+    boolean contains(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start < end && text.charAt(start) == '[') {
+            int close = indexOf(text, ']', start, end);
+            if (close < 0) {
+                return false;
+            }
+            return parseV6(text, start + 1, close);
+        }
+        int firstColon = indexOf(text, ':', start, end);
+        if (firstColon < 0) {
+            long v4Address = parseV4(text, start, end);
+            return v4Address >= 0 && containsV4((int) v4Address);
+        }
+        if (indexOf(text, ':', firstColon + 1, end) < 0) {
+            // Exactly one colon: IPv4 with a port
+            long v4Address = parseV4(text, start, firstColon);
+            return v4Address >= 0 && containsV4((int) v4Address);
+        }
+        return parseV6(text, start, end);
+    }
+
+    private boolean containsV4(int address) {
+        Node node = v4;
+        for (int i = 0; node != null; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == 32) {
+                return false;
+            }
+            node = ((address >>> (31 - i)) & 1) != 0 ? node.one : node.zero;
+        }
+        return false;
+    }
+
+    private boolean containsV6(long hi, long lo) {
+        if (hi == 0 && (lo >>> 32) == 0xffffL) {
+            return containsV4((int) lo);
+        }
+        Node node = v6;
+        for (int i = 0; node != null; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == 128) {
+                return false;
+            }
+            long word = i < 64 ? hi : lo;
+            node = ((word >>> (63 - (i & 63))) & 1) != 0 ? node.one : node.zero;
+        }
+        return false;
+    }
+
+    /** Returns the address as an unsigned int in a long, or -1 if the text is not dotted IPv4. */
+    private static long parseV4(CharSequence text, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (value < 0 || octets == 4) {
+                    return -1;
+                }
+                address = (address << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    private boolean parseV6(CharSequence text, int start, int end) {
+        int zone = indexOf(text, '%', start, end);
+        if (zone >= 0) {
+            end = zone;
+        }
+        int[] groups = GROUPS.get();
+        int count = 0;
+        int gap = -1;
+        int i = start;
+        if (end - start >= 2 && text.charAt(start) == ':' && text.charAt(start + 1) == ':') {
+            gap = 0;
+            i = start + 2;
+        }
+        while (i < end) {
+            int groupEnd = indexOf(text, ':', i, end);
+            if (groupEnd < 0) {
+                groupEnd = end;
+            }
+            if (indexOf(text, '.', i, groupEnd) >= 0) {
+                // Embedded IPv4 tail, e.g. ::ffff:10.0.0.1
+                long tail = parseV4(text, i, groupEnd);
+                if (tail < 0 || groupEnd != end || count > 6) {
+                    return false;
+                }
+                groups[count++] = (int) (tail >>> 16);
+                groups[count++] = (int) (tail & 0xffff);
+                break;
+            }
+            int value = 0;
+            int digits = groupEnd - i;
+            if (digits == 0 || digits > 4 || count == 8) {
+                return false;
+            }
+            for (int j = i; j < groupEnd; j++) {
+                int digit = Character.digit(text.charAt(j), 16);
+                if (digit < 0) {
+                    return false;
+                }
+                value = (value << 4) | digit;
+            }
+            groups[count++] = value;
+            i = groupEnd + 1;
+            if (groupEnd < end - 1 && text.charAt(groupEnd + 1) == ':') {
+                if (gap >= 0) {
+                    return false;
+                }
+                gap = count;
+                i = groupEnd + 2;
+            } else if (groupEnd == end - 1) {
+                return false;
+            }
+        }
+        if (gap < 0 ? count != 8 : count > 7) {
+            return false;
+        }
+        long hi = 0;
+        long lo = 0;
+        int missing = 8 - count;
+        for (int g = 0, src = 0; g < 8; g++) {
+            int value = gap >= 0 && g >= gap && g < gap + missing ? 0 : groups[src++];
+            if (g < 4) {
+                hi = (hi << 16) | value;
+            } else {
+                lo = (lo << 16) | value;
+            }
+        }
+        return containsV6(hi, lo);
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLiteral(String address) {
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != '.' && c != ':') {
+                return false;
+            }
+        }
+        return !address.isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package com.sme.apigateway.policy;
+
+/**
+ * Segment trie of path patterns. Patterns use {@code /} separated literals, {@code *} for exactly
+ * one segment and a trailing {@code **} for any remainder, including none. When several patterns
+ * match, a literal segment beats {@code *}, which beats {@code **}.
+ *
+ * <p>Built once at startup; {@link #match} walks the path in place and does not allocate.
+ */
+final class PathTrie<V> {
+
+    private static final class Node<V> {
+        String[] keys = new String[0];
+        Node<V>[] children = newArray(0);
+        Node<V> single;
+        Node<V> rest;
+        V value;
+    }
+
+    private final Node<V> root = new Node<>();
+
+    void add(String pattern, V value) {
+        Node<V> node = root;
+        String[] segments = pattern.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                }
+                if (node.rest == null) {
+                    node.rest = new Node<>();
+                }
+                node = node.rest;
+            } else if ("*".equals(segment)) {
+                if (node.single == null) {
+                    node.single = new Node<>();
+                }
+                node = node.single;
+            } else {
+                node = literalChild(node, segment);
+            }
+        }
+        node.value = value;
+    }
+
+    /** Returns the value of the most specific pattern matching the path, or null. */
+    V match(String path) {
+        return match(root, path, skipSlashes(path, 0));
+    }
+
+    private V match(Node<V> node, String path, int pos) {
+        int length = path.length();
+        if (pos >= length) {
+            if (node.value != null) {
+                return node.value;
+            }
+            return node.rest != null ? node.rest.value : null;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) {
+            end = length;
+        }
+        int next = skipSlashes(path, end);
+        int segmentLength = end - pos;
+        String[] keys = node.keys;
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key.length() == segmentLength && path.regionMatches(pos, key, 0, segmentLength)) {
+                V value = match(node.children[i], path, next);
+                if (value != null) {
+                    return value;
+                }
+                break;
+            }
+        }
+        if (node.single != null) {
+            V value = match(node.single, path, next);
+            if (value != null) {
+                return value;
+            }
+        }
+        return node.rest != null ? node.rest.value : null;
+    }
+
+    private static int skipSlashes(String path, int pos) {
+        while (pos < path.length() && path.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static <V> Node<V> literalChild(Node<V> node, String segment) {
+        for (int i = 0; i < node.keys.length; i++) {
+            if (node.keys[i].equals(segment)) {
+                return node.children[i];
+            }
+        }
+        int n = node.keys.length;
+        String[] keys = new String[n + 1];
+        Node<V>[] children = newArray(n + 1);
+        System.arraycopy(node.keys, 0, keys, 0, n);
+        System.arraycopy(node.children, 0, children, 0, n);
+        keys[n] = segment;
+        children[n] = new Node<>();
+        node.keys = keys;
+        node.children = children;
+        return children[n];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newArray(int size) {
+        return (Node<V>[]) new Node[size];
+    }
+}
@@ -0,0 +1,167 @@
+package com.sme.apigateway.policy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Access policy compiled once at startup: a path trie classifying every request path as public,
+ * authenticated or admin, and CIDR tries for the admin allowlist and for the proxies whose
+ * {@code X-Forwarded-For} entries are trusted. Paths that match no pattern require authentication.
+ * Patterns are matched against the path as routing sees it (see {@link #normalize}), never the raw
+ * request path, so an encoded or dotted spelling of an admin path is still classified as admin.
+ */
+@Component
+public class RoutePolicy {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    @Value("${policy.public-paths:/api/auth/**}")
+    private String publicPaths;
+
+    @Value("${policy.admin-paths:/api/users/**,/api/companies/**}")
+    private String adminPaths;
+
+    @Value("${policy.admin-allowlist:${admin.ip.whitelist:127.0.0.1,::1}}")
+    private String adminAllowlist;
+
+    @Value("${policy.trusted-proxies:}")
+    private String trustedProxies;
+
+    @Value("${policy.operator-paths:/gateway/**}")
+    private String operatorPaths;
+
+    @Value("${policy.operator-roles:ROLE_SUPER_ADMIN,SUPER_ADMIN}")
+    private String operatorRoles;
+
+    private final PathTrie<AccessLevel> paths = new PathTrie<>();
+    private final PathTrie<Boolean> operatorEndpoints = new PathTrie<>();
+    private final Set<String> operatorRoleNames = new HashSet<>();
+    private final CidrTrie adminRanges = new CidrTrie();
+    private final CidrTrie proxyRanges = new CidrTrie();
+
+    @PostConstruct
+    public void init() {
+        paths.add("/**", AccessLevel.AUTHENTICATED);
+        for (String pattern : split(adminPaths)) {
+            paths.add(pattern, AccessLevel.ADMIN);
+        }
+        for (String pattern : split(publicPaths)) {
+            paths.add(pattern, AccessLevel.PUBLIC);
+        }
+        for (String range : split(adminAllowlist)) {
+            adminRanges.add(range);
+        }
+        for (String range : split(trustedProxies)) {
+            proxyRanges.add(range);
+        }
+        for (String pattern : split(operatorPaths)) {
+            operatorEndpoints.add(pattern, Boolean.TRUE);
+        }
+        operatorRoleNames.addAll(Arrays.asList(split(operatorRoles)));
+    }
+
+    /** Classifies a path already passed through {@link #normalize}. */
+    public AccessLevel classify(String path) {
+        return paths.match(path);
+    }
+
+    /**
+     * The path routing matches for a raw (percent-encoded) request path: matrix parameters are
+     * dropped from each segment, segments are decoded and dot segments are resolved. Returns null
+     * when the path is not validly encoded.
+     */
+    public static String normalize(String rawPath) {
+        StringBuilder path = new StringBuilder(rawPath.length());
+        int start = 0;
+        while (start <= rawPath.length()) {
+            int end = rawPath.indexOf('/', start);
+            if (end < 0) {
+                end = rawPath.length();
+            }
+            int params = rawPath.indexOf(';', start);
+            String segment = rawPath.substring(start, params >= 0 && params < end ? params : end);
+            try {
+                path.append(UriUtils.decode(segment, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (end < rawPath.length()) {
+                path.append('/');
+            }
+            start = end + 1;
+        }
+        return StringUtils.cleanPath(path.toString());
+    }
+
+    /**
+     * Whether the request may reach an admin path. The client is the connecting peer unless that
+     * peer is a trusted proxy, in which case {@code X-Forwarded-For} is walked from the right,
+     * skipping trusted proxies, and the first untrusted entry is the client.
+     */
+    public boolean isAdminClient(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        InetAddress peer = remote != null ? remote.getAddress() : null;
+        if (peer == null) {
+            return false;
+        }
+        if (proxyRanges.isEmpty() || !proxyRanges.contains(peer)) {
+            return adminRanges.contains(peer);
+        }
+        List<String> forwarded = request.getHeaders().get(FORWARDED_FOR);
+        if (forwarded == null || forwarded.isEmpty()) {
+            return adminRanges.contains(peer);
+        }
+        for (int h = forwarded.size() - 1; h >= 0; h--) {
+            String header = forwarded.get(h);
+            int end = header.length();
+            while (end > 0) {
+                int start = header.lastIndexOf(',', end - 1) + 1;
+                boolean leftmost = h == 0 && start == 0;
+                if (leftmost || !proxyRanges.contains(header, start, end)) {
+                    return adminRanges.contains(header, start, end);
+                }
+                end = start - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a normalized path is one of the gateway's own operational endpoints (stats, metrics).
+     * They report on every tenant, so they need an operator role on top of the admin allowlist.
+     */
+    public boolean isOperatorPath(String path) {
+        return operatorEndpoints.match(path) != null;
+    }
+
+    public boolean hasOperatorRole(List<String> roles) {
+        for (String role : roles) {
+            if (operatorRoleNames.contains(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether a request to this normalized path from this client passes the admin allowlist, if the path needs it. */
+    public boolean isAllowed(ServerHttpRequest request, String path) {
+        return classify(path) != AccessLevel.ADMIN || isAdminClient(request);
+    }
+
+    private static String[] split(String spec) {
+        String trimmed = spec.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s*,\\s*");
+    }
+}
@@ -0,0 +1,45 @@
+package com.sme.apigateway.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token bucket budget for one subscription plan: a sustained request rate plus a burst allowance.
+ */
+public final class PlanBudget {
+
+    private final String plan;
+    private final double requestsPerSecond;
+    private final double burst;
+
+    public PlanBudget(String plan, double requestsPerSecond, double burst) {
+        this.plan = plan;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+    }
+
+    public String getPlan() { return plan; }
+    public double getRequestsPerSecond() { return requestsPerSecond; }
+    public double getBurst() { return burst; }
+
+    /**
+     * Parses {@code PLAN:requestsPerSecond:burst} entries separated by commas,
+     * e.g. {@code BASIC:20:40,PRO:100:200}.
+     */
+    public static Map<String, PlanBudget> parse(String spec) {
+        Map<String, PlanBudget> budgets = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit plan entry: " + trimmed);
+            }
+            String plan = parts[0].trim().toUpperCase();
+            budgets.put(plan, new PlanBudget(plan, Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim())));
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sme.apigateway.ratelimit;
+
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.shared.InternalIdentityCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a tenant's subscription plan from company-service and caches it. Lookups never block
+ * the request path: until a tenant's plan is known its requests are budgeted as the default plan.
+ */
+@Component
+public class TenantPlanResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantPlanResolver.class);
+    private static final long RETRY_AFTER_FAILURE_MS = 60_000;
+
+    @Autowired
+    private InternalIdentityCodec identityCodec;
+
+    @Value("${ratelimit.plans:BASIC:20:40,STANDARD:50:100,PROFESSIONAL:50:100,PREMIUM:100:200,PRO:100:200}")
+    private String planSpec;
+
+    @Value("${ratelimit.default-plan:BASIC}")
+    private String defaultPlan;
+
+    @Value("${ratelimit.plan-lookup.uri:http://localhost:8082}")
+    private String companyServiceUri;
+
+    @Value("${ratelimit.plan-lookup.ttl-ms:600000}")
+    private long ttlMillis;
+
+    private Map<String, PlanBudget> budgets;
+    private PlanBudget defaultBudget;
+    private WebClient webClient;
+
+    private final Map<String, CachedPlan> plans = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        budgets = PlanBudget.parse(planSpec);
+        defaultBudget = budgets.get(defaultPlan.toUpperCase());
+        if (defaultBudget == null) {
+            throw new IllegalStateException("No rate limit budget configured for default plan " + defaultPlan);
+        }
+        webClient = WebClient.builder().baseUrl(companyServiceUri).build();
+    }
+
+    public PlanBudget budgetFor(JwtClaims claims) {
+        String companyId = claims.getCompanyId();
+        long now = System.currentTimeMillis();
+        CachedPlan cached = plans.get(companyId);
+        if (cached == null || (cached.expiresAtMillis <= now && !cached.refreshing)) {
+            CachedPlan pending = new CachedPlan(cached != null ? cached.budget : defaultBudget, Long.MAX_VALUE, true);
+            boolean claimed = cached == null
+                    ? plans.putIfAbsent(companyId, pending) == null
+                    : plans.replace(companyId, cached, pending);
+            if (claimed) {
+                lookup(claims);
+            }
+            return pending.budget;
+        }
+        return cached.budget;
+    }
+
+    private void lookup(JwtClaims claims) {
+        String companyId = claims.getCompanyId();
+        String identity = identityCodec.encode(claims.getUserId(), claims.getUsername(), companyId,
+                claims.getEffectiveRoles());
+        webClient.get()
+                .uri("/api/companies/current")
+                .header(InternalIdentityCodec.HEADER, identity)
+                .header("X-Company-ID", companyId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .defaultIfEmpty(Collections.emptyMap())
+                .timeout(Duration.ofSeconds(5))
+                .subscribe(company -> {
+                    Object plan = company.get("subscriptionPlan") != null ? company.get("subscriptionPlan") : company.get("plan");
+                    PlanBudget budget = plan != null ? budgets.get(plan.toString().toUpperCase()) : null;
+                    plans.put(companyId, new CachedPlan(budget != null ? budget : defaultBudget,
+                            System.currentTimeMillis() + ttlMillis, false));
+                }, error -> {
+                    logger.warn("Cannot resolve plan for company {}: {}", companyId, error.getMessage());
+                    plans.put(companyId, new CachedPlan(defaultBudget,
+                            System.currentTimeMillis() + RETRY_AFTER_FAILURE_MS, false));
+                });
+    }
+
+    private static final class CachedPlan {
+        final PlanBudget budget;
+        final long expiresAtMillis;
+        final boolean refreshing;
+
+        CachedPlan(PlanBudget budget, long expiresAtMillis, boolean refreshing) {
+            this.budget = budget;
+            this.expiresAtMillis = expiresAtMillis;
+            this.refreshing = refreshing;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.sme.apigateway.ratelimit;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token bucket per tenant. Buckets are spread over a fixed number of lock stripes so
+ * tenants hashing to different stripes never contend with each other.
+ */
+@Component
+public class TenantRateLimiter {
+
+    private static final int STRIPES = 64;
+    private static final int SWEEP_EVERY = 4096;
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public TenantRateLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one token from the tenant's bucket.
+     *
+     * @return 0 if the request is admitted, otherwise the number of seconds until a token is available
+     */
+    public long tryAcquire(String tenantId, PlanBudget budget) {
+        Stripe stripe = stripes[(tenantId.hashCode() & 0x7fffffff) % STRIPES];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            if (++stripe.operations % SWEEP_EVERY == 0) {
+                stripe.evictIdle(now);
+            }
+            Bucket bucket = stripe.buckets.get(tenantId);
+            if (bucket == null) {
+                bucket = new Bucket(budget, now);
+                stripe.buckets.put(tenantId, bucket);
+            } else if (bucket.budget != budget) {
+                // Plan changed since the bucket was created: keep the tokens but apply the new limits
+                bucket.budget = budget;
+                bucket.tokens = Math.min(bucket.tokens, budget.getBurst());
+            }
+            bucket.refill(now);
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                bucket.admitted++;
+                return 0;
+            }
+            bucket.rejected++;
+            double missing = 1.0 - bucket.tokens;
+            return Math.max(1L, (long) Math.ceil(missing / budget.getRequestsPerSecond()));
+        }
+    }
+
+    /** Snapshot of per-tenant plan, admit and reject counters. */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<String, Bucket> e : stripe.buckets.entrySet()) {
+                    Bucket b = e.getValue();
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("plan", b.budget.getPlan());
+                    stats.put("admitted", b.admitted);
+                    stats.put("rejected", b.rejected);
+                    stats.put("tokens", Math.floor(b.tokens));
+                    result.put(e.getKey(), stats);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Stripe {
+        final Map<String, Bucket> buckets = new HashMap<>();
+        long operations;
+
+        void evictIdle(long now) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().lastRefillNanos > IDLE_EVICT_NANOS) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        PlanBudget budget;
+        double tokens;
+        long lastRefillNanos;
+        long admitted;
+        long rejected;
+
+        Bucket(PlanBudget budget, long now) {
+            this.budget = budget;
+            this.tokens = budget.getBurst();
+            this.lastRefillNanos = now;
+        }
+
+        void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(budget.getBurst(), tokens + elapsed * budget.getRequestsPerSecond() / 1_000_000_000d);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.sme.apigateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit. The limit grows by one per window of successful calls while the route
+ * is actually using its capacity, and shrinks multiplicatively on every failed or slow call.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final ResilienceSettings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    AdaptiveConcurrencyLimit(ResilienceSettings settings) {
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+
+    /** Reserves a slot, or returns false if the route is at its limit. */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a slot without feeding the outcome back, e.g. when the client went away. */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void onSample(boolean success) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (!success) {
+                limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            } else if (inFlightAtCompletion * 2 >= limit) {
+                // Only probe upwards when demand is close to the limit, otherwise it drifts up unused
+                limit = Math.min(settings.getMaxLimit(), limit + 1.0 / limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.sme.apigateway.resilience;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last {@code window} calls reaches
+ * the threshold, fails fast while open, then lets a few trial calls through before closing again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ResilienceSettings settings;
+    private final boolean[] outcomes;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int position;
+    private int failures;
+    private long openedAtMillis;
+    private long halfOpenedAtMillis;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(ResilienceSettings settings) {
+        this.settings = settings;
+        this.outcomes = new boolean[Math.max(1, settings.getBreakerWindow())];
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Returns true if a call may proceed; in half-open state only a limited number of trials do. */
+    synchronized boolean tryPass(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAtMillis < settings.getBreakerOpenMillis()) {
+                return false;
+            }
+            halfOpen(now);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= settings.getHalfOpenCalls()) {
+                // Trials that never report back (cancelled by the client) must not pin the breaker
+                if (now - halfOpenedAtMillis < settings.getBreakerOpenMillis()) {
+                    return false;
+                }
+                halfOpen(now);
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /** Returns the remaining open time in milliseconds, for Retry-After. */
+    synchronized long remainingOpenMillis(long now) {
+        return state == State.OPEN ? Math.max(0, settings.getBreakerOpenMillis() - (now - openedAtMillis)) : 0;
+    }
+
+    synchronized void onResult(boolean success, long now) {
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                open(now);
+            } else if (++trialsSucceeded >= settings.getHalfOpenCalls()) {
+                reset();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (recorded == outcomes.length) {
+            if (!outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = success;
+        if (!success) {
+            failures++;
+        }
+        position = (position + 1) % outcomes.length;
+        if (recorded == outcomes.length && failures >= settings.getBreakerFailureRate() * outcomes.length) {
+            open(now);
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAtMillis = now;
+    }
+
+    private void halfOpen(long now) {
+        state = State.HALF_OPEN;
+        halfOpenedAtMillis = now;
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        recorded = 0;
+        position = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sme.apigateway.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Concurrency limit and circuit breaker tuning applied to every route.
+ */
+@Component
+public class ResilienceSettings {
+
+    @Value("${resilience.concurrency.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${resilience.concurrency.min-limit:2}")
+    private int minLimit;
+
+    @Value("${resilience.concurrency.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${resilience.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${resilience.slow-call-ms:2000}")
+    private long slowCallMillis;
+
+    @Value("${resilience.breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${resilience.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${resilience.breaker.open-ms:10000}")
+    private long breakerOpenMillis;
+
+    @Value("${resilience.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    public int getInitialLimit() { return initialLimit; }
+    public int getMinLimit() { return minLimit; }
+    public int getMaxLimit() { return maxLimit; }
+    public double getBackoffRatio() { return backoffRatio; }
+    public long getSlowCallMillis() { return slowCallMillis; }
+    public int getBreakerWindow() { return breakerWindow; }
+    public double getBreakerFailureRate() { return breakerFailureRate; }
+    public long getBreakerOpenMillis() { return breakerOpenMillis; }
+    public int getHalfOpenCalls() { return halfOpenCalls; }
+}
@@ -0,0 +1,68 @@
+package com.sme.apigateway.resilience;
+
+import org.springframework.http.HttpStatusCode;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit and circuit breaker for one route, plus counters of calls shed by each.
+ */
+public class RouteGuard {
+
+    /** Why a call was not admitted. */
+    public enum Rejection { NONE, CONCURRENCY_LIMIT, CIRCUIT_OPEN }
+
+    private final ResilienceSettings settings;
+    private final AdaptiveConcurrencyLimit limit;
+    private final CircuitBreaker breaker;
+    private final LongAdder limitRejections = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+
+    RouteGuard(ResilienceSettings settings) {
+        this.settings = settings;
+        this.limit = new AdaptiveConcurrencyLimit(settings);
+        this.breaker = new CircuitBreaker(settings);
+    }
+
+    public AdaptiveConcurrencyLimit getLimit() { return limit; }
+    public CircuitBreaker getBreaker() { return breaker; }
+    public long getLimitRejections() { return limitRejections.sum(); }
+    public long getBreakerRejections() { return breakerRejections.sum(); }
+
+    /** Admits the call or says why not. An admitted call must end with {@link #complete} or {@link #cancel}. */
+    public Rejection tryAdmit(long nowMillis) {
+        if (!limit.tryAcquire()) {
+            limitRejections.increment();
+            return Rejection.CONCURRENCY_LIMIT;
+        }
+        if (!breaker.tryPass(nowMillis)) {
+            limit.release();
+            breakerRejections.increment();
+            return Rejection.CIRCUIT_OPEN;
+        }
+        return Rejection.NONE;
+    }
+
+    /**
+     * Completes an admitted call that produced a response. 502, 503 and 504 from upstream and
+     * calls slower than the slow-call threshold count as failures.
+     */
+    public void complete(HttpStatusCode status, long startNanos) {
+        boolean success = (System.nanoTime() - startNanos) / 1_000_000 < settings.getSlowCallMillis()
+                && (status == null || (status.value() != 502 && status.value() != 503 && status.value() != 504));
+        complete(success, System.currentTimeMillis());
+    }
+
+    public void complete(boolean success, long nowMillis) {
+        limit.onSample(success);
+        breaker.onResult(success, nowMillis);
+    }
+
+    public void cancel() {
+        limit.release();
+    }
+
+    public long retryAfterSeconds(long nowMillis) {
+        return Math.max(1, (breaker.remainingOpenMillis(nowMillis) + 999) / 1000);
+    }
+}
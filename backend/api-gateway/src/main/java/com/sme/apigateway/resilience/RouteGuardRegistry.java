@@ -0,0 +1,41 @@
+package com.sme.apigateway.resilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link RouteGuard} per gateway route id, created on first use.
+ */
+@Component
+public class RouteGuardRegistry {
+
+    @Autowired
+    private ResilienceSettings settings;
+
+    private final Map<String, RouteGuard> guards = new ConcurrentHashMap<>();
+
+    public RouteGuard forRoute(String routeId) {
+        return guards.computeIfAbsent(routeId, id -> new RouteGuard(settings));
+    }
+
+    /** Snapshot of limit, in-flight, breaker state and shed counts per route. */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        for (Map.Entry<String, RouteGuard> e : guards.entrySet()) {
+            RouteGuard guard = e.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", guard.getLimit().getLimit());
+            stats.put("inFlight", guard.getLimit().getInFlight());
+            stats.put("breaker", guard.getBreaker().getState().name());
+            stats.put("limitRejections", guard.getLimitRejections());
+            stats.put("breakerRejections", guard.getBreakerRejections());
+            result.put(e.getKey(), stats);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sme.apigateway.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Claims of a bearer token whose signature and expiry have already been verified.
+ * Instances are immutable so they can be shared between requests through {@link JwtClaimsCache}.
+ */
+public final class JwtClaims {
+
+    /** Exchange attribute under which {@code AuthenticationFilter} stores the caller's claims. */
+    public static final String ATTRIBUTE = JwtClaims.class.getName();
+
+    private final String userId;
+    private final String username;
+    private final String companyId;
+    private final String role;
+    private final List<String> roles;
+    private final long expiresAtMillis;
+
+    public JwtClaims(String userId, String username, String companyId, String role, List<String> roles, long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.companyId = companyId;
+        this.role = role;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.emptyList();
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getCompanyId() { return companyId; }
+    public String getRole() { return role; }
+    public List<String> getRoles() { return roles; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    /** The {@code roles} claim if present, otherwise the single {@code role} claim issued by user-service. */
+    public List<String> getEffectiveRoles() {
+        if (!roles.isEmpty() || role == null) {
+            return roles;
+        }
+        return Collections.singletonList(role);
+    }
+}
@@ -0,0 +1,111 @@
+package com.sme.apigateway.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded TTL cache of verified JWT claims keyed by a SHA-256 digest of the token.
+ * A repeat request with the same bearer token skips signature verification entirely.
+ * Entries never outlive the token's own {@code exp} claim.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${jwt.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Returns the verified claims for the token, verifying the signature only on a cache miss.
+     * Invalid tokens are never cached; the parse exception propagates to the caller.
+     */
+    public JwtClaims resolve(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtMillis > now) {
+                hits.increment();
+                return entry.claims;
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        JwtClaims claims = jwtUtil.parseClaims(token);
+        long expiresAt = Math.min(now + ttlMillis, claims.getExpiresAtMillis());
+        if (expiresAt > now) {
+            if (entries.size() >= maxEntries) {
+                evict(now);
+            }
+            entries.put(key, new Entry(claims, expiresAt));
+        }
+        return claims;
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public int getSize() { return entries.size(); }
+
+    private void evict(long now) {
+        entries.values().removeIf(e -> {
+            if (e.expiresAtMillis <= now) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+        // Still full of live tokens: drop an arbitrary tenth rather than growing past the cap
+        int toDrop = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class Entry {
+        final JwtClaims claims;
+        final long expiresAtMillis;
+
+        Entry(JwtClaims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
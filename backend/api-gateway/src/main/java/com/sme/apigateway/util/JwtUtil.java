@@ -3,6 +3,7 @@ package com.sme.apigateway.util;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -20,9 +22,35 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        // The key and parser are immutable and thread-safe, so build them once instead of per call
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    /**
+     * Verifies the token signature and expiry once and returns all claims the gateway needs.
+     * Throws a {@link JwtException} or {@link IllegalArgumentException} if the token is not valid.
+     */
+    public JwtClaims parseClaims(String token) {
+        Claims body = parser.parseClaimsJws(token).getBody();
+        Date expiration = body.getExpiration();
+        return new JwtClaims(
+                stringClaim(body, "id"),
+                body.getSubject(),
+                stringClaim(body, "companyId"),
+                stringClaim(body, "role"),
+                rolesClaim(body),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -37,37 +65,46 @@ public class JwtUtil {
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public String getUserIdFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().get("id", String.class);
+        return stringClaim(parser.parseClaimsJws(token).getBody(), "id");
     }
 
     public String getCompanyIdFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().get("companyId", String.class);
+        return stringClaim(parser.parseClaimsJws(token).getBody(), "companyId");
     }
 
     public String getRoleFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().get("role", String.class);
+        return stringClaim(parser.parseClaimsJws(token).getBody(), "role");
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
         try {
-            return Jwts.parserBuilder().setSigningKey(key()).build()
-                    .parseClaimsJws(token).getBody().get("roles", List.class);
+            return rolesClaim(parser.parseClaimsJws(token).getBody());
         } catch (Exception e) {
             logger.error("Error getting roles from JWT token: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    // user-service issues companyId as a number, so read claims as objects rather than typed strings
+    private String stringClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value != null ? value.toString() : null;
+    }
+
+    private List<String> rolesClaim(Claims claims) {
+        Object value = claims.get("roles");
+        List<String> roles = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object role : (List<?>) value) {
+                if (role != null) {
+                    roles.add(role.toString());
+                }
+            }
+        }
+        return roles;
     }
-}
\ No newline at end of file
+}
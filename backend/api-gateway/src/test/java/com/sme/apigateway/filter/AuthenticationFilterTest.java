@@ -0,0 +1,80 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.policy.RoutePolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationFilterTest {
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RoutePolicy policy = new RoutePolicy();
+        ReflectionTestUtils.setField(policy, "publicPaths", "/api/auth/**");
+        ReflectionTestUtils.setField(policy, "adminPaths", "/api/users/**,/api/companies/**");
+        ReflectionTestUtils.setField(policy, "adminAllowlist", "127.0.0.1/32");
+        ReflectionTestUtils.setField(policy, "trustedProxies", "");
+        ReflectionTestUtils.setField(policy, "operatorPaths", "/gateway/**");
+        ReflectionTestUtils.setField(policy, "operatorRoles", "ROLE_SUPER_ADMIN");
+        policy.init();
+        AuthenticationFilter factory = new AuthenticationFilter();
+        ReflectionTestUtils.setField(factory, "routePolicy", policy);
+        filter = factory.apply(new AuthenticationFilter.Config());
+    }
+
+    @Test
+    void encodedAdminPathFromOutsideTheAllowlistIsForbidden() {
+        MockServerWebExchange exchange = exchange("/api/%75sers/1", "203.0.113.9");
+        AtomicBoolean routed = new AtomicBoolean();
+
+        filter.filter(exchange, e -> {
+            routed.set(true);
+            return Mono.empty();
+        }).block();
+
+        assertThat(routed).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void matrixParametersDoNotHideAnAdminPath() {
+        MockServerWebExchange exchange = exchange("/api/companies;v=1/current", "203.0.113.9");
+
+        filter.filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void encodedPublicPathSkipsAuthentication() {
+        MockServerWebExchange exchange = exchange("/api/%61uth/login", "203.0.113.9");
+        AtomicBoolean routed = new AtomicBoolean();
+
+        filter.filter(exchange, e -> {
+            routed.set(true);
+            return Mono.empty();
+        }).block();
+
+        assertThat(routed).isTrue();
+    }
+
+    private static MockServerWebExchange exchange(String rawPath, String peer) {
+        // From a URI, since the template builder would encode the '%' again
+        return MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.GET, URI.create(rawPath))
+                .remoteAddress(new InetSocketAddress(peer, 40000)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.sme.apigateway.filter;
+
+import com.sme.apigateway.policy.RoutePolicy;
+import com.sme.apigateway.util.JwtClaims;
+import com.sme.apigateway.util.JwtClaimsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OperatorEndpointFilterTest {
+
+    private static final long EXPIRES = Long.MAX_VALUE;
+
+    private OperatorEndpointFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RoutePolicy policy = new RoutePolicy();
+        ReflectionTestUtils.setField(policy, "publicPaths", "/api/auth/**");
+        ReflectionTestUtils.setField(policy, "adminPaths", "/api/users/**");
+        ReflectionTestUtils.setField(policy, "adminAllowlist", "127.0.0.1/32");
+        ReflectionTestUtils.setField(policy, "trustedProxies", "");
+        ReflectionTestUtils.setField(policy, "operatorPaths", "/gateway/**");
+        ReflectionTestUtils.setField(policy, "operatorRoles", "ROLE_SUPER_ADMIN,SUPER_ADMIN");
+        policy.init();
+
+        JwtClaimsCache claimsCache = mock(JwtClaimsCache.class);
+        when(claimsCache.resolve("operator")).thenReturn(
+                new JwtClaims("1", "ops", "1", "ROLE_SUPER_ADMIN", null, EXPIRES));
+        when(claimsCache.resolve("tenant-admin")).thenReturn(
+                new JwtClaims("2", "owner", "7", null, Collections.singletonList("ROLE_ADMIN"), EXPIRES));
+        when(claimsCache.resolve("bad")).thenThrow(new IllegalArgumentException("Invalid JWT"));
+
+        filter = new OperatorEndpointFilter();
+        ReflectionTestUtils.setField(filter, "routePolicy", policy);
+        ReflectionTestUtils.setField(filter, "claimsCache", claimsCache);
+    }
+
+    @Test
+    void operatorFromAnAllowlistedAddressGetsThrough() {
+        assertThat(run("/gateway/stats/rate-limits", "127.0.0.1", "operator")).isNull();
+    }
+
+    @Test
+    void statsWithoutATokenAreUnauthorized() {
+        assertThat(run("/gateway/stats/rate-limits", "127.0.0.1", null)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(run("/gateway/metrics", "127.0.0.1", "bad")).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void tenantAdminsCannotReadCrossTenantStats() {
+        assertThat(run("/gateway/metrics", "127.0.0.1", "tenant-admin")).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void operatorOutsideTheAllowlistIsForbidden() {
+        assertThat(run("/gateway/stats/upstreams", "203.0.113.9", "operator")).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void otherPathsAreLeftToTheRouteFilters() {
+        assertThat(run("/api/invoices", "203.0.113.9", null)).isNull();
+    }
+
+    /** Runs the filter and returns the status it set, or null if the request was passed on. */
+    private HttpStatus run(String path, String peer, String token) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress(peer, 40000));
+        if (token != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(builder);
+        AtomicBoolean passed = new AtomicBoolean();
+        filter.filter(exchange, e -> {
+            passed.set(true);
+            return Mono.empty();
+        }).block();
+        return passed.get() ? null : (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
@@ -0,0 +1,75 @@
+package com.sme.apigateway.policy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutePolicyTest {
+
+    private RoutePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new RoutePolicy();
+        ReflectionTestUtils.setField(policy, "publicPaths", "/api/auth/**");
+        ReflectionTestUtils.setField(policy, "adminPaths", "/api/users/**,/api/companies/**");
+        ReflectionTestUtils.setField(policy, "adminAllowlist", "127.0.0.1/32,::1/128");
+        ReflectionTestUtils.setField(policy, "trustedProxies", "10.0.0.0/8");
+        ReflectionTestUtils.setField(policy, "operatorPaths", "/gateway/**");
+        ReflectionTestUtils.setField(policy, "operatorRoles", "ROLE_SUPER_ADMIN");
+        policy.init();
+    }
+
+    @Test
+    void classifiesByMostSpecificPattern() {
+        assertThat(policy.classify("/api/auth/login")).isEqualTo(AccessLevel.PUBLIC);
+        assertThat(policy.classify("/api/users")).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify("/api/users/7/roles")).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify("/api/companies/current")).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify("/api/invoices/1")).isEqualTo(AccessLevel.AUTHENTICATED);
+        assertThat(policy.classify("/api/usersx")).isEqualTo(AccessLevel.AUTHENTICATED);
+        assertThat(policy.classify("/")).isEqualTo(AccessLevel.AUTHENTICATED);
+    }
+
+    @Test
+    void normalizesThePathRoutingSees() {
+        assertThat(RoutePolicy.normalize("/api/%75sers/1")).isEqualTo("/api/users/1");
+        assertThat(RoutePolicy.normalize("/api/users;jsessionid=1/2")).isEqualTo("/api/users/2");
+        assertThat(RoutePolicy.normalize("/api/invoices/../users/1")).isEqualTo("/api/users/1");
+        assertThat(RoutePolicy.normalize("/api/./companies")).isEqualTo("/api/companies");
+        assertThat(RoutePolicy.normalize("/api/invoices/%zz")).isNull();
+    }
+
+    @Test
+    void encodedAdminPathsAreStillAdmin() {
+        assertThat(policy.classify(RoutePolicy.normalize("/api/%75sers/1"))).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify(RoutePolicy.normalize("//api//users"))).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify(RoutePolicy.normalize("/api/users;x=1/1"))).isEqualTo(AccessLevel.ADMIN);
+        assertThat(policy.classify(RoutePolicy.normalize("/api/invoices/../companies/1"))).isEqualTo(AccessLevel.ADMIN);
+    }
+
+    @Test
+    void adminClientIsThePeerUnlessItIsATrustedProxy() {
+        assertThat(policy.isAdminClient(request("127.0.0.1", null))).isTrue();
+        assertThat(policy.isAdminClient(request("192.168.1.5", null))).isFalse();
+        // An untrusted peer cannot claim a loopback client
+        assertThat(policy.isAdminClient(request("192.168.1.5", "127.0.0.1"))).isFalse();
+        assertThat(policy.isAdminClient(request("10.1.2.3", "127.0.0.1"))).isTrue();
+        assertThat(policy.isAdminClient(request("10.1.2.3", "127.0.0.1, 192.168.1.5"))).isFalse();
+        assertThat(policy.isAdminClient(request("10.1.2.3", "192.168.1.5, 127.0.0.1, 10.0.0.2"))).isTrue();
+    }
+
+    private static MockServerHttpRequest request(String peer, String forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/api/users")
+                .remoteAddress(new InetSocketAddress(peer, 40000));
+        if (forwardedFor != null) {
+            builder.header("X-Forwarded-For", forwardedFor);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.sme.benchmarks;
+
+import com.sme.apigateway.policy.AccessLevel;
+import com.sme.apigateway.policy.RoutePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route classification as AuthenticationFilter runs it on every request: normalize the raw path,
+ * then look it up in the compiled policy. {@code patterns} grows the admin list to show how each
+ * approach scales with it; {@code stringChecks} is the startsWith/contains chain it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePolicyBenchmark {
+
+    private static final String[] PATHS = {
+            "/api/auth/login",
+            "/api/invoices/1042/pdf",
+            "/api/users/7/roles",
+            "/api/quotes/page",
+            "/api/companies/current",
+            "/api/procurement/purchase-orders/88/approve",
+            "/api/%75sers/7",
+            "/api/timesheets;v=2/entries"
+    };
+
+    @Param({"2", "100"})
+    private int patterns;
+
+    private RoutePolicy policy;
+    private String[] normalized;
+    private List<String> adminPrefixes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder adminPaths = new StringBuilder("/api/users/**,/api/companies/**");
+        adminPrefixes = new ArrayList<>();
+        adminPrefixes.add("/api/users/");
+        adminPrefixes.add("/api/companies/");
+        for (int i = 2; i < patterns; i++) {
+            adminPaths.append(",/api/admin-").append(i).append("/**");
+            adminPrefixes.add("/api/admin-" + i + "/");
+        }
+        policy = new RoutePolicy();
+        ReflectionTestUtils.setField(policy, "publicPaths", "/api/auth/**");
+        ReflectionTestUtils.setField(policy, "adminPaths", adminPaths.toString());
+        ReflectionTestUtils.setField(policy, "adminAllowlist", "127.0.0.1/32,::1/128");
+        ReflectionTestUtils.setField(policy, "trustedProxies", "10.0.0.0/8");
+        ReflectionTestUtils.setField(policy, "operatorPaths", "/gateway/**");
+        ReflectionTestUtils.setField(policy, "operatorRoles", "ROLE_SUPER_ADMIN");
+        policy.init();
+        normalized = new String[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            normalized[i] = RoutePolicy.normalize(PATHS[i]);
+        }
+    }
+
+    @Benchmark
+    public void classify(Blackhole bh) {
+        for (String path : normalized) {
+            bh.consume(policy.classify(path));
+        }
+    }
+
+    @Benchmark
+    public void normalizeAndClassify(Blackhole bh) {
+        for (String path : PATHS) {
+            bh.consume(policy.classify(RoutePolicy.normalize(path)));
+        }
+    }
+
+    @Benchmark
+    public void stringChecks(Blackhole bh) {
+        for (String path : normalized) {
+            bh.consume(classifyByPrefix(path));
+        }
+    }
+
+    private AccessLevel classifyByPrefix(String path) {
+        for (String prefix : adminPrefixes) {
+            if (path.startsWith(prefix)) {
+                return AccessLevel.ADMIN;
+            }
+        }
+        return path.contains("/api/auth/") ? AccessLevel.PUBLIC : AccessLevel.AUTHENTICATED;
+    }
+}
@@ -1,5 +1,7 @@
 package com.sme.companyservice.security.jwt;
 
+import com.sme.shared.InternalIdentity;
+import com.sme.shared.InternalIdentityCodec;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,33 +24,40 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private InternalIdentityCodec identityCodec;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                String userId = jwtUtils.getUserIdFromJwtToken(jwt);
-                String companyId = jwtUtils.getCompanyIdFromJwtToken(jwt);
-                List<String> roles = jwtUtils.getRolesFromJwtToken(jwt);
-
-                List<SimpleGrantedAuthority> authorities = roles.stream()
+            // Requests routed through the gateway carry a signed identity header, which is far
+            // cheaper to verify than the JWT. Fall back to the bearer token for direct calls.
+            InternalIdentity identity = identityCodec.decode(request.getHeader(InternalIdentityCodec.HEADER));
+            if (identity != null) {
+                List<SimpleGrantedAuthority> authorities = identity.getRoles().stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
+                UserDetailsImpl userDetails = new UserDetailsImpl(identity.getUserId(), identity.getUsername(),
+                        identity.getCompanyId(), authorities);
+                setAuthentication(request, userDetails, authorities);
+            } else {
+                String jwt = parseJwt(request);
+                if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                    String userId = jwtUtils.getUserIdFromJwtToken(jwt);
+                    String companyId = jwtUtils.getCompanyIdFromJwtToken(jwt);
+                    List<String> roles = jwtUtils.getRolesFromJwtToken(jwt);
 
-                UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, companyId, authorities);
-                
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    List<SimpleGrantedAuthority> authorities = roles.stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .collect(Collectors.toList());
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, companyId, authorities);
+                    setAuthentication(request, userDetails, authorities);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -57,6 +66,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void setAuthentication(HttpServletRequest request, UserDetailsImpl userDetails,
+                                   List<SimpleGrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        authorities);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
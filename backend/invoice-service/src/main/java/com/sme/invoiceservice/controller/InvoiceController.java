@@ -1,20 +1,39 @@
 package com.sme.invoiceservice.controller;
 
+import com.sme.invoiceservice.model.AgingReport;
+import com.sme.invoiceservice.model.FxRate;
+import com.sme.invoiceservice.model.GstReport;
 import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.invoiceservice.model.RecurringRun;
+import com.sme.invoiceservice.model.BulkExportRequest;
+import com.sme.invoiceservice.model.ExportProgress;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CompanyContext;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import com.sme.invoiceservice.service.InvoiceService;
 import com.sme.invoiceservice.model.ApiResponse;
-import com.sme.invoiceservice.model.ApprovalLog;
-import com.sme.invoiceservice.model.AuditTrailLog;
-import com.sme.invoiceservice.model.StatusHistoryLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import com.sme.invoiceservice.security.UserDetailsImpl;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/invoices")
@@ -27,6 +46,52 @@ public class InvoiceController {
         return new ApiResponse<>(true, "Fetched invoices", invoiceService.getAllInvoicesForCurrentTenant());
     }
 
+    @GetMapping("/page")
+    public ApiResponse<CursorPage<InvoiceSummary>> getInvoicePage(@RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) String count) {
+        return new ApiResponse<>(true, "Fetched invoices",
+                invoiceService.getInvoicePage(cursor, limit, status, from, to, client, CountMode.parse(count)));
+    }
+
+    // q: words to match; word* matches by prefix and word~ tolerates a typo
+    @GetMapping("/search")
+    public ApiResponse<SearchResult> searchInvoices(@RequestParam String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return new ApiResponse<>(true, "Searched invoices", invoiceService.searchInvoices(q, status, limit));
+    }
+
+    // Plain values: company-service's InvoiceServiceClient reads these directly
+    @GetMapping("/count")
+    public Integer countInvoices(@RequestHeader(value = "X-Company-ID", required = false) Long companyId) {
+        return Math.toIntExact(invoiceService.countInvoices(companyId != null ? companyId : CompanyContext.getCompanyId()));
+    }
+
+    // In SGD; X-Unconverted-Invoices counts foreign-currency invoices left out for want of a rate
+    @GetMapping("/revenue")
+    public ResponseEntity<Double> getRevenue(@RequestHeader(value = "X-Company-ID", required = false) Long companyId) {
+        Long company = companyId != null ? companyId : CompanyContext.getCompanyId();
+        return ResponseEntity.ok()
+                .header("X-Unconverted-Invoices", String.valueOf(invoiceService.getUnconvertedRevenueInvoices(company)))
+                .body(invoiceService.getRevenue(company).doubleValue());
+    }
+
+    @PostMapping("/aggregates/rebuild")
+    public ApiResponse<Void> rebuildAggregates() {
+        invoiceService.rebuildAggregates();
+        return new ApiResponse<>(true, "Rebuilt invoice aggregates", null);
+    }
+
+    @PostMapping("/recalculate")
+    public ApiResponse<Integer> recalculateTotals() {
+        return new ApiResponse<>(true, "Recalculated invoice totals", invoiceService.recalculateTotals());
+    }
+
     @PostMapping
     public ApiResponse<Invoice> createInvoice(@RequestBody Invoice invoice) {
         return new ApiResponse<>(true, "Created invoice", invoiceService.createInvoice(invoice));
@@ -45,25 +110,91 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> exportInvoicePdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportInvoicePdf(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         invoiceService.logExportAction(id, userId, "EXPORT_PDF");
-        byte[] pdf = invoiceService.generateInvoicePdf(id);
+        StreamingResponseBody body = invoiceService.streamInvoicePdf(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "invoice-" + id + ".pdf");
-        return ResponseEntity.ok().headers(headers).body(pdf);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportInvoiceExcel(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportInvoiceExcel(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         invoiceService.logExportAction(id, userId, "EXPORT_EXCEL");
-        byte[] xlsx = invoiceService.generateInvoiceExcel(id);
+        StreamingResponseBody body = invoiceService.streamInvoiceExcel(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "invoice-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(xlsx);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    @PostMapping("/pdf-export")
+    public ResponseEntity<StreamingResponseBody> exportInvoicePdfs(@RequestBody BulkExportRequest request) {
+        ExportProgress progress = invoiceService.startBulkPdfExport(request);
+        StreamingResponseBody body = invoiceService.streamBulkPdfExport(progress, request);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "invoices-" + progress.getId() + ".zip");
+        headers.set("X-Export-Id", progress.getId());
+        headers.set("X-Export-Total", String.valueOf(progress.getTotal()));
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    @GetMapping("/report/excel")
+    public ResponseEntity<StreamingResponseBody> exportInvoiceLedger(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportProgress progress = invoiceService.startLedgerExport();
+        StreamingResponseBody body = invoiceService.streamLedgerExport(progress, from, to);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentDispositionFormData("attachment", "invoice-ledger.xlsx");
+        headers.set("X-Export-Id", progress.getId());
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    @GetMapping("/report/aging")
+    public ApiResponse<AgingReport> getAgingReport(@RequestParam(required = false) String client,
+            @RequestParam(required = false) String currency) {
+        return new ApiResponse<>(true, "Fetched aging report", invoiceService.getAgingReport(client, currency));
+    }
+
+    @GetMapping("/report/gst")
+    public ApiResponse<GstReport> getGstReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new ApiResponse<>(true, "Fetched GST report", invoiceService.getGstReport(from, to));
+    }
+
+    @GetMapping("/fx-rates")
+    public ApiResponse<FxRate> getFxRate(@RequestParam String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return new ApiResponse<>(true, "Fetched FX rate", invoiceService.getFxRate(currency, date));
+    }
+
+    // Issues the current company's due recurring invoices (e.g. to resume after a failed run); date is at most today
+    @PostMapping("/recurring/run")
+    public ApiResponse<RecurringRun> runRecurringInvoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        requireAdmin();
+        RecurringRun run = invoiceService.runRecurringInvoices(date);
+        if (run == null) {
+            return new ApiResponse<>(false, "A recurring invoice run is already in progress", null);
+        }
+        return new ApiResponse<>(true, "Recurring invoice run finished", run);
+    }
+
+    @GetMapping("/recurring/runs")
+    public ApiResponse<List<RecurringRun>> getRecurringRuns() {
+        return new ApiResponse<>(true, "Fetched recurring invoice runs", invoiceService.getRecurringRuns());
+    }
+
+    @GetMapping({"/pdf-export/{exportId}", "/exports/{exportId}"})
+    public ApiResponse<ExportProgress> getPdfExportProgress(@PathVariable String exportId) {
+        return new ApiResponse<>(true, "Fetched export progress", invoiceService.getExportProgress(exportId));
     }
 
     @PostMapping("/{id}/submit-approval")
@@ -81,19 +212,55 @@ public class InvoiceController {
         return new ApiResponse<>(true, "Invoice rejected", invoiceService.reject(id, userId, remarks));
     }
 
+    @PostMapping("/bulk/approve")
+    public ApiResponse<BulkActionResult> bulkApprove(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = invoiceService.bulkApprove(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Approved " + result.getSucceeded() + " invoices", result);
+    }
+
+    @PostMapping("/bulk/reject")
+    public ApiResponse<BulkActionResult> bulkReject(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = invoiceService.bulkReject(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Rejected " + result.getSucceeded() + " invoices", result);
+    }
+
     @GetMapping("/{id}/approval-logs")
-    public ApiResponse<java.util.List<com.sme.invoiceservice.model.ApprovalLog>> getApprovalLogs(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched approval logs", invoiceService.getApprovalLogs(id));
+    public ApiResponse<CursorPage<ApprovalLogEntry>> getApprovalLogs(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched approval logs", invoiceService.getApprovalLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/audit-trail")
-    public ApiResponse<java.util.List<com.sme.invoiceservice.model.AuditTrailLog>> getAuditTrail(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched audit trail", invoiceService.getAuditTrailLogs(id));
+    public ApiResponse<CursorPage<AuditTrailEntry>> getAuditTrail(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched audit trail", invoiceService.getAuditTrailLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/status-history")
-    public ApiResponse<java.util.List<com.sme.invoiceservice.model.StatusHistoryLog>> getStatusHistory(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched status history", invoiceService.getStatusHistoryLogs(id));
+    public ApiResponse<CursorPage<StatusHistoryEntry>> getStatusHistory(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched status history", invoiceService.getStatusHistoryLogs(id, cursor, limit, from, to));
+    }
+
+    private void requireAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null) {
+            for (GrantedAuthority authority : auth.getAuthorities()) {
+                if ("ROLE_ADMIN".equals(authority.getAuthority()) || "ROLE_SUPER_ADMIN".equals(authority.getAuthority())) {
+                    return;
+                }
+            }
+        }
+        throw new AccessDeniedException("Admin role required");
     }
 
     private Long getCurrentUserId() {
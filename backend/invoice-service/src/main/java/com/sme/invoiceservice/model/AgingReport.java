@@ -0,0 +1,39 @@
+package com.sme.invoiceservice.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Accounts-receivable aging as of a date: one row per client and currency, plus one total row per
+ * currency (amounts in different currencies are never added together). {@code baseTotal} restates
+ * the currency totals in SGD at the rates of the as-of date; currencies without a rate are left
+ * out of it and listed in {@code unconvertedCurrencies}.
+ */
+public class AgingReport {
+    private LocalDate asOf;
+    private List<AgingRow> rows;
+    private List<AgingRow> totals;
+    private AgingRow baseTotal;
+    private List<String> unconvertedCurrencies;
+
+    public AgingReport() {}
+    public AgingReport(LocalDate asOf, List<AgingRow> rows, List<AgingRow> totals, AgingRow baseTotal,
+            List<String> unconvertedCurrencies) {
+        this.asOf = asOf;
+        this.rows = rows;
+        this.totals = totals;
+        this.baseTotal = baseTotal;
+        this.unconvertedCurrencies = unconvertedCurrencies;
+    }
+
+    public LocalDate getAsOf() { return asOf; }
+    public void setAsOf(LocalDate asOf) { this.asOf = asOf; }
+    public List<AgingRow> getRows() { return rows; }
+    public void setRows(List<AgingRow> rows) { this.rows = rows; }
+    public List<AgingRow> getTotals() { return totals; }
+    public void setTotals(List<AgingRow> totals) { this.totals = totals; }
+    public AgingRow getBaseTotal() { return baseTotal; }
+    public void setBaseTotal(AgingRow baseTotal) { this.baseTotal = baseTotal; }
+    public List<String> getUnconvertedCurrencies() { return unconvertedCurrencies; }
+    public void setUnconvertedCurrencies(List<String> unconvertedCurrencies) { this.unconvertedCurrencies = unconvertedCurrencies; }
+}
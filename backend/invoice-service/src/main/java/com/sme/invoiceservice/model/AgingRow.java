@@ -0,0 +1,85 @@
+package com.sme.invoiceservice.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Outstanding receivables of one client in one currency, split into aging buckets by days past due. */
+public class AgingRow {
+    private String client;
+    private String currency;
+    private BigDecimal current = BigDecimal.ZERO;
+    private BigDecimal days1To30 = BigDecimal.ZERO;
+    private BigDecimal days31To60 = BigDecimal.ZERO;
+    private BigDecimal days61To90 = BigDecimal.ZERO;
+    private BigDecimal over90 = BigDecimal.ZERO;
+    private long invoiceCount;
+
+    public AgingRow() {}
+    public AgingRow(String client, String currency) {
+        this.client = client;
+        this.currency = currency;
+    }
+
+    /** Adds (or with a negative count and amount, removes) invoices {@code daysPastDue} days overdue. */
+    public void add(long daysPastDue, BigDecimal amount, long count) {
+        if (daysPastDue <= 0) {
+            current = current.add(amount);
+        } else if (daysPastDue <= 30) {
+            days1To30 = days1To30.add(amount);
+        } else if (daysPastDue <= 60) {
+            days31To60 = days31To60.add(amount);
+        } else if (daysPastDue <= 90) {
+            days61To90 = days61To90.add(amount);
+        } else {
+            over90 = over90.add(amount);
+        }
+        invoiceCount += count;
+    }
+
+    public void addAll(AgingRow other) {
+        current = current.add(other.current);
+        days1To30 = days1To30.add(other.days1To30);
+        days31To60 = days31To60.add(other.days31To60);
+        days61To90 = days61To90.add(other.days61To90);
+        over90 = over90.add(other.over90);
+        invoiceCount += other.invoiceCount;
+    }
+
+    /** Adds {@code other}'s amounts multiplied by {@code rate}, rounded to cents. */
+    public void addConverted(AgingRow other, BigDecimal rate) {
+        current = current.add(convert(other.current, rate));
+        days1To30 = days1To30.add(convert(other.days1To30, rate));
+        days31To60 = days31To60.add(convert(other.days31To60, rate));
+        days61To90 = days61To90.add(convert(other.days61To90, rate));
+        over90 = over90.add(convert(other.over90, rate));
+        invoiceCount += other.invoiceCount;
+    }
+
+    private static BigDecimal convert(BigDecimal amount, BigDecimal rate) {
+        return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public AgingRow copy() {
+        AgingRow copy = new AgingRow(client, currency);
+        copy.addAll(this);
+        return copy;
+    }
+
+    public String getClient() { return client; }
+    public void setClient(String client) { this.client = client; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public BigDecimal getCurrent() { return current; }
+    public void setCurrent(BigDecimal current) { this.current = current; }
+    public BigDecimal getDays1To30() { return days1To30; }
+    public void setDays1To30(BigDecimal days1To30) { this.days1To30 = days1To30; }
+    public BigDecimal getDays31To60() { return days31To60; }
+    public void setDays31To60(BigDecimal days31To60) { this.days31To60 = days31To60; }
+    public BigDecimal getDays61To90() { return days61To90; }
+    public void setDays61To90(BigDecimal days61To90) { this.days61To90 = days61To90; }
+    public BigDecimal getOver90() { return over90; }
+    public void setOver90(BigDecimal over90) { this.over90 = over90; }
+    public long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(long invoiceCount) { this.invoiceCount = invoiceCount; }
+    public BigDecimal getTotal() { return current.add(days1To30).add(days31To60).add(days61To90).add(over90); }
+}
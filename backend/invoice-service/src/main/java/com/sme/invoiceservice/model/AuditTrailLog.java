@@ -1,41 +0,0 @@
-package com.sme.invoiceservice.model;
-
-import java.time.LocalDateTime;
-
-public class AuditTrailLog {
-    private Long id;
-    private Long parentId; // Invoice, Quote, or PO ID
-    private String parentType; // 'INVOICE', 'QUOTE', 'PO'
-    private String action; // CREATE, UPDATE, DELETE, APPROVE, EXPORT, SEND, etc.
-    private String fieldName;
-    private String oldValue;
-    private String newValue;
-    private Long changedBy;
-    private LocalDateTime changedAt;
-    private String remarks;
-
-    public AuditTrailLog() {
-        this.changedAt = LocalDateTime.now();
-    }
-
-    public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
-    public Long getParentId() { return parentId; }
-    public void setParentId(Long parentId) { this.parentId = parentId; }
-    public String getParentType() { return parentType; }
-    public void setParentType(String parentType) { this.parentType = parentType; }
-    public String getAction() { return action; }
-    public void setAction(String action) { this.action = action; }
-    public String getFieldName() { return fieldName; }
-    public void setFieldName(String fieldName) { this.fieldName = fieldName; }
-    public String getOldValue() { return oldValue; }
-    public void setOldValue(String oldValue) { this.oldValue = oldValue; }
-    public String getNewValue() { return newValue; }
-    public void setNewValue(String newValue) { this.newValue = newValue; }
-    public Long getChangedBy() { return changedBy; }
-    public void setChangedBy(Long changedBy) { this.changedBy = changedBy; }
-    public LocalDateTime getChangedAt() { return changedAt; }
-    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
-    public String getRemarks() { return remarks; }
-    public void setRemarks(String remarks) { this.remarks = remarks; }
-} 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.sme.invoiceservice.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Either an explicit list of invoice ids or a filter; ids win when both are given. */
+public class BulkExportRequest {
+    private List<Long> ids;
+    private String status;
+    private LocalDate from;
+    private LocalDate to;
+    private String client;
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public String getClient() { return client; }
+    public void setClient(String client) { this.client = client; }
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+}
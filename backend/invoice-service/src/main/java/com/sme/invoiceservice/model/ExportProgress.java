@@ -0,0 +1,49 @@
+package com.sme.invoiceservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one export, updated by the export as it writes. {@code completed} counts the
+ * export's unit (PDFs for a bulk PDF export, rows for a ledger report); {@code total} is null
+ * when it is not known up front.
+ */
+public class ExportProgress {
+    private final String id;
+    private final Long companyId;
+    private final Long total;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+
+    public ExportProgress(String id, Long companyId, Long total) {
+        this.id = id;
+        this.companyId = companyId;
+        this.total = total;
+    }
+
+    public void recordCompleted() { completed.incrementAndGet(); }
+    public void recordFailed() { failed.incrementAndGet(); }
+    public void finish() { finishedAt = LocalDateTime.now(); }
+
+    public String getId() { return id; }
+    @JsonIgnore
+    public Long getCompanyId() { return companyId; }
+    public Long getTotal() { return total; }
+    public long getCompleted() { return completed.get(); }
+    public long getFailed() { return failed.get(); }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public boolean isDone() { return finishedAt != null; }
+
+    /** Completed units per second since the start, or over the whole run once done. */
+    public double getRatePerSecond() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return completed.get() * 1000.0 / millis;
+    }
+}
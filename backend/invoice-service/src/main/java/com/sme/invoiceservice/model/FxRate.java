@@ -0,0 +1,54 @@
+package com.sme.invoiceservice.model;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One published exchange rate: SGD per one unit of {@code currency} on {@code rateDate}. Rows are
+ * imported from CSV (see {@code FxRates}); a date without a row uses the nearest earlier one.
+ */
+@Entity
+@Table(name = "fx_rates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_fx_rate_currency_date", columnNames = {"currency", "rateDate"}))
+public class FxRate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private LocalDate rateDate;
+
+    @Column(nullable = false, precision = 19, scale = 8)
+    private BigDecimal rate;
+
+    private String source; // e.g. MAS, ECB, manual
+
+    @Column(nullable = false)
+    private LocalDateTime importedAt;
+
+    public FxRate() {}
+    public FxRate(String currency, LocalDate rateDate, BigDecimal rate, String source) {
+        this.currency = currency;
+        this.rateDate = rateDate;
+        this.rate = rate;
+        this.source = source;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public LocalDate getRateDate() { return rateDate; }
+    public void setRateDate(LocalDate rateDate) { this.rateDate = rateDate; }
+    public BigDecimal getRate() { return rate; }
+    public void setRate(BigDecimal rate) { this.rate = rate; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public LocalDateTime getImportedAt() { return importedAt; }
+    public void setImportedAt(LocalDateTime importedAt) { this.importedAt = importedAt; }
+}
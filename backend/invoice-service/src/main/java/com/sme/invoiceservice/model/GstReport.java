@@ -0,0 +1,44 @@
+package com.sme.invoiceservice.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Output GST of invoices issued in [from, to]: one row per currency, and SGD totals converted at
+ * each invoice's own rate or, without one, the rate table's rate for its issue date. Invoices with
+ * neither are left out of the SGD totals and their currency is listed in
+ * {@code unconvertedCurrencies}.
+ */
+public class GstReport {
+    private LocalDate from;
+    private LocalDate to;
+    private List<GstReportRow> rows;
+    private BigDecimal baseSupplyAmount;
+    private BigDecimal baseTaxAmount;
+    private List<String> unconvertedCurrencies;
+
+    public GstReport() {}
+    public GstReport(LocalDate from, LocalDate to, List<GstReportRow> rows, BigDecimal baseSupplyAmount,
+            BigDecimal baseTaxAmount, List<String> unconvertedCurrencies) {
+        this.from = from;
+        this.to = to;
+        this.rows = rows;
+        this.baseSupplyAmount = baseSupplyAmount;
+        this.baseTaxAmount = baseTaxAmount;
+        this.unconvertedCurrencies = unconvertedCurrencies;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public List<GstReportRow> getRows() { return rows; }
+    public void setRows(List<GstReportRow> rows) { this.rows = rows; }
+    public BigDecimal getBaseSupplyAmount() { return baseSupplyAmount; }
+    public void setBaseSupplyAmount(BigDecimal baseSupplyAmount) { this.baseSupplyAmount = baseSupplyAmount; }
+    public BigDecimal getBaseTaxAmount() { return baseTaxAmount; }
+    public void setBaseTaxAmount(BigDecimal baseTaxAmount) { this.baseTaxAmount = baseTaxAmount; }
+    public List<String> getUnconvertedCurrencies() { return unconvertedCurrencies; }
+    public void setUnconvertedCurrencies(List<String> unconvertedCurrencies) { this.unconvertedCurrencies = unconvertedCurrencies; }
+}
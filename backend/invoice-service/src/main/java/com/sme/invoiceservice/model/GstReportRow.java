@@ -0,0 +1,50 @@
+package com.sme.invoiceservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Supplies (grand total less GST) and GST of one currency over a GST report's period, in that
+ * currency and, where a rate is known, in SGD.
+ */
+public class GstReportRow {
+    private String currency;
+    private long invoiceCount;
+    private BigDecimal supplyAmount = BigDecimal.ZERO;
+    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private BigDecimal baseSupplyAmount = BigDecimal.ZERO;
+    private BigDecimal baseTaxAmount = BigDecimal.ZERO;
+    private boolean fullyConverted = true;
+
+    public GstReportRow() {}
+    public GstReportRow(String currency) {
+        this.currency = currency;
+    }
+
+    /** Adds invoices of one issue date and rate; a null rate leaves them out of the SGD amounts. */
+    public void add(long count, BigDecimal supply, BigDecimal tax, BigDecimal rate) {
+        invoiceCount += count;
+        supplyAmount = supplyAmount.add(supply);
+        taxAmount = taxAmount.add(tax);
+        if (rate != null) {
+            baseSupplyAmount = baseSupplyAmount.add(supply.multiply(rate));
+            baseTaxAmount = baseTaxAmount.add(tax.multiply(rate));
+        } else {
+            fullyConverted = false;
+        }
+    }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(long invoiceCount) { this.invoiceCount = invoiceCount; }
+    public BigDecimal getSupplyAmount() { return supplyAmount; }
+    public void setSupplyAmount(BigDecimal supplyAmount) { this.supplyAmount = supplyAmount; }
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public void setTaxAmount(BigDecimal taxAmount) { this.taxAmount = taxAmount; }
+    public BigDecimal getBaseSupplyAmount() { return baseSupplyAmount; }
+    public void setBaseSupplyAmount(BigDecimal baseSupplyAmount) { this.baseSupplyAmount = baseSupplyAmount; }
+    public BigDecimal getBaseTaxAmount() { return baseTaxAmount; }
+    public void setBaseTaxAmount(BigDecimal baseTaxAmount) { this.baseTaxAmount = baseTaxAmount; }
+    public boolean isFullyConverted() { return fullyConverted; }
+    public void setFullyConverted(boolean fullyConverted) { this.fullyConverted = fullyConverted; }
+}
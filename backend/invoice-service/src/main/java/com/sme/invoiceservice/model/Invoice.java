@@ -5,7 +5,16 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-public class Invoice {
+@Table(indexes = {
+    @Index(name = "idx_invoice_company_id", columnList = "companyId, id"),
+    @Index(name = "idx_invoice_company_status", columnList = "companyId, status, id"),
+    @Index(name = "idx_invoice_company_status_due", columnList = "companyId, status, dueDate"),
+    @Index(name = "idx_invoice_company_issue", columnList = "companyId, issueDate"),
+    @Index(name = "idx_invoice_next_run", columnList = "nextRunDate, companyId")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_invoice_recurring_run", columnNames = {"recurringSourceId", "recurringRunDate"})
+})
+public class Invoice implements com.sme.shared.TaxableDocument {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,6 +29,8 @@ public class Invoice {
     private Boolean emailSent;
     private Double subtotal;
     private Double discount;
+    // 1 once discount holds the header discount only; null on rows not yet repaired by LegacyDiscountMigration
+    private Integer totalsVersion = com.sme.shared.LegacyDiscountMigration.HEADER_DISCOUNT_ONLY;
     private Double tax;
     private Double shipping;
     private Double grandTotal;
@@ -46,6 +57,9 @@ public class Invoice {
     private String statusHistory; // JSON array of status changes
     private String approvalWorkflow; // JSON or separate entity
     private String recurring; // Recurrence pattern
+    private LocalDate nextRunDate; // Next issue date of a recurring template; null when not recurring
+    private Long recurringSourceId; // Template this invoice was generated from
+    private LocalDate recurringRunDate; // Occurrence of the template this invoice was generated for
     private String multiLanguageSupport; // JSON for translations
     private Double fxRate; // Foreign exchange rate for non-SGD
     private String fxSource; // Source of FX rate (e.g., MAS, manual)
@@ -56,22 +70,12 @@ public class Invoice {
     private String customPaymentInstructions; // Custom instructions
     private String termsAndConditions; // Link or text for T&Cs
 
+    // line_items holds the lines of every document type; parent_id alone would also match other types' lines
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "parentId", referencedColumnName = "id")
+    @org.hibernate.annotations.Where(clause = "parent_type = 'INVOICE'")
     private List<com.sme.shared.LineItem> lineItems;
 
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "parentId", referencedColumnName = "id")
-    private java.util.List<com.sme.shared.ApprovalLog> approvalLogs;
-
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "parentId", referencedColumnName = "id")
-    private java.util.List<com.sme.shared.StatusHistoryLog> statusHistoryLogs;
-
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "parentId", referencedColumnName = "id")
-    private java.util.List<com.sme.shared.AuditTrailLog> auditTrailLogs;
-
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -97,6 +101,8 @@ public class Invoice {
     public void setSubtotal(Double subtotal) { this.subtotal = subtotal; }
     public Double getDiscount() { return discount; }
     public void setDiscount(Double discount) { this.discount = discount; }
+    public Integer getTotalsVersion() { return totalsVersion; }
+    public void setTotalsVersion(Integer totalsVersion) { this.totalsVersion = totalsVersion; }
     public Double getTax() { return tax; }
     public void setTax(Double tax) { this.tax = tax; }
     public Double getShipping() { return shipping; }
@@ -123,6 +129,12 @@ public class Invoice {
     public void setApprovalWorkflow(String approvalWorkflow) { this.approvalWorkflow = approvalWorkflow; }  
     public String getRecurring() { return recurring; }
     public void setRecurring(String recurring) { this.recurring = recurring; }
+    public LocalDate getNextRunDate() { return nextRunDate; }
+    public void setNextRunDate(LocalDate nextRunDate) { this.nextRunDate = nextRunDate; }
+    public Long getRecurringSourceId() { return recurringSourceId; }
+    public void setRecurringSourceId(Long recurringSourceId) { this.recurringSourceId = recurringSourceId; }
+    public LocalDate getRecurringRunDate() { return recurringRunDate; }
+    public void setRecurringRunDate(LocalDate recurringRunDate) { this.recurringRunDate = recurringRunDate; }
     public String getMultiLanguageSupport() { return multiLanguageSupport; }
     public void setMultiLanguageSupport(String multiLanguageSupport) { this.multiLanguageSupport = multiLanguageSupport; }
     public Double getFxRate() { return fxRate; }
@@ -143,11 +155,5 @@ public class Invoice {
     public void setTermsAndConditions(String termsAndConditions) { this.termsAndConditions = termsAndConditions; }
     public List<com.sme.shared.LineItem> getLineItems() { return lineItems; }
     public void setLineItems(List<com.sme.shared.LineItem> lineItems) { this.lineItems = lineItems; }
-    public java.util.List<com.sme.shared.ApprovalLog> getApprovalLogs() { return approvalLogs; }
-    public void setApprovalLogs(java.util.List<com.sme.shared.ApprovalLog> approvalLogs) { this.approvalLogs = approvalLogs; }
-    public java.util.List<com.sme.shared.StatusHistoryLog> getStatusHistoryLogs() { return statusHistoryLogs; }
-    public void setStatusHistoryLogs(java.util.List<com.sme.shared.StatusHistoryLog> statusHistoryLogs) { this.statusHistoryLogs = statusHistoryLogs; }
-    public java.util.List<com.sme.shared.AuditTrailLog> getAuditTrailLogs() { return auditTrailLogs; }
-    public void setAuditTrailLogs(java.util.List<com.sme.shared.AuditTrailLog> auditTrailLogs) { this.auditTrailLogs = auditTrailLogs; }
     
 } 
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.sme.invoiceservice.model;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Running invoice count and totals per company, issue month, status and currency. Maintained by
+ * {@code InvoiceAggregates} in the same transaction as each invoice write.
+ */
+@Entity
+@Table(name = "invoice_aggregates",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"companyId", "period", "status", "currency"}))
+public class InvoiceAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long companyId;
+
+    @Column(nullable = false, length = 6)
+    private String period; // yyyyMM of the issue date
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Long invoiceCount;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalAmount; // in the invoice currency
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal baseAmount; // converted to SGD with the rate stored on each invoice
+
+    @Column(nullable = false)
+    private Long unconvertedCount; // foreign-currency invoices with no stored rate, left out of baseAmount
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getCompanyId() { return companyId; }
+    public void setCompanyId(Long companyId) { this.companyId = companyId; }
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public Long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public BigDecimal getBaseAmount() { return baseAmount; }
+    public void setBaseAmount(BigDecimal baseAmount) { this.baseAmount = baseAmount; }
+    public Long getUnconvertedCount() { return unconvertedCount; }
+    public void setUnconvertedCount(Long unconvertedCount) { this.unconvertedCount = unconvertedCount; }
+}
@@ -0,0 +1,44 @@
+package com.sme.invoiceservice.model;
+
+import java.time.LocalDate;
+
+/** List-view projection of {@link Invoice}; selected directly by JPQL so no entity or collection is loaded. */
+public class InvoiceSummary {
+    private Long id;
+    private String invoiceNumber;
+    private String client;
+    private String status;
+    private LocalDate issueDate;
+    private LocalDate dueDate;
+    private Double grandTotal;
+    private String currency;
+
+    public InvoiceSummary() {}
+    public InvoiceSummary(Long id, String invoiceNumber, String client, String status, LocalDate issueDate, LocalDate dueDate, Double grandTotal, String currency) {
+        this.id = id;
+        this.invoiceNumber = invoiceNumber;
+        this.client = client;
+        this.status = status;
+        this.issueDate = issueDate;
+        this.dueDate = dueDate;
+        this.grandTotal = grandTotal;
+        this.currency = currency;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+    public String getClient() { return client; }
+    public void setClient(String client) { this.client = client; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDate getIssueDate() { return issueDate; }
+    public void setIssueDate(LocalDate issueDate) { this.issueDate = issueDate; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public Double getGrandTotal() { return grandTotal; }
+    public void setGrandTotal(Double grandTotal) { this.grandTotal = grandTotal; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
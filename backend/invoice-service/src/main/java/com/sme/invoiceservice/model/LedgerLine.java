@@ -0,0 +1,52 @@
+package com.sme.invoiceservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Ledger-export projection of an invoice line item; selected directly by JPQL so the lines of a
+ * long export never become managed entities held by the persistence context.
+ */
+public class LedgerLine {
+    private Long invoiceId;
+    private String description;
+    private String sku;
+    private BigDecimal quantity;
+    private BigDecimal unitPrice;
+    private String taxCode;
+    private BigDecimal lineSubtotal;
+    private BigDecimal lineTaxAmount;
+    private BigDecimal lineTotal;
+
+    public LedgerLine() {}
+    public LedgerLine(Long invoiceId, String description, String sku, BigDecimal quantity, BigDecimal unitPrice,
+            String taxCode, BigDecimal lineSubtotal, BigDecimal lineTaxAmount, BigDecimal lineTotal) {
+        this.invoiceId = invoiceId;
+        this.description = description;
+        this.sku = sku;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.taxCode = taxCode;
+        this.lineSubtotal = lineSubtotal;
+        this.lineTaxAmount = lineTaxAmount;
+        this.lineTotal = lineTotal;
+    }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+    public String getTaxCode() { return taxCode; }
+    public void setTaxCode(String taxCode) { this.taxCode = taxCode; }
+    public BigDecimal getLineSubtotal() { return lineSubtotal; }
+    public void setLineSubtotal(BigDecimal lineSubtotal) { this.lineSubtotal = lineSubtotal; }
+    public BigDecimal getLineTaxAmount() { return lineTaxAmount; }
+    public void setLineTaxAmount(BigDecimal lineTaxAmount) { this.lineTaxAmount = lineTaxAmount; }
+    public BigDecimal getLineTotal() { return lineTotal; }
+    public void setLineTotal(BigDecimal lineTotal) { this.lineTotal = lineTotal; }
+}
@@ -0,0 +1,53 @@
+package com.sme.invoiceservice.model;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** One pass of the recurring invoice scheduler on one instance, with what it did. */
+@Entity
+@Table(name = "recurring_runs", indexes = {
+        @Index(name = "idx_recurring_run_date", columnList = "runDate, id"),
+        @Index(name = "idx_recurring_run_company", columnList = "companyId, id")
+})
+public class RecurringRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long companyId; // null for a scheduled run over every company
+    private LocalDate runDate;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Integer companies;
+    private Integer templates;
+    private Integer invoicesCreated;
+    private Integer skippedTemplates; // unreadable recurrence pattern
+    private Integer failedChunks; // rolled back and left due for the next run
+    private String lastError;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getCompanyId() { return companyId; }
+    public void setCompanyId(Long companyId) { this.companyId = companyId; }
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public Integer getCompanies() { return companies; }
+    public void setCompanies(Integer companies) { this.companies = companies; }
+    public Integer getTemplates() { return templates; }
+    public void setTemplates(Integer templates) { this.templates = templates; }
+    public Integer getInvoicesCreated() { return invoicesCreated; }
+    public void setInvoicesCreated(Integer invoicesCreated) { this.invoicesCreated = invoicesCreated; }
+    public Integer getSkippedTemplates() { return skippedTemplates; }
+    public void setSkippedTemplates(Integer skippedTemplates) { this.skippedTemplates = skippedTemplates; }
+    public Integer getFailedChunks() { return failedChunks; }
+    public void setFailedChunks(Integer failedChunks) { this.failedChunks = failedChunks; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -0,0 +1,16 @@
+package com.sme.invoiceservice.repository;
+
+import com.sme.invoiceservice.model.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+    @Query("select r from FxRate r order by r.currency, r.rateDate")
+    List<FxRate> findAllOrdered();
+
+    // Changes whenever an import inserts or overwrites a rate; instances reload their index when it moves
+    @Query("select max(r.importedAt) from FxRate r")
+    LocalDateTime findLastImport();
+}
@@ -0,0 +1,56 @@
+package com.sme.invoiceservice.repository;
+
+import com.sme.invoiceservice.model.InvoiceAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.util.Collection;
+
+public interface InvoiceAggregateRepository extends JpaRepository<InvoiceAggregate, Long> {
+
+    // Upsert keeps concurrent writers to the same bucket from racing on the insert
+    @Modifying
+    @Query(value = "insert into invoice_aggregates (company_id, period, status, currency, invoice_count, total_amount, "
+            + "base_amount, unconverted_count) "
+            + "values (:companyId, :period, :status, :currency, :count, :totalAmount, :baseAmount, :unconverted) "
+            + "on duplicate key update invoice_count = invoice_count + values(invoice_count), "
+            + "total_amount = total_amount + values(total_amount), base_amount = base_amount + values(base_amount), "
+            + "unconverted_count = unconverted_count + values(unconverted_count)",
+            nativeQuery = true)
+    void add(@Param("companyId") Long companyId, @Param("period") String period, @Param("status") String status,
+            @Param("currency") String currency, @Param("count") long count,
+            @Param("totalAmount") BigDecimal totalAmount, @Param("baseAmount") BigDecimal baseAmount,
+            @Param("unconverted") long unconverted);
+
+    @Query("select coalesce(sum(a.invoiceCount), 0) from InvoiceAggregate a where a.companyId = :companyId")
+    long countInvoices(@Param("companyId") Long companyId);
+
+    @Query("select coalesce(sum(a.baseAmount), 0) from InvoiceAggregate a "
+            + "where a.companyId = :companyId and a.status in :statuses")
+    BigDecimal sumBaseAmount(@Param("companyId") Long companyId, @Param("statuses") Collection<String> statuses);
+
+    @Query("select coalesce(sum(a.unconvertedCount), 0) from InvoiceAggregate a "
+            + "where a.companyId = :companyId and a.status in :statuses")
+    long countUnconverted(@Param("companyId") Long companyId, @Param("statuses") Collection<String> statuses);
+
+    @Modifying
+    @Query("delete from InvoiceAggregate a where a.companyId = :companyId")
+    void deleteByCompany(@Param("companyId") Long companyId);
+
+    // Same bucketing and conversion as InvoiceAggregates.contributionOf
+    @Modifying
+    @Query(value = "insert into invoice_aggregates (company_id, period, status, currency, invoice_count, total_amount, "
+            + "base_amount, unconverted_count) "
+            + "select company_id, coalesce(date_format(issue_date, '%Y%m'), '000000'), coalesce(status, 'UNKNOWN'), "
+            + "coalesce(currency, 'SGD'), count(*), coalesce(sum(grand_total), 0), "
+            + "coalesce(sum(case when currency is null or currency = 'SGD' then grand_total "
+            + "when fx_rate is not null then grand_total * fx_rate else 0 end), 0), "
+            + "sum(case when currency is not null and currency <> 'SGD' and fx_rate is null then 1 else 0 end) "
+            + "from invoice i where company_id = :companyId "
+            + "group by company_id, coalesce(date_format(issue_date, '%Y%m'), '000000'), coalesce(status, 'UNKNOWN'), "
+            + "coalesce(currency, 'SGD')",
+            nativeQuery = true)
+    void rebuildForCompany(@Param("companyId") Long companyId);
+}
@@ -2,9 +2,109 @@ package com.sme.invoiceservice.repository;
 
 import com.sme.invoiceservice.model.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findAllByCompanyId(Long companyId);
     Invoice findTopByCompanyIdOrderByIdDesc(Long companyId);
-} 
\ No newline at end of file
+    boolean existsByIdAndCompanyId(Long id, Long companyId);
+
+    // Bulk action chunks: locked so overlapping bulk actions see each other's committed status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Invoice> findAllByIdInAndCompanyId(Collection<Long> ids, Long companyId);
+
+    // For writes that move the invoice between aggregate buckets: the row lock keeps "before" current
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Invoice i where i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") Long id);
+
+    // Keyset pagination on (companyId, id), newest first; cursor is the last id of the previous page
+    @Query("select new com.sme.invoiceservice.model.InvoiceSummary(i.id, i.invoiceNumber, i.client, i.status, i.issueDate, i.dueDate, i.grandTotal, i.currency) "
+            + "from Invoice i where i.companyId = :companyId and (:cursor is null or i.id < :cursor) "
+            + "and (:status is null or i.status = :status) "
+            + "and (:fromDate is null or i.issueDate >= :fromDate) and (:toDate is null or i.issueDate <= :toDate) "
+            + "and (:client is null or i.client like concat(:client, '%')) "
+            + "order by i.id desc")
+    List<InvoiceSummary> findSummaries(@Param("companyId") Long companyId, @Param("cursor") Long cursor,
+            @Param("status") String status, @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate, @Param("client") String client, Pageable pageable);
+
+    @Query("select count(i) from Invoice i where i.companyId = :companyId "
+            + "and (:status is null or i.status = :status) "
+            + "and (:fromDate is null or i.issueDate >= :fromDate) and (:toDate is null or i.issueDate <= :toDate) "
+            + "and (:client is null or i.client like concat(:client, '%'))")
+    long countSummaries(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("client") String client);
+
+    // Stops counting after :cap rows so an estimate stays cheap on large tenants
+    @Query(value = "select count(*) from (select 1 from invoice i where i.company_id = :companyId "
+            + "and (:status is null or i.status = :status) "
+            + "and (:fromDate is null or i.issue_date >= :fromDate) and (:toDate is null or i.issue_date <= :toDate) "
+            + "and (:client is null or i.client like concat(:client, '%')) "
+            + "limit :cap) capped", nativeQuery = true)
+    long countSummariesUpTo(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("client") String client, @Param("cap") int cap);
+
+    // Open receivables for aging, read through the (companyId, status, dueDate) index. A fetch size
+    // of Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result.
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("select new com.sme.invoiceservice.model.InvoiceSummary(i.id, i.invoiceNumber, i.client, i.status, i.issueDate, i.dueDate, i.grandTotal, i.currency) "
+            + "from Invoice i where i.companyId = :companyId and i.status in :statuses")
+    Stream<InvoiceSummary> streamReceivables(@Param("companyId") Long companyId,
+            @Param("statuses") Collection<String> statuses);
+
+    // Recurring templates due on or before :runDate, found through (nextRunDate, companyId)
+    @Query("select distinct i.companyId from Invoice i where i.nextRunDate <= :runDate")
+    List<Long> findCompaniesWithDueTemplates(@Param("runDate") LocalDate runDate);
+
+    // Locks the next due templates of a company, skipping rows another worker holds (lock timeout -2 is SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select i from Invoice i where i.companyId = :companyId and i.nextRunDate <= :runDate and i.id > :afterId "
+            + "order by i.id")
+    List<Invoice> lockDueTemplates(@Param("companyId") Long companyId, @Param("runDate") LocalDate runDate,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    // Ids of the same chunk lockDueTemplates would take, without locking; lets a worker skip a chunk that failed
+    @Query("select i.id from Invoice i where i.companyId = :companyId and i.nextRunDate <= :runDate and i.id > :afterId "
+            + "order by i.id")
+    List<Long> findDueTemplateIds(@Param("companyId") Long companyId, @Param("runDate") LocalDate runDate,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select i.id, i.recurringSourceId, i.recurringRunDate from Invoice i "
+            + "where i.recurringSourceId in :templateIds and i.recurringRunDate between :fromDate and :toDate")
+    List<Object[]> findGeneratedInvoices(@Param("templateIds") Collection<Long> templateIds,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // GST per issue date, currency and invoice rate; supplies are the grand total less GST
+    @Query("select i.issueDate, i.currency, i.fxRate, count(i), sum(coalesce(i.grandTotal, 0) - coalesce(i.tax, 0)), "
+            + "sum(coalesce(i.tax, 0)) from Invoice i where i.companyId = :companyId and i.status in :statuses "
+            + "and i.issueDate between :fromDate and :toDate group by i.issueDate, i.currency, i.fxRate")
+    List<Object[]> sumTaxByIssueDate(@Param("companyId") Long companyId, @Param("statuses") Collection<String> statuses,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // Id pages of a company through (companyId, id), for rebuilding the search index
+    @Query("select i.id from Invoice i where i.companyId = :companyId and i.id > :afterId order by i.id")
+    List<Long> findIdPage(@Param("companyId") Long companyId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select distinct i from Invoice i left join fetch i.lineItems where i.id in :ids")
+    List<Invoice> findAllWithLineItems(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select distinct i from Invoice i left join fetch i.lineItems where i.id in :ids")
+    List<Invoice> lockAllWithLineItems(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,16 @@
+package com.sme.invoiceservice.repository;
+
+import com.sme.invoiceservice.model.LedgerLine;
+import com.sme.shared.LineItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+
+public interface LineItemRepository extends JpaRepository<LineItem, Long> {
+    @Query("select new com.sme.invoiceservice.model.LedgerLine(l.parentId, l.description, l.sku, l.quantity, l.unitPrice, "
+            + "l.taxCode, l.lineSubtotal, l.lineTaxAmount, l.lineTotal) from LineItem l "
+            + "where l.parentType = 'INVOICE' and l.parentId in :invoiceIds order by l.parentId, l.id")
+    List<LedgerLine> findLedgerLines(@Param("invoiceIds") Collection<Long> invoiceIds);
+}
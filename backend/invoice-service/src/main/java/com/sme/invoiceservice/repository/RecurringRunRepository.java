@@ -0,0 +1,9 @@
+package com.sme.invoiceservice.repository;
+
+import com.sme.invoiceservice.model.RecurringRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface RecurringRunRepository extends JpaRepository<RecurringRun, Long> {
+    List<RecurringRun> findTop20ByCompanyIdOrderByIdDesc(Long companyId);
+}
@@ -1,23 +1,59 @@
 package com.sme.invoiceservice.service;
 
+import com.sme.invoiceservice.model.AgingReport;
+import com.sme.invoiceservice.model.FxRate;
+import com.sme.invoiceservice.model.GstReport;
 import com.sme.invoiceservice.model.Invoice;
-import com.sme.invoiceservice.model.ApprovalLog;
-import com.sme.invoiceservice.model.AuditTrailLog;
-import com.sme.invoiceservice.model.StatusHistoryLog;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.invoiceservice.model.RecurringRun;
+import com.sme.invoiceservice.model.BulkExportRequest;
+import com.sme.invoiceservice.model.ExportProgress;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface InvoiceService {
     List<Invoice> getAllInvoicesForCurrentTenant();
+    CursorPage<InvoiceSummary> getInvoicePage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String client, CountMode countMode);
     Invoice createInvoice(Invoice invoice);
     Invoice updateInvoice(Long invoiceId, Invoice invoice);
     void deleteInvoice(Long invoiceId, Long userId);
-    byte[] generateInvoicePdf(Long invoiceId);
-    byte[] generateInvoiceExcel(Long invoiceId);
+    StreamingResponseBody streamInvoicePdf(Long invoiceId);
+    StreamingResponseBody streamInvoiceExcel(Long invoiceId);
+    ExportProgress startBulkPdfExport(BulkExportRequest request);
+    StreamingResponseBody streamBulkPdfExport(ExportProgress progress, BulkExportRequest request);
+    ExportProgress startLedgerExport();
+    StreamingResponseBody streamLedgerExport(ExportProgress progress, LocalDate fromDate, LocalDate toDate);
+    ExportProgress getExportProgress(String exportId);
     Invoice submitForApproval(Long invoiceId, Long userId, String remarks);
     Invoice approve(Long invoiceId, Long userId, String remarks);
     Invoice reject(Long invoiceId, Long userId, String remarks);
-    java.util.List<ApprovalLog> getApprovalLogs(Long invoiceId);
+    BulkActionResult bulkApprove(BulkActionRequest request, Long userId);
+    BulkActionResult bulkReject(BulkActionRequest request, Long userId);
+    long countInvoices(Long companyId);
+    BigDecimal getRevenue(Long companyId);
+    long getUnconvertedRevenueInvoices(Long companyId);
+    void rebuildAggregates();
+    AgingReport getAgingReport(String client, String currency);
+    GstReport getGstReport(LocalDate fromDate, LocalDate toDate);
+    FxRate getFxRate(String currency, LocalDate date);
+    SearchResult searchInvoices(String query, String status, Integer limit);
+    int recalculateTotals();
+    RecurringRun runRecurringInvoices(LocalDate runDate);
+    List<RecurringRun> getRecurringRuns();
+    CursorPage<ApprovalLogEntry> getApprovalLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
     void logExportAction(Long invoiceId, Long userId, String action);
-    java.util.List<AuditTrailLog> getAuditTrailLogs(Long invoiceId);
-    java.util.List<StatusHistoryLog> getStatusHistoryLogs(Long invoiceId);
+    CursorPage<AuditTrailEntry> getAuditTrailLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
+    CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
 } 
\ No newline at end of file
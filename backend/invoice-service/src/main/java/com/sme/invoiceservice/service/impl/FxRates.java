@@ -0,0 +1,224 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.FxRate;
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.repository.FxRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Exchange rates to SGD from the {@code fx_rates} table, held in memory for report-time conversion.
+ * The index maps each currency to its rates sorted by date and is replaced wholesale (copy on
+ * write) after an import or when another instance's import is noticed, so lookups never lock and
+ * never touch the database: a lookup is one hash probe and a binary search for the nearest rate on
+ * or before the date. Rates come from CSV files ({@code currency,date,rate[,source]}, rate in SGD
+ * per one unit), read from {@code invoice.fx.rates-file} at startup.
+ */
+@Component
+public class FxRates {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRates.class);
+
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final String UPSERT = "insert into fx_rates (currency, rate_date, rate, source, imported_at) "
+            + "values (?, ?, ?, ?, ?) on duplicate key update rate = values(rate), source = values(source), "
+            + "imported_at = values(imported_at)";
+
+    @Autowired
+    private FxRateRepository rateRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${invoice.fx.rates-file:}")
+    private String ratesFile;
+
+    private volatile Map<String, Series> index = Collections.emptyMap();
+    private volatile LocalDateTime loadedImport;
+
+    @PostConstruct
+    public void init() {
+        if (!ratesFile.trim().isEmpty()) {
+            Path path = Paths.get(ratesFile.trim());
+            if (Files.isReadable(path)) {
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    logger.info("Imported {} FX rates from {}", importCsv(reader, "file"), path);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Importing FX rates from {} failed", path, e);
+                }
+            } else {
+                logger.warn("FX rates file {} is not readable", path);
+            }
+        }
+        reload();
+    }
+
+    /** SGD per one unit of {@code currency} on {@code date}, or null when no rate on or before it is known. */
+    public BigDecimal rate(String currency, LocalDate date) {
+        FxRate rate = lookup(currency, date);
+        return rate != null ? rate.getRate() : null;
+    }
+
+    /** The rate row in effect for {@code currency} on {@code date}; SGD itself has none. */
+    public FxRate lookup(String currency, LocalDate date) {
+        if (currency == null || date == null) {
+            return null;
+        }
+        Series series = index.get(currency);
+        return series != null ? series.at(date) : null;
+    }
+
+    /** {@code amount} in SGD at the rate of {@code date}; null when the rate is unknown. */
+    public BigDecimal toBase(BigDecimal amount, String currency, LocalDate date) {
+        if (amount == null) {
+            return null;
+        }
+        if (currency == null || InvoiceAggregates.BASE_CURRENCY.equals(currency)) {
+            return amount;
+        }
+        BigDecimal rate = rate(currency, date);
+        return rate != null ? amount.multiply(rate) : null;
+    }
+
+    /** Fills the rate and source of a new foreign-currency invoice from its issue date, unless already set. */
+    public void applyTo(Invoice invoice) {
+        if (invoice.getFxRate() != null || invoice.getCurrency() == null
+                || InvoiceAggregates.BASE_CURRENCY.equals(invoice.getCurrency())) {
+            return;
+        }
+        FxRate rate = lookup(invoice.getCurrency(), invoice.getIssueDate());
+        if (rate != null) {
+            invoice.setFxRate(rate.getRate().doubleValue());
+            invoice.setFxSource(rate.getSource());
+        }
+    }
+
+    /**
+     * Parses and upserts a CSV of rates in one transaction, then reloads the index. A malformed
+     * line rejects the whole file. Returns the number of rates read.
+     */
+    public int importCsv(Reader csv, String defaultSource) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp importedAt = Timestamp.valueOf(LocalDateTime.now());
+        BufferedReader reader = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (rows.isEmpty() && trimmed.toLowerCase().startsWith("currency"))) {
+                continue;
+            }
+            rows.add(parse(trimmed, lineNumber, defaultSource, importedAt));
+        }
+        new TransactionTemplate(transactionManager).execute(status -> {
+            for (int from = 0; from < rows.size(); from += IMPORT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPSERT, rows.subList(from, Math.min(from + IMPORT_BATCH_SIZE, rows.size())));
+            }
+            return null;
+        });
+        reload();
+        return rows.size();
+    }
+
+    /** Rebuilds the index if any instance imported rates since the last load. */
+    @Scheduled(fixedDelayString = "${invoice.fx.reload-interval-ms:300000}",
+            initialDelayString = "${invoice.fx.reload-interval-ms:300000}")
+    public void refresh() {
+        if (!Objects.equals(rateRepository.findLastImport(), loadedImport)) {
+            reload();
+        }
+    }
+
+    private synchronized void reload() {
+        LocalDateTime lastImport = rateRepository.findLastImport();
+        Map<String, List<FxRate>> byCurrency = new HashMap<>();
+        for (FxRate rate : rateRepository.findAllOrdered()) {
+            byCurrency.computeIfAbsent(rate.getCurrency(), c -> new ArrayList<>()).add(rate);
+        }
+        Map<String, Series> next = new HashMap<>();
+        for (Map.Entry<String, List<FxRate>> entry : byCurrency.entrySet()) {
+            next.put(entry.getKey(), new Series(entry.getValue()));
+        }
+        index = Collections.unmodifiableMap(next);
+        loadedImport = lastImport;
+        logger.info("Loaded FX rates for {} currencies", next.size());
+    }
+
+    private static Object[] parse(String line, int lineNumber, String defaultSource, Timestamp importedAt) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("FX rates line " + lineNumber + ": expected currency,date,rate[,source]");
+        }
+        String currency = fields[0].trim().toUpperCase();
+        if (!currency.matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("FX rates line " + lineNumber + ": bad currency '" + fields[0].trim() + "'");
+        }
+        LocalDate date;
+        BigDecimal rate;
+        try {
+            date = LocalDate.parse(fields[1].trim());
+            rate = new BigDecimal(fields[2].trim());
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("FX rates line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        if (rate.signum() <= 0) {
+            throw new IllegalArgumentException("FX rates line " + lineNumber + ": rate must be positive");
+        }
+        String source = fields.length > 3 && !fields[3].trim().isEmpty() ? fields[3].trim() : defaultSource;
+        return new Object[] {currency, Date.valueOf(date), rate, source, importedAt};
+    }
+
+    /** One currency's rates as parallel arrays sorted by day, searched for the nearest earlier day. */
+    private static final class Series {
+        private final long[] days;
+        private final FxRate[] rates;
+
+        Series(List<FxRate> sorted) {
+            days = new long[sorted.size()];
+            rates = sorted.toArray(new FxRate[0]);
+            for (int i = 0; i < rates.length; i++) {
+                days[i] = rates[i].getRateDate().toEpochDay();
+            }
+        }
+
+        FxRate at(LocalDate date) {
+            int i = Arrays.binarySearch(days, date.toEpochDay());
+            if (i < 0) {
+                i = -i - 2; // insertion point - 1: the last day before the date
+            }
+            return i >= 0 ? rates[i] : null;
+        }
+    }
+}
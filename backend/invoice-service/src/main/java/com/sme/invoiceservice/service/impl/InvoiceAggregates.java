@@ -0,0 +1,194 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.repository.InvoiceAggregateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps {@code invoice_aggregates} (and the cached aging reports) in step with invoice writes. Every write records the bucket the
+ * invoice counted towards before the change and the bucket after it; only the difference is
+ * applied, in the caller's transaction, so the totals roll back together with the invoice. Callers
+ * load the invoice with a row lock (see {@code InvoiceRepository#findByIdForUpdate}), so two writes
+ * cannot both read the same {@code before} and apply it twice. Count
+ * and revenue reads then sum a few rows per tenant instead of scanning invoices. Base (SGD) amounts
+ * use only the rate stored on the invoice, so a contribution never changes under a rate import;
+ * foreign-currency invoices without one are counted as unconverted instead of guessed at 1:1.
+ * {@link #rebuild(Long)} recomputes a tenant from the invoice table when the two have drifted
+ * (for example after a manual data fix).
+ */
+@Component
+public class InvoiceAggregates {
+
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyyMM");
+    static final String BASE_CURRENCY = "SGD";
+
+    @Autowired
+    private InvoiceAggregateRepository aggregateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InvoiceAgingReports agingReports;
+
+    @Value("${invoice.revenue-statuses:APPROVED,PAID}")
+    private String revenueStatuses;
+
+    /** The bucket and amounts an invoice currently counts towards; null for no invoice. */
+    public Contribution contributionOf(Invoice invoice) {
+        if (invoice == null || invoice.getCompanyId() == null) {
+            return null;
+        }
+        String currency = invoice.getCurrency() != null ? invoice.getCurrency() : BASE_CURRENCY;
+        BigDecimal total = invoice.getGrandTotal() != null ? BigDecimal.valueOf(invoice.getGrandTotal()) : BigDecimal.ZERO;
+        BigDecimal base = total;
+        boolean unconverted = false;
+        if (!BASE_CURRENCY.equals(currency)) {
+            // Only the rate stored on the invoice: a rate table lookup could change between "before"
+            // and "after" and leave the difference in the totals. No rate, no base amount.
+            if (invoice.getFxRate() != null) {
+                base = total.multiply(BigDecimal.valueOf(invoice.getFxRate()));
+            } else {
+                base = BigDecimal.ZERO;
+                unconverted = true;
+            }
+        }
+        return new Contribution(invoice.getCompanyId(),
+                invoice.getIssueDate() != null ? invoice.getIssueDate().format(PERIOD) : "000000",
+                invoice.getStatus() != null ? invoice.getStatus() : "UNKNOWN",
+                currency, total, base, unconverted, invoice.getClient(), invoice.getDueDate());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Invoice invoice) {
+        changed(null, contributionOf(invoice));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Invoice invoice) {
+        changed(contributionOf(invoice), null);
+    }
+
+    /** Moves an invoice from the {@code before} bucket to {@code after}; either may be null. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Contribution before, Contribution after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        agingReports.changed(before, after);
+        if (before != null && after != null && before.sameBucket(after)) {
+            BigDecimal total = after.total.subtract(before.total);
+            BigDecimal base = after.base.subtract(before.base);
+            long unconverted = after.unconvertedCount() - before.unconvertedCount();
+            if (total.signum() != 0 || base.signum() != 0 || unconverted != 0) {
+                apply(after, 0, total, base, unconverted);
+            }
+            return;
+        }
+        if (before != null) {
+            apply(before, -1, before.total.negate(), before.base.negate(), -before.unconvertedCount());
+        }
+        if (after != null) {
+            apply(after, 1, after.total, after.base, after.unconvertedCount());
+        }
+    }
+
+    public long countInvoices(Long companyId) {
+        return aggregateRepository.countInvoices(companyId);
+    }
+
+    public BigDecimal revenue(Long companyId) {
+        return aggregateRepository.sumBaseAmount(companyId, revenueStatusSet());
+    }
+
+    /** Foreign-currency invoices {@link #revenue(Long)} leaves out because they carry no rate. */
+    public long unconvertedRevenueInvoices(Long companyId) {
+        return aggregateRepository.countUnconverted(companyId, revenueStatusSet());
+    }
+
+    private Set<String> revenueStatusSet() {
+        Set<String> statuses = new LinkedHashSet<>();
+        for (String status : revenueStatuses.split(",")) {
+            if (!status.trim().isEmpty()) {
+                statuses.add(status.trim());
+            }
+        }
+        return statuses;
+    }
+
+    /** Recomputes the aggregates of one company from its invoices. */
+    public void rebuild(Long companyId) {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            aggregateRepository.deleteByCompany(companyId);
+            aggregateRepository.rebuildForCompany(companyId);
+            return null;
+        });
+    }
+
+    private void apply(Contribution bucket, long count, BigDecimal total, BigDecimal base, long unconverted) {
+        aggregateRepository.add(bucket.companyId, bucket.period, bucket.status, bucket.currency, count, total, base,
+                unconverted);
+    }
+
+    public static final class Contribution {
+        final Long companyId;
+        final String period;
+        final String status;
+        final String currency;
+        final BigDecimal total;
+        final BigDecimal base;
+        final boolean unconverted; // foreign currency without a stored rate; base is zero
+        final String client;
+        final LocalDate dueDate;
+
+        Contribution(Long companyId, String period, String status, String currency, BigDecimal total, BigDecimal base,
+                boolean unconverted, String client, LocalDate dueDate) {
+            this.companyId = companyId;
+            this.period = period;
+            this.status = status;
+            this.currency = currency;
+            this.total = total;
+            this.base = base;
+            this.unconverted = unconverted;
+            this.client = client;
+            this.dueDate = dueDate;
+        }
+
+        long unconvertedCount() {
+            return unconverted ? 1 : 0;
+        }
+
+        boolean sameBucket(Contribution other) {
+            return companyId.equals(other.companyId) && period.equals(other.period)
+                    && status.equals(other.status) && currency.equals(other.currency);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Contribution)) {
+                return false;
+            }
+            Contribution other = (Contribution) o;
+            return sameBucket(other) && total.compareTo(other.total) == 0 && base.compareTo(other.base) == 0
+                    && unconverted == other.unconverted && Objects.equals(client, other.client) && Objects.equals(dueDate, other.dueDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(companyId, period, status, currency);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.AgingReport;
+import com.sme.invoiceservice.model.AgingRow;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Accounts-receivable aging per tenant. The first request of the day computes the report in one
+ * streaming pass over the tenant's open invoices and caches it; after that, each committed invoice
+ * change moves that invoice's amount between the cached rows instead of discarding the report.
+ * A report that was being computed while an invoice changed is not cached, since it may have read
+ * the old state. The SGD total is derived from the per-currency totals on each request, from the
+ * in-memory rate table, so it costs one lookup per currency.
+ */
+@Component
+public class InvoiceAgingReports {
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FxRates fxRates;
+
+    @Value("${invoice.receivable-statuses:APPROVED,SENT,OVERDUE}")
+    private String receivableStatusList;
+
+    private Set<String> receivableStatuses;
+    private TransactionTemplate readOnly;
+    private final ConcurrentMap<Long, Tenant> tenants = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        receivableStatuses = new LinkedHashSet<>();
+        for (String status : receivableStatusList.split(",")) {
+            if (!status.trim().isEmpty()) {
+                receivableStatuses.add(status.trim());
+            }
+        }
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /** Aging as of today, optionally narrowed to one client and/or currency. */
+    public AgingReport report(Long companyId, String client, String currency) {
+        Tenant tenant = tenants.computeIfAbsent(companyId, id -> new Tenant());
+        LocalDate today = LocalDate.now();
+        Map<String, AgingRow> rows;
+        synchronized (tenant) {
+            rows = today.equals(tenant.asOf) ? tenant.copyRows() : null;
+        }
+        if (rows == null) {
+            long generation;
+            synchronized (tenant) {
+                generation = tenant.generation;
+            }
+            rows = compute(companyId, today);
+            synchronized (tenant) {
+                if (tenant.generation == generation) {
+                    tenant.asOf = today;
+                    tenant.rows = rows;
+                    rows = tenant.copyRows();
+                }
+            }
+        }
+        List<AgingRow> selected = new ArrayList<>();
+        Map<String, AgingRow> totals = new TreeMap<>();
+        for (AgingRow row : rows.values()) {
+            if ((client != null && !client.equals(row.getClient()))
+                    || (currency != null && !currency.equals(row.getCurrency()))) {
+                continue;
+            }
+            selected.add(row);
+            totals.computeIfAbsent(row.getCurrency(), c -> new AgingRow(null, c)).addAll(row);
+        }
+        selected.sort(Comparator.comparing(AgingRow::getTotal).reversed());
+        AgingRow baseTotal = new AgingRow(null, InvoiceAggregates.BASE_CURRENCY);
+        List<String> unconverted = new ArrayList<>();
+        for (AgingRow total : totals.values()) {
+            BigDecimal rate = InvoiceAggregates.BASE_CURRENCY.equals(total.getCurrency())
+                    ? BigDecimal.ONE : fxRates.rate(total.getCurrency(), today);
+            if (rate != null) {
+                baseTotal.addConverted(total, rate);
+            } else {
+                unconverted.add(total.getCurrency());
+            }
+        }
+        return new AgingReport(today, selected, new ArrayList<>(totals.values()), baseTotal, unconverted);
+    }
+
+    /** Called for every invoice write; the cached report is adjusted once the write commits. */
+    void changed(InvoiceAggregates.Contribution before, InvoiceAggregates.Contribution after) {
+        InvoiceAggregates.Contribution any = before != null ? before : after;
+        if (any == null || (!isReceivable(before) && !isReceivable(after))) {
+            return;
+        }
+        Long companyId = any.companyId;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(companyId, before, after);
+                }
+            });
+        } else {
+            apply(companyId, before, after);
+        }
+    }
+
+    private void apply(Long companyId, InvoiceAggregates.Contribution before, InvoiceAggregates.Contribution after) {
+        Tenant tenant = tenants.get(companyId);
+        if (tenant == null) {
+            return;
+        }
+        synchronized (tenant) {
+            tenant.generation++;
+            if (tenant.rows == null) {
+                return;
+            }
+            if (isReceivable(before)) {
+                add(tenant.rows, tenant.asOf, before.client, before.currency, before.dueDate, before.total.negate(), -1);
+            }
+            if (isReceivable(after)) {
+                add(tenant.rows, tenant.asOf, after.client, after.currency, after.dueDate, after.total, 1);
+            }
+        }
+    }
+
+    private Map<String, AgingRow> compute(Long companyId, LocalDate asOf) {
+        Map<String, AgingRow> rows = new LinkedHashMap<>();
+        readOnly.execute(status -> {
+            try (Stream<InvoiceSummary> invoices = invoiceRepository.streamReceivables(companyId, receivableStatuses)) {
+                invoices.forEach(invoice -> add(rows, asOf, invoice.getClient(),
+                        invoice.getCurrency() != null ? invoice.getCurrency() : InvoiceAggregates.BASE_CURRENCY,
+                        invoice.getDueDate(),
+                        invoice.getGrandTotal() != null ? BigDecimal.valueOf(invoice.getGrandTotal()) : BigDecimal.ZERO, 1));
+            }
+            return null;
+        });
+        return rows;
+    }
+
+    private static void add(Map<String, AgingRow> rows, LocalDate asOf, String client, String currency,
+            LocalDate dueDate, BigDecimal amount, long count) {
+        String key = client + "\u0000" + currency;
+        AgingRow row = rows.computeIfAbsent(key, k -> new AgingRow(client, currency));
+        row.add(dueDate != null ? ChronoUnit.DAYS.between(dueDate, asOf) : 0, amount, count);
+        if (row.getInvoiceCount() <= 0) {
+            rows.remove(key);
+        }
+    }
+
+    private boolean isReceivable(InvoiceAggregates.Contribution contribution) {
+        return contribution != null && receivableStatuses.contains(contribution.status);
+    }
+
+    private static final class Tenant {
+        LocalDate asOf;
+        Map<String, AgingRow> rows;
+        long generation;
+
+        Map<String, AgingRow> copyRows() {
+            Map<String, AgingRow> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, AgingRow> entry : rows.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().copy());
+            }
+            return copy;
+        }
+    }
+}
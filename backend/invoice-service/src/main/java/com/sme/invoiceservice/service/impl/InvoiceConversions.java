@@ -0,0 +1,129 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import com.sme.shared.AuditOutbox;
+import com.sme.shared.AuditOutboxEntry;
+import com.sme.shared.DocumentMapping;
+import com.sme.shared.DocumentNumberAllocator;
+import com.sme.shared.LineItem;
+import com.sme.shared.TaxableDocument;
+import com.sme.shared.TotalsCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Turns quotes, purchase orders and other taxable documents into draft invoices. A batch takes
+ * its invoice numbers in one allocation, recomputes each document's totals, maps the header through
+ * the document type's {@link DocumentMapping}, saves the invoices together and writes all their
+ * lines with one JDBC batch. Runs in the caller's transaction; callers converting many documents
+ * chunk them through {@code BulkActionExecutor}.
+ */
+@Component
+public class InvoiceConversions {
+
+    private static final String INSERT_LINE = "insert into line_items (description, sku, quantity, unit_of_measure, "
+            + "unit_price, discount, discount_type, tax_code, tax_rate, tax_exempt, line_subtotal, line_tax_amount, "
+            + "line_total, notes, created_by, parent_id, parent_type, created_at, updated_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'INVOICE', ?, ?)";
+
+    /** How one document type becomes an invoice; build once per type. */
+    public static final class Source<S extends TaxableDocument> {
+        private final String parentType;
+        private final Function<S, Long> idOf;
+        private final Function<S, List<LineItem>> linesOf;
+        private final DocumentMapping<S, Invoice> mapping;
+
+        /** {@code mapping} fills the invoice header; number, dates, status and lines are set here. */
+        public Source(String parentType, Function<S, Long> idOf, Function<S, List<LineItem>> linesOf,
+                DocumentMapping<S, Invoice> mapping) {
+            this.parentType = parentType;
+            this.idOf = idOf;
+            this.linesOf = linesOf;
+            this.mapping = mapping;
+        }
+    }
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DocumentNumberAllocator numberAllocator;
+    @Autowired
+    private InvoiceAggregates aggregates;
+    @Autowired
+    private InvoiceSearch search;
+    @Autowired
+    private FxRates fxRates;
+    @Autowired
+    private AuditOutbox auditOutbox;
+
+    /** Creates one DRAFT invoice per document, in the order given. Does not change the documents' status. */
+    public <S extends TaxableDocument> List<Invoice> convert(Source<S> source, Long companyId, List<S> documents,
+            Long userId) {
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> numbers = numberAllocator.next("INV", companyId, documents.size(), prefix -> {
+            Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
+            return DocumentNumberAllocator.sequenceOf(last != null ? last.getInvoiceNumber() : null, prefix);
+        });
+        LocalDate today = LocalDate.now();
+        List<Invoice> invoices = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            S document = documents.get(i);
+            // Also refreshes the line amounts copied below
+            TotalsCalculator.GST.recalculate(document);
+            Invoice invoice = source.mapping.map(document);
+            invoice.setCompanyId(companyId);
+            invoice.setInvoiceNumber(numbers.get(i));
+            invoice.setIssueDate(today);
+            invoice.setStatus("DRAFT");
+            invoice.setEmailSent(false);
+            invoice.setLineItems(new ArrayList<>());
+            fxRates.applyTo(invoice);
+            invoices.add(invoice);
+        }
+        invoiceRepository.saveAll(invoices);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> lineRows = new ArrayList<>();
+        List<AuditOutboxEntry> auditEntries = new ArrayList<>(invoices.size());
+        for (int i = 0; i < documents.size(); i++) {
+            S document = documents.get(i);
+            Invoice invoice = invoices.get(i);
+            List<LineItem> lines = source.linesOf.apply(document);
+            if (lines != null) {
+                for (LineItem line : lines) {
+                    lineRows.add(lineRow(line, invoice.getId(), now));
+                }
+            }
+            aggregates.created(invoice);
+            search.changed(invoice, lines);
+            auditEntries.add(AuditOutboxEntry.audit("INVOICE", invoice.getId(), "CREATE", "source", null,
+                    source.parentType + " " + source.idOf.apply(document), userId, "Converted from " + source.parentType));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE, lineRows);
+        auditOutbox.append(auditEntries);
+        return invoices;
+    }
+
+    private static Object[] lineRow(LineItem line, Long invoiceId, Timestamp now) {
+        return new Object[] {
+                line.getDescription(), line.getSku(), line.getQuantity(), line.getUnitOfMeasure(), line.getUnitPrice(),
+                line.getDiscount(), line.getDiscountType(), line.getTaxCode(), line.getTaxRate(), line.getTaxExempt(),
+                line.getLineSubtotal(), line.getLineTaxAmount(), line.getLineTotal(), line.getNotes(),
+                line.getCreatedBy(), invoiceId, now, now
+        };
+    }
+}
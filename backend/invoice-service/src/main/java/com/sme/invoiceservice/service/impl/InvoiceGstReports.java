@@ -0,0 +1,79 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.GstReport;
+import com.sme.invoiceservice.model.GstReportRow;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Output GST per currency for a period. The database groups the tenant's invoices by issue date,
+ * currency and invoice rate through the (companyId, issueDate) index, so the report reads at most
+ * one row per day and rate per currency; each group is converted to SGD here with one in-memory
+ * rate lookup.
+ */
+@Component
+public class InvoiceGstReports {
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private FxRates fxRates;
+
+    @Value("${invoice.revenue-statuses:APPROVED,PAID}")
+    private String revenueStatuses;
+
+    public GstReport report(Long companyId, LocalDate from, LocalDate to) {
+        Set<String> statuses = new LinkedHashSet<>();
+        for (String status : revenueStatuses.split(",")) {
+            if (!status.trim().isEmpty()) {
+                statuses.add(status.trim());
+            }
+        }
+        Map<String, GstReportRow> rows = new TreeMap<>();
+        for (Object[] group : invoiceRepository.sumTaxByIssueDate(companyId, statuses, from, to)) {
+            LocalDate issueDate = (LocalDate) group[0];
+            String currency = group[1] != null ? (String) group[1] : InvoiceAggregates.BASE_CURRENCY;
+            Double invoiceRate = (Double) group[2];
+            BigDecimal rate;
+            if (InvoiceAggregates.BASE_CURRENCY.equals(currency)) {
+                rate = BigDecimal.ONE;
+            } else if (invoiceRate != null) {
+                rate = BigDecimal.valueOf(invoiceRate);
+            } else {
+                rate = fxRates.rate(currency, issueDate);
+            }
+            rows.computeIfAbsent(currency, GstReportRow::new).add(((Number) group[3]).longValue(),
+                    amount(group[4]), amount(group[5]), rate);
+        }
+        BigDecimal baseSupply = BigDecimal.ZERO;
+        BigDecimal baseTax = BigDecimal.ZERO;
+        List<String> unconverted = new ArrayList<>();
+        for (GstReportRow row : rows.values()) {
+            row.setBaseSupplyAmount(row.getBaseSupplyAmount().setScale(2, RoundingMode.HALF_UP));
+            row.setBaseTaxAmount(row.getBaseTaxAmount().setScale(2, RoundingMode.HALF_UP));
+            baseSupply = baseSupply.add(row.getBaseSupplyAmount());
+            baseTax = baseTax.add(row.getBaseTaxAmount());
+            if (!row.isFullyConverted()) {
+                unconverted.add(row.getCurrency());
+            }
+        }
+        return new GstReport(from, to, new ArrayList<>(rows.values()), baseSupply, baseTax, unconverted);
+    }
+
+    private static BigDecimal amount(Object sum) {
+        return sum != null ? BigDecimal.valueOf(((Number) sum).doubleValue()) : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.sme.invoiceservice.model.Invoice;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+
+/**
+ * Renders one invoice as PDF. Stateless, so the single-invoice download and the bulk export
+ * workers share it; the built-in Helvetica base font is loaded once by iText and reused.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    public void write(Invoice invoice, OutputStream out) throws DocumentException {
+        Document document = new Document();
+        PdfWriter.getInstance(document, out);
+        document.open();
+        document.add(new Paragraph("Invoice"));
+        document.add(new Paragraph("Invoice Number: " + invoice.getInvoiceNumber()));
+        document.add(new Paragraph("Client: " + invoice.getClient()));
+        document.add(new Paragraph("Amount: $" + invoice.getAmount()));
+        document.add(new Paragraph("Status: " + invoice.getStatus()));
+        document.add(new Paragraph("Issue Date: " + invoice.getIssueDate()));
+        document.add(new Paragraph("Due Date: " + invoice.getDueDate()));
+        document.close();
+    }
+
+    public String fileName(Invoice invoice) {
+        String number = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : String.valueOf(invoice.getId());
+        return "invoice-" + number.replaceAll("[^A-Za-z0-9._-]", "_") + ".pdf";
+    }
+}
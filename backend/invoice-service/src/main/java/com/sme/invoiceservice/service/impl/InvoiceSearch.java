@@ -0,0 +1,134 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import com.sme.shared.CursorPage;
+import com.sme.shared.DocumentSearchIndex;
+import com.sme.shared.LineItem;
+import com.sme.shared.SearchDocument;
+import com.sme.shared.SearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search over invoice numbers, clients, notes and line item descriptions and SKUs.
+ * Each company's invoices are indexed with Lucene under {@code search.index-dir}, built in the
+ * background on its first search from id pages read with their line items, and writes made
+ * through this service update the index once they commit.
+ */
+@Component
+public class InvoiceSearch {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${search.index-dir:${java.io.tmpdir}/sme-search}")
+    private String indexDir;
+    @Value("${search.max-companies:200}")
+    private int maxCompanies;
+    @Value("${search.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    private DocumentSearchIndex index;
+
+    @PostConstruct
+    public void init() {
+        index = new DocumentSearchIndex(Paths.get(indexDir, "invoices"), this::load, "invoice-search", maxCompanies,
+                maxAgeMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        index.close();
+    }
+
+    public SearchResult search(Long companyId, String query, String status, Integer limit) {
+        return index.search(companyId, query, status, CursorPage.limit(limit));
+    }
+
+    /** Reindexes a created or edited invoice after commit; call while its line items can still load. */
+    public void changed(Invoice invoice) {
+        changed(invoice, invoice.getLineItems());
+    }
+
+    /** As {@link #changed(Invoice)}, for an invoice whose lines were written separately (recurring runs). */
+    public void changed(Invoice invoice, List<LineItem> lineItems) {
+        SearchDocument document = documentOf(invoice, lineItems);
+        Long companyId = invoice.getCompanyId();
+        afterCommit(() -> index.put(companyId, document));
+    }
+
+    public void statusChanged(Invoice invoice) {
+        Long companyId = invoice.getCompanyId();
+        Long id = invoice.getId();
+        String status = invoice.getStatus();
+        afterCommit(() -> index.updateStatus(companyId, id, status));
+    }
+
+    public void deleted(Invoice invoice) {
+        Long companyId = invoice.getCompanyId();
+        Long id = invoice.getId();
+        afterCommit(() -> index.remove(companyId, id));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private void load(Long companyId, Consumer<SearchDocument> sink) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long from = afterId;
+            afterId = readOnly.execute(status -> {
+                List<Long> ids = invoiceRepository.findIdPage(companyId, from, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (Invoice invoice : invoiceRepository.findAllWithLineItems(ids)) {
+                    sink.accept(documentOf(invoice, invoice.getLineItems()));
+                }
+                return ids.size() < LOAD_PAGE_SIZE ? null : ids.get(ids.size() - 1);
+            });
+        }
+    }
+
+    private static SearchDocument documentOf(Invoice invoice, List<LineItem> lineItems) {
+        SearchDocument document = new SearchDocument(invoice.getId(), invoice.getStatus(),
+                invoice.getInvoiceNumber(), invoice.getClient())
+                .keyword(invoice.getInvoiceNumber(), 3)
+                .text(invoice.getClient(), 3)
+                .text(invoice.getNotes(), 1);
+        if (lineItems != null) {
+            for (LineItem item : lineItems) {
+                document.text(item.getDescription(), 1).keyword(item.getSku(), 2);
+            }
+        }
+        return document;
+    }
+}
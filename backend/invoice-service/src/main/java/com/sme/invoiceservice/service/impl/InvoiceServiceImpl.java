@@ -1,28 +1,124 @@
 package com.sme.invoiceservice.service.impl;
 
 import com.sme.shared.CompanyContext;
+import com.sme.invoiceservice.model.AgingReport;
+import com.sme.invoiceservice.model.FxRate;
+import com.sme.invoiceservice.model.GstReport;
 import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.invoiceservice.model.RecurringRun;
+import com.sme.invoiceservice.model.BulkExportRequest;
+import com.sme.invoiceservice.model.ExportProgress;
 import com.sme.invoiceservice.repository.InvoiceRepository;
 import com.sme.invoiceservice.service.InvoiceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import java.math.BigDecimal;
+import com.sme.shared.BulkActionExecutor;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditDiffer;
+import com.sme.shared.AuditOutbox;
+import com.sme.shared.AuditOutboxEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.TotalsCalculator;
+import com.sme.shared.DocumentNumberAllocator;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.DocumentLogReader;
 import com.sme.shared.LineItem;
-import com.sme.shared.ApprovalLog;
-import com.sme.shared.StatusHistoryLog;
-import com.sme.shared.AuditTrailLog;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class InvoiceServiceImpl implements InvoiceService {
+    private static final AuditDiffer<Invoice> AUDIT_DIFFER = AuditDiffer.forType(Invoice.class);
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final long EXPORT_RETENTION_MINUTES = 30;
+
     @Autowired
     private InvoiceRepository invoiceRepository;
+    @Autowired
+    private DocumentNumberAllocator numberAllocator;
+    @Autowired
+    private AuditOutbox auditOutbox;
+    @Autowired
+    private InvoicePdfRenderer pdfRenderer;
+    @Autowired
+    private InvoiceLedgerWriter ledgerWriter;
+    @Autowired
+    private InvoiceAggregates aggregates;
+    @Autowired
+    private InvoiceAgingReports agingReports;
+    @Autowired
+    private RecurringInvoiceScheduler recurringScheduler;
+    @Autowired
+    private InvoiceTotalsRecalculator totalsRecalculator;
+    @Autowired
+    private BulkActionExecutor bulkActions;
+    @Autowired
+    private DocumentLogReader documentLogs;
+    @Autowired
+    private InvoiceGstReports gstReports;
+    @Autowired
+    private FxRates fxRates;
+    @Autowired
+    private InvoiceSearch search;
+
+    @Value("${invoice.export.threads:4}")
+    private int exportThreads;
+
+    private ExecutorService exportPool;
+    private final ConcurrentMap<String, ExportProgress> exports = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        exportPool = Executors.newFixedThreadPool(exportThreads, runnable -> {
+            Thread thread = new Thread(runnable, "invoice-pdf-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exportPool.shutdownNow();
+    }
 
     @Override
     public List<Invoice> getAllInvoicesForCurrentTenant() {
@@ -31,6 +127,25 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
+    public CursorPage<InvoiceSummary> getInvoicePage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String client, CountMode countMode) {
+        Long companyId = CompanyContext.getCompanyId();
+        int size = CursorPage.limit(limit);
+        CursorPage<InvoiceSummary> page = CursorPage.of(
+                invoiceRepository.findSummaries(companyId, cursor, status, fromDate, toDate, client, PageRequest.of(0, size + 1)),
+                size, InvoiceSummary::getId);
+        if (countMode == CountMode.EXACT) {
+            page.withTotal(invoiceRepository.countSummaries(companyId, status, fromDate, toDate, client), true);
+        } else if (countMode == CountMode.ESTIMATE) {
+            long counted = invoiceRepository.countSummariesUpTo(companyId, status, fromDate, toDate, client,
+                    CursorPage.ESTIMATE_CAP + 1);
+            page.withTotal(Math.min(counted, CursorPage.ESTIMATE_CAP), counted <= CursorPage.ESTIMATE_CAP);
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional
     public Invoice createInvoice(Invoice invoice) {
         Long companyId = CompanyContext.getCompanyId();
         invoice.setCompanyId(companyId);
@@ -38,8 +153,13 @@ public class InvoiceServiceImpl implements InvoiceService {
         invoice.setIssueDate(LocalDate.now());
         invoice.setStatus("DRAFT");
         invoice.setEmailSent(false);
+        invoice.setNextRunDate(firstRunDate(invoice));
+        fxRates.applyTo(invoice);
+        tagLineItems(invoice);
         calculateInvoiceTotals(invoice);
         Invoice saved = invoiceRepository.save(invoice);
+        aggregates.created(saved);
+        search.changed(saved);
         // Log creation
         logStatusChange(saved, null, "DRAFT", null, "Created");
         logAuditTrail(saved, "CREATE", null, saved, null, "Created");
@@ -47,9 +167,11 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
+    @Transactional
     public Invoice updateInvoice(Long invoiceId, Invoice invoice) {
-        Invoice existing = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice existing = invoiceRepository.findByIdForUpdate(invoiceId).orElseThrow();
         String oldStatus = existing.getStatus();
+        InvoiceAggregates.Contribution before = aggregates.contributionOf(existing);
         Invoice oldCopy = new Invoice();
         org.springframework.beans.BeanUtils.copyProperties(existing, oldCopy);
         existing.setClient(invoice.getClient());
@@ -59,8 +181,17 @@ public class InvoiceServiceImpl implements InvoiceService {
         existing.setPdfUrl(invoice.getPdfUrl());
         existing.setEmailSent(invoice.getEmailSent());
         existing.setLineItems(invoice.getLineItems());
+        if (!java.util.Objects.equals(existing.getRecurring(), invoice.getRecurring())) {
+            existing.setRecurring(invoice.getRecurring());
+            existing.setNextRunDate(firstRunDate(existing));
+        }
+        tagLineItems(existing);
         calculateInvoiceTotals(existing);
+        // Invoices saved before a rate for their date was imported pick it up now; the aggregates move with it
+        fxRates.applyTo(existing);
         Invoice saved = invoiceRepository.save(existing);
+        aggregates.changed(before, aggregates.contributionOf(saved));
+        search.changed(saved);
         // Log status change if changed
         if (!oldStatus.equals(saved.getStatus())) {
             logStatusChange(saved, oldStatus, saved.getStatus(), null, "Status updated");
@@ -70,13 +201,17 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
+    @Transactional
     public void deleteInvoice(Long invoiceId, Long userId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId).orElseThrow();
         logAuditTrail(invoice, "DELETE", invoice, invoice, userId, "Deleted");
         invoiceRepository.deleteById(invoiceId);
+        aggregates.deleted(invoice);
+        search.deleted(invoice);
     }
 
     @Override
+    @Transactional
     public void logExportAction(Long invoiceId, Long userId, String action) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
         logAuditTrail(invoice, action, invoice, invoice, userId, action);
@@ -84,235 +219,398 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
-    public byte[] generateInvoicePdf(Long invoiceId) {
+    public StreamingResponseBody streamInvoicePdf(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        try {
-            Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Invoice"));
-            document.add(new Paragraph("Invoice Number: " + invoice.getInvoiceNumber()));
-            document.add(new Paragraph("Client: " + invoice.getClient()));
-            document.add(new Paragraph("Amount: $" + invoice.getAmount()));
-            document.add(new Paragraph("Status: " + invoice.getStatus()));
-            document.add(new Paragraph("Issue Date: " + invoice.getIssueDate()));
-            document.add(new Paragraph("Due Date: " + invoice.getDueDate()));
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
+        return out -> {
+            try {
+                pdfRenderer.write(invoice, out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate PDF", e);
+            }
+        };
+    }
+
+    @Override
+    public ExportProgress startBulkPdfExport(BulkExportRequest request) {
+        Long companyId = CompanyContext.getCompanyId();
+        long total = request.hasIds()
+                ? (long) new LinkedHashSet<>(request.getIds()).size()
+                : invoiceRepository.countSummaries(companyId, request.getStatus(), request.getFrom(), request.getTo(),
+                        request.getClient());
+        return registerExport(companyId, total);
+    }
+
+    @Override
+    public ExportProgress startLedgerExport() {
+        return registerExport(CompanyContext.getCompanyId(), null);
+    }
+
+    @Override
+    public StreamingResponseBody streamLedgerExport(ExportProgress progress, LocalDate fromDate, LocalDate toDate) {
+        return out -> ledgerWriter.write(progress.getCompanyId(), fromDate, toDate, progress, out);
+    }
+
+    private ExportProgress registerExport(Long companyId, Long total) {
+        exports.values().removeIf(p -> p.isDone()
+                && p.getFinishedAt().isBefore(LocalDateTime.now().minusMinutes(EXPORT_RETENTION_MINUTES)));
+        ExportProgress progress = new ExportProgress(UUID.randomUUID().toString(), companyId, total);
+        exports.put(progress.getId(), progress);
+        return progress;
+    }
+
+    @Override
+    public ExportProgress getExportProgress(String exportId) {
+        ExportProgress progress = exports.get(exportId);
+        if (progress == null || !progress.getCompanyId().equals(CompanyContext.getCompanyId())) {
+            throw new NoSuchElementException("Export not found");
         }
+        return progress;
     }
 
+    /**
+     * Renders PDFs on the export pool and writes each into the ZIP as soon as it is done. At most
+     * twice the pool size are rendered ahead of the writer, so buffered PDFs do not grow with the batch.
+     * Invoices that are missing, belong to another company or fail to render are counted as failed.
+     */
     @Override
-    public byte[] generateInvoiceExcel(Long invoiceId) {
+    public StreamingResponseBody streamBulkPdfExport(ExportProgress progress, BulkExportRequest request) {
+        Long companyId = progress.getCompanyId();
+        return out -> {
+            CompletionService<RenderedPdf> renders = new ExecutorCompletionService<>(exportPool);
+            Iterator<Long> ids = exportIds(companyId, request);
+            int maxInFlight = exportThreads * 2;
+            int inFlight = 0;
+            try {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                // PDFs are already compressed; spend as little CPU as possible on deflating them again
+                zip.setLevel(Deflater.BEST_SPEED);
+                Set<String> names = new HashSet<>();
+                while (inFlight > 0 || ids.hasNext()) {
+                    while (inFlight < maxInFlight && ids.hasNext()) {
+                        Long id = ids.next();
+                        renders.submit(() -> renderForExport(companyId, id));
+                        inFlight++;
+                    }
+                    Future<RenderedPdf> done = renders.take();
+                    inFlight--;
+                    RenderedPdf pdf;
+                    try {
+                        pdf = done.get();
+                    } catch (ExecutionException e) {
+                        progress.recordFailed();
+                        continue;
+                    }
+                    String name = pdf.name;
+                    if (!names.add(name)) {
+                        name = pdf.id + "-" + name;
+                    }
+                    zip.putNextEntry(new ZipEntry(name));
+                    zip.write(pdf.bytes);
+                    zip.closeEntry();
+                    progress.recordCompleted();
+                }
+                zip.finish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("PDF export interrupted");
+            } finally {
+                progress.finish();
+            }
+        };
+    }
+
+    private RenderedPdf renderForExport(Long companyId, Long invoiceId) throws Exception {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Invoice");
-            Row row = sheet.createRow(0);
-            row.createCell(0).setCellValue("Invoice Number");
-            row.createCell(1).setCellValue(invoice.getInvoiceNumber());
-            row.createCell(2).setCellValue("Client");
-            row.createCell(3).setCellValue(invoice.getClient());
-            row.createCell(4).setCellValue("Amount");
-            row.createCell(5).setCellValue(invoice.getAmount());
-            row.createCell(6).setCellValue("Status");
-            row.createCell(7).setCellValue(invoice.getStatus());
-            row.createCell(8).setCellValue("Issue Date");
-            row.createCell(9).setCellValue(invoice.getIssueDate() != null ? invoice.getIssueDate().toString() : "");
-            row.createCell(10).setCellValue("Due Date");
-            row.createCell(11).setCellValue(invoice.getDueDate() != null ? invoice.getDueDate().toString() : "");
-            // ...add more fields as needed...
-            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate Excel", e);
+        if (!invoice.getCompanyId().equals(companyId)) {
+            throw new IllegalArgumentException("Invoice " + invoiceId + " belongs to another company");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        pdfRenderer.write(invoice, buffer);
+        return new RenderedPdf(invoiceId, pdfRenderer.fileName(invoice), buffer.toByteArray());
+    }
+
+    /** Explicit ids in request order, or the filter walked page by page with the keyset query. */
+    private Iterator<Long> exportIds(Long companyId, BulkExportRequest request) {
+        if (request.hasIds()) {
+            return new LinkedHashSet<>(request.getIds()).iterator();
+        }
+        return new Iterator<Long>() {
+            private Iterator<InvoiceSummary> page = Collections.emptyIterator();
+            private Long cursor;
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !last) {
+                    List<InvoiceSummary> rows = invoiceRepository.findSummaries(companyId, cursor, request.getStatus(),
+                            request.getFrom(), request.getTo(), request.getClient(), PageRequest.of(0, EXPORT_PAGE_SIZE));
+                    last = rows.size() < EXPORT_PAGE_SIZE;
+                    if (!rows.isEmpty()) {
+                        cursor = rows.get(rows.size() - 1).getId();
+                    }
+                    page = rows.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next().getId();
+            }
+        };
+    }
+
+    private static final class RenderedPdf {
+        final Long id;
+        final String name;
+        final byte[] bytes;
+
+        RenderedPdf(Long id, String name, byte[] bytes) {
+            this.id = id;
+            this.name = name;
+            this.bytes = bytes;
         }
     }
 
     @Override
-    public Invoice submitForApproval(Long invoiceId, Long userId, String remarks) {
+    public StreamingResponseBody streamInvoiceExcel(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        String oldStatus = invoice.getStatus();
-        invoice.setStatus("PENDING_APPROVAL");
-        logStatusChange(invoice, oldStatus, "PENDING_APPROVAL", userId, remarks);
-        logAuditTrail(invoice, "SUBMIT_FOR_APPROVAL", invoice, invoice, userId, remarks);
-        if (invoice.getApprovalLogs() == null) invoice.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(invoiceId);
-        log.setParentType("INVOICE");
-        log.setApproverId(userId);
-        log.setAction("SUBMITTED");
-        log.setRemarks(remarks);
-        invoice.getApprovalLogs().add(log);
-        return invoiceRepository.save(invoice);
+        return out -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Invoice");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue("Invoice Number");
+                row.createCell(1).setCellValue(invoice.getInvoiceNumber());
+                row.createCell(2).setCellValue("Client");
+                row.createCell(3).setCellValue(invoice.getClient());
+                row.createCell(4).setCellValue("Amount");
+                row.createCell(5).setCellValue(invoice.getAmount());
+                row.createCell(6).setCellValue("Status");
+                row.createCell(7).setCellValue(invoice.getStatus());
+                row.createCell(8).setCellValue("Issue Date");
+                row.createCell(9).setCellValue(invoice.getIssueDate() != null ? invoice.getIssueDate().toString() : "");
+                row.createCell(10).setCellValue("Due Date");
+                row.createCell(11).setCellValue(invoice.getDueDate() != null ? invoice.getDueDate().toString() : "");
+                // ...add more fields as needed...
+                workbook.write(out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate Excel", e);
+            }
+        };
     }
 
     @Override
+    @Transactional
+    public Invoice submitForApproval(Long invoiceId, Long userId, String remarks) {
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId).orElseThrow();
+        InvoiceAggregates.Contribution before = aggregates.contributionOf(invoice);
+        Invoice saved = invoiceRepository.save(transition(invoice, "PENDING_APPROVAL", "SUBMIT_FOR_APPROVAL", "SUBMITTED", userId, remarks));
+        aggregates.changed(before, aggregates.contributionOf(saved));
+        search.statusChanged(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
     public Invoice approve(Long invoiceId, Long userId, String remarks) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        String oldStatus = invoice.getStatus();
-        invoice.setStatus("APPROVED");
-        logStatusChange(invoice, oldStatus, "APPROVED", userId, remarks);
-        logAuditTrail(invoice, "APPROVE", invoice, invoice, userId, remarks);
-        if (invoice.getApprovalLogs() == null) invoice.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(invoiceId);
-        log.setParentType("INVOICE");
-        log.setApproverId(userId);
-        log.setAction("APPROVED");
-        log.setRemarks(remarks);
-        invoice.getApprovalLogs().add(log);
-        return invoiceRepository.save(invoice);
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId).orElseThrow();
+        InvoiceAggregates.Contribution before = aggregates.contributionOf(invoice);
+        Invoice saved = invoiceRepository.save(transition(invoice, "APPROVED", "APPROVE", "APPROVED", userId, remarks));
+        aggregates.changed(before, aggregates.contributionOf(saved));
+        search.statusChanged(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public Invoice reject(Long invoiceId, Long userId, String remarks) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId).orElseThrow();
+        InvoiceAggregates.Contribution before = aggregates.contributionOf(invoice);
+        Invoice saved = invoiceRepository.save(transition(invoice, "REJECTED", "REJECT", "REJECTED", userId, remarks));
+        aggregates.changed(before, aggregates.contributionOf(saved));
+        search.statusChanged(saved);
+        return saved;
+    }
+
+    @Override
+    public BulkActionResult bulkApprove(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "APPROVED", "APPROVE", "APPROVED", userId);
+    }
+
+    @Override
+    public BulkActionResult bulkReject(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "REJECTED", "REJECT", "REJECTED", userId);
+    }
+
+    // Only invoices awaiting approval move; each chunk is one IN query, one saveAll and one outbox batch
+    private BulkActionResult bulkTransition(BulkActionRequest request, String newStatus, String auditAction,
+            String approvalAction, Long userId) {
+        Long companyId = CompanyContext.getCompanyId();
+        return bulkActions.execute(request.getIds(),
+                ids -> invoiceRepository.findAllByIdInAndCompanyId(ids, companyId),
+                Invoice::getId, Invoice::getStatus,
+                invoice -> {
+                    if (!"PENDING_APPROVAL".equals(invoice.getStatus())) {
+                        throw new IllegalStateException("Invoice is " + invoice.getStatus() + ", not PENDING_APPROVAL");
+                    }
+                    InvoiceAggregates.Contribution before = aggregates.contributionOf(invoice);
+                    transition(invoice, newStatus, auditAction, approvalAction, userId, request.getRemarks());
+                    aggregates.changed(before, aggregates.contributionOf(invoice));
+                    search.statusChanged(invoice);
+                },
+                invoiceRepository::saveAll);
+    }
+
+    // Sets the status and queues the status history, audit trail and approval rows for it
+    private Invoice transition(Invoice invoice, String newStatus, String auditAction, String approvalAction,
+            Long userId, String remarks) {
         String oldStatus = invoice.getStatus();
-        invoice.setStatus("REJECTED");
-        logStatusChange(invoice, oldStatus, "REJECTED", userId, remarks);
-        logAuditTrail(invoice, "REJECT", invoice, invoice, userId, remarks);
-        if (invoice.getApprovalLogs() == null) invoice.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(invoiceId);
-        log.setParentType("INVOICE");
-        log.setApproverId(userId);
-        log.setAction("REJECTED");
-        log.setRemarks(remarks);
-        invoice.getApprovalLogs().add(log);
-        return invoiceRepository.save(invoice);
-    }
-
-    @Override
-    public java.util.List<ApprovalLog> getApprovalLogs(Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        return invoice.getApprovalLogs() != null ? invoice.getApprovalLogs() : java.util.Collections.emptyList();
+        invoice.setStatus(newStatus);
+        logStatusChange(invoice, oldStatus, newStatus, userId, remarks);
+        auditOutbox.append(Arrays.asList(
+                AuditOutboxEntry.audit("INVOICE", invoice.getId(), auditAction, "status", oldStatus, newStatus, userId, remarks),
+                AuditOutboxEntry.approval("INVOICE", invoice.getId(), approvalAction, userId, remarks)));
+        return invoice;
     }
 
     @Override
-    public java.util.List<AuditTrailLog> getAuditTrailLogs(Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        return invoice.getAuditTrailLogs() != null ? invoice.getAuditTrailLogs() : java.util.Collections.emptyList();
+    public long countInvoices(Long companyId) {
+        return aggregates.countInvoices(companyId);
     }
 
     @Override
-    public java.util.List<StatusHistoryLog> getStatusHistoryLogs(Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        return invoice.getStatusHistoryLogs() != null ? invoice.getStatusHistoryLogs() : java.util.Collections.emptyList();
+    public BigDecimal getRevenue(Long companyId) {
+        return aggregates.revenue(companyId);
+    }
+
+    @Override
+    public long getUnconvertedRevenueInvoices(Long companyId) {
+        return aggregates.unconvertedRevenueInvoices(companyId);
+    }
+
+    @Override
+    public void rebuildAggregates() {
+        aggregates.rebuild(requireCompanyId());
+    }
+
+    @Override
+    public RecurringRun runRecurringInvoices(LocalDate runDate) {
+        // A later date would issue invoices ahead of time
+        LocalDate today = recurringScheduler.today();
+        return recurringScheduler.run(runDate != null && runDate.isBefore(today) ? runDate : today,
+                requireCompanyId());
+    }
+
+    @Override
+    public List<RecurringRun> getRecurringRuns() {
+        return recurringScheduler.recentRuns(requireCompanyId());
+    }
+
+    // A null company would widen recurring runs to every tenant
+    private Long requireCompanyId() {
+        Long companyId = CompanyContext.getCompanyId();
+        if (companyId == null) {
+            throw new RuntimeException("Company context is required");
+        }
+        return companyId;
+    }
+
+    @Override
+    public GstReport getGstReport(LocalDate fromDate, LocalDate toDate) {
+        return gstReports.report(CompanyContext.getCompanyId(), fromDate, toDate);
+    }
+
+    @Override
+    public FxRate getFxRate(String currency, LocalDate date) {
+        return fxRates.lookup(currency, date != null ? date : LocalDate.now());
+    }
+
+    @Override
+    public SearchResult searchInvoices(String query, String status, Integer limit) {
+        return search.search(CompanyContext.getCompanyId(), query, status, limit);
+    }
+
+    @Override
+    public int recalculateTotals() {
+        return totalsRecalculator.recalculate(CompanyContext.getCompanyId());
+    }
+
+    @Override
+    public AgingReport getAgingReport(String client, String currency) {
+        return agingReports.report(CompanyContext.getCompanyId(), client, currency);
+    }
+
+    @Override
+    public CursorPage<ApprovalLogEntry> getApprovalLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(invoiceId);
+        return documentLogs.approvals("INVOICE", invoiceId, cursor, limit, from, to);
+    }
+
+    @Override
+    public CursorPage<AuditTrailEntry> getAuditTrailLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(invoiceId);
+        return documentLogs.auditTrail("INVOICE", invoiceId, cursor, limit, from, to);
+    }
+
+    @Override
+    public CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long invoiceId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(invoiceId);
+        return documentLogs.statusHistory("INVOICE", invoiceId, cursor, limit, from, to);
+    }
+
+    // A recurring template issues its next invoice one period after its own issue date
+    private LocalDate firstRunDate(Invoice invoice) {
+        Recurrence recurrence = Recurrence.parse(invoice.getRecurring());
+        if (recurrence == null || invoice.getIssueDate() == null) {
+            return null;
+        }
+        LocalDate from = invoice.getIssueDate().isAfter(LocalDate.now()) ? invoice.getIssueDate() : LocalDate.now();
+        return recurrence.next(invoice.getIssueDate(), from);
     }
 
     private String generateInvoiceNumber(Long companyId) {
-        Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
-        int next = 1;
-        String prefix = "INV-" + LocalDate.now().getYear() + String.format("%02d", LocalDate.now().getMonthValue());
-        if (last != null && last.getInvoiceNumber() != null && last.getInvoiceNumber().startsWith(prefix)) {
-            String[] parts = last.getInvoiceNumber().split("-");
-            String seq = parts[2];
-            next = Integer.parseInt(seq) + 1;
+        return numberAllocator.next("INV", companyId, prefix -> {
+            Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
+            return DocumentNumberAllocator.sequenceOf(last != null ? last.getInvoiceNumber() : null, prefix);
+        });
+    }
+
+    // Cascaded lines only get parent_id from the join column; the collection is filtered on parent_type
+    private void tagLineItems(Invoice invoice) {
+        if (invoice.getLineItems() != null) {
+            for (LineItem item : invoice.getLineItems()) {
+                item.setParentType("INVOICE");
+            }
         }
-        return prefix + "-" + String.format("%03d", next);
     }
 
     private void calculateInvoiceTotals(Invoice invoice) {
-        List<LineItem> lineItems = invoice.getLineItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        if (lineItems != null) {
-            for (LineItem item : lineItems) {
-                subtotal = subtotal.add(item.getLineSubtotal() != null ? item.getLineSubtotal() : BigDecimal.ZERO);
-                totalTax = totalTax.add(item.getLineTaxAmount() != null ? item.getLineTaxAmount() : BigDecimal.ZERO);
-                // Optionally sum line-level discounts if needed
-                if (item.getDiscount() != null && item.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    if ("PERCENT".equals(item.getDiscountType())) {
-                        totalDiscount = totalDiscount.add(item.getLineSubtotal().multiply(item.getDiscount().divide(new BigDecimal("100"))));
-                    } else {
-                        totalDiscount = totalDiscount.add(item.getDiscount());
-                    }
-                }
-            }
+        TotalsCalculator.GST.recalculate(invoice);
+    }
+
+    // Log reads go straight to the log tables, so check the document belongs to the tenant first
+    private void requireOwned(Long invoiceId) {
+        if (!invoiceRepository.existsByIdAndCompanyId(invoiceId, CompanyContext.getCompanyId())) {
+            throw new NoSuchElementException("Invoice not found: " + invoiceId);
         }
-        // Header-level discount
-        BigDecimal headerDiscount = invoice.getDiscount() != null ? BigDecimal.valueOf(invoice.getDiscount()) : BigDecimal.ZERO;
-        totalDiscount = totalDiscount.add(headerDiscount);
-        // Shipping
-        BigDecimal shipping = invoice.getShipping() != null ? BigDecimal.valueOf(invoice.getShipping()) : BigDecimal.ZERO;
-        // Grand total
-        BigDecimal grandTotal = subtotal.subtract(totalDiscount).add(totalTax).add(shipping);
-        invoice.setSubtotal(subtotal.doubleValue());
-        invoice.setTax(totalTax.doubleValue());
-        invoice.setDiscount(totalDiscount.doubleValue());
-        invoice.setShipping(shipping.doubleValue());
-        invoice.setGrandTotal(grandTotal.doubleValue());
     }
 
     private void logStatusChange(Invoice invoice, String oldStatus, String newStatus, Long userId, String remarks) {
-        if (invoice.getStatusHistoryLogs() == null) invoice.setStatusHistoryLogs(new java.util.ArrayList<>());
-        StatusHistoryLog log = new StatusHistoryLog();
-        log.setParentId(invoice.getId());
-        log.setParentType("INVOICE");
-        log.setOldStatus(oldStatus);
-        log.setNewStatus(newStatus);
-        log.setChangedBy(userId);
-        log.setRemarks(remarks);
-        invoice.getStatusHistoryLogs().add(log);
+        auditOutbox.append(AuditOutboxEntry.statusChange("INVOICE", invoice.getId(), oldStatus, newStatus, userId, remarks));
     }
 
     private void logAuditTrail(Invoice invoice, String action, Invoice oldInvoice, Invoice newInvoice, Long userId, String remarks) {
-        if (invoice.getAuditTrailLogs() == null) invoice.setAuditTrailLogs(new java.util.ArrayList<>());
-        java.util.List<AuditTrailLog> logs = compareInvoicesForAudit(oldInvoice, newInvoice, action, userId, remarks);
-        invoice.getAuditTrailLogs().addAll(logs);
-    }
-
-    private java.util.List<AuditTrailLog> compareInvoicesForAudit(Invoice oldInv, Invoice newInv, String action, Long userId, String remarks) {
-        java.util.List<AuditTrailLog> logs = new java.util.ArrayList<>();
-        if (oldInv == null) {
-            // Log all fields as created
-            java.lang.reflect.Field[] fields = Invoice.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object newValue = field.get(newInv);
-                    if (newValue != null) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newInv.getId());
-                        log.setParentType("INVOICE");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(null);
-                        log.setNewValue(newValue.toString());
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        } else {
-            java.lang.reflect.Field[] fields = Invoice.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object oldValue = field.get(oldInv);
-                    Object newValue = field.get(newInv);
-                    if (oldValue == null && newValue == null) continue;
-                    if (oldValue == null || newValue == null || !oldValue.equals(newValue)) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newInv.getId());
-                        log.setParentType("INVOICE");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(oldValue != null ? oldValue.toString() : null);
-                        log.setNewValue(newValue != null ? newValue.toString() : null);
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        }
-        return logs;
+        auditOutbox.append(compareInvoicesForAudit(oldInvoice, newInvoice, action, userId, remarks));
+    }
+
+    private java.util.List<AuditOutboxEntry> compareInvoicesForAudit(Invoice oldInv, Invoice newInv, String action, Long userId, String remarks) {
+        return AUDIT_DIFFER.diff(oldInv, newInv, (fieldName, oldValue, newValue) ->
+                AuditOutboxEntry.audit("INVOICE", newInv.getId(), action, fieldName, oldValue, newValue, userId, remarks));
     }
 } 
\ No newline at end of file
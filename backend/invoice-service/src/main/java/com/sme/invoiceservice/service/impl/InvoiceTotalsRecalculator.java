@@ -0,0 +1,101 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import com.sme.shared.LegacyDiscountMigration;
+import com.sme.shared.TotalsCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Recomputes the line amounts and totals of all of a tenant's invoices, e.g. after a tax-rate
+ * correction. Invoices are walked in keyset pages, each page loaded with its lines in one query
+ * and recalculated in its own transaction; only invoices whose totals changed are written and
+ * moved in the aggregates.
+ */
+@Component
+public class InvoiceTotalsRecalculator {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceTotalsRecalculator.class);
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private InvoiceAggregates aggregates;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private LegacyDiscountMigration legacyDiscounts;
+
+    private TransactionTemplate transactions;
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        legacyDiscounts.migrate("invoice", "INVOICE");
+    }
+
+    /** Returns the number of invoices whose totals changed. */
+    public int recalculate(Long companyId) {
+        long started = System.nanoTime();
+        int scanned = 0;
+        int changed = 0;
+        Long cursor = null;
+        while (true) {
+            List<InvoiceSummary> rows = invoiceRepository.findSummaries(companyId, cursor, null, null, null, null,
+                    PageRequest.of(0, PAGE_SIZE));
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (InvoiceSummary row : rows) {
+                ids.add(row.getId());
+            }
+            Integer pageChanged = transactions.execute(status -> recalculatePage(ids));
+            changed += pageChanged != null ? pageChanged : 0;
+            scanned += rows.size();
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+            cursor = rows.get(rows.size() - 1).getId();
+        }
+        logger.info("Recalculated {} invoices of company {} ({} changed) in {} ms", scanned, companyId, changed,
+                (System.nanoTime() - started) / 1_000_000);
+        return changed;
+    }
+
+    private int recalculatePage(List<Long> ids) {
+        TotalsCalculator.DocumentTotals totals = new TotalsCalculator.DocumentTotals();
+        List<Invoice> changed = new ArrayList<>();
+        for (Invoice invoice : invoiceRepository.lockAllWithLineItems(ids)) {
+            if (invoice.getTotalsVersion() == null) {
+                // Discount still includes line discounts; recalculating would take them off twice
+                continue;
+            }
+            InvoiceAggregates.Contribution before = aggregates.contributionOf(invoice);
+            Double subtotal = invoice.getSubtotal();
+            Double tax = invoice.getTax();
+            Double grandTotal = invoice.getGrandTotal();
+            TotalsCalculator.GST.recalculate(invoice, totals);
+            if (!Objects.equals(subtotal, invoice.getSubtotal()) || !Objects.equals(tax, invoice.getTax())
+                    || !Objects.equals(grandTotal, invoice.getGrandTotal())) {
+                aggregates.changed(before, aggregates.contributionOf(invoice));
+                changed.add(invoice);
+            }
+        }
+        invoiceRepository.saveAll(changed);
+        return changed.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.sme.invoiceservice.service.impl;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Recurrence pattern of a recurring invoice: {@code FREQUENCY} or {@code FREQUENCY:INTERVAL}, where
+ * the frequency is DAILY, WEEKLY, MONTHLY, QUARTERLY or YEARLY, e.g. {@code MONTHLY} or
+ * {@code WEEKLY:2}. Occurrences are counted from an anchor date (the template's issue date), so a
+ * template issued on the 31st lands on the last day of shorter months and returns to the 31st.
+ */
+final class Recurrence {
+
+    private enum Frequency { DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY }
+
+    private final Frequency frequency;
+    private final int interval;
+
+    private Recurrence(Frequency frequency, int interval) {
+        this.frequency = frequency;
+        this.interval = interval;
+    }
+
+    /** Parses a pattern; returns null for a blank or unreadable one. */
+    static Recurrence parse(String pattern) {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = pattern.trim().toUpperCase(Locale.ROOT).split(":");
+        try {
+            String name = "ANNUALLY".equals(parts[0]) ? "YEARLY" : parts[0];
+            int interval = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            return interval > 0 ? new Recurrence(Frequency.valueOf(name.trim()), interval) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** First occurrence strictly after {@code after}, counted from {@code anchor}. */
+    LocalDate next(LocalDate anchor, LocalDate after) {
+        if (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY) {
+            long step = frequency == Frequency.DAILY ? interval : 7L * interval;
+            long elapsed = after.toEpochDay() - anchor.toEpochDay();
+            long steps = elapsed < 0 ? 0 : elapsed / step + 1;
+            return anchor.plusDays(steps * step);
+        }
+        int months = interval * (frequency == Frequency.MONTHLY ? 1 : frequency == Frequency.QUARTERLY ? 3 : 12);
+        long elapsedMonths = (after.getYear() - anchor.getYear()) * 12L + after.getMonthValue() - anchor.getMonthValue();
+        long steps = Math.max(0, elapsedMonths / months);
+        LocalDate date = anchor.plusMonths(steps * months);
+        while (!date.isAfter(after)) {
+            steps++;
+            date = anchor.plusMonths(steps * months);
+        }
+        return date;
+    }
+}
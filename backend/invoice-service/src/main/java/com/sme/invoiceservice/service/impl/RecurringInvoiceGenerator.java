@@ -0,0 +1,183 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import com.sme.shared.DocumentNumberAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues the invoices of one chunk of due recurring templates in one transaction. The templates
+ * are locked with SKIP LOCKED, so workers on other instances take other chunks, and each
+ * template's next run date is advanced in the same transaction as its invoices: a chunk either
+ * commits completely or stays due for the next run, and the unique key on
+ * (recurringSourceId, recurringRunDate) rejects a second invoice for the same occurrence.
+ * Each occurrence takes the FX rate of its own issue date; the template's rate is not copied.
+ * Invoices and line items are copied with batched INSERT ... SELECT statements, so template
+ * columns never travel through the application.
+ */
+@Component
+public class RecurringInvoiceGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringInvoiceGenerator.class);
+
+    // Occurrences issued per template per run; a template further behind catches up over the next runs
+    private static final int MAX_CATCH_UP = 12;
+
+    private static final String COPIED_INVOICE_COLUMNS = "company_id, client, amount, subtotal, discount, totals_version, tax, shipping, "
+            + "grand_total, currency, payment_terms, payment_instructions, notes, attachments, "
+            + "name, registered_address, uen, business_reg_no, phone, email, gst_id, country, vat_id, "
+            + "buyer_name, buyer_registered_address, buyer_uen, buyer_business_reg_no, buyer_phone, buyer_email, "
+            + "buyer_gst_id, buyer_country, buyer_vat_id, approval_workflow, multi_language_support, "
+            + "bank_details, paynowuen, paynowqr, crypto_wallet, custom_payment_instructions, terms_and_conditions";
+
+    private static final String INSERT_INVOICE = "insert into invoice (" + COPIED_INVOICE_COLUMNS
+            + ", invoice_number, issue_date, due_date, status, email_sent, recurring_source_id, recurring_run_date, "
+            + "fx_rate, fx_source) "
+            + "select " + COPIED_INVOICE_COLUMNS + ", ?, ?, ?, ?, false, id, ?, ?, ? from invoice where id = ?";
+
+    private static final String COPIED_LINE_COLUMNS = "description, sku, quantity, unit_of_measure, unit_price, discount, "
+            + "discount_type, tax_code, tax_rate, tax_exempt, line_subtotal, line_tax_amount, line_total, notes, created_by";
+
+    private static final String INSERT_LINES = "insert into line_items (" + COPIED_LINE_COLUMNS
+            + ", parent_id, parent_type, created_at, updated_at) "
+            + "select " + COPIED_LINE_COLUMNS + ", ?, 'INVOICE', now(), now() from line_items "
+            + "where parent_id = ? and parent_type = 'INVOICE'";
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DocumentNumberAllocator numberAllocator;
+    @Autowired
+    private InvoiceAggregates aggregates;
+    @Autowired
+    private InvoiceSearch search;
+    @Autowired
+    private FxRates fxRates;
+
+    @Value("${invoice.recurring.status:DRAFT}")
+    private String generatedStatus;
+
+    /** What one chunk did; {@code lastTemplateId} is the keyset cursor for the next chunk, null when none was due. */
+    static final class ChunkResult {
+        Long lastTemplateId;
+        int templates;
+        int invoices;
+        int skipped;
+    }
+
+    @Transactional
+    public ChunkResult generateChunk(Long companyId, LocalDate runDate, Long afterId, int chunkSize) {
+        ChunkResult result = new ChunkResult();
+        List<Invoice> templates = invoiceRepository.lockDueTemplates(companyId, runDate,
+                afterId != null ? afterId : 0L, PageRequest.of(0, chunkSize));
+        if (templates.isEmpty()) {
+            return result;
+        }
+        result.lastTemplateId = templates.get(templates.size() - 1).getId();
+        result.templates = templates.size();
+
+        List<Invoice> occurrences = new ArrayList<>();
+        for (Invoice template : templates) {
+            Recurrence recurrence = Recurrence.parse(template.getRecurring());
+            if (recurrence == null) {
+                // Stop selecting it every run; saving a readable pattern schedules it again
+                logger.warn("Recurring invoice {} has an unreadable pattern '{}'", template.getId(), template.getRecurring());
+                template.setNextRunDate(null);
+                result.skipped++;
+                continue;
+            }
+            LocalDate anchor = template.getIssueDate() != null ? template.getIssueDate() : template.getNextRunDate();
+            LocalDate date = template.getNextRunDate();
+            for (int i = 0; i < MAX_CATCH_UP && !date.isAfter(runDate); i++) {
+                occurrences.add(occurrence(template, date));
+                date = recurrence.next(anchor, date);
+            }
+            template.setNextRunDate(date);
+        }
+        if (occurrences.isEmpty()) {
+            return result;
+        }
+
+        List<String> numbers = numberAllocator.next("INV", companyId, occurrences.size(), prefix -> {
+            Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
+            return DocumentNumberAllocator.sequenceOf(last != null ? last.getInvoiceNumber() : null, prefix);
+        });
+        List<Object[]> invoiceRows = new ArrayList<>(occurrences.size());
+        LocalDate earliest = runDate;
+        for (int i = 0; i < occurrences.size(); i++) {
+            Invoice invoice = occurrences.get(i);
+            invoice.setInvoiceNumber(numbers.get(i));
+            invoiceRows.add(new Object[] {
+                    invoice.getInvoiceNumber(), Date.valueOf(invoice.getIssueDate()),
+                    invoice.getDueDate() != null ? Date.valueOf(invoice.getDueDate()) : null,
+                    invoice.getStatus(), Date.valueOf(invoice.getRecurringRunDate()), invoice.getFxRate(),
+                    invoice.getFxSource(), invoice.getRecurringSourceId()
+            });
+            if (invoice.getRecurringRunDate().isBefore(earliest)) {
+                earliest = invoice.getRecurringRunDate();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_INVOICE, invoiceRows);
+
+        List<Long> templateIds = new ArrayList<>(templates.size());
+        Map<Long, Invoice> templatesById = new HashMap<>();
+        for (Invoice template : templates) {
+            templateIds.add(template.getId());
+            templatesById.put(template.getId(), template);
+        }
+        Map<String, Long> generatedIds = new HashMap<>();
+        for (Object[] row : invoiceRepository.findGeneratedInvoices(templateIds, earliest, runDate)) {
+            generatedIds.put(row[1] + "/" + row[2], (Long) row[0]);
+        }
+        List<Object[]> lineRows = new ArrayList<>(occurrences.size());
+        for (Invoice invoice : occurrences) {
+            Long id = generatedIds.get(invoice.getRecurringSourceId() + "/" + invoice.getRecurringRunDate());
+            invoice.setId(id);
+            lineRows.add(new Object[] {id, invoice.getRecurringSourceId()});
+            aggregates.created(invoice);
+            search.changed(invoice, templatesById.get(invoice.getRecurringSourceId()).getLineItems());
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINES, lineRows);
+        result.invoices = occurrences.size();
+        return result;
+    }
+
+    /** In-memory copy of the invoice an occurrence issues, used for the batch parameters and aggregates. */
+    private Invoice occurrence(Invoice template, LocalDate issueDate) {
+        Invoice invoice = new Invoice();
+        BeanUtils.copyProperties(template, invoice, "id", "invoiceNumber", "recurring", "nextRunDate", "pdfUrl",
+                "statusHistory", "lineItems", "fxRate", "fxSource");
+        invoice.setIssueDate(issueDate);
+        // The rate of the occurrence's own date, not the one the template was issued at
+        fxRates.applyTo(invoice);
+        if (template.getIssueDate() != null && template.getDueDate() != null) {
+            // Keep the template's payment term
+            invoice.setDueDate(issueDate.plusDays(ChronoUnit.DAYS.between(template.getIssueDate(), template.getDueDate())));
+        } else {
+            invoice.setDueDate(null);
+        }
+        invoice.setStatus(generatedStatus);
+        invoice.setEmailSent(false);
+        invoice.setRecurringSourceId(template.getId());
+        invoice.setRecurringRunDate(issueDate);
+        return invoice;
+    }
+}
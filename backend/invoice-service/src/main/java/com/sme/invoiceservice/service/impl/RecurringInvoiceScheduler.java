@@ -0,0 +1,175 @@
+package com.sme.invoiceservice.service.impl;
+
+import com.sme.invoiceservice.model.RecurringRun;
+import com.sme.invoiceservice.repository.InvoiceRepository;
+import com.sme.invoiceservice.repository.RecurringRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues invoices from recurring templates. A run lists the companies with due templates through
+ * the (nextRunDate, companyId) index and hands each company to a worker of a small fixed pool, which
+ * works through that company's templates in chunks (see {@link RecurringInvoiceGenerator}). The
+ * pool bounds how much of the database and connection pool a 00:00 burst can take, and a failed
+ * chunk only leaves its own templates due: the worker skips past it and carries on with the rest of
+ * the company. Runs are safe to repeat: whatever is still due is picked up again, by the next
+ * scheduled run or a manual one, which covers a single company.
+ */
+@Component
+@EnableScheduling
+public class RecurringInvoiceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringInvoiceScheduler.class);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private RecurringRunRepository runRepository;
+    @Autowired
+    private RecurringInvoiceGenerator generator;
+
+    @Value("${invoice.recurring.threads:4}")
+    private int threads;
+
+    @Value("${invoice.recurring.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${invoice.recurring.zone:Asia/Singapore}")
+    private String zone;
+
+    private ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "recurring-invoice-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(cron = "${invoice.recurring.cron:0 0 0 * * *}", zone = "${invoice.recurring.zone:Asia/Singapore}")
+    public void runScheduled() {
+        run(today(), null);
+    }
+
+    /** The current date in the scheduler's zone; runs never issue invoices dated after it. */
+    public LocalDate today() {
+        return LocalDate.now(ZoneId.of(zone));
+    }
+
+    /**
+     * Issues everything due on or before {@code runDate}, for one company or, when {@code companyId}
+     * is null, every company; returns null if a run is already in progress here.
+     */
+    public RecurringRun run(LocalDate runDate, Long companyId) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        RecurringRun run = new RecurringRun();
+        run.setCompanyId(companyId);
+        run.setRunDate(runDate);
+        run.setStatus("RUNNING");
+        run.setStartedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        AtomicInteger templates = new AtomicInteger();
+        AtomicInteger invoices = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            List<Long> companies = companyId != null
+                    ? Collections.singletonList(companyId)
+                    : invoiceRepository.findCompaniesWithDueTemplates(runDate);
+            run.setCompanies(companies.size());
+            List<Future<?>> pending = new ArrayList<>(companies.size());
+            for (Long company : companies) {
+                pending.add(workers.submit(() -> runCompany(company, runDate, templates, invoices, skipped, failed)));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            run.setStatus(failed.get() == 0 ? "COMPLETED" : "FAILED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.setStatus("FAILED");
+            run.setLastError("Interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Recurring invoice run for {} failed", runDate, e);
+            run.setStatus("FAILED");
+            run.setLastError(String.valueOf(e.getMessage()));
+        } finally {
+            run.setTemplates(templates.get());
+            run.setInvoicesCreated(invoices.get());
+            run.setSkippedTemplates(skipped.get());
+            run.setFailedChunks(failed.get());
+            run.setFinishedAt(LocalDateTime.now());
+            run = runRepository.save(run);
+            running.set(false);
+        }
+        logger.info("Recurring invoice run {} for {}: {} companies, {} templates, {} invoices, {} skipped, {} failed chunks",
+                run.getId(), runDate, run.getCompanies(), run.getTemplates(), run.getInvoicesCreated(),
+                run.getSkippedTemplates(), run.getFailedChunks());
+        return run;
+    }
+
+    public List<RecurringRun> recentRuns(Long companyId) {
+        return runRepository.findTop20ByCompanyIdOrderByIdDesc(companyId);
+    }
+
+    private void runCompany(Long companyId, LocalDate runDate, AtomicInteger templates, AtomicInteger invoices,
+            AtomicInteger skipped, AtomicInteger failed) {
+        Long cursor = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            RecurringInvoiceGenerator.ChunkResult chunk;
+            try {
+                chunk = generator.generateChunk(companyId, runDate, cursor, chunkSize);
+            } catch (RuntimeException e) {
+                // The chunk rolled back and stays due for the next run; skip past it for the rest of this company
+                logger.error("Recurring invoices for company {} after template {} failed", companyId, cursor, e);
+                failed.incrementAndGet();
+                List<Long> failedIds = invoiceRepository.findDueTemplateIds(companyId, runDate,
+                        cursor != null ? cursor : 0L, PageRequest.of(0, chunkSize));
+                if (failedIds.isEmpty()) {
+                    return;
+                }
+                cursor = failedIds.get(failedIds.size() - 1);
+                continue;
+            }
+            if (chunk.lastTemplateId == null) {
+                return;
+            }
+            templates.addAndGet(chunk.templates);
+            invoices.addAndGet(chunk.invoices);
+            skipped.addAndGet(chunk.skipped);
+            cursor = chunk.lastTemplateId;
+        }
+    }
+}
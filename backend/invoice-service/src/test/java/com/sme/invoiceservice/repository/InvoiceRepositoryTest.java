@@ -0,0 +1,106 @@
+package com.sme.invoiceservice.repository;
+
+import com.sme.invoiceservice.model.Invoice;
+import com.sme.invoiceservice.model.InvoiceSummary;
+import com.sme.shared.LineItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class InvoiceRepositoryTest {
+
+    private static final Long COMPANY = 1L;
+
+    @Autowired
+    private InvoiceRepository repository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ids.add(save(COMPANY, "INV-001", "Acme Trading", "DRAFT", LocalDate.of(2024, 1, 5)));
+        ids.add(save(COMPANY, "INV-002", "Bolt Engineering", "SENT", LocalDate.of(2024, 2, 5)));
+        ids.add(save(2L, "INV-001", "Acme Trading", "SENT", LocalDate.of(2024, 2, 6)));
+        ids.add(save(COMPANY, "INV-003", "Acme Logistics", "SENT", LocalDate.of(2024, 3, 5)));
+        ids.add(save(COMPANY, "INV-004", "Acme Trading", "PAID", LocalDate.of(2024, 4, 5)));
+        ids.add(save(COMPANY, "INV-005", "Bolt Engineering", "DRAFT", LocalDate.of(2024, 5, 5)));
+    }
+
+    @Test
+    void pagesWalkTheCompanyNewestFirstWithoutOverlap() {
+        List<String> numbers = new ArrayList<>();
+        Long cursor = null;
+        List<InvoiceSummary> page;
+        do {
+            page = repository.findSummaries(COMPANY, cursor, null, null, null, null, PageRequest.of(0, 2));
+            assertThat(page.size()).isLessThanOrEqualTo(2);
+            for (InvoiceSummary summary : page) {
+                numbers.add(summary.getInvoiceNumber());
+                cursor = summary.getId();
+            }
+        } while (page.size() == 2);
+
+        assertThat(numbers).containsExactly("INV-005", "INV-004", "INV-003", "INV-002", "INV-001");
+    }
+
+    @Test
+    void cursorExcludesItselfAndEverythingNewer() {
+        List<InvoiceSummary> page = repository.findSummaries(COMPANY, ids.get(3), null, null, null, null,
+                PageRequest.of(0, 10));
+
+        assertThat(page).extracting(InvoiceSummary::getId).containsExactly(ids.get(1), ids.get(0));
+    }
+
+    @Test
+    void filtersApplyToPagesAndCounts() {
+        assertThat(repository.findSummaries(COMPANY, null, "SENT", null, null, null, PageRequest.of(0, 10)))
+                .extracting(InvoiceSummary::getInvoiceNumber).containsExactly("INV-003", "INV-002");
+        assertThat(repository.findSummaries(COMPANY, null, null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 5),
+                null, PageRequest.of(0, 10)))
+                .extracting(InvoiceSummary::getInvoiceNumber).containsExactly("INV-004", "INV-003", "INV-002");
+        assertThat(repository.findSummaries(COMPANY, null, null, null, null, "Acme", PageRequest.of(0, 10)))
+                .extracting(InvoiceSummary::getInvoiceNumber).containsExactly("INV-004", "INV-003", "INV-001");
+
+        assertThat(repository.countSummaries(COMPANY, null, null, null, null)).isEqualTo(5);
+        assertThat(repository.countSummaries(COMPANY, "SENT", null, null, null)).isEqualTo(2);
+        assertThat(repository.countSummaries(COMPANY, null, null, null, "Acme")).isEqualTo(3);
+        assertThat(repository.countSummaries(2L, null, null, null, null)).isEqualTo(1);
+    }
+
+    @Test
+    void cappedCountStopsAtTheCap() {
+        assertThat(repository.countSummariesUpTo(COMPANY, null, null, null, null, 3)).isEqualTo(3);
+        assertThat(repository.countSummariesUpTo(COMPANY, null, null, null, null, 100)).isEqualTo(5);
+        assertThat(repository.countSummariesUpTo(COMPANY, "DRAFT", null, null, "Bolt", 100)).isEqualTo(1);
+    }
+
+    private Long save(Long companyId, String number, String client, String status, LocalDate issueDate) {
+        Invoice invoice = new Invoice();
+        invoice.setCompanyId(companyId);
+        invoice.setInvoiceNumber(number);
+        invoice.setClient(client);
+        invoice.setStatus(status);
+        invoice.setIssueDate(issueDate);
+        invoice.setGrandTotal(100.0);
+        invoice.setCurrency("SGD");
+        return repository.save(invoice).getId();
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = {Invoice.class, LineItem.class})
+    @EnableJpaRepositories(basePackageClasses = InvoiceRepository.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,53 @@
+package com.sme.invoiceservice.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceTest {
+
+    @Test
+    void parsesFrequencyAndOptionalInterval() {
+        LocalDate anchor = LocalDate.of(2024, 1, 10);
+
+        assertThat(Recurrence.parse("monthly").next(anchor, anchor)).isEqualTo(LocalDate.of(2024, 2, 10));
+        assertThat(Recurrence.parse(" WEEKLY : 2 ").next(anchor, anchor)).isEqualTo(LocalDate.of(2024, 1, 24));
+        assertThat(Recurrence.parse("ANNUALLY").next(anchor, anchor)).isEqualTo(LocalDate.of(2025, 1, 10));
+        assertThat(Recurrence.parse("QUARTERLY").next(anchor, anchor)).isEqualTo(LocalDate.of(2024, 4, 10));
+    }
+
+    @Test
+    void rejectsBlankAndUnreadablePatterns() {
+        assertThat(Recurrence.parse(null)).isNull();
+        assertThat(Recurrence.parse("  ")).isNull();
+        assertThat(Recurrence.parse("FORTNIGHTLY")).isNull();
+        assertThat(Recurrence.parse("MONTHLY:x")).isNull();
+        assertThat(Recurrence.parse("MONTHLY:0")).isNull();
+        assertThat(Recurrence.parse("DAILY:-1")).isNull();
+    }
+
+    @Test
+    void nextIsStrictlyAfterAndCountedFromTheAnchor() {
+        LocalDate anchor = LocalDate.of(2024, 1, 1);
+        Recurrence daily = Recurrence.parse("DAILY:3");
+
+        assertThat(daily.next(anchor, LocalDate.of(2023, 12, 1))).isEqualTo(anchor);
+        assertThat(daily.next(anchor, LocalDate.of(2024, 1, 4))).isEqualTo(LocalDate.of(2024, 1, 7));
+        assertThat(daily.next(anchor, LocalDate.of(2024, 1, 5))).isEqualTo(LocalDate.of(2024, 1, 7));
+    }
+
+    @Test
+    void monthEndAnchorsClampAndThenReturnToTheirDay() {
+        LocalDate anchor = LocalDate.of(2024, 1, 31);
+        Recurrence monthly = Recurrence.parse("MONTHLY");
+
+        LocalDate february = monthly.next(anchor, anchor);
+        assertThat(february).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(monthly.next(anchor, february)).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(monthly.next(anchor, LocalDate.of(2024, 4, 15))).isEqualTo(LocalDate.of(2024, 4, 30));
+        assertThat(Recurrence.parse("YEARLY").next(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1)))
+                .isEqualTo(LocalDate.of(2025, 2, 28));
+    }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/payrolls")
@@ -38,21 +39,21 @@ public class PayrollController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> downloadPayrollSlip(@PathVariable Long id) {
-        byte[] pdf = payrollService.generatePayrollSlipPdf(id);
+    public ResponseEntity<StreamingResponseBody> downloadPayrollSlip(@PathVariable Long id) {
+        StreamingResponseBody body = payrollService.streamPayrollSlipPdf(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "payslip-" + id + ".pdf");
-        return ResponseEntity.ok().headers(headers).body(pdf);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportPayrollExcel(@PathVariable Long id) {
-        byte[] xlsx = payrollService.generatePayrollExcel(id);
+    public ResponseEntity<StreamingResponseBody> exportPayrollExcel(@PathVariable Long id) {
+        StreamingResponseBody body = payrollService.streamPayrollExcel(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "payroll-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(xlsx);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/cpf-sdl-calc")
@@ -2,13 +2,14 @@ package com.sme.payrollservice.service;
 
 import com.sme.payrollservice.model.Payroll;
 import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface PayrollService {
     List<Payroll> getAllPayrollsForCurrentTenant();
     Payroll createPayroll(Payroll payroll);
     Payroll updatePayroll(Long payrollId, Payroll payroll);
     void deletePayroll(Long payrollId);
-    byte[] generatePayrollSlipPdf(Long payrollId);
+    StreamingResponseBody streamPayrollSlipPdf(Long payrollId);
     Object calculateCpfSdl(Long payrollId);
-    byte[] generatePayrollExcel(Long payrollId);
+    StreamingResponseBody streamPayrollExcel(Long payrollId);
 } 
\ No newline at end of file
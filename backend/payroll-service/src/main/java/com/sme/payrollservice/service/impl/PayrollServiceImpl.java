@@ -7,11 +7,11 @@ import com.sme.payrollservice.service.PayrollService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class PayrollServiceImpl implements PayrollService {
@@ -47,49 +47,49 @@ public class PayrollServiceImpl implements PayrollService {
     }
 
     @Override
-    public byte[] generatePayrollSlipPdf(Long payrollId) {
+    public StreamingResponseBody streamPayrollSlipPdf(Long payrollId) {
         Payroll payroll = payrollRepository.findById(payrollId).orElseThrow();
-        try {
-            Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Payroll Slip"));
-            document.add(new Paragraph("Payroll ID: " + payroll.getId()));
-            document.add(new Paragraph("Employee ID: " + payroll.getEmployeeId()));
-            document.add(new Paragraph("Period: " + payroll.getPeriod()));
-            document.add(new Paragraph("Amount: $" + payroll.getAmount()));
-            document.add(new Paragraph("Status: " + payroll.getStatus()));
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+        return out -> {
+            try {
+                Document document = new Document();
+                PdfWriter.getInstance(document, out);
+                document.open();
+                document.add(new Paragraph("Payroll Slip"));
+                document.add(new Paragraph("Payroll ID: " + payroll.getId()));
+                document.add(new Paragraph("Employee ID: " + payroll.getEmployeeId()));
+                document.add(new Paragraph("Period: " + payroll.getPeriod()));
+                document.add(new Paragraph("Amount: $" + payroll.getAmount()));
+                document.add(new Paragraph("Status: " + payroll.getStatus()));
+                document.close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate PDF", e);
+            }
+        };
     }
 
     @Override
-    public byte[] generatePayrollExcel(Long payrollId) {
+    public StreamingResponseBody streamPayrollExcel(Long payrollId) {
         Payroll payroll = payrollRepository.findById(payrollId).orElseThrow();
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Payroll");
-            Row row = sheet.createRow(0);
-            row.createCell(0).setCellValue("Payroll ID");
-            row.createCell(1).setCellValue(payroll.getId());
-            row.createCell(2).setCellValue("Employee ID");
-            row.createCell(3).setCellValue(payroll.getEmployeeId());
-            row.createCell(4).setCellValue("Period");
-            row.createCell(5).setCellValue(payroll.getPeriod());
-            row.createCell(6).setCellValue("Amount");
-            row.createCell(7).setCellValue(payroll.getAmount());
-            row.createCell(8).setCellValue("Status");
-            row.createCell(9).setCellValue(payroll.getStatus());
-            // ...add more fields as needed...
-            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate Excel", e);
-        }
+        return out -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Payroll");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue("Payroll ID");
+                row.createCell(1).setCellValue(payroll.getId());
+                row.createCell(2).setCellValue("Employee ID");
+                row.createCell(3).setCellValue(payroll.getEmployeeId());
+                row.createCell(4).setCellValue("Period");
+                row.createCell(5).setCellValue(payroll.getPeriod());
+                row.createCell(6).setCellValue("Amount");
+                row.createCell(7).setCellValue(payroll.getAmount());
+                row.createCell(8).setCellValue("Status");
+                row.createCell(9).setCellValue(payroll.getStatus());
+                // ...add more fields as needed...
+                workbook.write(out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate Excel", e);
+            }
+        };
     }
 
     @Override
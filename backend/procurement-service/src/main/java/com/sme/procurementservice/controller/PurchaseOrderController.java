@@ -1,6 +1,17 @@
 package com.sme.procurementservice.controller;
 
 import com.sme.procurementservice.model.PurchaseOrder;
+import com.sme.procurementservice.model.PurchaseOrderSummary;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import com.sme.procurementservice.service.PurchaseOrderService;
 import com.sme.shared.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +22,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/purchase-orders")
@@ -23,6 +35,18 @@ public class PurchaseOrderController {
         return new ApiResponse<>(true, "Fetched purchase orders", purchaseOrderService.getAllPurchaseOrdersForCurrentTenant());
     }
 
+    @GetMapping("/page")
+    public ApiResponse<CursorPage<PurchaseOrderSummary>> getPurchaseOrderPage(@RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String supplier,
+            @RequestParam(required = false) String count) {
+        return new ApiResponse<>(true, "Fetched purchase orders",
+                purchaseOrderService.getPurchaseOrderPage(cursor, limit, status, from, to, supplier, CountMode.parse(count)));
+    }
+
     @PostMapping
     public ApiResponse<PurchaseOrder> createPurchaseOrder(@RequestBody PurchaseOrder po) {
         return new ApiResponse<>(true, "Created purchase order", purchaseOrderService.createPurchaseOrder(po));
@@ -41,25 +65,25 @@ public class PurchaseOrderController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> exportPurchaseOrderPdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportPurchaseOrderPdf(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         purchaseOrderService.logExportAction(id, userId, "EXPORT_PDF");
-        byte[] pdf = purchaseOrderService.generatePurchaseOrderPdf(id);
+        StreamingResponseBody body = purchaseOrderService.streamPurchaseOrderPdf(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "po-" + id + ".pdf");
-        return ResponseEntity.ok().headers(headers).body(pdf);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportPurchaseOrderExcel(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportPurchaseOrderExcel(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         purchaseOrderService.logExportAction(id, userId, "EXPORT_EXCEL");
-        byte[] xlsx = purchaseOrderService.generatePurchaseOrderExcel(id);
+        StreamingResponseBody body = purchaseOrderService.streamPurchaseOrderExcel(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "po-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(xlsx);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     // If you have a send endpoint, add logging for send action
@@ -86,19 +110,54 @@ public class PurchaseOrderController {
         return new ApiResponse<>(true, "Purchase order rejected", purchaseOrderService.reject(id, userId, remarks));
     }
 
+    @PostMapping("/bulk/approve")
+    public ApiResponse<BulkActionResult> bulkApprove(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = purchaseOrderService.bulkApprove(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Approved " + result.getSucceeded() + " purchase orders", result);
+    }
+
+    @PostMapping("/bulk/convert")
+    public ApiResponse<BulkActionResult> bulkConvertToInvoice(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = purchaseOrderService.bulkConvertToInvoice(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Converted " + result.getSucceeded() + " purchase orders", result);
+    }
+
+    @PostMapping("/{id}/convert")
+    public ApiResponse<PurchaseOrder> convertToInvoice(@PathVariable Long id) {
+        return new ApiResponse<>(true, "Converted to invoice", purchaseOrderService.convertToInvoice(id));
+    }
+
+    @PostMapping("/bulk/reject")
+    public ApiResponse<BulkActionResult> bulkReject(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = purchaseOrderService.bulkReject(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Rejected " + result.getSucceeded() + " purchase orders", result);
+    }
+
     @GetMapping("/{id}/approval-logs")
-    public ApiResponse<java.util.List<com.sme.shared.ApprovalLog>> getApprovalLogs(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched approval logs", purchaseOrderService.getApprovalLogs(id));
+    public ApiResponse<CursorPage<ApprovalLogEntry>> getApprovalLogs(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched approval logs", purchaseOrderService.getApprovalLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/audit-trail")
-    public ApiResponse<java.util.List<com.sme.shared.AuditTrailLog>> getAuditTrail(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched audit trail", purchaseOrderService.getAuditTrailLogs(id));
+    public ApiResponse<CursorPage<AuditTrailEntry>> getAuditTrail(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched audit trail", purchaseOrderService.getAuditTrailLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/status-history")
-    public ApiResponse<java.util.List<com.sme.shared.StatusHistoryLog>> getStatusHistory(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched status history", purchaseOrderService.getStatusHistoryLogs(id));
+    public ApiResponse<CursorPage<StatusHistoryEntry>> getStatusHistory(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched status history", purchaseOrderService.getStatusHistoryLogs(id, cursor, limit, from, to));
     }
 
     private Long getCurrentUserId() {
@@ -0,0 +1,40 @@
+package com.sme.procurementservice.model;
+
+import java.time.LocalDate;
+
+/** List-view projection of {@link PurchaseOrder}; selected directly by JPQL so no entity or collection is loaded. */
+public class PurchaseOrderSummary {
+    private Long id;
+    private String poNumber;
+    private String supplier;
+    private String status;
+    private LocalDate issueDate;
+    private Double grandTotal;
+    private String currency;
+
+    public PurchaseOrderSummary() {}
+    public PurchaseOrderSummary(Long id, String poNumber, String supplier, String status, LocalDate issueDate, Double grandTotal, String currency) {
+        this.id = id;
+        this.poNumber = poNumber;
+        this.supplier = supplier;
+        this.status = status;
+        this.issueDate = issueDate;
+        this.grandTotal = grandTotal;
+        this.currency = currency;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getPoNumber() { return poNumber; }
+    public void setPoNumber(String poNumber) { this.poNumber = poNumber; }
+    public String getSupplier() { return supplier; }
+    public void setSupplier(String supplier) { this.supplier = supplier; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDate getIssueDate() { return issueDate; }
+    public void setIssueDate(LocalDate issueDate) { this.issueDate = issueDate; }
+    public Double getGrandTotal() { return grandTotal; }
+    public void setGrandTotal(Double grandTotal) { this.grandTotal = grandTotal; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
@@ -2,9 +2,61 @@ package com.sme.procurementservice.repository;
 
 import com.sme.procurementservice.model.PurchaseOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import com.sme.procurementservice.model.PurchaseOrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
     List<PurchaseOrder> findAllByCompanyId(Long companyId);
     PurchaseOrder findTopByCompanyIdOrderByIdDesc(Long companyId);
-} 
\ No newline at end of file
+    boolean existsByIdAndCompanyId(Long id, Long companyId);
+
+    // Bulk action chunks: locked so overlapping bulk actions see each other's committed status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<PurchaseOrder> findAllByIdInAndCompanyId(Collection<Long> ids, Long companyId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PurchaseOrder p where p.id = :id")
+    Optional<PurchaseOrder> findByIdForUpdate(@Param("id") Long id);
+
+    // Keyset pagination on (companyId, id), newest first; cursor is the last id of the previous page
+    @Query("select new com.sme.procurementservice.model.PurchaseOrderSummary(p.id, p.poNumber, p.supplier, p.status, p.issueDate, p.grandTotal, p.currency) "
+            + "from PurchaseOrder p where p.companyId = :companyId and (:cursor is null or p.id < :cursor) "
+            + "and (:status is null or p.status = :status) "
+            + "and (:fromDate is null or p.issueDate >= :fromDate) and (:toDate is null or p.issueDate <= :toDate) "
+            + "and (:supplier is null or p.supplier like concat(:supplier, '%')) "
+            + "order by p.id desc")
+    List<PurchaseOrderSummary> findSummaries(@Param("companyId") Long companyId, @Param("cursor") Long cursor,
+            @Param("status") String status, @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate, @Param("supplier") String supplier, Pageable pageable);
+
+    @Query("select count(p) from PurchaseOrder p where p.companyId = :companyId "
+            + "and (:status is null or p.status = :status) "
+            + "and (:fromDate is null or p.issueDate >= :fromDate) and (:toDate is null or p.issueDate <= :toDate) "
+            + "and (:supplier is null or p.supplier like concat(:supplier, '%'))")
+    long countSummaries(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("supplier") String supplier);
+
+    // Stops counting after :cap rows so an estimate stays cheap on large tenants
+    @Query(value = "select count(*) from (select 1 from purchase_order p where p.company_id = :companyId "
+            + "and (:status is null or p.status = :status) "
+            + "and (:fromDate is null or p.issue_date >= :fromDate) and (:toDate is null or p.issue_date <= :toDate) "
+            + "and (:supplier is null or p.supplier like concat(:supplier, '%')) "
+            + "limit :cap) capped", nativeQuery = true)
+    long countSummariesUpTo(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("supplier") String supplier, @Param("cap") int cap);
+
+    // Conversion sources: locked so two conversions cannot both pass the "not yet converted" check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select distinct p from PurchaseOrder p left join fetch p.lineItems where p.id in :ids and p.companyId = :companyId")
+    List<PurchaseOrder> findAllWithLineItems(@Param("ids") Collection<Long> ids, @Param("companyId") Long companyId);
+}
@@ -1,21 +1,37 @@
 package com.sme.procurementservice.service;
 
 import com.sme.procurementservice.model.PurchaseOrder;
+import com.sme.procurementservice.model.PurchaseOrderSummary;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.StatusHistoryEntry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface PurchaseOrderService {
     List<PurchaseOrder> getAllPurchaseOrdersForCurrentTenant();
+    CursorPage<PurchaseOrderSummary> getPurchaseOrderPage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String supplier, CountMode countMode);
     PurchaseOrder createPurchaseOrder(PurchaseOrder po);
     PurchaseOrder updatePurchaseOrder(Long poId, PurchaseOrder po);
     void deletePurchaseOrder(Long poId, Long userId);
     PurchaseOrder convertToInvoice(Long poId);
-    byte[] generatePurchaseOrderPdf(Long poId);
-    byte[] generatePurchaseOrderExcel(Long poId);
+    BulkActionResult bulkConvertToInvoice(BulkActionRequest request, Long userId);
+    StreamingResponseBody streamPurchaseOrderPdf(Long poId);
+    StreamingResponseBody streamPurchaseOrderExcel(Long poId);
     PurchaseOrder submitForApproval(Long poId, Long userId, String remarks);
     PurchaseOrder approve(Long poId, Long userId, String remarks);
     PurchaseOrder reject(Long poId, Long userId, String remarks);
-    java.util.List<com.sme.shared.ApprovalLog> getApprovalLogs(Long poId);
+    BulkActionResult bulkApprove(BulkActionRequest request, Long userId);
+    BulkActionResult bulkReject(BulkActionRequest request, Long userId);
+    CursorPage<ApprovalLogEntry> getApprovalLogs(Long poId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
     void logExportAction(Long poId, Long userId, String action);
-    java.util.List<com.sme.shared.AuditTrailLog> getAuditTrailLogs(Long poId);
-    java.util.List<com.sme.shared.StatusHistoryLog> getStatusHistoryLogs(Long poId);
+    CursorPage<AuditTrailEntry> getAuditTrailLogs(Long poId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
+    CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long poId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
 } 
\ No newline at end of file
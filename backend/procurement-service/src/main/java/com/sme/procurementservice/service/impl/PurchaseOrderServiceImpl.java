@@ -2,33 +2,91 @@ package com.sme.procurementservice.service.impl;
 
 import com.sme.shared.CompanyContext;
 import com.sme.procurementservice.model.PurchaseOrder;
+import com.sme.procurementservice.model.PurchaseOrderSummary;
 import com.sme.procurementservice.repository.PurchaseOrderRepository;
 import com.sme.procurementservice.service.PurchaseOrderService;
 import com.sme.invoiceservice.model.Invoice;
-import com.sme.invoiceservice.repository.InvoiceRepository;
-import com.sme.shared.LineItem;
+import com.sme.invoiceservice.service.impl.InvoiceConversions;
 import com.sme.shared.AuditLog;
-import com.sme.shared.ApprovalLog;
-import com.sme.shared.StatusHistoryLog;
-import com.sme.shared.AuditTrailLog;
+import com.sme.shared.BulkActionExecutor;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditDiffer;
+import com.sme.shared.AuditOutbox;
+import com.sme.shared.AuditOutboxEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.TotalsCalculator;
+import com.sme.shared.DocumentNumberAllocator;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.DocumentLogReader;
+import com.sme.shared.DocumentMapping;
+import com.sme.shared.LineItem;
+import com.sme.shared.LegacyDiscountMigration;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
+import java.util.NoSuchElementException;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import java.math.BigDecimal;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class PurchaseOrderServiceImpl implements PurchaseOrderService {
+    private static final AuditDiffer<PurchaseOrder> AUDIT_DIFFER = AuditDiffer.forType(PurchaseOrder.class);
+    // The buyer on the purchase order is the client being invoiced
+    private static final InvoiceConversions.Source<PurchaseOrder> TO_INVOICE = new InvoiceConversions.Source<>("PO",
+            PurchaseOrder::getId, PurchaseOrder::getLineItems, DocumentMapping.<PurchaseOrder, Invoice>builder(Invoice::new)
+                    .then((po, invoice) -> invoice.setClient(po.getBuyerDetails() != null ? po.getBuyerDetails().getName() : null))
+                    .copy(PurchaseOrder::getGrandTotal, Invoice::setAmount)
+                    .copy(PurchaseOrder::getSubtotal, Invoice::setSubtotal)
+                    .copy(PurchaseOrder::getDiscount, Invoice::setDiscount)
+                    .copy(PurchaseOrder::getTax, Invoice::setTax)
+                    .copy(PurchaseOrder::getShipping, Invoice::setShipping)
+                    .copy(PurchaseOrder::getGrandTotal, Invoice::setGrandTotal)
+                    .copy(PurchaseOrder::getCurrency, Invoice::setCurrency)
+                    .copy(PurchaseOrder::getPaymentTerms, Invoice::setPaymentTerms)
+                    .copy(PurchaseOrder::getPaymentInstructions, Invoice::setPaymentInstructions)
+                    .copy(PurchaseOrder::getNotes, Invoice::setNotes)
+                    .copy(PurchaseOrder::getAttachments, Invoice::setAttachments)
+                    .copy(PurchaseOrder::getSellerDetails, Invoice::setSellerDetails)
+                    .copy(PurchaseOrder::getBuyerDetails, Invoice::setBuyerDetails)
+                    .copy(PurchaseOrder::getStatusHistory, Invoice::setStatusHistory)
+                    .copy(PurchaseOrder::getApprovalWorkflow, Invoice::setApprovalWorkflow)
+                    .copy(PurchaseOrder::getRecurring, Invoice::setRecurring)
+                    .copy(PurchaseOrder::getMultiLanguageSupport, Invoice::setMultiLanguageSupport)
+                    .build());
+
     @Autowired
     private PurchaseOrderRepository purchaseOrderRepository;
     @Autowired
-    private InvoiceRepository invoiceRepository;
+    private InvoiceConversions invoiceConversions;
+    @Autowired
+    private DocumentNumberAllocator numberAllocator;
+    @Autowired
+    private AuditOutbox auditOutbox;
+    @Autowired
+    private BulkActionExecutor bulkActions;
+    @Autowired
+    private DocumentLogReader documentLogs;
+    @Autowired
+    private LegacyDiscountMigration legacyDiscounts;
+
+    @PostConstruct
+    public void init() {
+        legacyDiscounts.migrate("purchase_order", "PO");
+    }
 
     @Override
     public List<PurchaseOrder> getAllPurchaseOrdersForCurrentTenant() {
@@ -37,12 +95,32 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     }
 
     @Override
+    public CursorPage<PurchaseOrderSummary> getPurchaseOrderPage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String supplier, CountMode countMode) {
+        Long companyId = CompanyContext.getCompanyId();
+        int size = CursorPage.limit(limit);
+        CursorPage<PurchaseOrderSummary> page = CursorPage.of(
+                purchaseOrderRepository.findSummaries(companyId, cursor, status, fromDate, toDate, supplier, PageRequest.of(0, size + 1)),
+                size, PurchaseOrderSummary::getId);
+        if (countMode == CountMode.EXACT) {
+            page.withTotal(purchaseOrderRepository.countSummaries(companyId, status, fromDate, toDate, supplier), true);
+        } else if (countMode == CountMode.ESTIMATE) {
+            long counted = purchaseOrderRepository.countSummariesUpTo(companyId, status, fromDate, toDate, supplier,
+                    CursorPage.ESTIMATE_CAP + 1);
+            page.withTotal(Math.min(counted, CursorPage.ESTIMATE_CAP), counted <= CursorPage.ESTIMATE_CAP);
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional
     public PurchaseOrder createPurchaseOrder(PurchaseOrder po) {
         Long companyId = CompanyContext.getCompanyId();
         po.setCompanyId(companyId);
         po.setPoNumber(generatePoNumber(companyId));
         po.setIssueDate(LocalDate.now());
         po.setStatus("DRAFT");
+        tagLineItems(po);
         calculatePoTotals(po);
         PurchaseOrder saved = purchaseOrderRepository.save(po);
         logStatusChange(saved, null, "DRAFT", null, "Created");
@@ -51,6 +129,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     }
 
     @Override
+    @Transactional
     public PurchaseOrder updatePurchaseOrder(Long poId, PurchaseOrder po) {
         PurchaseOrder existing = purchaseOrderRepository.findById(poId).orElseThrow();
         String oldStatus = existing.getStatus();
@@ -61,6 +140,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
         existing.setStatus(po.getStatus());
         existing.setPdfUrl(po.getPdfUrl());
         existing.setLineItems(po.getLineItems());
+        tagLineItems(existing);
         calculatePoTotals(existing);
         PurchaseOrder saved = purchaseOrderRepository.save(existing);
         if (!oldStatus.equals(saved.getStatus())) {
@@ -71,6 +151,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     }
 
     @Override
+    @Transactional
     public void deletePurchaseOrder(Long poId, Long userId) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
         logAuditTrail(po, "DELETE", po, po, userId, "Deleted");
@@ -80,188 +161,149 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     @Override
     @Transactional
     public PurchaseOrder convertToInvoice(Long poId) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        Invoice invoice = new Invoice();
-        invoice.setCompanyId(po.getCompanyId());
-        invoice.setInvoiceNumber(generateInvoiceNumber(po.getCompanyId()));
-        invoice.setIssueDate(java.time.LocalDate.now());
-        invoice.setDueDate(po.getIssueDate());
-        invoice.setClient(po.getBuyerDetails());
-        invoice.setAmount(po.getGrandTotal());
-        invoice.setSubtotal(po.getSubtotal());
-        invoice.setDiscount(po.getDiscount());
-        invoice.setTax(po.getTax());
-        invoice.setShipping(po.getShipping());
-        invoice.setGrandTotal(po.getGrandTotal());
-        invoice.setCurrency(po.getCurrency());
-        invoice.setPaymentTerms(po.getPaymentTerms());
-        invoice.setPaymentInstructions(po.getPaymentInstructions());
-        invoice.setNotes(po.getNotes());
-        invoice.setAttachments(po.getAttachments());
-        invoice.setSellerDetails(po.getSellerDetails());
-        invoice.setBuyerDetails(po.getBuyerDetails());
-        invoice.setStatusHistory(po.getStatusHistory());
-        invoice.setApprovalWorkflow(po.getApprovalWorkflow());
-        invoice.setRecurring(po.getRecurring());
-        invoice.setMultiLanguageSupport(po.getMultiLanguageSupport());
-        invoice.setLineItems(new java.util.ArrayList<>());
-        for (LineItem item : po.getLineItems()) {
-            LineItem newItem = new LineItem();
-            newItem.setParentType("INVOICE");
-            newItem.setDescription(item.getDescription());
-            newItem.setSku(item.getSku());
-            newItem.setQuantity(item.getQuantity());
-            newItem.setUnitOfMeasure(item.getUnitOfMeasure());
-            newItem.setUnitPrice(item.getUnitPrice());
-            newItem.setDiscount(item.getDiscount());
-            newItem.setDiscountType(item.getDiscountType());
-            newItem.setTaxCode(item.getTaxCode());
-            newItem.setTaxRate(item.getTaxRate());
-            newItem.setLineSubtotal(item.getLineSubtotal());
-            newItem.setNotes(item.getNotes());
-            invoice.getLineItems().add(newItem);
-        }
-        // Recalculate totals for the new invoice
-        List<LineItem> lineItems = invoice.getLineItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        if (lineItems != null) {
-            for (LineItem item : lineItems) {
-                subtotal = subtotal.add(item.getLineSubtotal() != null ? item.getLineSubtotal() : BigDecimal.ZERO);
-                totalTax = totalTax.add(item.getLineTaxAmount() != null ? item.getLineTaxAmount() : BigDecimal.ZERO);
-                if (item.getDiscount() != null && item.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    if ("PERCENT".equals(item.getDiscountType())) {
-                        totalDiscount = totalDiscount.add(item.getLineSubtotal().multiply(item.getDiscount().divide(new BigDecimal("100"))));
-                    } else {
-                        totalDiscount = totalDiscount.add(item.getDiscount());
-                    }
-                }
-            }
+        PurchaseOrder po = purchaseOrderRepository.findByIdForUpdate(poId).orElseThrow();
+        markConverted(po, null);
+        invoiceConversions.convert(TO_INVOICE, po.getCompanyId(), Collections.singletonList(po), null);
+        return purchaseOrderRepository.save(po);
+    }
+
+    @Override
+    public BulkActionResult bulkConvertToInvoice(BulkActionRequest request, Long userId) {
+        Long companyId = CompanyContext.getCompanyId();
+        return bulkActions.execute(request.getIds(),
+                ids -> purchaseOrderRepository.findAllWithLineItems(ids, companyId),
+                PurchaseOrder::getId, PurchaseOrder::getStatus,
+                po -> markConverted(po, userId),
+                pos -> {
+                    invoiceConversions.convert(TO_INVOICE, companyId, pos, userId);
+                    purchaseOrderRepository.saveAll(pos);
+                });
+    }
+
+    // Refuses purchase orders that were converted or rejected, so a retried batch does not invoice twice
+    private void markConverted(PurchaseOrder po, Long userId) {
+        if ("CONVERTED".equals(po.getStatus()) || "REJECTED".equals(po.getStatus())) {
+            throw new IllegalStateException("Purchase order is " + po.getStatus());
         }
-        BigDecimal headerDiscount = invoice.getDiscount() != null ? BigDecimal.valueOf(invoice.getDiscount()) : BigDecimal.ZERO;
-        totalDiscount = totalDiscount.add(headerDiscount);
-        BigDecimal shipping = invoice.getShipping() != null ? BigDecimal.valueOf(invoice.getShipping()) : BigDecimal.ZERO;
-        BigDecimal grandTotal = subtotal.subtract(totalDiscount).add(totalTax).add(shipping);
-        invoice.setSubtotal(subtotal.doubleValue());
-        invoice.setTax(totalTax.doubleValue());
-        invoice.setDiscount(totalDiscount.doubleValue());
-        invoice.setShipping(shipping.doubleValue());
-        invoice.setGrandTotal(grandTotal.doubleValue());
-        invoiceRepository.save(invoice);
+        String oldStatus = po.getStatus();
         po.setStatus("CONVERTED");
-        // Log in AuditLog (pseudo-code, implement as needed)
-        // auditLogRepository.save(new AuditLog(...));
-        return purchaseOrderRepository.save(po);
+        logStatusChange(po, oldStatus, "CONVERTED", userId, "Converted to invoice");
     }
 
     @Override
-    public byte[] generatePurchaseOrderPdf(Long poId) {
+    public StreamingResponseBody streamPurchaseOrderPdf(Long poId) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        try {
-            Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Purchase Order"));
-            document.add(new Paragraph("PO Number: " + po.getPoNumber()));
-            document.add(new Paragraph("Supplier: " + po.getSupplier()));
-            document.add(new Paragraph("Amount: $" + po.getAmount()));
-            document.add(new Paragraph("Status: " + po.getStatus()));
-            document.add(new Paragraph("Issue Date: " + po.getIssueDate()));
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+        return out -> {
+            try {
+                Document document = new Document();
+                PdfWriter.getInstance(document, out);
+                document.open();
+                document.add(new Paragraph("Purchase Order"));
+                document.add(new Paragraph("PO Number: " + po.getPoNumber()));
+                document.add(new Paragraph("Supplier: " + po.getSupplier()));
+                document.add(new Paragraph("Amount: $" + po.getAmount()));
+                document.add(new Paragraph("Status: " + po.getStatus()));
+                document.add(new Paragraph("Issue Date: " + po.getIssueDate()));
+                document.close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate PDF", e);
+            }
+        };
     }
 
     @Override
-    public byte[] generatePurchaseOrderExcel(Long poId) {
+    public StreamingResponseBody streamPurchaseOrderExcel(Long poId) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Purchase Order");
-            Row row = sheet.createRow(0);
-            row.createCell(0).setCellValue("PO Number");
-            row.createCell(1).setCellValue(po.getPoNumber());
-            row.createCell(2).setCellValue("Supplier");
-            row.createCell(3).setCellValue(po.getSupplier());
-            row.createCell(4).setCellValue("Amount");
-            row.createCell(5).setCellValue(po.getAmount());
-            row.createCell(6).setCellValue("Status");
-            row.createCell(7).setCellValue(po.getStatus());
-            row.createCell(8).setCellValue("Issue Date");
-            row.createCell(9).setCellValue(po.getIssueDate() != null ? po.getIssueDate().toString() : "");
-            // ...add more fields as needed...
-            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate Excel", e);
-        }
+        return out -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Purchase Order");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue("PO Number");
+                row.createCell(1).setCellValue(po.getPoNumber());
+                row.createCell(2).setCellValue("Supplier");
+                row.createCell(3).setCellValue(po.getSupplier());
+                row.createCell(4).setCellValue("Amount");
+                row.createCell(5).setCellValue(po.getAmount());
+                row.createCell(6).setCellValue("Status");
+                row.createCell(7).setCellValue(po.getStatus());
+                row.createCell(8).setCellValue("Issue Date");
+                row.createCell(9).setCellValue(po.getIssueDate() != null ? po.getIssueDate().toString() : "");
+                // ...add more fields as needed...
+                workbook.write(out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate Excel", e);
+            }
+        };
     }
 
     @Override
+    @Transactional
     public PurchaseOrder submitForApproval(Long poId, Long userId, String remarks) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        String oldStatus = po.getStatus();
-        po.setStatus("PENDING_APPROVAL");
-        logStatusChange(po, oldStatus, "PENDING_APPROVAL", userId, remarks);
-        logAuditTrail(po, "SUBMIT_FOR_APPROVAL", po, po, userId, remarks);
-        if (po.getApprovalLogs() == null) po.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(poId);
-        log.setParentType("PO");
-        log.setApproverId(userId);
-        log.setAction("SUBMITTED");
-        log.setRemarks(remarks);
-        po.getApprovalLogs().add(log);
-        return purchaseOrderRepository.save(po);
+        return purchaseOrderRepository.save(transition(po, "PENDING_APPROVAL", "SUBMIT_FOR_APPROVAL", "SUBMITTED", userId, remarks));
     }
 
     @Override
+    @Transactional
     public PurchaseOrder approve(Long poId, Long userId, String remarks) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        String oldStatus = po.getStatus();
-        po.setStatus("APPROVED");
-        logStatusChange(po, oldStatus, "APPROVED", userId, remarks);
-        logAuditTrail(po, "APPROVE", po, po, userId, remarks);
-        if (po.getApprovalLogs() == null) po.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(poId);
-        log.setParentType("PO");
-        log.setApproverId(userId);
-        log.setAction("APPROVED");
-        log.setRemarks(remarks);
-        po.getApprovalLogs().add(log);
-        return purchaseOrderRepository.save(po);
+        return purchaseOrderRepository.save(transition(po, "APPROVED", "APPROVE", "APPROVED", userId, remarks));
     }
 
     @Override
+    @Transactional
     public PurchaseOrder reject(Long poId, Long userId, String remarks) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
+        return purchaseOrderRepository.save(transition(po, "REJECTED", "REJECT", "REJECTED", userId, remarks));
+    }
+
+    @Override
+    public BulkActionResult bulkApprove(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "APPROVED", "APPROVE", "APPROVED", userId);
+    }
+
+    @Override
+    public BulkActionResult bulkReject(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "REJECTED", "REJECT", "REJECTED", userId);
+    }
+
+    // Only documents awaiting approval move; each chunk is one IN query, one saveAll and one outbox batch
+    private BulkActionResult bulkTransition(BulkActionRequest request, String newStatus, String auditAction,
+            String approvalAction, Long userId) {
+        Long companyId = CompanyContext.getCompanyId();
+        return bulkActions.execute(request.getIds(),
+                ids -> purchaseOrderRepository.findAllByIdInAndCompanyId(ids, companyId),
+                PurchaseOrder::getId, PurchaseOrder::getStatus,
+                po -> {
+                    if (!"PENDING_APPROVAL".equals(po.getStatus())) {
+                        throw new IllegalStateException("Purchase order is " + po.getStatus() + ", not PENDING_APPROVAL");
+                    }
+                    transition(po, newStatus, auditAction, approvalAction, userId, request.getRemarks());
+                },
+                purchaseOrderRepository::saveAll);
+    }
+
+    // Sets the status and queues the status history, audit trail and approval rows for it
+    private PurchaseOrder transition(PurchaseOrder po, String newStatus, String auditAction, String approvalAction,
+            Long userId, String remarks) {
         String oldStatus = po.getStatus();
-        po.setStatus("REJECTED");
-        logStatusChange(po, oldStatus, "REJECTED", userId, remarks);
-        logAuditTrail(po, "REJECT", po, po, userId, remarks);
-        if (po.getApprovalLogs() == null) po.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(poId);
-        log.setParentType("PO");
-        log.setApproverId(userId);
-        log.setAction("REJECTED");
-        log.setRemarks(remarks);
-        po.getApprovalLogs().add(log);
-        return purchaseOrderRepository.save(po);
+        po.setStatus(newStatus);
+        logStatusChange(po, oldStatus, newStatus, userId, remarks);
+        auditOutbox.append(Arrays.asList(
+                AuditOutboxEntry.audit("PO", po.getId(), auditAction, "status", oldStatus, newStatus, userId, remarks),
+                AuditOutboxEntry.approval("PO", po.getId(), approvalAction, userId, remarks)));
+        return po;
     }
 
     @Override
-    public java.util.List<ApprovalLog> getApprovalLogs(Long poId) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        return po.getApprovalLogs() != null ? po.getApprovalLogs() : java.util.Collections.emptyList();
+    public CursorPage<ApprovalLogEntry> getApprovalLogs(Long poId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(poId);
+        return documentLogs.approvals("PO", poId, cursor, limit, from, to);
     }
 
     @Override
+    @Transactional
     public void logExportAction(Long poId, Long userId, String action) {
         PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
         logAuditTrail(po, action, po, po, userId, action);
@@ -269,133 +311,56 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     }
 
     @Override
-    public java.util.List<AuditTrailLog> getAuditTrailLogs(Long poId) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        return po.getAuditTrailLogs() != null ? po.getAuditTrailLogs() : java.util.Collections.emptyList();
+    public CursorPage<AuditTrailEntry> getAuditTrailLogs(Long poId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(poId);
+        return documentLogs.auditTrail("PO", poId, cursor, limit, from, to);
     }
 
     @Override
-    public java.util.List<StatusHistoryLog> getStatusHistoryLogs(Long poId) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId).orElseThrow();
-        return po.getStatusHistoryLogs() != null ? po.getStatusHistoryLogs() : java.util.Collections.emptyList();
+    public CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long poId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(poId);
+        return documentLogs.statusHistory("PO", poId, cursor, limit, from, to);
     }
 
     private String generatePoNumber(Long companyId) {
-        PurchaseOrder last = purchaseOrderRepository.findTopByCompanyIdOrderByIdDesc(companyId);
-        int next = 1;
-        String prefix = "PO-" + LocalDate.now().getYear() + String.format("%02d", LocalDate.now().getMonthValue());
-        if (last != null && last.getPoNumber() != null && last.getPoNumber().startsWith(prefix)) {
-            String[] parts = last.getPoNumber().split("-");
-            String seq = parts[2];
-            next = Integer.parseInt(seq) + 1;
-        }
-        return prefix + "-" + String.format("%03d", next);
+        return numberAllocator.next("PO", companyId, prefix -> {
+            PurchaseOrder last = purchaseOrderRepository.findTopByCompanyIdOrderByIdDesc(companyId);
+            return DocumentNumberAllocator.sequenceOf(last != null ? last.getPoNumber() : null, prefix);
+        });
     }
 
-    private String generateInvoiceNumber(Long companyId) {
-        Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
-        int next = 1;
-        String prefix = "INV-" + java.time.LocalDate.now().getYear() + String.format("%02d", java.time.LocalDate.now().getMonthValue());
-        if (last != null && last.getInvoiceNumber() != null && last.getInvoiceNumber().startsWith(prefix)) {
-            String[] parts = last.getInvoiceNumber().split("-");
-            String seq = parts[2];
-            next = Integer.parseInt(seq) + 1;
+    // Cascaded lines only get parent_id from the join column; the collection is filtered on parent_type
+    private void tagLineItems(PurchaseOrder po) {
+        if (po.getLineItems() != null) {
+            for (LineItem item : po.getLineItems()) {
+                item.setParentType("PO");
+            }
         }
-        return prefix + "-" + String.format("%03d", next);
     }
 
     private void calculatePoTotals(PurchaseOrder po) {
-        List<LineItem> lineItems = po.getLineItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        if (lineItems != null) {
-            for (LineItem item : lineItems) {
-                subtotal = subtotal.add(item.getLineSubtotal() != null ? item.getLineSubtotal() : BigDecimal.ZERO);
-                totalTax = totalTax.add(item.getLineTaxAmount() != null ? item.getLineTaxAmount() : BigDecimal.ZERO);
-                if (item.getDiscount() != null && item.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    if ("PERCENT".equals(item.getDiscountType())) {
-                        totalDiscount = totalDiscount.add(item.getLineSubtotal().multiply(item.getDiscount().divide(new BigDecimal("100"))));
-                    } else {
-                        totalDiscount = totalDiscount.add(item.getDiscount());
-                    }
-                }
-            }
+        TotalsCalculator.GST.recalculate(po);
+    }
+
+    // Log reads go straight to the log tables, so check the document belongs to the tenant first
+    private void requireOwned(Long poId) {
+        if (!purchaseOrderRepository.existsByIdAndCompanyId(poId, CompanyContext.getCompanyId())) {
+            throw new NoSuchElementException("Purchase order not found: " + poId);
         }
-        BigDecimal headerDiscount = po.getDiscount() != null ? BigDecimal.valueOf(po.getDiscount()) : BigDecimal.ZERO;
-        totalDiscount = totalDiscount.add(headerDiscount);
-        BigDecimal shipping = po.getShipping() != null ? BigDecimal.valueOf(po.getShipping()) : BigDecimal.ZERO;
-        BigDecimal grandTotal = subtotal.subtract(totalDiscount).add(totalTax).add(shipping);
-        po.setSubtotal(subtotal.doubleValue());
-        po.setTax(totalTax.doubleValue());
-        po.setDiscount(totalDiscount.doubleValue());
-        po.setShipping(shipping.doubleValue());
-        po.setGrandTotal(grandTotal.doubleValue());
     }
 
     private void logStatusChange(PurchaseOrder po, String oldStatus, String newStatus, Long userId, String remarks) {
-        if (po.getStatusHistoryLogs() == null) po.setStatusHistoryLogs(new java.util.ArrayList<>());
-        StatusHistoryLog log = new StatusHistoryLog();
-        log.setParentId(po.getId());
-        log.setParentType("PO");
-        log.setOldStatus(oldStatus);
-        log.setNewStatus(newStatus);
-        log.setChangedBy(userId);
-        log.setRemarks(remarks);
-        po.getStatusHistoryLogs().add(log);
+        auditOutbox.append(AuditOutboxEntry.statusChange("PO", po.getId(), oldStatus, newStatus, userId, remarks));
     }
 
     private void logAuditTrail(PurchaseOrder po, String action, PurchaseOrder oldPo, PurchaseOrder newPo, Long userId, String remarks) {
-        if (po.getAuditTrailLogs() == null) po.setAuditTrailLogs(new java.util.ArrayList<>());
-        java.util.List<AuditTrailLog> logs = comparePOsForAudit(oldPo, newPo, action, userId, remarks);
-        po.getAuditTrailLogs().addAll(logs);
+        auditOutbox.append(comparePOsForAudit(oldPo, newPo, action, userId, remarks));
     }
 
-    private java.util.List<AuditTrailLog> comparePOsForAudit(PurchaseOrder oldPO, PurchaseOrder newPO, String action, Long userId, String remarks) {
-        java.util.List<AuditTrailLog> logs = new java.util.ArrayList<>();
-        if (oldPO == null) {
-            java.lang.reflect.Field[] fields = PurchaseOrder.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object newValue = field.get(newPO);
-                    if (newValue != null) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newPO.getId());
-                        log.setParentType("PO");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(null);
-                        log.setNewValue(newValue.toString());
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        } else {
-            java.lang.reflect.Field[] fields = PurchaseOrder.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object oldValue = field.get(oldPO);
-                    Object newValue = field.get(newPO);
-                    if (oldValue == null && newValue == null) continue;
-                    if (oldValue == null || newValue == null || !oldValue.equals(newValue)) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newPO.getId());
-                        log.setParentType("PO");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(oldValue != null ? oldValue.toString() : null);
-                        log.setNewValue(newValue != null ? newValue.toString() : null);
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        }
-        return logs;
+    private java.util.List<AuditOutboxEntry> comparePOsForAudit(PurchaseOrder oldPO, PurchaseOrder newPO, String action, Long userId, String remarks) {
+        return AUDIT_DIFFER.diff(oldPO, newPO, (fieldName, oldValue, newValue) ->
+                AuditOutboxEntry.audit("PO", newPO.getId(), action, fieldName, oldValue, newValue, userId, remarks));
     }
 } 
\ No newline at end of file
@@ -1,6 +1,18 @@
 package com.sme.quoteservice.controller;
 
 import com.sme.quoteservice.model.Quote;
+import com.sme.quoteservice.model.QuoteSummary;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import com.sme.quoteservice.service.QuoteService;
 import com.sme.shared.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +23,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/quotes")
@@ -23,6 +36,26 @@ public class QuoteController {
         return new ApiResponse<>(true, "Fetched quotes", quoteService.getAllQuotesForCurrentTenant());
     }
 
+    @GetMapping("/page")
+    public ApiResponse<CursorPage<QuoteSummary>> getQuotePage(@RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) String count) {
+        return new ApiResponse<>(true, "Fetched quotes",
+                quoteService.getQuotePage(cursor, limit, status, from, to, client, CountMode.parse(count)));
+    }
+
+    // q: words to match; word* matches by prefix and word~ tolerates a typo
+    @GetMapping("/search")
+    public ApiResponse<SearchResult> searchQuotes(@RequestParam String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return new ApiResponse<>(true, "Searched quotes", quoteService.searchQuotes(q, status, limit));
+    }
+
     @PostMapping
     public ApiResponse<Quote> createQuote(@RequestBody Quote quote) {
         return new ApiResponse<>(true, "Created quote", quoteService.createQuote(quote));
@@ -46,25 +79,25 @@ public class QuoteController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> exportQuotePdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportQuotePdf(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         quoteService.logExportAction(id, userId, "EXPORT_PDF");
-        byte[] pdf = quoteService.generateQuotePdf(id);
+        StreamingResponseBody body = quoteService.streamQuotePdf(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "quote-" + id + ".pdf");
-        return ResponseEntity.ok().headers(headers).body(pdf);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportQuoteExcel(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> exportQuoteExcel(@PathVariable Long id) {
         Long userId = getCurrentUserId();
         quoteService.logExportAction(id, userId, "EXPORT_EXCEL");
-        byte[] xlsx = quoteService.generateQuoteExcel(id);
+        StreamingResponseBody body = quoteService.streamQuoteExcel(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "quote-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(xlsx);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @PostMapping("/{id}/submit-approval")
@@ -82,19 +115,49 @@ public class QuoteController {
         return new ApiResponse<>(true, "Quote rejected", quoteService.reject(id, userId, remarks));
     }
 
+    @PostMapping("/bulk/approve")
+    public ApiResponse<BulkActionResult> bulkApprove(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = quoteService.bulkApprove(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Approved " + result.getSucceeded() + " quotes", result);
+    }
+
+    @PostMapping("/bulk/convert")
+    public ApiResponse<BulkActionResult> bulkConvertToInvoice(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = quoteService.bulkConvertToInvoice(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Converted " + result.getSucceeded() + " quotes", result);
+    }
+
+    @PostMapping("/bulk/reject")
+    public ApiResponse<BulkActionResult> bulkReject(@RequestBody BulkActionRequest request, @RequestParam Long userId) {
+        BulkActionResult result = quoteService.bulkReject(request, userId);
+        return new ApiResponse<>(result.getFailed() == 0, "Rejected " + result.getSucceeded() + " quotes", result);
+    }
+
     @GetMapping("/{id}/approval-logs")
-    public ApiResponse<java.util.List<com.sme.shared.ApprovalLog>> getApprovalLogs(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched approval logs", quoteService.getApprovalLogs(id));
+    public ApiResponse<CursorPage<ApprovalLogEntry>> getApprovalLogs(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched approval logs", quoteService.getApprovalLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/audit-trail")
-    public ApiResponse<java.util.List<com.sme.shared.AuditTrailLog>> getAuditTrail(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched audit trail", quoteService.getAuditTrailLogs(id));
+    public ApiResponse<CursorPage<AuditTrailEntry>> getAuditTrail(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched audit trail", quoteService.getAuditTrailLogs(id, cursor, limit, from, to));
     }
 
     @GetMapping("/{id}/status-history")
-    public ApiResponse<java.util.List<com.sme.shared.StatusHistoryLog>> getStatusHistory(@PathVariable Long id) {
-        return new ApiResponse<>(true, "Fetched status history", quoteService.getStatusHistoryLogs(id));
+    public ApiResponse<CursorPage<StatusHistoryEntry>> getStatusHistory(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ApiResponse<>(true, "Fetched status history", quoteService.getStatusHistoryLogs(id, cursor, limit, from, to));
     }
 
     private Long getCurrentUserId() {
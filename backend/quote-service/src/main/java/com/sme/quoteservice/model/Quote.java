@@ -5,7 +5,11 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-public class Quote {
+@Table(indexes = {
+    @Index(name = "idx_quote_company_id", columnList = "companyId, id"),
+    @Index(name = "idx_quote_company_status", columnList = "companyId, status, id")
+})
+public class Quote implements com.sme.shared.TaxableDocument {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,6 +23,8 @@ public class Quote {
     private Boolean convertedToInvoice;
     private Double subtotal;
     private Double discount;
+    // 1 once discount holds the header discount only; null on rows not yet repaired by LegacyDiscountMigration
+    private Integer totalsVersion = com.sme.shared.LegacyDiscountMigration.HEADER_DISCOUNT_ONLY;
     private Double tax;
     private Double shipping;
     private Double grandTotal;
@@ -55,18 +61,12 @@ public class Quote {
     private String customPaymentInstructions; // Custom instructions
     private String termsAndConditions; // Link or text for T&Cs
 
+    // line_items holds the lines of every document type; parent_id alone would also match other types' lines
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "parentId", referencedColumnName = "id")
+    @org.hibernate.annotations.Where(clause = "parent_type = 'QUOTE'")
     private List<com.sme.shared.LineItem> lineItems;
 
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "parentId", referencedColumnName = "id")
-    private java.util.List<com.sme.shared.ApprovalLog> approvalLogs;
-
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "parentId", referencedColumnName = "id")
-    private java.util.List<com.sme.shared.StatusHistoryLog> statusHistoryLogs;
-
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -90,6 +90,8 @@ public class Quote {
     public void setSubtotal(Double subtotal) { this.subtotal = subtotal; }
     public Double getDiscount() { return discount; }
     public void setDiscount(Double discount) { this.discount = discount; }
+    public Integer getTotalsVersion() { return totalsVersion; }
+    public void setTotalsVersion(Integer totalsVersion) { this.totalsVersion = totalsVersion; }
     public Double getTax() { return tax; }
     public void setTax(Double tax) { this.tax = tax; }
     public Double getShipping() { return shipping; }
@@ -136,9 +138,5 @@ public class Quote {
     public void setTermsAndConditions(String termsAndConditions) { this.termsAndConditions = termsAndConditions; }
     public List<com.sme.shared.LineItem> getLineItems() { return lineItems; }
     public void setLineItems(List<com.sme.shared.LineItem> lineItems) { this.lineItems = lineItems; }
-    public java.util.List<com.sme.shared.ApprovalLog> getApprovalLogs() { return approvalLogs; }
-    public void setApprovalLogs(java.util.List<com.sme.shared.ApprovalLog> approvalLogs) { this.approvalLogs = approvalLogs; }
-    public java.util.List<com.sme.shared.StatusHistoryLog> getStatusHistoryLogs() { return statusHistoryLogs; }
-    public void setStatusHistoryLogs(java.util.List<com.sme.shared.StatusHistoryLog> statusHistoryLogs) { this.statusHistoryLogs = statusHistoryLogs; }
         
 } 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.sme.quoteservice.model;
+
+import java.time.LocalDate;
+
+/** List-view projection of {@link Quote}; selected directly by JPQL so no entity or collection is loaded. */
+public class QuoteSummary {
+    private Long id;
+    private String quoteNumber;
+    private String client;
+    private String status;
+    private LocalDate issueDate;
+    private Double grandTotal;
+    private String currency;
+    private Boolean convertedToInvoice;
+
+    public QuoteSummary() {}
+    public QuoteSummary(Long id, String quoteNumber, String client, String status, LocalDate issueDate, Double grandTotal, String currency, Boolean convertedToInvoice) {
+        this.id = id;
+        this.quoteNumber = quoteNumber;
+        this.client = client;
+        this.status = status;
+        this.issueDate = issueDate;
+        this.grandTotal = grandTotal;
+        this.currency = currency;
+        this.convertedToInvoice = convertedToInvoice;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getQuoteNumber() { return quoteNumber; }
+    public void setQuoteNumber(String quoteNumber) { this.quoteNumber = quoteNumber; }
+    public String getClient() { return client; }
+    public void setClient(String client) { this.client = client; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDate getIssueDate() { return issueDate; }
+    public void setIssueDate(LocalDate issueDate) { this.issueDate = issueDate; }
+    public Double getGrandTotal() { return grandTotal; }
+    public void setGrandTotal(Double grandTotal) { this.grandTotal = grandTotal; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+    public Boolean getConvertedToInvoice() { return convertedToInvoice; }
+    public void setConvertedToInvoice(Boolean convertedToInvoice) { this.convertedToInvoice = convertedToInvoice; }
+}
@@ -2,9 +2,68 @@ package com.sme.quoteservice.repository;
 
 import com.sme.quoteservice.model.Quote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import com.sme.quoteservice.model.QuoteSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface QuoteRepository extends JpaRepository<Quote, Long> {
     List<Quote> findAllByCompanyId(Long companyId);
     Quote findTopByCompanyIdOrderByIdDesc(Long companyId);
-} 
\ No newline at end of file
+    boolean existsByIdAndCompanyId(Long id, Long companyId);
+
+    // Bulk action chunks: locked so overlapping bulk actions see each other's committed status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Quote> findAllByIdInAndCompanyId(Collection<Long> ids, Long companyId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select q from Quote q where q.id = :id")
+    Optional<Quote> findByIdForUpdate(@Param("id") Long id);
+
+    // Keyset pagination on (companyId, id), newest first; cursor is the last id of the previous page
+    @Query("select new com.sme.quoteservice.model.QuoteSummary(q.id, q.quoteNumber, q.client, q.status, q.issueDate, q.grandTotal, q.currency, q.convertedToInvoice) "
+            + "from Quote q where q.companyId = :companyId and (:cursor is null or q.id < :cursor) "
+            + "and (:status is null or q.status = :status) "
+            + "and (:fromDate is null or q.issueDate >= :fromDate) and (:toDate is null or q.issueDate <= :toDate) "
+            + "and (:client is null or q.client like concat(:client, '%')) "
+            + "order by q.id desc")
+    List<QuoteSummary> findSummaries(@Param("companyId") Long companyId, @Param("cursor") Long cursor,
+            @Param("status") String status, @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate, @Param("client") String client, Pageable pageable);
+
+    @Query("select count(q) from Quote q where q.companyId = :companyId "
+            + "and (:status is null or q.status = :status) "
+            + "and (:fromDate is null or q.issueDate >= :fromDate) and (:toDate is null or q.issueDate <= :toDate) "
+            + "and (:client is null or q.client like concat(:client, '%'))")
+    long countSummaries(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("client") String client);
+
+    // Stops counting after :cap rows so an estimate stays cheap on large tenants
+    @Query(value = "select count(*) from (select 1 from quote q where q.company_id = :companyId "
+            + "and (:status is null or q.status = :status) "
+            + "and (:fromDate is null or q.issue_date >= :fromDate) and (:toDate is null or q.issue_date <= :toDate) "
+            + "and (:client is null or q.client like concat(:client, '%')) "
+            + "limit :cap) capped", nativeQuery = true)
+    long countSummariesUpTo(@Param("companyId") Long companyId, @Param("status") String status,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+            @Param("client") String client, @Param("cap") int cap);
+
+    // Id pages of a company through (companyId, id), for rebuilding the search index
+    @Query("select q.id from Quote q where q.companyId = :companyId and q.id > :afterId order by q.id")
+    List<Long> findIdPage(@Param("companyId") Long companyId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select distinct q from Quote q left join fetch q.lineItems where q.id in :ids")
+    List<Quote> findAllWithLineItems(@Param("ids") Collection<Long> ids);
+
+    // Conversion sources: locked so two conversions cannot both pass the "not yet converted" check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select distinct q from Quote q left join fetch q.lineItems where q.id in :ids and q.companyId = :companyId")
+    List<Quote> findAllWithLineItems(@Param("ids") Collection<Long> ids, @Param("companyId") Long companyId);
+}
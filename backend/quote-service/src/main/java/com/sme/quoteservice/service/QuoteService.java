@@ -1,21 +1,39 @@
 package com.sme.quoteservice.service;
 
 import com.sme.quoteservice.model.Quote;
+import com.sme.quoteservice.model.QuoteSummary;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface QuoteService {
     List<Quote> getAllQuotesForCurrentTenant();
+    CursorPage<QuoteSummary> getQuotePage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String client, CountMode countMode);
     Quote createQuote(Quote quote);
     Quote updateQuote(Long quoteId, Quote quote);
     void deleteQuote(Long quoteId, Long userId);
     Quote convertToInvoice(Long quoteId);
-    byte[] generateQuotePdf(Long quoteId);
-    byte[] generateQuoteExcel(Long quoteId);
+    BulkActionResult bulkConvertToInvoice(BulkActionRequest request, Long userId);
+    StreamingResponseBody streamQuotePdf(Long quoteId);
+    StreamingResponseBody streamQuoteExcel(Long quoteId);
     Quote submitForApproval(Long quoteId, Long userId, String remarks);
     Quote approve(Long quoteId, Long userId, String remarks);
     Quote reject(Long quoteId, Long userId, String remarks);
-    java.util.List<com.sme.shared.ApprovalLog> getApprovalLogs(Long quoteId);
+    BulkActionResult bulkApprove(BulkActionRequest request, Long userId);
+    BulkActionResult bulkReject(BulkActionRequest request, Long userId);
+    SearchResult searchQuotes(String query, String status, Integer limit);
+    CursorPage<ApprovalLogEntry> getApprovalLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
     void logExportAction(Long quoteId, Long userId, String action);
-    java.util.List<com.sme.shared.AuditTrailLog> getAuditTrailLogs(Long quoteId);
-    java.util.List<com.sme.shared.StatusHistoryLog> getStatusHistoryLogs(Long quoteId);
+    CursorPage<AuditTrailEntry> getAuditTrailLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
+    CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from, LocalDateTime to);
 } 
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.sme.quoteservice.service.impl;
+
+import com.sme.quoteservice.model.Quote;
+import com.sme.quoteservice.repository.QuoteRepository;
+import com.sme.shared.CursorPage;
+import com.sme.shared.DocumentSearchIndex;
+import com.sme.shared.LineItem;
+import com.sme.shared.SearchDocument;
+import com.sme.shared.SearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search over quote numbers, clients, notes and line item descriptions and SKUs.
+ * Each company's quotes are indexed with Lucene under {@code search.index-dir}, built in the
+ * background on its first search from id pages read with their line items, and writes made
+ * through this service update the index once they commit.
+ */
+@Component
+public class QuoteSearch {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${search.index-dir:${java.io.tmpdir}/sme-search}")
+    private String indexDir;
+    @Value("${search.max-companies:200}")
+    private int maxCompanies;
+    @Value("${search.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    private DocumentSearchIndex index;
+
+    @PostConstruct
+    public void init() {
+        index = new DocumentSearchIndex(Paths.get(indexDir, "quotes"), this::load, "quote-search", maxCompanies,
+                maxAgeMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        index.close();
+    }
+
+    public SearchResult search(Long companyId, String query, String status, Integer limit) {
+        return index.search(companyId, query, status, CursorPage.limit(limit));
+    }
+
+    /** Reindexes a created or edited quote after commit; call while its line items can still load. */
+    public void changed(Quote quote) {
+        SearchDocument document = documentOf(quote);
+        Long companyId = quote.getCompanyId();
+        afterCommit(() -> index.put(companyId, document));
+    }
+
+    public void statusChanged(Quote quote) {
+        Long companyId = quote.getCompanyId();
+        Long id = quote.getId();
+        String status = quote.getStatus();
+        afterCommit(() -> index.updateStatus(companyId, id, status));
+    }
+
+    public void deleted(Quote quote) {
+        Long companyId = quote.getCompanyId();
+        Long id = quote.getId();
+        afterCommit(() -> index.remove(companyId, id));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private void load(Long companyId, Consumer<SearchDocument> sink) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long from = afterId;
+            afterId = readOnly.execute(status -> {
+                List<Long> ids = quoteRepository.findIdPage(companyId, from, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (Quote quote : quoteRepository.findAllWithLineItems(ids)) {
+                    sink.accept(documentOf(quote));
+                }
+                return ids.size() < LOAD_PAGE_SIZE ? null : ids.get(ids.size() - 1);
+            });
+        }
+    }
+
+    private static SearchDocument documentOf(Quote quote) {
+        SearchDocument document = new SearchDocument(quote.getId(), quote.getStatus(),
+                quote.getQuoteNumber(), quote.getClient())
+                .keyword(quote.getQuoteNumber(), 3)
+                .text(quote.getClient(), 3)
+                .text(quote.getNotes(), 1);
+        if (quote.getLineItems() != null) {
+            for (LineItem item : quote.getLineItems()) {
+                document.text(item.getDescription(), 1).keyword(item.getSku(), 2);
+            }
+        }
+        return document;
+    }
+}
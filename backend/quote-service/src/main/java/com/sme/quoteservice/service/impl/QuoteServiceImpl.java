@@ -2,33 +2,93 @@ package com.sme.quoteservice.service.impl;
 
 import com.sme.shared.CompanyContext;
 import com.sme.quoteservice.model.Quote;
+import com.sme.quoteservice.model.QuoteSummary;
 import com.sme.quoteservice.repository.QuoteRepository;
 import com.sme.quoteservice.service.QuoteService;
 import com.sme.invoiceservice.model.Invoice;
-import com.sme.invoiceservice.repository.InvoiceRepository;
-import com.sme.shared.LineItem;
+import com.sme.invoiceservice.service.impl.InvoiceConversions;
 import com.sme.shared.AuditLog;
-import com.sme.shared.ApprovalLog;
-import com.sme.shared.StatusHistoryLog;
-import com.sme.shared.AuditTrailLog;
+import com.sme.shared.BulkActionExecutor;
+import com.sme.shared.BulkActionRequest;
+import com.sme.shared.BulkActionResult;
+import com.sme.shared.ApprovalLogEntry;
+import com.sme.shared.AuditDiffer;
+import com.sme.shared.AuditOutbox;
+import com.sme.shared.AuditOutboxEntry;
+import com.sme.shared.AuditTrailEntry;
+import com.sme.shared.TotalsCalculator;
+import com.sme.shared.DocumentNumberAllocator;
+import com.sme.shared.CountMode;
+import com.sme.shared.CursorPage;
+import com.sme.shared.DocumentLogReader;
+import com.sme.shared.DocumentMapping;
+import com.sme.shared.LineItem;
+import com.sme.shared.LegacyDiscountMigration;
+import com.sme.shared.SearchResult;
+import com.sme.shared.StatusHistoryEntry;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
+import java.util.NoSuchElementException;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import java.math.BigDecimal;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class QuoteServiceImpl implements QuoteService {
+    private static final AuditDiffer<Quote> AUDIT_DIFFER = AuditDiffer.forType(Quote.class);
+    private static final InvoiceConversions.Source<Quote> TO_INVOICE = new InvoiceConversions.Source<>("QUOTE",
+            Quote::getId, Quote::getLineItems, DocumentMapping.<Quote, Invoice>builder(Invoice::new)
+                    .copy(Quote::getClient, Invoice::setClient)
+                    .copy(Quote::getAmount, Invoice::setAmount)
+                    .copy(Quote::getSubtotal, Invoice::setSubtotal)
+                    .copy(Quote::getDiscount, Invoice::setDiscount)
+                    .copy(Quote::getTax, Invoice::setTax)
+                    .copy(Quote::getShipping, Invoice::setShipping)
+                    .copy(Quote::getGrandTotal, Invoice::setGrandTotal)
+                    .copy(Quote::getCurrency, Invoice::setCurrency)
+                    .copy(Quote::getPaymentTerms, Invoice::setPaymentTerms)
+                    .copy(Quote::getPaymentInstructions, Invoice::setPaymentInstructions)
+                    .copy(Quote::getNotes, Invoice::setNotes)
+                    .copy(Quote::getAttachments, Invoice::setAttachments)
+                    .copy(Quote::getSellerDetails, Invoice::setSellerDetails)
+                    .copy(Quote::getBuyerDetails, Invoice::setBuyerDetails)
+                    .copy(Quote::getStatusHistory, Invoice::setStatusHistory)
+                    .copy(Quote::getApprovalWorkflow, Invoice::setApprovalWorkflow)
+                    .copy(Quote::getRecurring, Invoice::setRecurring)
+                    .copy(Quote::getMultiLanguageSupport, Invoice::setMultiLanguageSupport)
+                    .build());
+
     @Autowired
     private QuoteRepository quoteRepository;
     @Autowired
-    private InvoiceRepository invoiceRepository;
+    private InvoiceConversions invoiceConversions;
+    @Autowired
+    private DocumentNumberAllocator numberAllocator;
+    @Autowired
+    private AuditOutbox auditOutbox;
+    @Autowired
+    private BulkActionExecutor bulkActions;
+    @Autowired
+    private DocumentLogReader documentLogs;
+    @Autowired
+    private QuoteSearch search;
+    @Autowired
+    private LegacyDiscountMigration legacyDiscounts;
+
+    @PostConstruct
+    public void init() {
+        legacyDiscounts.migrate("quote", "QUOTE");
+    }
 
     @Override
     public List<Quote> getAllQuotesForCurrentTenant() {
@@ -37,6 +97,25 @@ public class QuoteServiceImpl implements QuoteService {
     }
 
     @Override
+    public CursorPage<QuoteSummary> getQuotePage(Long cursor, Integer limit, String status, LocalDate fromDate,
+            LocalDate toDate, String client, CountMode countMode) {
+        Long companyId = CompanyContext.getCompanyId();
+        int size = CursorPage.limit(limit);
+        CursorPage<QuoteSummary> page = CursorPage.of(
+                quoteRepository.findSummaries(companyId, cursor, status, fromDate, toDate, client, PageRequest.of(0, size + 1)),
+                size, QuoteSummary::getId);
+        if (countMode == CountMode.EXACT) {
+            page.withTotal(quoteRepository.countSummaries(companyId, status, fromDate, toDate, client), true);
+        } else if (countMode == CountMode.ESTIMATE) {
+            long counted = quoteRepository.countSummariesUpTo(companyId, status, fromDate, toDate, client,
+                    CursorPage.ESTIMATE_CAP + 1);
+            page.withTotal(Math.min(counted, CursorPage.ESTIMATE_CAP), counted <= CursorPage.ESTIMATE_CAP);
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional
     public Quote createQuote(Quote quote) {
         Long companyId = CompanyContext.getCompanyId();
         quote.setCompanyId(companyId);
@@ -44,14 +123,17 @@ public class QuoteServiceImpl implements QuoteService {
         quote.setIssueDate(LocalDate.now());
         quote.setStatus("DRAFT");
         quote.setConvertedToInvoice(false);
+        tagLineItems(quote);
         calculateQuoteTotals(quote);
         Quote saved = quoteRepository.save(quote);
+        search.changed(saved);
         logStatusChange(saved, null, "DRAFT", null, "Created");
         logAuditTrail(saved, "CREATE", null, saved, null, "Created");
         return saved;
     }
 
     @Override
+    @Transactional
     public Quote updateQuote(Long quoteId, Quote quote) {
         Quote existing = quoteRepository.findById(quoteId).orElseThrow();
         String oldStatus = existing.getStatus();
@@ -63,8 +145,10 @@ public class QuoteServiceImpl implements QuoteService {
         existing.setPdfUrl(quote.getPdfUrl());
         existing.setConvertedToInvoice(quote.getConvertedToInvoice());
         existing.setLineItems(quote.getLineItems());
+        tagLineItems(existing);
         calculateQuoteTotals(existing);
         Quote saved = quoteRepository.save(existing);
+        search.changed(saved);
         if (!oldStatus.equals(saved.getStatus())) {
             logStatusChange(saved, oldStatus, saved.getStatus(), null, "Status updated");
         }
@@ -73,200 +157,177 @@ public class QuoteServiceImpl implements QuoteService {
     }
 
     @Override
+    @Transactional
     public void deleteQuote(Long quoteId, Long userId) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
         logAuditTrail(quote, "DELETE", quote, quote, userId, "Deleted");
         quoteRepository.deleteById(quoteId);
+        search.deleted(quote);
     }
 
     @Override
     @Transactional
     public Quote convertToInvoice(Long quoteId) {
-        Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        Invoice invoice = new Invoice();
-        invoice.setCompanyId(quote.getCompanyId());
-        invoice.setInvoiceNumber(generateInvoiceNumber(quote.getCompanyId()));
-        invoice.setIssueDate(java.time.LocalDate.now());
-        invoice.setDueDate(quote.getDueDate());
-        invoice.setClient(quote.getClient());
-        invoice.setAmount(quote.getAmount());
-        invoice.setSubtotal(quote.getSubtotal());
-        invoice.setDiscount(quote.getDiscount());
-        invoice.setTax(quote.getTax());
-        invoice.setShipping(quote.getShipping());
-        invoice.setGrandTotal(quote.getGrandTotal());
-        invoice.setCurrency(quote.getCurrency());
-        invoice.setPaymentTerms(quote.getPaymentTerms());
-        invoice.setPaymentInstructions(quote.getPaymentInstructions());
-        invoice.setNotes(quote.getNotes());
-        invoice.setAttachments(quote.getAttachments());
-        invoice.setSellerDetails(quote.getSellerDetails());
-        invoice.setBuyerDetails(quote.getBuyerDetails());
-        invoice.setStatusHistory(quote.getStatusHistory());
-        invoice.setApprovalWorkflow(quote.getApprovalWorkflow());
-        invoice.setRecurring(quote.getRecurring());
-        invoice.setMultiLanguageSupport(quote.getMultiLanguageSupport());
-        invoice.setLineItems(new java.util.ArrayList<>());
-        for (LineItem item : quote.getLineItems()) {
-            LineItem newItem = new LineItem();
-            newItem.setParentType("INVOICE");
-            newItem.setDescription(item.getDescription());
-            newItem.setSku(item.getSku());
-            newItem.setQuantity(item.getQuantity());
-            newItem.setUnitOfMeasure(item.getUnitOfMeasure());
-            newItem.setUnitPrice(item.getUnitPrice());
-            newItem.setDiscount(item.getDiscount());
-            newItem.setDiscountType(item.getDiscountType());
-            newItem.setTaxCode(item.getTaxCode());
-            newItem.setTaxRate(item.getTaxRate());
-            newItem.setLineSubtotal(item.getLineSubtotal());
-            newItem.setNotes(item.getNotes());
-            invoice.getLineItems().add(newItem);
+        Quote quote = quoteRepository.findByIdForUpdate(quoteId).orElseThrow();
+        markConverted(quote, null);
+        invoiceConversions.convert(TO_INVOICE, quote.getCompanyId(), Collections.singletonList(quote), null);
+        return quoteRepository.save(quote);
+    }
+
+    @Override
+    public BulkActionResult bulkConvertToInvoice(BulkActionRequest request, Long userId) {
+        Long companyId = CompanyContext.getCompanyId();
+        return bulkActions.execute(request.getIds(),
+                ids -> quoteRepository.findAllWithLineItems(ids, companyId),
+                Quote::getId, Quote::getStatus,
+                quote -> markConverted(quote, userId),
+                quotes -> {
+                    invoiceConversions.convert(TO_INVOICE, companyId, quotes, userId);
+                    quoteRepository.saveAll(quotes);
+                });
+    }
+
+    // Refuses quotes that were converted or rejected, so a retried batch does not invoice twice
+    private void markConverted(Quote quote, Long userId) {
+        if (Boolean.TRUE.equals(quote.getConvertedToInvoice()) || "CONVERTED".equals(quote.getStatus())) {
+            throw new IllegalStateException("Quote is already converted");
         }
-        // Recalculate totals for the new invoice
-        // (reuse logic from InvoiceServiceImpl if possible)
-        // For now, recalculate here:
-        List<LineItem> lineItems = invoice.getLineItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        if (lineItems != null) {
-            for (LineItem item : lineItems) {
-                subtotal = subtotal.add(item.getLineSubtotal() != null ? item.getLineSubtotal() : BigDecimal.ZERO);
-                totalTax = totalTax.add(item.getLineTaxAmount() != null ? item.getLineTaxAmount() : BigDecimal.ZERO);
-                if (item.getDiscount() != null && item.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    if ("PERCENT".equals(item.getDiscountType())) {
-                        totalDiscount = totalDiscount.add(item.getLineSubtotal().multiply(item.getDiscount().divide(new BigDecimal("100"))));
-                    } else {
-                        totalDiscount = totalDiscount.add(item.getDiscount());
-                    }
-                }
-            }
+        if ("REJECTED".equals(quote.getStatus())) {
+            throw new IllegalStateException("Quote is REJECTED");
         }
-        BigDecimal headerDiscount = invoice.getDiscount() != null ? BigDecimal.valueOf(invoice.getDiscount()) : BigDecimal.ZERO;
-        totalDiscount = totalDiscount.add(headerDiscount);
-        BigDecimal shipping = invoice.getShipping() != null ? BigDecimal.valueOf(invoice.getShipping()) : BigDecimal.ZERO;
-        BigDecimal grandTotal = subtotal.subtract(totalDiscount).add(totalTax).add(shipping);
-        invoice.setSubtotal(subtotal.doubleValue());
-        invoice.setTax(totalTax.doubleValue());
-        invoice.setDiscount(totalDiscount.doubleValue());
-        invoice.setShipping(shipping.doubleValue());
-        invoice.setGrandTotal(grandTotal.doubleValue());
-        invoiceRepository.save(invoice);
+        String oldStatus = quote.getStatus();
         quote.setConvertedToInvoice(true);
         quote.setStatus("CONVERTED");
-        // Log in AuditLog (pseudo-code, implement as needed)
-        // auditLogRepository.save(new AuditLog(...));
-        return quoteRepository.save(quote);
+        logStatusChange(quote, oldStatus, "CONVERTED", userId, "Converted to invoice");
+        search.statusChanged(quote);
     }
 
     @Override
+    @Transactional
     public Quote submitForApproval(Long quoteId, Long userId, String remarks) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        String oldStatus = quote.getStatus();
-        quote.setStatus("PENDING_APPROVAL");
-        logStatusChange(quote, oldStatus, "PENDING_APPROVAL", userId, remarks);
-        logAuditTrail(quote, "SUBMIT_FOR_APPROVAL", quote, quote, userId, remarks);
-        if (quote.getApprovalLogs() == null) quote.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(quoteId);
-        log.setParentType("QUOTE");
-        log.setApproverId(userId);
-        log.setAction("SUBMITTED");
-        log.setRemarks(remarks);
-        quote.getApprovalLogs().add(log);
-        return quoteRepository.save(quote);
+        Quote saved = quoteRepository.save(transition(quote, "PENDING_APPROVAL", "SUBMIT_FOR_APPROVAL", "SUBMITTED", userId, remarks));
+        search.statusChanged(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public Quote approve(Long quoteId, Long userId, String remarks) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        String oldStatus = quote.getStatus();
-        quote.setStatus("APPROVED");
-        logStatusChange(quote, oldStatus, "APPROVED", userId, remarks);
-        logAuditTrail(quote, "APPROVE", quote, quote, userId, remarks);
-        if (quote.getApprovalLogs() == null) quote.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(quoteId);
-        log.setParentType("QUOTE");
-        log.setApproverId(userId);
-        log.setAction("APPROVED");
-        log.setRemarks(remarks);
-        quote.getApprovalLogs().add(log);
-        return quoteRepository.save(quote);
+        Quote saved = quoteRepository.save(transition(quote, "APPROVED", "APPROVE", "APPROVED", userId, remarks));
+        search.statusChanged(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public Quote reject(Long quoteId, Long userId, String remarks) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
+        Quote saved = quoteRepository.save(transition(quote, "REJECTED", "REJECT", "REJECTED", userId, remarks));
+        search.statusChanged(saved);
+        return saved;
+    }
+
+    @Override
+    public BulkActionResult bulkApprove(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "APPROVED", "APPROVE", "APPROVED", userId);
+    }
+
+    @Override
+    public BulkActionResult bulkReject(BulkActionRequest request, Long userId) {
+        return bulkTransition(request, "REJECTED", "REJECT", "REJECTED", userId);
+    }
+
+    @Override
+    public SearchResult searchQuotes(String query, String status, Integer limit) {
+        return search.search(CompanyContext.getCompanyId(), query, status, limit);
+    }
+
+    // Only documents awaiting approval move; each chunk is one IN query, one saveAll and one outbox batch
+    private BulkActionResult bulkTransition(BulkActionRequest request, String newStatus, String auditAction,
+            String approvalAction, Long userId) {
+        Long companyId = CompanyContext.getCompanyId();
+        return bulkActions.execute(request.getIds(),
+                ids -> quoteRepository.findAllByIdInAndCompanyId(ids, companyId),
+                Quote::getId, Quote::getStatus,
+                quote -> {
+                    if (!"PENDING_APPROVAL".equals(quote.getStatus())) {
+                        throw new IllegalStateException("Quote is " + quote.getStatus() + ", not PENDING_APPROVAL");
+                    }
+                    transition(quote, newStatus, auditAction, approvalAction, userId, request.getRemarks());
+                    search.statusChanged(quote);
+                },
+                quoteRepository::saveAll);
+    }
+
+    // Sets the status and queues the status history, audit trail and approval rows for it
+    private Quote transition(Quote quote, String newStatus, String auditAction, String approvalAction,
+            Long userId, String remarks) {
         String oldStatus = quote.getStatus();
-        quote.setStatus("REJECTED");
-        logStatusChange(quote, oldStatus, "REJECTED", userId, remarks);
-        logAuditTrail(quote, "REJECT", quote, quote, userId, remarks);
-        if (quote.getApprovalLogs() == null) quote.setApprovalLogs(new java.util.ArrayList<>());
-        ApprovalLog log = new ApprovalLog();
-        log.setParentId(quoteId);
-        log.setParentType("QUOTE");
-        log.setApproverId(userId);
-        log.setAction("REJECTED");
-        log.setRemarks(remarks);
-        quote.getApprovalLogs().add(log);
-        return quoteRepository.save(quote);
+        quote.setStatus(newStatus);
+        logStatusChange(quote, oldStatus, newStatus, userId, remarks);
+        auditOutbox.append(Arrays.asList(
+                AuditOutboxEntry.audit("QUOTE", quote.getId(), auditAction, "status", oldStatus, newStatus, userId, remarks),
+                AuditOutboxEntry.approval("QUOTE", quote.getId(), approvalAction, userId, remarks)));
+        return quote;
     }
 
     @Override
-    public java.util.List<ApprovalLog> getApprovalLogs(Long quoteId) {
-        Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        return quote.getApprovalLogs() != null ? quote.getApprovalLogs() : java.util.Collections.emptyList();
+    public CursorPage<ApprovalLogEntry> getApprovalLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(quoteId);
+        return documentLogs.approvals("QUOTE", quoteId, cursor, limit, from, to);
     }
 
     @Override
-    public byte[] generateQuotePdf(Long quoteId) {
+    public StreamingResponseBody streamQuotePdf(Long quoteId) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        try {
-            Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Quote"));
-            document.add(new Paragraph("Quote Number: " + quote.getQuoteNumber()));
-            document.add(new Paragraph("Client: " + quote.getClient()));
-            document.add(new Paragraph("Amount: $" + quote.getAmount()));
-            document.add(new Paragraph("Status: " + quote.getStatus()));
-            document.add(new Paragraph("Issue Date: " + quote.getIssueDate()));
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+        return out -> {
+            try {
+                Document document = new Document();
+                PdfWriter.getInstance(document, out);
+                document.open();
+                document.add(new Paragraph("Quote"));
+                document.add(new Paragraph("Quote Number: " + quote.getQuoteNumber()));
+                document.add(new Paragraph("Client: " + quote.getClient()));
+                document.add(new Paragraph("Amount: $" + quote.getAmount()));
+                document.add(new Paragraph("Status: " + quote.getStatus()));
+                document.add(new Paragraph("Issue Date: " + quote.getIssueDate()));
+                document.close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate PDF", e);
+            }
+        };
     }
 
     @Override
-    public byte[] generateQuoteExcel(Long quoteId) {
+    public StreamingResponseBody streamQuoteExcel(Long quoteId) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Quote");
-            Row row = sheet.createRow(0);
-            row.createCell(0).setCellValue("Quote Number");
-            row.createCell(1).setCellValue(quote.getQuoteNumber());
-            row.createCell(2).setCellValue("Client");
-            row.createCell(3).setCellValue(quote.getClient());
-            row.createCell(4).setCellValue("Amount");
-            row.createCell(5).setCellValue(quote.getAmount());
-            row.createCell(6).setCellValue("Status");
-            row.createCell(7).setCellValue(quote.getStatus());
-            row.createCell(8).setCellValue("Issue Date");
-            row.createCell(9).setCellValue(quote.getIssueDate() != null ? quote.getIssueDate().toString() : "");
-            // ...add more fields as needed...
-            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate Excel", e);
-        }
+        return out -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Quote");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue("Quote Number");
+                row.createCell(1).setCellValue(quote.getQuoteNumber());
+                row.createCell(2).setCellValue("Client");
+                row.createCell(3).setCellValue(quote.getClient());
+                row.createCell(4).setCellValue("Amount");
+                row.createCell(5).setCellValue(quote.getAmount());
+                row.createCell(6).setCellValue("Status");
+                row.createCell(7).setCellValue(quote.getStatus());
+                row.createCell(8).setCellValue("Issue Date");
+                row.createCell(9).setCellValue(quote.getIssueDate() != null ? quote.getIssueDate().toString() : "");
+                // ...add more fields as needed...
+                workbook.write(out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate Excel", e);
+            }
+        };
     }
 
     @Override
+    @Transactional
     public void logExportAction(Long quoteId, Long userId, String action) {
         Quote quote = quoteRepository.findById(quoteId).orElseThrow();
         logAuditTrail(quote, action, quote, quote, userId, action);
@@ -274,133 +335,56 @@ public class QuoteServiceImpl implements QuoteService {
     }
 
     @Override
-    public java.util.List<AuditTrailLog> getAuditTrailLogs(Long quoteId) {
-        Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        return quote.getAuditTrailLogs() != null ? quote.getAuditTrailLogs() : java.util.Collections.emptyList();
+    public CursorPage<AuditTrailEntry> getAuditTrailLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(quoteId);
+        return documentLogs.auditTrail("QUOTE", quoteId, cursor, limit, from, to);
     }
 
     @Override
-    public java.util.List<StatusHistoryLog> getStatusHistoryLogs(Long quoteId) {
-        Quote quote = quoteRepository.findById(quoteId).orElseThrow();
-        return quote.getStatusHistoryLogs() != null ? quote.getStatusHistoryLogs() : java.util.Collections.emptyList();
+    public CursorPage<StatusHistoryEntry> getStatusHistoryLogs(Long quoteId, Long cursor, Integer limit, LocalDateTime from,
+            LocalDateTime to) {
+        requireOwned(quoteId);
+        return documentLogs.statusHistory("QUOTE", quoteId, cursor, limit, from, to);
     }
 
     private String generateQuoteNumber(Long companyId) {
-        Quote last = quoteRepository.findTopByCompanyIdOrderByIdDesc(companyId);
-        int next = 1;
-        String prefix = "QTN-" + LocalDate.now().getYear() + String.format("%02d", LocalDate.now().getMonthValue());
-        if (last != null && last.getQuoteNumber() != null && last.getQuoteNumber().startsWith(prefix)) {
-            String[] parts = last.getQuoteNumber().split("-");
-            String seq = parts[2];
-            next = Integer.parseInt(seq) + 1;
-        }
-        return prefix + "-" + String.format("%03d", next);
+        return numberAllocator.next("QTN", companyId, prefix -> {
+            Quote last = quoteRepository.findTopByCompanyIdOrderByIdDesc(companyId);
+            return DocumentNumberAllocator.sequenceOf(last != null ? last.getQuoteNumber() : null, prefix);
+        });
     }
 
-    private String generateInvoiceNumber(Long companyId) {
-        Invoice last = invoiceRepository.findTopByCompanyIdOrderByIdDesc(companyId);
-        int next = 1;
-        String prefix = "INV-" + LocalDate.now().getYear() + String.format("%02d", LocalDate.now().getMonthValue());
-        if (last != null && last.getInvoiceNumber() != null && last.getInvoiceNumber().startsWith(prefix)) {
-            String[] parts = last.getInvoiceNumber().split("-");
-            String seq = parts[2];
-            next = Integer.parseInt(seq) + 1;
+    // Cascaded lines only get parent_id from the join column; the collection is filtered on parent_type
+    private void tagLineItems(Quote quote) {
+        if (quote.getLineItems() != null) {
+            for (LineItem item : quote.getLineItems()) {
+                item.setParentType("QUOTE");
+            }
         }
-        return prefix + "-" + String.format("%03d", next);
     }
 
     private void calculateQuoteTotals(Quote quote) {
-        List<LineItem> lineItems = quote.getLineItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        if (lineItems != null) {
-            for (LineItem item : lineItems) {
-                subtotal = subtotal.add(item.getLineSubtotal() != null ? item.getLineSubtotal() : BigDecimal.ZERO);
-                totalTax = totalTax.add(item.getLineTaxAmount() != null ? item.getLineTaxAmount() : BigDecimal.ZERO);
-                if (item.getDiscount() != null && item.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    if ("PERCENT".equals(item.getDiscountType())) {
-                        totalDiscount = totalDiscount.add(item.getLineSubtotal().multiply(item.getDiscount().divide(new BigDecimal("100"))));
-                    } else {
-                        totalDiscount = totalDiscount.add(item.getDiscount());
-                    }
-                }
-            }
+        TotalsCalculator.GST.recalculate(quote);
+    }
+
+    // Log reads go straight to the log tables, so check the document belongs to the tenant first
+    private void requireOwned(Long quoteId) {
+        if (!quoteRepository.existsByIdAndCompanyId(quoteId, CompanyContext.getCompanyId())) {
+            throw new NoSuchElementException("Quote not found: " + quoteId);
         }
-        BigDecimal headerDiscount = quote.getDiscount() != null ? BigDecimal.valueOf(quote.getDiscount()) : BigDecimal.ZERO;
-        totalDiscount = totalDiscount.add(headerDiscount);
-        BigDecimal shipping = quote.getShipping() != null ? BigDecimal.valueOf(quote.getShipping()) : BigDecimal.ZERO;
-        BigDecimal grandTotal = subtotal.subtract(totalDiscount).add(totalTax).add(shipping);
-        quote.setSubtotal(subtotal.doubleValue());
-        quote.setTax(totalTax.doubleValue());
-        quote.setDiscount(totalDiscount.doubleValue());
-        quote.setShipping(shipping.doubleValue());
-        quote.setGrandTotal(grandTotal.doubleValue());
     }
 
     private void logStatusChange(Quote quote, String oldStatus, String newStatus, Long userId, String remarks) {
-        if (quote.getStatusHistoryLogs() == null) quote.setStatusHistoryLogs(new java.util.ArrayList<>());
-        StatusHistoryLog log = new StatusHistoryLog();
-        log.setParentId(quote.getId());
-        log.setParentType("QUOTE");
-        log.setOldStatus(oldStatus);
-        log.setNewStatus(newStatus);
-        log.setChangedBy(userId);
-        log.setRemarks(remarks);
-        quote.getStatusHistoryLogs().add(log);
+        auditOutbox.append(AuditOutboxEntry.statusChange("QUOTE", quote.getId(), oldStatus, newStatus, userId, remarks));
     }
 
     private void logAuditTrail(Quote quote, String action, Quote oldQuote, Quote newQuote, Long userId, String remarks) {
-        if (quote.getAuditTrailLogs() == null) quote.setAuditTrailLogs(new java.util.ArrayList<>());
-        java.util.List<AuditTrailLog> logs = compareQuotesForAudit(oldQuote, newQuote, action, userId, remarks);
-        quote.getAuditTrailLogs().addAll(logs);
+        auditOutbox.append(compareQuotesForAudit(oldQuote, newQuote, action, userId, remarks));
     }
 
-    private java.util.List<AuditTrailLog> compareQuotesForAudit(Quote oldQ, Quote newQ, String action, Long userId, String remarks) {
-        java.util.List<AuditTrailLog> logs = new java.util.ArrayList<>();
-        if (oldQ == null) {
-            java.lang.reflect.Field[] fields = Quote.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object newValue = field.get(newQ);
-                    if (newValue != null) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newQ.getId());
-                        log.setParentType("QUOTE");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(null);
-                        log.setNewValue(newValue.toString());
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        } else {
-            java.lang.reflect.Field[] fields = Quote.class.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object oldValue = field.get(oldQ);
-                    Object newValue = field.get(newQ);
-                    if (oldValue == null && newValue == null) continue;
-                    if (oldValue == null || newValue == null || !oldValue.equals(newValue)) {
-                        AuditTrailLog log = new AuditTrailLog();
-                        log.setParentId(newQ.getId());
-                        log.setParentType("QUOTE");
-                        log.setAction(action);
-                        log.setFieldName(field.getName());
-                        log.setOldValue(oldValue != null ? oldValue.toString() : null);
-                        log.setNewValue(newValue != null ? newValue.toString() : null);
-                        log.setChangedBy(userId);
-                        log.setRemarks(remarks);
-                        logs.add(log);
-                    }
-                } catch (Exception ignored) {}
-            }
-        }
-        return logs;
+    private java.util.List<AuditOutboxEntry> compareQuotesForAudit(Quote oldQ, Quote newQ, String action, Long userId, String remarks) {
+        return AUDIT_DIFFER.diff(oldQ, newQ, (fieldName, oldValue, newValue) ->
+                AuditOutboxEntry.audit("QUOTE", newQ.getId(), action, fieldName, oldValue, newValue, userId, remarks));
     }
 } 
\ No newline at end of file
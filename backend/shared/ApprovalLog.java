@@ -4,7 +4,9 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "approval_logs")
+@Table(name = "approval_logs", indexes = {
+    @Index(name = "idx_approval_logs_parent", columnList = "parentType, parentId, timestamp")
+})
 public class ApprovalLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -4,7 +4,9 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_trail_logs")
+@Table(name = "audit_trail_logs", indexes = {
+    @Index(name = "idx_audit_trail_logs_parent", columnList = "parentType, parentId, changedAt")
+})
 public class AuditTrailLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
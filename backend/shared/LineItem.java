@@ -3,11 +3,10 @@ package com.sme.shared;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 @Entity
 @Table(name = "line_items")
-public class LineItem {
+public class LineItem implements TaxableLine {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -83,32 +82,8 @@ public class LineItem {
     @PrePersist
     @PreUpdate
     public void calculateAmounts() {
-        if (quantity != null && unitPrice != null) {
-            // Calculate subtotal
-            lineSubtotal = quantity.multiply(unitPrice).setScale(4, RoundingMode.HALF_UP);
-            
-            // Apply discount
-            BigDecimal discountAmount = BigDecimal.ZERO;
-            if (discount != null && discount.compareTo(BigDecimal.ZERO) > 0) {
-                if ("PERCENT".equals(discountType)) {
-                    discountAmount = lineSubtotal.multiply(discount.divide(new BigDecimal("100"), 4, RoundingMode.HALF_UP));
-                } else {
-                    discountAmount = discount;
-                }
-            }
-            
-            BigDecimal subtotalAfterDiscount = lineSubtotal.subtract(discountAmount);
-            
-            // Calculate tax
-            if (taxExempt != null && taxExempt) {
-                lineTaxAmount = BigDecimal.ZERO;
-            } else {
-                lineTaxAmount = subtotalAfterDiscount.multiply(taxRate).setScale(4, RoundingMode.HALF_UP);
-            }
-            
-            // Calculate line total
-            lineTotal = subtotalAfterDiscount.add(lineTaxAmount);
-        }
+        // Same rounding as the document totals
+        TotalsCalculator.GST.recalculateLine(this);
         
         this.updatedAt = LocalDateTime.now();
     }
@@ -4,7 +4,9 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "status_history_logs")
+@Table(name = "status_history_logs", indexes = {
+    @Index(name = "idx_status_history_logs_parent", columnList = "parentType, parentId, changedAt")
+})
 public class StatusHistoryLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
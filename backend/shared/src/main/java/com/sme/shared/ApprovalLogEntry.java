@@ -0,0 +1,26 @@
+package com.sme.shared;
+
+import java.time.LocalDateTime;
+
+/** One row of {@code approval_logs} as returned by {@link DocumentLogReader}. */
+public class ApprovalLogEntry {
+    private final Long id;
+    private final Long approverId;
+    private final String action;
+    private final String remarks;
+    private final LocalDateTime timestamp;
+
+    public ApprovalLogEntry(Long id, Long approverId, String action, String remarks, LocalDateTime timestamp) {
+        this.id = id;
+        this.approverId = approverId;
+        this.action = action;
+        this.remarks = remarks;
+        this.timestamp = timestamp;
+    }
+
+    public Long getId() { return id; }
+    public Long getApproverId() { return approverId; }
+    public String getAction() { return action; }
+    public String getRemarks() { return remarks; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
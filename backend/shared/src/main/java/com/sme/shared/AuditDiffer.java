@@ -0,0 +1,201 @@
+package com.sme.shared;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Field-level audit diff for an entity type. The accessor table is built once per type from the
+ * declared fields and their getters: scalar fields (strings, numbers, booleans, dates, enums) are
+ * compared directly and {@code @Embedded} values field by field as {@code owner.field}; collections
+ * and other associations are skipped. Diffing then only calls the generated accessors.
+ */
+public final class AuditDiffer<T> {
+
+    /** Creates one audit row; {@code oldValue} is null for created fields. */
+    @FunctionalInterface
+    public interface RowFactory<R> {
+        R create(String fieldName, String oldValue, String newValue);
+    }
+
+    private static final ClassValue<AuditDiffer<?>> CACHE = new ClassValue<AuditDiffer<?>>() {
+        @Override
+        protected AuditDiffer<?> computeValue(Class<?> type) {
+            return new AuditDiffer<>(type);
+        }
+    };
+
+    private final Property[] properties;
+
+    private AuditDiffer(Class<T> type) {
+        List<Property> found = new ArrayList<>();
+        collect(type, "", found, 0);
+        this.properties = found.toArray(new Property[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> AuditDiffer<T> forType(Class<T> type) {
+        return (AuditDiffer<T>) CACHE.get(type);
+    }
+
+    /**
+     * Compares two versions of an entity and returns one row per changed field. When
+     * {@code oldValue} is null every non-null field of {@code newValue} is reported as created.
+     */
+    public <R> List<R> diff(T oldValue, T newValue, RowFactory<R> rows) {
+        if (newValue == null) {
+            return Collections.emptyList();
+        }
+        List<R> changes = new ArrayList<>();
+        for (Property property : properties) {
+            Object before = oldValue != null ? property.get(oldValue) : null;
+            Object after = property.get(newValue);
+            if (!same(before, after)) {
+                changes.add(rows.create(property.name,
+                        before != null ? before.toString() : null,
+                        after != null ? after.toString() : null));
+            }
+        }
+        return changes;
+    }
+
+    public List<String> getFieldNames() {
+        List<String> names = new ArrayList<>(properties.length);
+        for (Property property : properties) {
+            names.add(property.name);
+        }
+        return names;
+    }
+
+    private static boolean same(Object a, Object b) {
+        if (a instanceof BigDecimal && b instanceof BigDecimal) {
+            // Scale differences (10.0 vs 10.00) are not a change
+            return ((BigDecimal) a).compareTo((BigDecimal) b) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static void collect(Class<?> type, String prefix, List<Property> out, int depth) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || hasAnnotation(field, "Transient")) {
+                    continue;
+                }
+                Method getter = findGetter(c, field);
+                if (getter == null) {
+                    continue;
+                }
+                Class<?> fieldType = field.getType();
+                String name = prefix + field.getName();
+                if (isScalar(fieldType)) {
+                    out.add(new Property(name, accessor(getter)));
+                } else if (depth == 0 && (hasAnnotation(field, "Embedded") || hasAnnotation(fieldType, "Embeddable"))) {
+                    Function<Object, Object> owner = accessor(getter);
+                    List<Property> nested = new ArrayList<>();
+                    collect(fieldType, name + ".", nested, depth + 1);
+                    for (Property property : nested) {
+                        Function<Object, Object> inner = property.accessor;
+                        out.add(new Property(property.name, bean -> {
+                            Object embedded = owner.apply(bean);
+                            return embedded != null ? inner.apply(embedded) : null;
+                        }));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || type.isEnum()
+                || CharSequence.class.isAssignableFrom(type)
+                || Number.class.isAssignableFrom(type)
+                || type == Boolean.class || type == Character.class
+                || Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)
+                || type == UUID.class;
+    }
+
+    /** Matches both javax.persistence and jakarta.persistence annotations by simple name. */
+    private static boolean hasAnnotation(java.lang.reflect.AnnotatedElement element, String simpleName) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getSimpleName().equals(simpleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Method findGetter(Class<?> owner, Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String name : new String[] {"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = owner.getMethod(name);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // try the next naming convention
+            }
+        }
+        return null;
+    }
+
+    /** Binds the getter to a generated Function, falling back to the method handle itself. */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> accessor(Method getter) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(getter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Getter not accessible: " + getter, e);
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle, handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+
+    private static final class Property {
+        final String name;
+        final Function<Object, Object> accessor;
+
+        Property(String name, Function<Object, Object> accessor) {
+            this.name = name;
+            this.accessor = accessor;
+        }
+
+        Object get(Object bean) {
+            return accessor.apply(bean);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.sme.shared;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Collects the audit and status rows of a transaction and writes them to {@code audit_outbox} as a
+ * single JDBC batch just before the transaction commits, instead of one IDENTITY insert per row
+ * through the parent's cascaded collections. The rows commit or roll back with the change they
+ * describe. The persistence context is flushed first, so the parent's own UPDATE (and its row
+ * lock) comes before the outbox ids are drawn and two transactions on the same document get
+ * outbox ids in commit order. Outside a transaction rows are written immediately.
+ */
+@Component
+public class AuditOutbox {
+
+    private static final String INSERT = "insert into audit_outbox (kind, parent_type, parent_id, action, field_name, "
+            + "old_value, new_value, old_status, new_status, changed_by, changed_at, remarks) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void append(AuditOutboxEntry entry) {
+        List<AuditOutboxEntry> entries = new ArrayList<>(1);
+        entries.add(entry);
+        append(entries);
+    }
+
+    public void append(Collection<AuditOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            insert(entries);
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.entries.addAll(entries);
+    }
+
+    private void insert(Collection<AuditOutboxEntry> entries) {
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (AuditOutboxEntry entry : entries) {
+            rows.add(new Object[] {
+                    entry.getKind(), entry.getParentType(), entry.getParentId(), entry.getAction(),
+                    entry.getFieldName(), entry.getOldValue(), entry.getNewValue(), entry.getOldStatus(),
+                    entry.getNewStatus(), entry.getChangedBy(), Timestamp.valueOf(entry.getChangedAt()),
+                    entry.getRemarks()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private final class Pending implements TransactionSynchronization {
+        final List<AuditOutboxEntry> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            insert(entries);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditOutbox.this);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.sme.shared;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A pending audit trail, status history or approval row. Services append these in the request
+ * transaction through {@link AuditOutbox}; {@link AuditOutboxWriter} later copies them into
+ * {@code audit_trail_logs} / {@code status_history_logs} / {@code approval_logs} in id order and
+ * deletes them.
+ */
+@Entity
+@Table(name = "audit_outbox")
+public class AuditOutboxEntry {
+    public static final String AUDIT = "AUDIT";
+    public static final String STATUS = "STATUS";
+    public static final String APPROVAL = "APPROVAL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String kind; // AUDIT, STATUS or APPROVAL
+
+    @Column(nullable = false)
+    private String parentType; // 'INVOICE', 'QUOTE', 'PO'
+
+    @Column(nullable = false)
+    private Long parentId;
+
+    private String action;
+    private String fieldName;
+    private String oldValue;
+    private String newValue;
+    private String oldStatus;
+    private String newStatus;
+    private Long changedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    private String remarks;
+
+    public AuditOutboxEntry() {
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public static AuditOutboxEntry audit(String parentType, Long parentId, String action, String fieldName,
+            String oldValue, String newValue, Long changedBy, String remarks) {
+        AuditOutboxEntry entry = new AuditOutboxEntry();
+        entry.kind = AUDIT;
+        entry.parentType = parentType;
+        entry.parentId = parentId;
+        entry.action = action;
+        entry.fieldName = fieldName;
+        entry.oldValue = oldValue;
+        entry.newValue = newValue;
+        entry.changedBy = changedBy;
+        entry.remarks = remarks;
+        return entry;
+    }
+
+    public static AuditOutboxEntry statusChange(String parentType, Long parentId, String oldStatus, String newStatus,
+            Long changedBy, String remarks) {
+        AuditOutboxEntry entry = new AuditOutboxEntry();
+        entry.kind = STATUS;
+        entry.parentType = parentType;
+        entry.parentId = parentId;
+        entry.oldStatus = oldStatus;
+        entry.newStatus = newStatus;
+        entry.changedBy = changedBy;
+        entry.remarks = remarks;
+        return entry;
+    }
+
+    /** An approval log row; the approver is kept in {@code changedBy} and the time in {@code changedAt}. */
+    public static AuditOutboxEntry approval(String parentType, Long parentId, String action, Long approverId,
+            String remarks) {
+        AuditOutboxEntry entry = new AuditOutboxEntry();
+        entry.kind = APPROVAL;
+        entry.parentType = parentType;
+        entry.parentId = parentId;
+        entry.action = action;
+        entry.changedBy = approverId;
+        entry.remarks = remarks;
+        return entry;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    public String getParentType() { return parentType; }
+    public void setParentType(String parentType) { this.parentType = parentType; }
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+    public String getFieldName() { return fieldName; }
+    public void setFieldName(String fieldName) { this.fieldName = fieldName; }
+    public String getOldValue() { return oldValue; }
+    public void setOldValue(String oldValue) { this.oldValue = oldValue; }
+    public String getNewValue() { return newValue; }
+    public void setNewValue(String newValue) { this.newValue = newValue; }
+    public String getOldStatus() { return oldStatus; }
+    public void setOldStatus(String oldStatus) { this.oldStatus = oldStatus; }
+    public String getNewStatus() { return newStatus; }
+    public void setNewStatus(String newStatus) { this.newStatus = newStatus; }
+    public Long getChangedBy() { return changedBy; }
+    public void setChangedBy(Long changedBy) { this.changedBy = changedBy; }
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+    public String getRemarks() { return remarks; }
+    public void setRemarks(String remarks) { this.remarks = remarks; }
+}
@@ -0,0 +1,129 @@
+package com.sme.shared;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Drains {@code audit_outbox} into {@code audit_trail_logs}, {@code status_history_logs} and
+ * {@code approval_logs}. Each
+ * pass locks the oldest rows with {@code FOR UPDATE} (so only one instance drains a given range
+ * and a second one waits for it), copies them with one multi-row INSERT per target table in id
+ * order, letting the tables assign ids, and deletes exactly the rows it copied. Rows of the same
+ * document therefore land in the order they were written.
+ */
+@Component
+@EnableScheduling
+public class AuditOutboxWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditOutboxWriter.class);
+
+    // Log columns are NOT NULL; rows written without an actor or a previous status get these
+    private static final long SYSTEM_USER = 0L;
+    private static final String NO_STATUS = "NONE";
+
+    private static final String AUDIT_COLUMNS =
+            "parent_id, parent_type, action, field_name, old_value, new_value, changed_by, changed_at, remarks";
+    private static final String STATUS_COLUMNS =
+            "parent_id, parent_type, old_status, new_status, changed_by, changed_at, remarks";
+    private static final String APPROVAL_COLUMNS =
+            "parent_id, parent_type, approver_id, action, remarks, timestamp";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${audit.outbox.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactions;
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.outbox.drain-interval-ms:500}")
+    public void drain() {
+        try {
+            int drained;
+            do {
+                Integer count = transactions.execute(status -> drainBatch());
+                drained = count != null ? count : 0;
+            } while (drained == batchSize);
+        } catch (RuntimeException e) {
+            // Rows stay in the outbox and are retried on the next pass
+            logger.error("Draining audit outbox failed", e);
+        }
+    }
+
+    private int drainBatch() {
+        List<Object[]> rows = jdbcTemplate.query(
+                "select id, kind, parent_id, parent_type, action, field_name, old_value, new_value, old_status, "
+                        + "new_status, changed_by, changed_at, remarks from audit_outbox order by id limit ? for update",
+                (rs, rowNum) -> new Object[] {
+                        rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getString(5),
+                        rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10),
+                        rs.getObject(11), rs.getTimestamp(12), rs.getString(13)
+                },
+                batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object> auditParams = new ArrayList<>();
+        List<Object> statusParams = new ArrayList<>();
+        List<Object> approvalParams = new ArrayList<>();
+        List<Object> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(row[0]);
+            Long changedBy = row[10] != null ? ((Number) row[10]).longValue() : SYSTEM_USER;
+            Timestamp changedAt = (Timestamp) row[11];
+            if (AuditOutboxEntry.STATUS.equals(row[1])) {
+                Collections.addAll(statusParams, row[2], row[3],
+                        row[8] != null ? row[8] : NO_STATUS, row[9] != null ? row[9] : NO_STATUS,
+                        changedBy, changedAt, row[12]);
+            } else if (AuditOutboxEntry.APPROVAL.equals(row[1])) {
+                Collections.addAll(approvalParams, row[2], row[3], changedBy, row[4], row[12], changedAt);
+            } else {
+                Collections.addAll(auditParams, row[2], row[3], row[4], row[5], row[6], row[7],
+                        changedBy, changedAt, row[12]);
+            }
+        }
+        insertValues("audit_trail_logs", AUDIT_COLUMNS, 9, auditParams);
+        insertValues("status_history_logs", STATUS_COLUMNS, 7, statusParams);
+        insertValues("approval_logs", APPROVAL_COLUMNS, 6, approvalParams);
+        jdbcTemplate.update("delete from audit_outbox where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+        return rows.size();
+    }
+
+    private void insertValues(String table, String columns, int width, List<Object> params) {
+        if (params.isEmpty()) {
+            return;
+        }
+        String group = "(" + placeholders(width) + ")";
+        StringBuilder sql = new StringBuilder("insert into ").append(table).append(" (").append(columns).append(") values ");
+        for (int i = 0; i < params.size() / width; i++) {
+            sql.append(i == 0 ? "" : ", ").append(group);
+        }
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
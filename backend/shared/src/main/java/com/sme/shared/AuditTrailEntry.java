@@ -0,0 +1,36 @@
+package com.sme.shared;
+
+import java.time.LocalDateTime;
+
+/** One row of {@code audit_trail_logs} as returned by {@link DocumentLogReader}. */
+public class AuditTrailEntry {
+    private final Long id;
+    private final String action;
+    private final String fieldName;
+    private final String oldValue;
+    private final String newValue;
+    private final Long changedBy;
+    private final LocalDateTime changedAt;
+    private final String remarks;
+
+    public AuditTrailEntry(Long id, String action, String fieldName, String oldValue, String newValue,
+            Long changedBy, LocalDateTime changedAt, String remarks) {
+        this.id = id;
+        this.action = action;
+        this.fieldName = fieldName;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.changedBy = changedBy;
+        this.changedAt = changedAt;
+        this.remarks = remarks;
+    }
+
+    public Long getId() { return id; }
+    public String getAction() { return action; }
+    public String getFieldName() { return fieldName; }
+    public String getOldValue() { return oldValue; }
+    public String getNewValue() { return newValue; }
+    public Long getChangedBy() { return changedBy; }
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public String getRemarks() { return remarks; }
+}
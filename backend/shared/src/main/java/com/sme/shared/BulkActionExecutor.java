@@ -0,0 +1,109 @@
+package com.sme.shared;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies one action to many documents in chunks of {@code approval.bulk-chunk-size} (default 50).
+ * Each chunk is loaded with one IN query, transformed and saved in its own transaction, so row
+ * locks are held for one chunk at a time and a failing chunk does not undo the others. A
+ * document the action refuses (wrong status, not found) is reported and left untouched; the
+ * rest of its chunk still commits.
+ */
+@Component
+public class BulkActionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkActionExecutor.class);
+
+    /** Applies the action to one loaded document; throws IllegalStateException to refuse it. */
+    @FunctionalInterface
+    public interface Action<T> {
+        void apply(T document);
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${approval.bulk-chunk-size:50}")
+    private int chunkSize;
+
+    private TransactionTemplate transactions;
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param loader loads the documents with the given ids that the caller may act on (one query), locked
+     *               for update, so an overlapping bulk action waits and then sees this chunk's new status
+     * @param saver  persists the documents the action accepted
+     */
+    public <T> BulkActionResult execute(List<Long> ids, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idOf, Function<T, String> statusOf, Action<T> action, Consumer<List<T>> saver) {
+        BulkActionResult result = new BulkActionResult();
+        if (ids == null) {
+            return result;
+        }
+        List<Long> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        for (int from = 0; from < unique.size(); from += chunkSize) {
+            List<Long> chunk = unique.subList(from, Math.min(from + chunkSize, unique.size()));
+            List<BulkActionResult.Item> items;
+            try {
+                items = transactions.execute(status -> executeChunk(chunk, loader, idOf, statusOf, action, saver));
+            } catch (RuntimeException e) {
+                logger.error("Bulk action on {} documents failed", chunk.size(), e);
+                items = new ArrayList<>(chunk.size());
+                for (Long id : chunk) {
+                    items.add(new BulkActionResult.Item(id, false, null, "Failed: " + e.getMessage()));
+                }
+            }
+            for (BulkActionResult.Item item : items) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private <T> List<BulkActionResult.Item> executeChunk(List<Long> chunk, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idOf, Function<T, String> statusOf, Action<T> action, Consumer<List<T>> saver) {
+        Map<Long, T> loaded = new HashMap<>();
+        for (T document : loader.apply(new ArrayList<>(chunk))) {
+            loaded.put(idOf.apply(document), document);
+        }
+        List<BulkActionResult.Item> items = new ArrayList<>(chunk.size());
+        List<T> accepted = new ArrayList<>(loaded.size());
+        for (Long id : chunk) {
+            T document = loaded.get(id);
+            if (document == null) {
+                items.add(new BulkActionResult.Item(id, false, null, "Not found"));
+                continue;
+            }
+            try {
+                action.apply(document);
+                accepted.add(document);
+                items.add(new BulkActionResult.Item(id, true, statusOf.apply(document), null));
+            } catch (IllegalStateException e) {
+                items.add(new BulkActionResult.Item(id, false, statusOf.apply(document), e.getMessage()));
+            }
+        }
+        if (!accepted.isEmpty()) {
+            saver.accept(accepted);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sme.shared;
+
+import java.util.List;
+
+/** Body of a bulk approve/reject call: the documents to act on and one remark for all of them. */
+public class BulkActionRequest {
+    private List<Long> ids;
+    private String remarks;
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public String getRemarks() { return remarks; }
+    public void setRemarks(String remarks) { this.remarks = remarks; }
+}
@@ -0,0 +1,43 @@
+package com.sme.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of a bulk action, one item per requested id in request order. */
+public class BulkActionResult {
+    private final List<Item> items = new ArrayList<>();
+    private int succeeded;
+    private int failed;
+
+    void add(Item item) {
+        items.add(item);
+        if (item.isSuccess()) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+
+    public List<Item> getItems() { return items; }
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+
+    public static class Item {
+        private final Long id;
+        private final boolean success;
+        private final String status;
+        private final String message;
+
+        public Item(Long id, boolean success, String status, String message) {
+            this.id = id;
+            this.success = success;
+            this.status = status;
+            this.message = message;
+        }
+
+        public Long getId() { return id; }
+        public boolean isSuccess() { return success; }
+        public String getStatus() { return status; }
+        public String getMessage() { return message; }
+    }
+}
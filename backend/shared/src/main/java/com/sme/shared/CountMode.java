@@ -0,0 +1,20 @@
+package com.sme.shared;
+
+/** How a cursor page reports the total: not at all, counted up to a cap, or counted in full. */
+public enum CountMode {
+    NONE,
+    ESTIMATE,
+    EXACT;
+
+    /** Case-insensitive; a missing or unknown value means {@link #NONE}, so a bad query parameter never fails the page. */
+    public static CountMode parse(String value) {
+        if (value != null) {
+            for (CountMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return NONE;
+    }
+}
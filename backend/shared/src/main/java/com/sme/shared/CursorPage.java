@@ -0,0 +1,63 @@
+package com.sme.shared;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list, newest first. {@code nextCursor} is passed back as
+ * {@code cursor} to fetch the following page and is null on the last page. {@code total} is only
+ * set when a count was requested; {@code totalExact} is false when the count stopped at its cap.
+ */
+public class CursorPage<T> {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    public static final int ESTIMATE_CAP = 10000;
+
+    private List<T> items;
+    private Long nextCursor;
+    private Long total;
+    private boolean totalExact;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> items, Long nextCursor, Long total, boolean totalExact) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    /** Clamps a requested page size to 1..MAX_LIMIT. */
+    public static int limit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only signals that
+     * another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        boolean more = rows.size() > limit;
+        List<T> items = more ? rows.subList(0, limit) : rows;
+        Long next = more ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, next, null, false);
+    }
+
+    public CursorPage<T> withTotal(long total, boolean exact) {
+        this.total = total;
+        this.totalExact = exact;
+        return this;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+    public boolean isTotalExact() { return totalExact; }
+    public void setTotalExact(boolean totalExact) { this.totalExact = totalExact; }
+}
@@ -0,0 +1,95 @@
+package com.sme.shared;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads the approval, audit trail and status history of one document straight from the log
+ * tables, newest first, one keyset page at a time. Every query is an equality on
+ * (parent_type, parent_id) plus an optional time range, served by the (parentType, parentId, time)
+ * index on each table; the cursor is the id of the last row of the previous page, and rows with
+ * the same time are ordered by id so paging never skips or repeats one.
+ */
+@Component
+public class DocumentLogReader {
+
+    private static final String APPROVAL_COLUMNS = "id, approver_id, action, remarks, timestamp";
+    private static final String AUDIT_COLUMNS =
+            "id, action, field_name, old_value, new_value, changed_by, changed_at, remarks";
+    private static final String STATUS_COLUMNS = "id, old_status, new_status, changed_by, changed_at, remarks";
+
+    private static final RowMapper<ApprovalLogEntry> APPROVAL_MAPPER = (rs, rowNum) -> new ApprovalLogEntry(
+            rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), toLocal(rs.getTimestamp(5)));
+    private static final RowMapper<AuditTrailEntry> AUDIT_MAPPER = (rs, rowNum) -> new AuditTrailEntry(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getLong(6), toLocal(rs.getTimestamp(7)), rs.getString(8));
+    private static final RowMapper<StatusHistoryEntry> STATUS_MAPPER = (rs, rowNum) -> new StatusHistoryEntry(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), toLocal(rs.getTimestamp(5)),
+            rs.getString(6));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public CursorPage<ApprovalLogEntry> approvals(String parentType, Long parentId, Long cursor, Integer limit,
+            LocalDateTime from, LocalDateTime to) {
+        return page("approval_logs", "timestamp", APPROVAL_COLUMNS, APPROVAL_MAPPER, ApprovalLogEntry::getId,
+                parentType, parentId, cursor, limit, from, to);
+    }
+
+    public CursorPage<AuditTrailEntry> auditTrail(String parentType, Long parentId, Long cursor, Integer limit,
+            LocalDateTime from, LocalDateTime to) {
+        return page("audit_trail_logs", "changed_at", AUDIT_COLUMNS, AUDIT_MAPPER, AuditTrailEntry::getId,
+                parentType, parentId, cursor, limit, from, to);
+    }
+
+    public CursorPage<StatusHistoryEntry> statusHistory(String parentType, Long parentId, Long cursor, Integer limit,
+            LocalDateTime from, LocalDateTime to) {
+        return page("status_history_logs", "changed_at", STATUS_COLUMNS, STATUS_MAPPER, StatusHistoryEntry::getId,
+                parentType, parentId, cursor, limit, from, to);
+    }
+
+    private <T> CursorPage<T> page(String table, String timeColumn, String columns, RowMapper<T> mapper,
+            Function<T, Long> idOf, String parentType, Long parentId, Long cursor, Integer limit,
+            LocalDateTime from, LocalDateTime to) {
+        int size = CursorPage.limit(limit);
+        StringBuilder sql = new StringBuilder("select ").append(columns).append(" from ").append(table)
+                .append(" where parent_type = ? and parent_id = ?");
+        List<Object> params = new ArrayList<>();
+        Collections.addAll(params, parentType, parentId);
+        if (from != null) {
+            sql.append(" and ").append(timeColumn).append(" >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" and ").append(timeColumn).append(" < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (cursor != null) {
+            // Resolve the cursor row's time so the next page continues on (time, id) without an offset
+            List<Timestamp> at = jdbcTemplate.queryForList("select " + timeColumn + " from " + table
+                    + " where id = ? and parent_type = ? and parent_id = ?", Timestamp.class, cursor, parentType, parentId);
+            if (at.isEmpty()) {
+                return new CursorPage<>(Collections.<T>emptyList(), null, null, false);
+            }
+            sql.append(" and (").append(timeColumn).append(" < ? or (").append(timeColumn).append(" = ? and id < ?))");
+            Collections.addAll(params, at.get(0), at.get(0), cursor);
+        }
+        sql.append(" order by ").append(timeColumn).append(" desc, id desc limit ?");
+        params.add(size + 1);
+        List<T> rows = jdbcTemplate.query(sql.toString(), mapper, params.toArray());
+        return CursorPage.of(rows, size, idOf);
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
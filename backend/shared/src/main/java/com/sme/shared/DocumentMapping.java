@@ -0,0 +1,60 @@
+package com.sme.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Copies one document type into a new instance of another through a fixed list of getter/setter
+ * pairs. Mappings are built once, typically as constants, so converting a batch is a plain loop
+ * over method references with no reflection or per-call setup.
+ */
+public final class DocumentMapping<S, T> {
+
+    private final Supplier<T> factory;
+    private final List<BiConsumer<S, T>> steps;
+
+    private DocumentMapping(Supplier<T> factory, List<BiConsumer<S, T>> steps) {
+        this.factory = factory;
+        this.steps = steps;
+    }
+
+    public static <S, T> Builder<S, T> builder(Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+
+    public T map(S source) {
+        T target = factory.get();
+        for (BiConsumer<S, T> step : steps) {
+            step.accept(source, target);
+        }
+        return target;
+    }
+
+    public static final class Builder<S, T> {
+        private final Supplier<T> factory;
+        private final List<BiConsumer<S, T>> steps = new ArrayList<>();
+
+        private Builder(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        public <V> Builder<S, T> copy(Function<S, V> getter, BiConsumer<T, V> setter) {
+            steps.add((source, target) -> setter.accept(target, getter.apply(source)));
+            return this;
+        }
+
+        /** A step that is not a straight copy, e.g. a field derived from several source fields. */
+        public Builder<S, T> then(BiConsumer<S, T> step) {
+            steps.add(step);
+            return this;
+        }
+
+        public DocumentMapping<S, T> build() {
+            return new DocumentMapping<>(factory, Collections.unmodifiableList(new ArrayList<>(steps)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.sme.shared;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hands out document numbers such as {@code INV-202610-001} per company, document type and month.
+ * Each instance reserves a block of numbers from the {@code document_sequences} counter row in its
+ * own short transaction and serves it from memory, so most allocations never reach the database
+ * and several instances never hand out the same number. Numbers left in a block when an instance
+ * stops are skipped; set {@code sequence.block-size=1} where gapless numbering matters more.
+ */
+@Component
+public class DocumentNumberAllocator {
+
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private DocumentSequenceRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sequence.block-size:20}")
+    private int blockSize;
+
+    private TransactionTemplate transactions;
+    private final ConcurrentMap<String, AtomicReference<Block>> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the next number for the current month. {@code lastIssued} is only consulted when the
+     * counter row for the month does not exist yet; it receives the prefix (e.g. {@code INV-202610})
+     * and returns the highest sequence already issued under it, so numbering continues from data
+     * created before the counter existed.
+     */
+    public String next(String documentType, Long companyId, ToLongFunction<String> lastIssued) {
+        String period = LocalDate.now().format(PERIOD);
+        String prefix = documentType + "-" + period;
+        long value = allocate(companyId, documentType, period, () -> lastIssued.applyAsLong(prefix));
+        return prefix + "-" + String.format("%03d", value);
+    }
+
+    /**
+     * Returns {@code count} consecutive numbers for the current month, reserved in a single
+     * round trip. Meant for batch jobs that issue many documents at once; the numbers do not
+     * come out of (or disturb) the block that {@link #next} is serving.
+     */
+    public List<String> next(String documentType, Long companyId, int count, ToLongFunction<String> lastIssued) {
+        List<String> numbers = new ArrayList<>(count);
+        if (count <= 0) {
+            return numbers;
+        }
+        String period = LocalDate.now().format(PERIOD);
+        String prefix = documentType + "-" + period;
+        Block block = reserve(companyId, documentType, period, count, () -> lastIssued.applyAsLong(prefix));
+        for (long value = block.next.get(); value < block.limit; value++) {
+            numbers.add(prefix + "-" + String.format("%03d", value));
+        }
+        return numbers;
+    }
+
+    /** Sequence part of {@code number} if it was issued under {@code prefix}, otherwise 0. */
+    public static long sequenceOf(String number, String prefix) {
+        if (number == null || !number.startsWith(prefix + "-")) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(number.substring(prefix.length() + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private long allocate(Long companyId, String documentType, String period, LongSupplier lastIssued) {
+        AtomicReference<Block> current = blocks.computeIfAbsent(companyId + "/" + documentType + "/" + period,
+                key -> new AtomicReference<>());
+        while (true) {
+            Block block = current.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+            }
+            synchronized (current) {
+                if (current.get() == block) {
+                    current.set(reserve(companyId, documentType, period, blockSize, lastIssued));
+                }
+            }
+        }
+    }
+
+    private Block reserve(Long companyId, String documentType, String period, int size, LongSupplier lastIssued) {
+        try {
+            return transactions.execute(status -> reserveBlock(companyId, documentType, period, size, lastIssued));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the counter row first; it exists now
+            return transactions.execute(status -> reserveBlock(companyId, documentType, period, size, lastIssued));
+        }
+    }
+
+    private Block reserveBlock(Long companyId, String documentType, String period, int size, LongSupplier lastIssued) {
+        long end;
+        if (repository.advance(companyId, documentType, period, size) == 0) {
+            end = lastIssued.getAsLong() + 1 + size;
+            repository.saveAndFlush(new DocumentSequence(companyId, documentType, period, end));
+        } else {
+            end = repository.findNextValue(companyId, documentType, period);
+        }
+        return new Block(end - size, end);
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,667 @@
+package com.sme.shared;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * A Lucene index of one document type with one directory per company under {@code root}. A
+ * company's index is built in the background from the {@link Loader} when it is first searched;
+ * until the build finishes, searches answer from what is indexed so far and say so. After that the
+ * index is kept current by {@link #put}, {@link #remove} and {@link #updateStatus}, which services
+ * call once their write has committed, and it is rebuilt in the background, while still serving,
+ * once older than {@code maxAgeMinutes} (picking up writes made through other instances).
+ *
+ * <p>Searches use a near-real-time {@link SearcherManager}, reopened only when something was
+ * written since the last search. Changes are committed to disk every minute and on close, so an
+ * index outlives restarts; a crash loses at most that minute until the next rebuild. Beyond
+ * {@code maxCompanies} the least recently used company indexes are closed.
+ *
+ * <p>Queries are whitespace-separated terms that must all match: {@code word} matches the whole
+ * word, {@code word*} any word starting with it, and {@code word~} words within one edit (two for
+ * words longer than four letters). A term with punctuation (a document number, an SKU) matches
+ * keywords as typed. Status counts are facets over every match, and an optional status filter
+ * then narrows the hits.
+ */
+public class DocumentSearchIndex {
+
+    /** Streams every document of a company into {@code sink}. */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Long companyId, Consumer<SearchDocument> sink);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String ID_ORDER = "id_order";
+    private static final String GENERATION = "generation";
+    private static final String STATUS = "status";
+    private static final String TITLE = "title";
+    private static final String SUMMARY = "summary";
+    // Suffixed with the weight: text1..text3, keyword1..keyword3
+    private static final String TEXT = "text";
+    private static final String KEYWORD = "keyword";
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    private static final String BUILT_AT = "builtAt";
+    private static final float PARTIAL_MATCH = 0.25f;
+    private static final long COMMIT_INTERVAL_SECONDS = 60;
+    private static final FacetsConfig FACETS = new FacetsConfig();
+    private static final Sort BEST_FIRST = new Sort(SortField.FIELD_SCORE, new SortField(ID_ORDER, SortField.Type.LONG, true));
+
+    private final Path root;
+    private final Loader loader;
+    private final int maxCompanies;
+    private final long maxAgeMillis;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final ScheduledExecutorService background;
+    private final Map<Long, Tenant> tenants = new LinkedHashMap<>(16, 0.75f, true);
+
+    public DocumentSearchIndex(Path root, Loader loader, final String threadName, int maxCompanies, long maxAgeMinutes) {
+        this.root = root;
+        this.loader = loader;
+        this.maxCompanies = maxCompanies;
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(maxAgeMinutes);
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(this::commitAll, COMMIT_INTERVAL_SECONDS, COMMIT_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /** Adds or replaces a document. Ignored for companies whose index has not been created yet. */
+    public void put(Long companyId, SearchDocument document) {
+        write(companyId, tenant -> tenant.put(document, true));
+    }
+
+    public void remove(Long companyId, Long id) {
+        write(companyId, tenant -> tenant.remove(id));
+    }
+
+    /** Changes only the status (facet) of an indexed document, e.g. after an approval. */
+    public void updateStatus(Long companyId, Long id, String status) {
+        write(companyId, tenant -> tenant.updateStatus(id, status));
+    }
+
+    public SearchResult search(Long companyId, String query, String status, int limit) {
+        Query parsed = parse(query);
+        while (true) {
+            Tenant tenant = tenant(companyId, true);
+            if (!tenant.enter()) {
+                continue; // closed by eviction meanwhile; reopen
+            }
+            try {
+                buildIfDue(tenant);
+                if (parsed == null) {
+                    return new SearchResult(Collections.<SearchResult.Hit>emptyList(), 0,
+                            Collections.<String, Long>emptyMap(), tenant.isBuilt());
+                }
+                return tenant.search(parsed, status, limit);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                tenant.exit();
+            }
+        }
+    }
+
+    /** Commits and closes every company index. A build still running stops at its next document. */
+    public void close() {
+        // Not shutdownNow: interrupting a thread inside Lucene I/O can close the index files under it
+        background.shutdown();
+        synchronized (tenants) {
+            for (Tenant tenant : tenants.values()) {
+                tenant.close();
+            }
+            tenants.clear();
+        }
+        analyzer.close();
+    }
+
+    @FunctionalInterface
+    private interface Update {
+        void apply(Tenant tenant) throws IOException;
+    }
+
+    private void write(Long companyId, Update update) {
+        Tenant tenant = null;
+        try {
+            while ((tenant = tenant(companyId, false)) != null) {
+                if (tenant.enter()) {
+                    try {
+                        update.apply(tenant);
+                        return;
+                    } finally {
+                        tenant.exit();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The index no longer matches the database, so rebuild it on the next search
+            if (tenant != null) {
+                tenant.markStale();
+            }
+            logger.warn("Updating the search index of company {} failed", companyId, e);
+        }
+    }
+
+    private Tenant tenant(Long companyId, boolean create) {
+        synchronized (tenants) {
+            Tenant tenant = tenants.get(companyId);
+            if (tenant == null) {
+                Path path = root.resolve(companyId.toString());
+                if (!create && !Files.isDirectory(path)) {
+                    return null;
+                }
+                tenant = open(companyId, path);
+                tenants.put(companyId, tenant);
+                Iterator<Tenant> eldest = tenants.values().iterator();
+                while (tenants.size() > maxCompanies) {
+                    Tenant evicted = eldest.next();
+                    eldest.remove();
+                    evicted.close();
+                }
+                buildIfDue(tenant);
+            }
+            return tenant;
+        }
+    }
+
+    private Tenant open(Long companyId, Path path) {
+        Directory directory = null;
+        IndexWriter writer = null;
+        try {
+            Files.createDirectories(path);
+            directory = FSDirectory.open(path);
+            try {
+                writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
+                // The index only mirrors the database; start empty and let the build refill it
+                logger.warn("Discarding the unreadable search index of company {}", companyId, e);
+                writer = new IndexWriter(directory,
+                        new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+            }
+            Map<String, String> commitData = new HashMap<>();
+            Iterable<Map.Entry<String, String>> lastCommit = writer.getLiveCommitData();
+            if (lastCommit != null) {
+                for (Map.Entry<String, String> entry : lastCommit) {
+                    commitData.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return new Tenant(companyId, directory, writer, new SearcherManager(writer, null), commitData);
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(writer, directory);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void buildIfDue(Tenant tenant) {
+        if (tenant.startBuildIfDue(System.currentTimeMillis(), maxAgeMillis)) {
+            background.execute(() -> build(tenant));
+        }
+    }
+
+    // Writes that commit while the loader reads are applied live and win over whatever the loader
+    // read for the same document; documents the loader no longer returns are then deleted
+    private void build(Tenant tenant) {
+        if (!tenant.enter()) {
+            return;
+        }
+        long generation;
+        try {
+            generation = tenant.beginBuild();
+        } finally {
+            tenant.exit();
+        }
+        try {
+            loader.load(tenant.companyId, document -> {
+                if (!tenant.enter()) {
+                    throw new CancellationException();
+                }
+                try {
+                    tenant.put(document, false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    tenant.exit();
+                }
+            });
+            if (tenant.enter()) {
+                try {
+                    tenant.finishBuild(generation);
+                } finally {
+                    tenant.exit();
+                }
+            }
+        } catch (CancellationException closed) {
+            // Evicted or shut down while building
+        } catch (IOException | RuntimeException e) {
+            logger.error("Building the search index of company {} failed", tenant.companyId, e);
+        } finally {
+            tenant.endBuild();
+        }
+    }
+
+    private void commitAll() {
+        List<Tenant> open;
+        synchronized (tenants) {
+            open = new ArrayList<>(tenants.values());
+        }
+        for (Tenant tenant : open) {
+            if (tenant.enter()) {
+                try {
+                    tenant.commit();
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Committing the search index of company {} failed", tenant.companyId, e);
+                } finally {
+                    tenant.exit();
+                }
+            }
+        }
+    }
+
+    private Query parse(String query) {
+        if (query == null) {
+            return null;
+        }
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        int terms = 0;
+        for (String raw : query.trim().split("\\s+")) {
+            char mode = raw.isEmpty() ? ' ' : raw.charAt(raw.length() - 1);
+            String text = (mode == '*' || mode == '~') ? raw.substring(0, raw.length() - 1) : raw;
+            text = text.toLowerCase();
+            if (text.isEmpty()) {
+                continue;
+            }
+            List<String> words = analyze(text);
+            if (words.isEmpty()) {
+                continue;
+            }
+            all.add(words.size() == 1 ? wordQuery(words.get(0), mode) : keywordQuery(text, mode),
+                    BooleanClause.Occur.MUST);
+            terms++;
+        }
+        return terms == 0 ? null : all.build();
+    }
+
+    // Best of the exact and partial matches across the weighted fields
+    private static Query wordQuery(String word, char mode) {
+        List<Query> matches = new ArrayList<>();
+        for (int weight = 1; weight <= SearchDocument.MAX_WEIGHT; weight++) {
+            Term term = new Term(TEXT + weight, word);
+            matches.add(new BoostQuery(new TermQuery(term), weight));
+            if (mode == '*') {
+                matches.add(new BoostQuery(new PrefixQuery(term), weight * PARTIAL_MATCH));
+                matches.add(new BoostQuery(new PrefixQuery(new Term(KEYWORD + weight, word)), weight * PARTIAL_MATCH));
+            } else if (mode == '~') {
+                matches.add(new BoostQuery(new FuzzyQuery(term, word.length() <= 4 ? 1 : 2), weight * PARTIAL_MATCH));
+            }
+        }
+        return new DisjunctionMaxQuery(matches, 0);
+    }
+
+    private static Query keywordQuery(String keyword, char mode) {
+        List<Query> matches = new ArrayList<>();
+        for (int weight = 1; weight <= SearchDocument.MAX_WEIGHT; weight++) {
+            Term term = new Term(KEYWORD + weight, keyword);
+            matches.add(new BoostQuery(new TermQuery(term), weight));
+            if (mode == '*') {
+                matches.add(new BoostQuery(new PrefixQuery(term), weight * PARTIAL_MATCH));
+            }
+        }
+        return new DisjunctionMaxQuery(matches, 0);
+    }
+
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(TEXT + 1, text)) {
+            CharTermAttribute word = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                words.add(word.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return words;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, id.toString());
+    }
+
+    private static Document luceneDocument(SearchDocument document, long generation) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(ID, document.getId().toString(), Field.Store.YES));
+        doc.add(new NumericDocValuesField(ID_ORDER, document.getId()));
+        doc.add(new LongPoint(GENERATION, generation));
+        String status = document.getStatus() != null ? document.getStatus() : UNKNOWN_STATUS;
+        doc.add(new StringField(STATUS, status, Field.Store.YES));
+        doc.add(new SortedSetDocValuesFacetField(STATUS, status));
+        if (document.getTitle() != null) {
+            doc.add(new StoredField(TITLE, document.getTitle()));
+        }
+        if (document.getSummary() != null) {
+            doc.add(new StoredField(SUMMARY, document.getSummary()));
+        }
+        for (SearchDocument.Entry entry : document.getEntries()) {
+            doc.add(entry.keyword
+                    ? new StringField(KEYWORD + entry.weight, entry.value, Field.Store.YES)
+                    : new TextField(TEXT + entry.weight, entry.value, Field.Store.YES));
+        }
+        return FACETS.build(doc);
+    }
+
+    private static SearchDocument storedDocument(Document stored, String status) {
+        SearchDocument document = new SearchDocument(Long.valueOf(stored.get(ID)), status, stored.get(TITLE),
+                stored.get(SUMMARY));
+        for (IndexableField field : stored) {
+            String name = field.name();
+            if (name.startsWith(TEXT)) {
+                document.entry(false, field.stringValue(), Integer.parseInt(name.substring(TEXT.length())));
+            } else if (name.startsWith(KEYWORD)) {
+                document.entry(true, field.stringValue(), Integer.parseInt(name.substring(KEYWORD.length())));
+            }
+        }
+        return document;
+    }
+
+    private final class Tenant {
+        final Long companyId;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searchers;
+        private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+        private boolean closed;
+        private volatile SortedSetDocValuesReaderState facetState;
+
+        // Guarded by this
+        private long generation;
+        private long builtAt; // end of the last complete build, 0 before the first
+        private boolean building;
+        private boolean stale;
+        private boolean unrefreshed;
+        private final Set<Long> unrefreshedIds = new HashSet<>();
+        // While building: documents written live (the loader's copy is older) and live status changes
+        private Set<Long> touched;
+        private Map<Long, String> pendingStatus;
+
+        Tenant(Long companyId, Directory directory, IndexWriter writer, SearcherManager searchers,
+                Map<String, String> commitData) {
+            this.companyId = companyId;
+            this.directory = directory;
+            this.writer = writer;
+            this.searchers = searchers;
+            this.generation = Long.parseLong(commitData.getOrDefault(GENERATION, "0"));
+            this.builtAt = Long.parseLong(commitData.getOrDefault(BUILT_AT, "0"));
+        }
+
+        /** Holds the index open until {@link #exit}; false once it is closed. */
+        boolean enter() {
+            lifecycle.readLock().lock();
+            if (closed) {
+                lifecycle.readLock().unlock();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            lifecycle.readLock().unlock();
+        }
+
+        synchronized boolean isBuilt() {
+            return builtAt > 0;
+        }
+
+        synchronized void markStale() {
+            stale = true;
+        }
+
+        synchronized boolean startBuildIfDue(long now, long maxAge) {
+            if (building || (builtAt > 0 && !stale && now - builtAt < maxAge)) {
+                return false;
+            }
+            building = true;
+            return true;
+        }
+
+        synchronized long beginBuild() {
+            generation = Math.max(System.currentTimeMillis(), generation + 1);
+            stale = false;
+            touched = new HashSet<>();
+            pendingStatus = new HashMap<>();
+            writer.setLiveCommitData(commitData().entrySet());
+            return generation;
+        }
+
+        synchronized void finishBuild(long buildGeneration) throws IOException {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, buildGeneration - 1));
+            builtAt = System.currentTimeMillis();
+            writer.setLiveCommitData(commitData().entrySet());
+            writer.commit();
+            unrefreshed = true;
+        }
+
+        synchronized void endBuild() {
+            building = false;
+            touched = null;
+            pendingStatus = null;
+        }
+
+        private Map<String, String> commitData() {
+            Map<String, String> data = new HashMap<>();
+            data.put(GENERATION, Long.toString(generation));
+            data.put(BUILT_AT, Long.toString(builtAt));
+            return data;
+        }
+
+        synchronized void put(SearchDocument document, boolean live) throws IOException {
+            Long id = document.getId();
+            if (touched != null) {
+                if (live) {
+                    touched.add(id);
+                } else if (touched.contains(id)) {
+                    return;
+                } else if (pendingStatus.containsKey(id)) {
+                    document = document.withStatus(pendingStatus.get(id));
+                }
+            }
+            writer.updateDocument(idTerm(id), luceneDocument(document, generation));
+            unrefreshed = true;
+            if (live) {
+                unrefreshedIds.add(id);
+            }
+        }
+
+        synchronized void remove(Long id) throws IOException {
+            if (touched != null) {
+                touched.add(id);
+            }
+            writer.deleteDocuments(idTerm(id));
+            unrefreshed = true;
+            unrefreshedIds.add(id);
+        }
+
+        // Lucene cannot change one field in place, so the document is rewritten from its stored fields
+        synchronized void updateStatus(Long id, String status) throws IOException {
+            if (pendingStatus != null) {
+                pendingStatus.put(id, status);
+            }
+            // Loaded documents are not tracked by id, so while building any write forces a reopen
+            IndexSearcher searcher = acquire(unrefreshedIds.contains(id) || (touched != null && unrefreshed));
+            try {
+                TopDocs found = searcher.search(new TermQuery(idTerm(id)), 1);
+                if (found.scoreDocs.length > 0) {
+                    Document stored = searcher.storedFields().document(found.scoreDocs[0].doc);
+                    writer.updateDocument(idTerm(id), luceneDocument(storedDocument(stored, status), generation));
+                    unrefreshed = true;
+                    unrefreshedIds.add(id);
+                }
+            } finally {
+                searchers.release(searcher);
+            }
+        }
+
+        synchronized void commit() throws IOException {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        }
+
+        private IndexSearcher acquire(boolean refresh) throws IOException {
+            if (refresh) {
+                synchronized (this) {
+                    unrefreshed = false;
+                    unrefreshedIds.clear();
+                }
+                searchers.maybeRefreshBlocking();
+            }
+            return searchers.acquire();
+        }
+
+        SearchResult search(Query query, String status, int limit) throws IOException {
+            boolean refresh;
+            boolean complete;
+            synchronized (this) {
+                refresh = unrefreshed;
+                complete = builtAt > 0;
+            }
+            IndexSearcher searcher = acquire(refresh);
+            try {
+                if (searcher.getIndexReader().numDocs() == 0) {
+                    return new SearchResult(Collections.<SearchResult.Hit>emptyList(), 0,
+                            Collections.<String, Long>emptyMap(), complete);
+                }
+                FacetsCollector matches = new FacetsCollector();
+                TopFieldDocs top;
+                if (status == null) {
+                    top = FacetsCollector.search(searcher, query, limit, BEST_FIRST, true, matches);
+                } else {
+                    searcher.search(query, matches);
+                    Query filtered = new BooleanQuery.Builder()
+                            .add(query, BooleanClause.Occur.MUST)
+                            .add(new TermQuery(new Term(STATUS, status)), BooleanClause.Occur.FILTER)
+                            .build();
+                    top = searcher.search(filtered, limit, BEST_FIRST, true);
+                }
+                Map<String, Long> facets = new TreeMap<>();
+                FacetResult counts = new SortedSetDocValuesFacetCounts(facetState(searcher.getIndexReader()), matches)
+                        .getAllChildren(STATUS);
+                long total = 0;
+                if (counts != null) {
+                    for (LabelAndValue count : counts.labelValues) {
+                        facets.put(count.label, count.value.longValue());
+                        if (status == null || status.equals(count.label)) {
+                            total += count.value.longValue();
+                        }
+                    }
+                }
+                StoredFields storedFields = searcher.storedFields();
+                List<SearchResult.Hit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc match : top.scoreDocs) {
+                    Document stored = storedFields.document(match.doc);
+                    hits.add(new SearchResult.Hit(Long.valueOf(stored.get(ID)), stored.get(TITLE), stored.get(SUMMARY),
+                            stored.get(STATUS), match.score));
+                }
+                return new SearchResult(hits, total, facets, complete);
+            } finally {
+                searchers.release(searcher);
+            }
+        }
+
+        // Ordinals of the status labels; rebuilt once per reopened reader
+        private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+            SortedSetDocValuesReaderState state = facetState;
+            if (state == null || state.getReader() != reader) {
+                state = new DefaultSortedSetDocValuesReaderState(reader, FACETS);
+                facetState = state;
+            }
+            return state;
+        }
+
+        void close() {
+            lifecycle.writeLock().lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    IOUtils.close(searchers, writer, directory);
+                }
+            } catch (IOException e) {
+                logger.warn("Closing the search index of company {} failed", companyId, e);
+            } finally {
+                lifecycle.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sme.shared;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "document_sequences",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"companyId", "documentType", "period"}))
+public class DocumentSequence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long companyId;
+
+    @Column(nullable = false)
+    private String documentType; // INV, QTN, PO
+
+    @Column(nullable = false)
+    private String period; // yyyyMM
+
+    @Column(nullable = false)
+    private Long nextValue; // first number not yet reserved by any instance
+
+    public DocumentSequence() {}
+    public DocumentSequence(Long companyId, String documentType, String period, Long nextValue) {
+        this.companyId = companyId;
+        this.documentType = documentType;
+        this.period = period;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getCompanyId() { return companyId; }
+    public void setCompanyId(Long companyId) { this.companyId = companyId; }
+    public String getDocumentType() { return documentType; }
+    public void setDocumentType(String documentType) { this.documentType = documentType; }
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+}
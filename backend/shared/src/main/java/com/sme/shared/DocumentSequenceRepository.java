@@ -0,0 +1,23 @@
+package com.sme.shared;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+
+    // The row lock taken here is held until commit, so the value read back below is this caller's
+    @Modifying
+    @Query("update DocumentSequence s set s.nextValue = s.nextValue + :count "
+            + "where s.companyId = :companyId and s.documentType = :documentType and s.period = :period")
+    int advance(@Param("companyId") Long companyId, @Param("documentType") String documentType,
+                @Param("period") String period, @Param("count") long count);
+
+    @Query("select s.nextValue from DocumentSequence s "
+            + "where s.companyId = :companyId and s.documentType = :documentType and s.period = :period")
+    Long findNextValue(@Param("companyId") Long companyId, @Param("documentType") String documentType,
+                       @Param("period") String period);
+}
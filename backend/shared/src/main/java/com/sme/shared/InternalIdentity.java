@@ -0,0 +1,30 @@
+package com.sme.shared;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Caller identity minted by the API gateway after it has verified the user's JWT.
+ * Carried to downstream services in the {@link InternalIdentityCodec#HEADER} header.
+ */
+public class InternalIdentity {
+    private final String userId;
+    private final String username;
+    private final String companyId;
+    private final List<String> roles;
+    private final long expiresAtMillis;
+
+    public InternalIdentity(String userId, String username, String companyId, List<String> roles, long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.companyId = companyId;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.emptyList();
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getCompanyId() { return companyId; }
+    public List<String> getRoles() { return roles; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
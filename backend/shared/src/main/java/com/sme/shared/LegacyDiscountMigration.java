@@ -0,0 +1,42 @@
+package com.sme.shared;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off repair of document discounts saved before {@link TotalsCalculator}. The old totals code
+ * stored line discounts plus the header discount in the header {@code discount} column, while the
+ * kernel reads that column as the header discount alone, so recalculating such a row would take
+ * the line discounts off twice. Rows not yet repaired have a null {@code totals_version}; the
+ * repair subtracts the line discounts the old code added (percent of the stored line subtotal, or
+ * the amount), never going below zero, and stamps the row. Running it again touches nothing.
+ */
+@Component
+public class LegacyDiscountMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyDiscountMigration.class);
+
+    /** Value of {@code totals_version} for rows whose discount is the header discount only. */
+    public static final int HEADER_DISCOUNT_ONLY = 1;
+
+    private static final String OLD_LINE_DISCOUNT = "case when l.discount > 0 then case when l.discount_type = 'PERCENT' "
+            + "then coalesce(l.line_subtotal, 0) * l.discount / 100 else l.discount end else 0 end";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Repairs the unstamped rows of {@code table}, whose lines have {@code parentType}; returns the rows stamped. */
+    public int migrate(String table, String parentType) {
+        int rows = jdbcTemplate.update("update " + table + " d set d.discount = greatest(coalesce(d.discount, 0) - "
+                + "coalesce((select sum(" + OLD_LINE_DISCOUNT + ") from line_items l "
+                + "where l.parent_id = d.id and l.parent_type = ?), 0), 0), d.totals_version = ? "
+                + "where d.totals_version is null", parentType, HEADER_DISCOUNT_ONLY);
+        if (rows > 0) {
+            logger.info("Split line discounts out of the header discount of {} {} rows", rows, table);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sme.shared;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on amounts held as longs scaled by 10^4 (the scale of the line item
+ * columns). Products are computed exactly in long and rounded once, with an explicit rounding
+ * mode, when they are brought back to the money scale; only a product that would overflow a long
+ * falls back to BigDecimal, with the same result.
+ */
+public final class Money {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    private static final long[] POWERS = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+
+    private Money() {}
+
+    /** Scales {@code value} to money scale, rounding half up; null is zero. */
+    public static long of(BigDecimal value) {
+        return of(value, SCALE);
+    }
+
+    /** Scales {@code value} to {@code scale} decimal places, rounding half up; null is zero. */
+    public static long of(BigDecimal value, int scale) {
+        return value == null ? 0L : value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long of(Double value) {
+        return value == null ? 0L : of(BigDecimal.valueOf(value));
+    }
+
+    public static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    public static double toDouble(long amount) {
+        return amount / (double) ONE;
+    }
+
+    /**
+     * {@code amount * factor}, where {@code factor} has {@code factorScale} decimals, rounded back
+     * to money scale. {@code extraDivisor} divides the product as well (100 for a percentage).
+     */
+    public static long multiply(long amount, long factor, int factorScale, long extraDivisor, RoundingMode mode) {
+        try {
+            long product = Math.multiplyExact(amount, factor);
+            return divide(product, Math.multiplyExact(POWERS[factorScale], extraDivisor), mode);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(factor))
+                    .divide(BigDecimal.valueOf(POWERS[factorScale]).multiply(BigDecimal.valueOf(extraDivisor)), 0, mode)
+                    .longValueExact();
+        }
+    }
+
+    /** Rounds a value with {@code fromScale} decimals to {@code toScale} decimals (toScale &lt;= fromScale). */
+    public static long rescale(long value, int fromScale, int toScale, RoundingMode mode) {
+        return divide(value, POWERS[fromScale - toScale], mode);
+    }
+
+    /** {@code dividend / divisor} (divisor &gt; 0) rounded to a whole number with {@code mode}. */
+    static long divide(long dividend, long divisor, RoundingMode mode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = dividend < 0 ? -1 : 1;
+        long twice = Math.abs(remainder) * 2; // remainder < divisor <= 10^12, no overflow
+        boolean awayFromZero;
+        switch (mode) {
+            case UP:
+                awayFromZero = true;
+                break;
+            case DOWN:
+                awayFromZero = false;
+                break;
+            case CEILING:
+                awayFromZero = sign > 0;
+                break;
+            case FLOOR:
+                awayFromZero = sign < 0;
+                break;
+            case HALF_UP:
+                awayFromZero = twice >= divisor;
+                break;
+            case HALF_DOWN:
+                awayFromZero = twice > divisor;
+                break;
+            case HALF_EVEN:
+                awayFromZero = twice > divisor || (twice == divisor && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sme.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What {@link DocumentSearchIndex} indexes for one document: its status (the facet), a title and
+ * summary to show in results, and weighted searchable values. Text values are split into words;
+ * keyword values (document numbers, SKUs) are also kept whole, lower-cased, so a query like
+ * {@code AB-1001} matches them exactly. Weights run from 1 to {@link #MAX_WEIGHT}.
+ */
+public class SearchDocument {
+
+    public static final int MAX_WEIGHT = 3;
+
+    private final Long id;
+    private final String status;
+    private final String title;
+    private final String summary;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public SearchDocument(Long id, String status, String title, String summary) {
+        this.id = id;
+        this.status = status;
+        this.title = title;
+        this.summary = summary;
+    }
+
+    public SearchDocument text(String value, int weight) {
+        if (value != null) {
+            entry(false, value, weight);
+        }
+        return this;
+    }
+
+    public SearchDocument keyword(String value, int weight) {
+        if (value != null && !value.trim().isEmpty()) {
+            entry(true, value.trim().toLowerCase(), weight);
+            text(value, weight);
+        }
+        return this;
+    }
+
+    /** The same document with another status; the entries are shared, not copied. */
+    SearchDocument withStatus(String newStatus) {
+        SearchDocument copy = new SearchDocument(id, newStatus, title, summary);
+        copy.entries.addAll(entries);
+        return copy;
+    }
+
+    /** Adds a value as stored, without normalising it. */
+    SearchDocument entry(boolean keyword, String value, int weight) {
+        if (weight < 1 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Search weight must be between 1 and " + MAX_WEIGHT + ": " + weight);
+        }
+        entries.add(new Entry(keyword, value, weight));
+        return this;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public String getTitle() { return title; }
+    public String getSummary() { return summary; }
+    List<Entry> getEntries() { return entries; }
+
+    static final class Entry {
+        final boolean keyword;
+        final String value;
+        final int weight;
+
+        Entry(boolean keyword, String value, int weight) {
+            this.keyword = keyword;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sme.shared;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hits of one search, best first, with the number of matches per status. Facet counts cover every
+ * match of the query text, before the status filter, so the client can show what each status
+ * would return. {@code complete} is false while the company's index is still being built, when
+ * some matches may be missing.
+ */
+public class SearchResult {
+    private final List<Hit> hits;
+    private final long total;
+    private final Map<String, Long> statusFacets;
+    private final boolean complete;
+
+    public SearchResult(List<Hit> hits, long total, Map<String, Long> statusFacets, boolean complete) {
+        this.hits = hits;
+        this.total = total;
+        this.statusFacets = statusFacets;
+        this.complete = complete;
+    }
+
+    public List<Hit> getHits() { return hits; }
+    public long getTotal() { return total; }
+    public Map<String, Long> getStatusFacets() { return statusFacets; }
+    public boolean isComplete() { return complete; }
+
+    public static class Hit {
+        private final Long id;
+        private final String title;
+        private final String summary;
+        private final String status;
+        private final double score;
+
+        public Hit(Long id, String title, String summary, String status, double score) {
+            this.id = id;
+            this.title = title;
+            this.summary = summary;
+            this.status = status;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public String getTitle() { return title; }
+        public String getSummary() { return summary; }
+        public String getStatus() { return status; }
+        public double getScore() { return score; }
+    }
+}
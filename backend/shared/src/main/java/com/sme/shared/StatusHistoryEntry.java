@@ -0,0 +1,30 @@
+package com.sme.shared;
+
+import java.time.LocalDateTime;
+
+/** One row of {@code status_history_logs} as returned by {@link DocumentLogReader}. */
+public class StatusHistoryEntry {
+    private final Long id;
+    private final String oldStatus;
+    private final String newStatus;
+    private final Long changedBy;
+    private final LocalDateTime changedAt;
+    private final String remarks;
+
+    public StatusHistoryEntry(Long id, String oldStatus, String newStatus, Long changedBy, LocalDateTime changedAt,
+            String remarks) {
+        this.id = id;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.changedBy = changedBy;
+        this.changedAt = changedAt;
+        this.remarks = remarks;
+    }
+
+    public Long getId() { return id; }
+    public String getOldStatus() { return oldStatus; }
+    public String getNewStatus() { return newStatus; }
+    public Long getChangedBy() { return changedBy; }
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public String getRemarks() { return remarks; }
+}
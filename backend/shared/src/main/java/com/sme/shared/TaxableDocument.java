@@ -0,0 +1,18 @@
+package com.sme.shared;
+
+import java.util.List;
+
+/**
+ * Header of an invoice, quote or PO as seen by {@link TotalsCalculator}. {@code discount} is the
+ * header-level discount amount entered on the document; line discounts are reflected in the
+ * line amounts and the grand total but are not added into it.
+ */
+public interface TaxableDocument {
+    List<? extends TaxableLine> getLineItems();
+    Double getDiscount();
+    Double getShipping();
+
+    void setSubtotal(Double subtotal);
+    void setTax(Double tax);
+    void setGrandTotal(Double grandTotal);
+}
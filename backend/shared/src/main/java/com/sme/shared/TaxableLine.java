@@ -0,0 +1,17 @@
+package com.sme.shared;
+
+import java.math.BigDecimal;
+
+/** The inputs and computed amounts of a document line, as read and written by {@link TotalsCalculator}. */
+public interface TaxableLine {
+    BigDecimal getQuantity();
+    BigDecimal getUnitPrice();
+    BigDecimal getDiscount();
+    String getDiscountType(); // PERCENT or AMOUNT
+    BigDecimal getTaxRate(); // 0.09 for 9% GST
+    Boolean getTaxExempt();
+
+    void setLineSubtotal(BigDecimal lineSubtotal);
+    void setLineTaxAmount(BigDecimal lineTaxAmount);
+    void setLineTotal(BigDecimal lineTotal);
+}
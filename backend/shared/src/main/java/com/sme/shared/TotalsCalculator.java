@@ -0,0 +1,150 @@
+package com.sme.shared;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * Computes line amounts and document totals in one pass over the lines, in scaled longs
+ * ({@link Money}). Per line: subtotal = quantity x unit price; the discount (a percentage of the
+ * subtotal or an amount) is taken off; tax = discounted subtotal x tax rate unless exempt. The
+ * document subtotal is the sum of line subtotals, and grand total = subtotal - line discounts -
+ * header discount + tax + shipping. Every rounding step uses an explicit mode, so recomputing a
+ * document always gives the same figures. Instances are immutable and thread-safe.
+ */
+public final class TotalsCalculator {
+
+    /** Where GST is rounded to money scale: on every line, or once on the document's total tax. */
+    public enum TaxRounding { PER_LINE, PER_DOCUMENT }
+
+    /** Singapore GST: half up, per line (the line item columns store the rounded tax). */
+    public static final TotalsCalculator GST = new TotalsCalculator(RoundingMode.HALF_UP, RoundingMode.HALF_UP,
+            TaxRounding.PER_LINE);
+
+    private static final int QUANTITY_SCALE = 3;
+    private static final int PRICE_SCALE = 4;
+    private static final int RATE_SCALE = 4;
+    // Unrounded tax is kept at money scale + rate scale until it is rounded
+    private static final int TAX_WORK_SCALE = Money.SCALE + RATE_SCALE;
+
+    private final RoundingMode amountRounding;
+    private final RoundingMode taxRounding;
+    private final TaxRounding taxRoundingLevel;
+
+    public TotalsCalculator(RoundingMode amountRounding, RoundingMode taxRounding, TaxRounding taxRoundingLevel) {
+        this.amountRounding = amountRounding;
+        this.taxRounding = taxRounding;
+        this.taxRoundingLevel = taxRoundingLevel;
+    }
+
+    /** Recomputes the lines and header of one document; returns its totals in {@code into}. */
+    public DocumentTotals recalculate(TaxableDocument document, DocumentTotals into) {
+        into.reset();
+        if (document.getLineItems() != null) {
+            for (TaxableLine line : document.getLineItems()) {
+                addLine(line, into);
+            }
+        }
+        if (taxRoundingLevel == TaxRounding.PER_DOCUMENT) {
+            into.tax = into.unroundedTaxOverflow == null
+                    ? Money.rescale(into.unroundedTax, TAX_WORK_SCALE, Money.SCALE, taxRounding)
+                    : into.unroundedTaxOverflow.movePointLeft(RATE_SCALE).setScale(0, taxRounding).longValueExact();
+        }
+        into.headerDiscount = Money.of(document.getDiscount());
+        into.shipping = Money.of(document.getShipping());
+        into.grandTotal = into.subtotal - into.lineDiscount - into.headerDiscount + into.tax + into.shipping;
+        document.setSubtotal(Money.toDouble(into.subtotal));
+        document.setTax(Money.toDouble(into.tax));
+        document.setGrandTotal(Money.toDouble(into.grandTotal));
+        return into;
+    }
+
+    /** Recomputes the amounts of a single line. */
+    public void recalculateLine(TaxableLine line) {
+        addLine(line, new DocumentTotals());
+    }
+
+    private void addLine(TaxableLine line, DocumentTotals into) {
+        if (line.getQuantity() == null || line.getUnitPrice() == null) {
+            return;
+        }
+        long subtotal = Money.multiply(Money.of(line.getQuantity(), QUANTITY_SCALE),
+                Money.of(line.getUnitPrice(), PRICE_SCALE), QUANTITY_SCALE + PRICE_SCALE - Money.SCALE, 1,
+                amountRounding);
+        long discount = 0;
+        if (line.getDiscount() != null && line.getDiscount().signum() > 0) {
+            discount = "PERCENT".equals(line.getDiscountType())
+                    ? Money.multiply(subtotal, Money.of(line.getDiscount()), Money.SCALE, 100, amountRounding)
+                    : Money.of(line.getDiscount());
+        }
+        long taxable = subtotal - discount;
+        long tax = 0;
+        if (!Boolean.TRUE.equals(line.getTaxExempt()) && line.getTaxRate() != null) {
+            long rate = Money.of(line.getTaxRate(), RATE_SCALE);
+            tax = Money.multiply(taxable, rate, RATE_SCALE, 1, taxRounding);
+            if (taxRoundingLevel == TaxRounding.PER_DOCUMENT) {
+                into.addUnroundedTax(taxable, rate);
+            }
+        }
+        line.setLineSubtotal(Money.toBigDecimal(subtotal));
+        line.setLineTaxAmount(Money.toBigDecimal(tax));
+        line.setLineTotal(Money.toBigDecimal(taxable + tax));
+        into.subtotal += subtotal;
+        into.lineDiscount += discount;
+        into.tax += tax;
+    }
+
+    public DocumentTotals recalculate(TaxableDocument document) {
+        return recalculate(document, new DocumentTotals());
+    }
+
+    /**
+     * Recomputes many documents, reusing one accumulator; returns the sum of their grand totals
+     * (money scale), e.g. to compare before and after a tax-rate change.
+     */
+    public long recalculateAll(Collection<? extends TaxableDocument> documents) {
+        DocumentTotals totals = new DocumentTotals();
+        long grandTotal = 0;
+        for (TaxableDocument document : documents) {
+            grandTotal += recalculate(document, totals).grandTotal;
+        }
+        return grandTotal;
+    }
+
+    /** Totals of one document in money scale; mutable so bulk recalculation can reuse it. */
+    public static final class DocumentTotals {
+        long subtotal;
+        long lineDiscount;
+        long headerDiscount;
+        long tax;
+        long shipping;
+        long grandTotal;
+        long unroundedTax; // at money scale + rate scale
+        BigDecimal unroundedTaxOverflow; // same scale, once the sum no longer fits a long
+
+        void reset() {
+            subtotal = lineDiscount = headerDiscount = tax = shipping = grandTotal = unroundedTax = 0;
+            unroundedTaxOverflow = null;
+        }
+
+        void addUnroundedTax(long taxable, long rate) {
+            if (unroundedTaxOverflow == null) {
+                try {
+                    unroundedTax = Math.addExact(unroundedTax, Math.multiplyExact(taxable, rate));
+                    return;
+                } catch (ArithmeticException overflow) {
+                    unroundedTaxOverflow = BigDecimal.valueOf(unroundedTax);
+                }
+            }
+            unroundedTaxOverflow = unroundedTaxOverflow.add(BigDecimal.valueOf(taxable).multiply(BigDecimal.valueOf(rate)));
+        }
+
+        public long getSubtotal() { return subtotal; }
+        public long getLineDiscount() { return lineDiscount; }
+        public long getHeaderDiscount() { return headerDiscount; }
+        public long getTax() { return tax; }
+        public long getShipping() { return shipping; }
+        public long getGrandTotal() { return grandTotal; }
+        public BigDecimal getGrandTotalAmount() { return Money.toBigDecimal(grandTotal); }
+    }
+}
@@ -0,0 +1,184 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two overlapping bulk actions against an in-memory table whose loader takes row locks
+ * until commit, as the repositories' PESSIMISTIC_WRITE loaders do.
+ */
+class BulkActionExecutorTest {
+
+    private final Table table = new Table();
+    private BulkActionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 6; id++) {
+            table.committed.put(id, "PENDING_APPROVAL");
+        }
+        executor = new BulkActionExecutor();
+        ReflectionTestUtils.setField(executor, "transactionManager", table);
+        ReflectionTestUtils.setField(executor, "chunkSize", 50);
+        executor.init();
+    }
+
+    @Test
+    void overlappingBulkActionsMoveEachDocumentOnce() throws Exception {
+        CountDownLatch firstHoldsLocks = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<BulkActionResult> approve = threads.submit(() -> transition(Arrays.asList(1L, 2L, 3L, 4L), "APPROVED",
+                    () -> {
+                        // Keep the chunk open until the reject is waiting on an overlapping row
+                        firstHoldsLocks.countDown();
+                        awaitWaiter(3L);
+                    }));
+            firstHoldsLocks.await(5, TimeUnit.SECONDS);
+            Future<BulkActionResult> reject = threads.submit(() -> transition(Arrays.asList(3L, 4L, 5L, 6L), "REJECTED",
+                    () -> { }));
+
+            BulkActionResult approved = approve.get(5, TimeUnit.SECONDS);
+            BulkActionResult rejected = reject.get(5, TimeUnit.SECONDS);
+
+            assertThat(approved.getSucceeded()).isEqualTo(4);
+            assertThat(rejected.getSucceeded()).isEqualTo(2);
+            assertThat(rejected.getFailed()).isEqualTo(2);
+            for (BulkActionResult.Item item : rejected.getItems()) {
+                if (item.getId() <= 4) {
+                    assertThat(item.isSuccess()).isFalse();
+                    assertThat(item.getStatus()).isEqualTo("APPROVED");
+                }
+            }
+            assertThat(table.committed).containsEntry(3L, "APPROVED").containsEntry(4L, "APPROVED")
+                    .containsEntry(5L, "REJECTED").containsEntry(6L, "REJECTED");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void refusedAndMissingDocumentsDoNotStopTheChunk() {
+        table.committed.put(2L, "APPROVED");
+
+        BulkActionResult result = transition(Arrays.asList(1L, 2L, 99L, 1L), "APPROVED", () -> { });
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getItems()).extracting(BulkActionResult.Item::getMessage)
+                .containsExactly(null, "Document is APPROVED, not PENDING_APPROVAL", "Not found");
+        assertThat(table.committed).containsEntry(1L, "APPROVED");
+    }
+
+    private BulkActionResult transition(List<Long> ids, String newStatus, Runnable onFirst) {
+        boolean[] first = {true};
+        return executor.execute(ids, table::lockAll, doc -> doc.id, doc -> doc.status,
+                doc -> {
+                    if (!"PENDING_APPROVAL".equals(doc.status)) {
+                        throw new IllegalStateException("Document is " + doc.status + ", not PENDING_APPROVAL");
+                    }
+                    if (first[0]) {
+                        first[0] = false;
+                        onFirst.run();
+                    }
+                    doc.status = newStatus;
+                },
+                table::saveAll);
+    }
+
+    private void awaitWaiter(Long id) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!table.lock(id).hasQueuedThreads() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private static final class Doc {
+        final Long id;
+        String status;
+
+        Doc(Long id, String status) {
+            this.id = id;
+            this.status = status;
+        }
+    }
+
+    /** Committed rows, row locks held until commit or rollback, and writes buffered per transaction. */
+    private static final class Table implements PlatformTransactionManager {
+        final Map<Long, String> committed = new ConcurrentHashMap<>();
+        private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+        private final ThreadLocal<List<ReentrantLock>> held = ThreadLocal.withInitial(ArrayList::new);
+        private final ThreadLocal<Map<Long, String>> pending = ThreadLocal.withInitial(HashMap::new);
+
+        ReentrantLock lock(Long id) {
+            return locks.computeIfAbsent(id, k -> new ReentrantLock());
+        }
+
+        List<Doc> lockAll(List<Long> ids) {
+            List<Long> sorted = new ArrayList<>(ids);
+            Collections.sort(sorted);
+            List<Doc> docs = new ArrayList<>();
+            for (Long id : sorted) {
+                ReentrantLock lock = lock(id);
+                lock.lock();
+                held.get().add(lock);
+                String status = committed.get(id);
+                if (status != null) {
+                    docs.add(new Doc(id, status));
+                }
+            }
+            return docs;
+        }
+
+        void saveAll(List<Doc> docs) {
+            for (Doc doc : docs) {
+                pending.get().put(doc.id, doc.status);
+            }
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            committed.putAll(pending.get());
+            release();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            release();
+        }
+
+        private void release() {
+            pending.get().clear();
+            for (ReentrantLock lock : held.get()) {
+                lock.unlock();
+            }
+            held.get().clear();
+        }
+    }
+}
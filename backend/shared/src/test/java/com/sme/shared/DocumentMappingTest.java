@@ -0,0 +1,71 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentMappingTest {
+
+    private static final DocumentMapping<Quote, Invoice> TO_INVOICE = DocumentMapping.<Quote, Invoice>builder(Invoice::new)
+            .copy(Quote::getClient, Invoice::setClient)
+            .copy(Quote::getTotal, Invoice::setTotal)
+            .then((quote, invoice) -> invoice.setNotes("From quote " + quote.getNumber()))
+            .build();
+
+    @Test
+    void copiesInDeclaredOrderIntoANewInstance() {
+        Quote quote = new Quote("QT-0007", "Acme Pte Ltd", 120.5);
+
+        Invoice first = TO_INVOICE.map(quote);
+        Invoice second = TO_INVOICE.map(quote);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.client).isEqualTo("Acme Pte Ltd");
+        assertThat(first.total).isEqualTo(120.5);
+        assertThat(first.notes).isEqualTo("From quote QT-0007");
+    }
+
+    @Test
+    void nullsAreCopiedAsNulls() {
+        Invoice invoice = TO_INVOICE.map(new Quote("QT-0008", null, null));
+
+        assertThat(invoice.client).isNull();
+        assertThat(invoice.total).isNull();
+    }
+
+    @Test
+    void stepsAddedAfterBuildDoNotChangeTheMapping() {
+        DocumentMapping.Builder<Quote, Invoice> builder = DocumentMapping.<Quote, Invoice>builder(Invoice::new)
+                .copy(Quote::getClient, Invoice::setClient);
+        DocumentMapping<Quote, Invoice> mapping = builder.build();
+        builder.copy(Quote::getTotal, Invoice::setTotal);
+
+        assertThat(mapping.map(new Quote("QT-0009", "Acme", 1.0)).total).isNull();
+    }
+
+    private static final class Quote {
+        private final String number;
+        private final String client;
+        private final Double total;
+
+        Quote(String number, String client, Double total) {
+            this.number = number;
+            this.client = client;
+            this.total = total;
+        }
+
+        String getNumber() { return number; }
+        String getClient() { return client; }
+        Double getTotal() { return total; }
+    }
+
+    private static final class Invoice {
+        String client;
+        Double total;
+        String notes;
+
+        void setClient(String client) { this.client = client; }
+        void setTotal(Double total) { this.total = total; }
+        void setNotes(String notes) { this.notes = notes; }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The allocator commits its reservations in transactions of its own, so the test must not hold one open
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentNumberAllocatorTest {
+
+    private static final String PERIOD = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+    private static final String PREFIX = "INV-" + PERIOD;
+
+    @Autowired
+    private DocumentSequenceRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void firstNumberOfTheMonthContinuesFromWhatWasAlreadyIssued() {
+        DocumentNumberAllocator allocator = allocator(3);
+        List<String> prefixes = new ArrayList<>();
+
+        String first = allocator.next("INV", 1L, prefix -> {
+            prefixes.add(prefix);
+            return 41;
+        });
+
+        assertThat(first).isEqualTo(PREFIX + "-042");
+        assertThat(prefixes).containsExactly(PREFIX);
+        assertThat(allocator.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-043");
+        assertThat(repository.findNextValue(1L, "INV", PERIOD)).isEqualTo(45L);
+    }
+
+    @Test
+    void blocksAreServedFromMemoryAndRefilledFromTheCounter() {
+        DocumentNumberAllocator allocator = allocator(3);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            numbers.add(allocator.next("INV", 1L, prefix -> 0));
+        }
+
+        assertThat(numbers).containsExactly(PREFIX + "-001", PREFIX + "-002", PREFIX + "-003",
+                PREFIX + "-004", PREFIX + "-005", PREFIX + "-006", PREFIX + "-007");
+        assertThat(repository.findNextValue(1L, "INV", PERIOD)).isEqualTo(10L);
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void instancesReserveDisjointBlocks() {
+        DocumentNumberAllocator first = allocator(3);
+        DocumentNumberAllocator second = allocator(3);
+
+        assertThat(first.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-001");
+        assertThat(second.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-004");
+        assertThat(first.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-002");
+        assertThat(second.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-005");
+    }
+
+    @Test
+    void countersArePerCompanyAndDocumentType() {
+        DocumentNumberAllocator allocator = allocator(3);
+
+        assertThat(allocator.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-001");
+        assertThat(allocator.next("INV", 2L, prefix -> 0)).isEqualTo(PREFIX + "-001");
+        assertThat(allocator.next("QTN", 1L, prefix -> 0)).isEqualTo("QTN-" + PERIOD + "-001");
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void batchReservationDoesNotDisturbTheCurrentBlock() {
+        DocumentNumberAllocator allocator = allocator(3);
+
+        assertThat(allocator.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-001");
+        assertThat(allocator.next("INV", 1L, 4, prefix -> 0))
+                .containsExactly(PREFIX + "-004", PREFIX + "-005", PREFIX + "-006", PREFIX + "-007");
+        assertThat(allocator.next("INV", 1L, prefix -> 0)).isEqualTo(PREFIX + "-002");
+        assertThat(allocator.next("INV", 1L, 0, prefix -> 0)).isEmpty();
+    }
+
+    @Test
+    void concurrentAllocationsAcrossInstancesNeverRepeat() throws Exception {
+        List<DocumentNumberAllocator> allocators = new ArrayList<>();
+        allocators.add(allocator(5));
+        allocators.add(allocator(5));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<String> numbers = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                DocumentNumberAllocator allocator = allocators.get(t % 2);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        numbers.add(allocator.next("INV", 1L, prefix -> 0));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(numbers).hasSize(200).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void sequenceOfReadsOnlyNumbersUnderThePrefix() {
+        assertThat(DocumentNumberAllocator.sequenceOf("INV-202610-042", "INV-202610")).isEqualTo(42);
+        assertThat(DocumentNumberAllocator.sequenceOf("INV-202610-1234", "INV-202610")).isEqualTo(1234);
+        assertThat(DocumentNumberAllocator.sequenceOf("INV-202609-042", "INV-202610")).isZero();
+        assertThat(DocumentNumberAllocator.sequenceOf("INV-2026100-042", "INV-202610")).isZero();
+        assertThat(DocumentNumberAllocator.sequenceOf("INV-202610-draft", "INV-202610")).isZero();
+        assertThat(DocumentNumberAllocator.sequenceOf(null, "INV-202610")).isZero();
+    }
+
+    private DocumentNumberAllocator allocator(int blockSize) {
+        DocumentNumberAllocator allocator = new DocumentNumberAllocator();
+        ReflectionTestUtils.setField(allocator, "repository", repository);
+        ReflectionTestUtils.setField(allocator, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(allocator, "blockSize", blockSize);
+        allocator.init();
+        return allocator;
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = DocumentSequence.class)
+    @EnableJpaRepositories(basePackageClasses = DocumentSequenceRepository.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,149 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentSearchIndexTest {
+
+    private static final Long COMPANY = 7L;
+
+    @TempDir
+    Path root;
+
+    private DocumentSearchIndex index;
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void searchesWordsPrefixesTyposAndKeywords() throws Exception {
+        index = new DocumentSearchIndex(root, (companyId, sink) -> {
+            sink.accept(invoice(1001L, "PAID", "Acme Trading", "Ergonomic office chairs"));
+            sink.accept(invoice(1002L, "DRAFT", "Bolt Engineering", "Steel brackets"));
+            sink.accept(invoice(1003L, "DRAFT", "Acme Trading", "Standing desks"));
+        }, "search-test", 10, 60);
+
+        SearchResult acme = awaitComplete("acme");
+        assertThat(ids(acme)).containsExactly(1003L, 1001L);
+        assertThat(acme.getTotal()).isEqualTo(2);
+        assertThat(acme.getStatusFacets()).containsEntry("PAID", 1L).containsEntry("DRAFT", 1L);
+
+        assertThat(ids(index.search(COMPANY, "ergo*", null, 10))).containsExactly(1001L);
+        assertThat(ids(index.search(COMPANY, "bracket~", null, 10))).containsExactly(1002L);
+        assertThat(ids(index.search(COMPANY, "INV-1002", null, 10))).containsExactly(1002L);
+        assertThat(ids(index.search(COMPANY, "acme desks", null, 10))).containsExactly(1003L);
+        assertThat(ids(index.search(COMPANY, "acme", "PAID", 10))).containsExactly(1001L);
+        assertThat(index.search(COMPANY, "   ", null, 10).getHits()).isEmpty();
+    }
+
+    @Test
+    void writesAfterTheBuildAreSearchable() throws Exception {
+        index = new DocumentSearchIndex(root, (companyId, sink) ->
+                sink.accept(invoice(1L, "DRAFT", "Acme Trading", "Chairs")), "search-test", 10, 60);
+        awaitComplete("acme");
+
+        index.put(COMPANY, invoice(2L, "DRAFT", "Acme Logistics", "Pallets"));
+        index.updateStatus(COMPANY, 1L, "APPROVED");
+        SearchResult afterPut = index.search(COMPANY, "acme", null, 10);
+        assertThat(ids(afterPut)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(afterPut.getStatusFacets()).containsEntry("APPROVED", 1L).containsEntry("DRAFT", 1L);
+
+        index.remove(COMPANY, 2L);
+        assertThat(ids(index.search(COMPANY, "acme", null, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void liveWritesDuringABuildWinOverTheLoader() throws Exception {
+        CountDownLatch loaderWaiting = new CountDownLatch(1);
+        CountDownLatch writesDone = new CountDownLatch(1);
+        index = new DocumentSearchIndex(root, (companyId, sink) -> {
+            sink.accept(invoice(4L, "DRAFT", "Delta Foods", "Rice"));
+            loaderWaiting.countDown();
+            await(writesDone);
+            // What the loader read before the live writes below committed
+            sink.accept(invoice(1L, "DRAFT", "Acme Trading", "Old title"));
+            sink.accept(invoice(2L, "DRAFT", "Acme Trading", "Deleted meanwhile"));
+            sink.accept(invoice(3L, "DRAFT", "Acme Trading", "Approved meanwhile"));
+        }, "search-test", 10, 60);
+
+        assertThat(index.search(COMPANY, "acme", null, 10).isComplete()).isFalse();
+        assertThat(loaderWaiting.await(5, TimeUnit.SECONDS)).isTrue();
+        index.put(COMPANY, invoice(1L, "SENT", "Acme Trading", "New title"));
+        index.remove(COMPANY, 2L);
+        index.updateStatus(COMPANY, 3L, "APPROVED");
+        index.updateStatus(COMPANY, 4L, "PAID");
+        writesDone.countDown();
+
+        SearchResult acme = awaitComplete("acme");
+        assertThat(ids(acme)).containsExactlyInAnyOrder(1L, 3L);
+        for (SearchResult.Hit hit : acme.getHits()) {
+            if (hit.getId() == 1L) {
+                assertThat(hit.getStatus()).isEqualTo("SENT");
+                assertThat(hit.getSummary()).isEqualTo("New title");
+            } else {
+                assertThat(hit.getStatus()).isEqualTo("APPROVED");
+            }
+        }
+        assertThat(index.search(COMPANY, "delta", null, 10).getHits())
+                .extracting(SearchResult.Hit::getStatus).containsExactly("PAID");
+    }
+
+    @Test
+    void writesForACompanyWithoutAnIndexAreIgnored() {
+        index = new DocumentSearchIndex(root, (companyId, sink) -> { }, "search-test", 10, 60);
+
+        index.put(COMPANY, invoice(1L, "DRAFT", "Acme", "Chairs"));
+        index.updateStatus(COMPANY, 1L, "PAID");
+        index.remove(COMPANY, 1L);
+
+        assertThat(Files.exists(root.resolve(COMPANY.toString()))).isFalse();
+    }
+
+    private SearchResult awaitComplete(String query) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        SearchResult result = index.search(COMPANY, query, null, 10);
+        while (!result.isComplete() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            result = index.search(COMPANY, query, null, 10);
+        }
+        assertThat(result.isComplete()).as("build finished").isTrue();
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SearchDocument invoice(Long id, String status, String client, String summary) {
+        return new SearchDocument(id, status, "INV-" + id, summary)
+                .keyword("INV-" + id, 3)
+                .text(client, 2)
+                .text(summary, 1);
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        List<Long> ids = new ArrayList<>();
+        for (SearchResult.Hit hit : result.getHits()) {
+            ids.add(hit.getId());
+        }
+        return ids;
+    }
+}
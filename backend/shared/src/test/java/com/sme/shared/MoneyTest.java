@@ -0,0 +1,66 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void scalesHalfUpAndTreatsNullAsZero() {
+        assertThat(Money.of(new BigDecimal("1.23455"))).isEqualTo(12346L);
+        assertThat(Money.of(new BigDecimal("-1.23455"))).isEqualTo(-12346L);
+        assertThat(Money.of(0.1)).isEqualTo(1000L);
+        assertThat(Money.of((BigDecimal) null)).isZero();
+        assertThat(Money.of((Double) null)).isZero();
+        assertThat(Money.toBigDecimal(12346L)).isEqualByComparingTo("1.2346");
+    }
+
+    @Test
+    void divideRoundsLikeBigDecimal() {
+        long[][] cases = {{25, 10}, {-25, 10}, {35, 10}, {-35, 10}, {26, 10}, {-24, 10}, {1, 3}, {-2, 3}};
+        RoundingMode[] modes = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        for (long[] c : cases) {
+            for (RoundingMode mode : modes) {
+                long expected = BigDecimal.valueOf(c[0]).divide(BigDecimal.valueOf(c[1]), 0, mode).longValueExact();
+                assertThat(Money.divide(c[0], c[1], mode)).as("%d / %d %s", c[0], c[1], mode).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void inexactDivisionWithUnnecessaryRoundingFails() {
+        assertThat(Money.divide(30, 10, RoundingMode.UNNECESSARY)).isEqualTo(3L);
+        assertThatThrownBy(() -> Money.divide(31, 10, RoundingMode.UNNECESSARY)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void multiplyRoundsOnceAtMoneyScale() {
+        // 1.5 (scale 3) x 3.3333 = 4.99995 -> 5.0000 half up, 4.9999 half down
+        assertThat(Money.multiply(1500, 33333, 3, 1, RoundingMode.HALF_UP)).isEqualTo(50000L);
+        assertThat(Money.multiply(1500, 33333, 3, 1, RoundingMode.HALF_DOWN)).isEqualTo(49999L);
+        // 10% of 20.0000
+        assertThat(Money.multiply(200000, 100000, Money.SCALE, 100, RoundingMode.HALF_UP)).isEqualTo(20000L);
+    }
+
+    @Test
+    void overflowingProductFallsBackToTheSameResult() {
+        long amount = Long.MAX_VALUE / 10;
+        long expected = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(1234))
+                .divide(BigDecimal.valueOf(10_000), 0, RoundingMode.HALF_EVEN).longValueExact();
+
+        assertThat(Money.multiply(amount, 1234, 4, 1, RoundingMode.HALF_EVEN)).isEqualTo(expected);
+    }
+
+    @Test
+    void rescaleRoundsTheDroppedDigits() {
+        assertThat(Money.rescale(123445, 5, 4, RoundingMode.HALF_UP)).isEqualTo(12345L);
+        assertThat(Money.rescale(123445, 5, 4, RoundingMode.HALF_EVEN)).isEqualTo(12344L);
+        assertThat(Money.rescale(90000, 8, 4, RoundingMode.HALF_UP)).isEqualTo(9L);
+    }
+}
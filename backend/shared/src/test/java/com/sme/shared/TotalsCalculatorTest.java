@@ -0,0 +1,151 @@
+package com.sme.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TotalsCalculatorTest {
+
+    @Test
+    void gstDocumentTotals() {
+        Line percentOff = new Line("2", "10.00", "10", "PERCENT", "0.09", false);
+        Line amountOff = new Line("1.5", "3.3333", "0.50", "AMOUNT", "0.09", false);
+        Line exempt = new Line("1", "7.00", null, null, "0.09", true);
+        Document document = new Document(1.00, 2.50, percentOff, amountOff, exempt);
+
+        TotalsCalculator.DocumentTotals totals = TotalsCalculator.GST.recalculate(document);
+
+        assertThat(percentOff.lineSubtotal).isEqualByComparingTo("20.0000");
+        assertThat(percentOff.lineTaxAmount).isEqualByComparingTo("1.6200");
+        assertThat(percentOff.lineTotal).isEqualByComparingTo("19.6200");
+        // 1.5 x 3.3333 = 4.99995, rounded half up
+        assertThat(amountOff.lineSubtotal).isEqualByComparingTo("5.0000");
+        assertThat(amountOff.lineTaxAmount).isEqualByComparingTo("0.4050");
+        assertThat(amountOff.lineTotal).isEqualByComparingTo("4.9050");
+        assertThat(exempt.lineTaxAmount).isEqualByComparingTo("0");
+        assertThat(exempt.lineTotal).isEqualByComparingTo("7.0000");
+
+        assertThat(totals.getSubtotal()).isEqualTo(320000L);
+        assertThat(totals.getLineDiscount()).isEqualTo(25000L);
+        assertThat(totals.getHeaderDiscount()).isEqualTo(10000L);
+        assertThat(totals.getTax()).isEqualTo(20250L);
+        assertThat(totals.getShipping()).isEqualTo(25000L);
+        assertThat(totals.getGrandTotalAmount()).isEqualByComparingTo("33.0250");
+        assertThat(document.subtotal).isEqualTo(32.0);
+        assertThat(document.tax).isEqualTo(2.025);
+        assertThat(document.grandTotal).isEqualTo(33.025);
+    }
+
+    @Test
+    void amountRoundingModeIsApplied() {
+        Line line = new Line("1.5", "3.3333", null, null, null, false);
+
+        new TotalsCalculator(RoundingMode.HALF_DOWN, RoundingMode.HALF_UP, TotalsCalculator.TaxRounding.PER_LINE)
+                .recalculateLine(line);
+
+        assertThat(line.lineSubtotal).isEqualByComparingTo("4.9999");
+    }
+
+    @Test
+    void perDocumentTaxRoundsOnceOnTheSum() {
+        // Each line's tax is 0.00045: 0.0005 per line when rounded on the line, 0.0009 when rounded once
+        TotalsCalculator perLine = TotalsCalculator.GST;
+        TotalsCalculator perDocument = new TotalsCalculator(RoundingMode.HALF_UP, RoundingMode.HALF_UP,
+                TotalsCalculator.TaxRounding.PER_DOCUMENT);
+
+        assertThat(perLine.recalculate(smallTaxDocument()).getTax()).isEqualTo(10L);
+        assertThat(perDocument.recalculate(smallTaxDocument()).getTax()).isEqualTo(9L);
+    }
+
+    @Test
+    void linesWithoutQuantityOrPriceAreSkipped() {
+        Line blank = new Line(null, "5.00", null, null, "0.09", false);
+        Document document = new Document(null, null, blank, new Line("1", "5.00", null, null, null, false));
+
+        TotalsCalculator.DocumentTotals totals = TotalsCalculator.GST.recalculate(document);
+
+        assertThat(blank.lineTotal).isNull();
+        assertThat(totals.getGrandTotal()).isEqualTo(50000L);
+    }
+
+    @Test
+    void recalculateAllSumsGrandTotalsAndIsRepeatable() {
+        List<Document> documents = Arrays.asList(
+                new Document(null, null, new Line("2", "10.00", null, null, "0.09", false)),
+                new Document(null, 1.0, new Line("1", "0.99", null, null, "0.09", false)));
+
+        long first = TotalsCalculator.GST.recalculateAll(documents);
+        long second = TotalsCalculator.GST.recalculateAll(documents);
+
+        // 21.8000 + (0.9900 + 0.0891 + 1.0000)
+        assertThat(first).isEqualTo(238791L).isEqualTo(second);
+    }
+
+    private static Document smallTaxDocument() {
+        return new Document(null, null, new Line("1", "0.0050", null, null, "0.09", false),
+                new Line("1", "0.0050", null, null, "0.09", false));
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static final class Document implements TaxableDocument {
+        final List<Line> lines;
+        final Double discount;
+        final Double shipping;
+        Double subtotal;
+        Double tax;
+        Double grandTotal;
+
+        Document(Double discount, Double shipping, Line... lines) {
+            this.discount = discount;
+            this.shipping = shipping;
+            this.lines = new ArrayList<>(Arrays.asList(lines));
+        }
+
+        @Override public List<? extends TaxableLine> getLineItems() { return lines; }
+        @Override public Double getDiscount() { return discount; }
+        @Override public Double getShipping() { return shipping; }
+        @Override public void setSubtotal(Double subtotal) { this.subtotal = subtotal; }
+        @Override public void setTax(Double tax) { this.tax = tax; }
+        @Override public void setGrandTotal(Double grandTotal) { this.grandTotal = grandTotal; }
+    }
+
+    private static final class Line implements TaxableLine {
+        final BigDecimal quantity;
+        final BigDecimal unitPrice;
+        final BigDecimal discount;
+        final String discountType;
+        final BigDecimal taxRate;
+        final Boolean taxExempt;
+        BigDecimal lineSubtotal;
+        BigDecimal lineTaxAmount;
+        BigDecimal lineTotal;
+
+        Line(String quantity, String unitPrice, String discount, String discountType, String taxRate, boolean taxExempt) {
+            this.quantity = decimal(quantity);
+            this.unitPrice = decimal(unitPrice);
+            this.discount = decimal(discount);
+            this.discountType = discountType;
+            this.taxRate = decimal(taxRate);
+            this.taxExempt = taxExempt;
+        }
+
+        @Override public BigDecimal getQuantity() { return quantity; }
+        @Override public BigDecimal getUnitPrice() { return unitPrice; }
+        @Override public BigDecimal getDiscount() { return discount; }
+        @Override public String getDiscountType() { return discountType; }
+        @Override public BigDecimal getTaxRate() { return taxRate; }
+        @Override public Boolean getTaxExempt() { return taxExempt; }
+        @Override public void setLineSubtotal(BigDecimal lineSubtotal) { this.lineSubtotal = lineSubtotal; }
+        @Override public void setLineTaxAmount(BigDecimal lineTaxAmount) { this.lineTaxAmount = lineTaxAmount; }
+        @Override public void setLineTotal(BigDecimal lineTotal) { this.lineTotal = lineTotal; }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/timesheets")
@@ -22,21 +23,21 @@ public class TimesheetController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> exportTimesheetPdf(@PathVariable String id) {
-        byte[] pdf = timesheetService.generateTimesheetPdf(id);
+    public ResponseEntity<StreamingResponseBody> exportTimesheetPdf(@PathVariable String id) {
+        StreamingResponseBody body = timesheetService.streamTimesheetPdf(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "timesheet-" + id + ".pdf");
-        return ResponseEntity.ok().headers(headers).body(pdf);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportTimesheetExcel(@PathVariable String id) {
-        byte[] xlsx = timesheetService.generateTimesheetExcel(id);
+    public ResponseEntity<StreamingResponseBody> exportTimesheetExcel(@PathVariable String id) {
+        StreamingResponseBody body = timesheetService.streamTimesheetExcel(id);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "timesheet-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(xlsx);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @PostMapping
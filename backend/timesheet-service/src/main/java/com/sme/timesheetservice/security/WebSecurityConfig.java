@@ -2,7 +2,9 @@ package com.sme.timesheetservice.security;
 
 import com.sme.timesheetservice.security.jwt.AuthEntryPointJwt;
 import com.sme.timesheetservice.security.jwt.AuthTokenFilter;
+import com.sme.shared.InternalIdentityCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -30,6 +32,12 @@ public class WebSecurityConfig {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public InternalIdentityCodec internalIdentityCodec(@Value("${internal.identity.secret}") String secret,
+                                                       @Value("${internal.identity.ttl-ms:60000}") long ttlMillis) {
+        return new InternalIdentityCodec(secret, ttlMillis);
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
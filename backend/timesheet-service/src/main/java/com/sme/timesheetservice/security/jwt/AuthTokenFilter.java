@@ -1,5 +1,7 @@
 package com.sme.timesheetservice.security.jwt;
 
+import com.sme.shared.InternalIdentity;
+import com.sme.shared.InternalIdentityCodec;
 import com.sme.timesheetservice.security.services.UserDetailsImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,7 +18,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,38 +26,28 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private InternalIdentityCodec identityCodec;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                if ("PROXY_AUTH".equals(jwt)) {
-                    // Handle proxy authentication
-                    String userId = (String) request.getAttribute("userId");
-                    String username = (String) request.getAttribute("username");
-                    String companyId = (String) request.getAttribute("companyId");
-                    String rolesStr = (String) request.getAttribute("roles");
-                    
-                    List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    if (rolesStr != null && !rolesStr.isEmpty()) {
-                        String[] roleArray = rolesStr.split(",");
-                        for (String role : roleArray) {
-                            authorities.add(new SimpleGrantedAuthority(role.trim()));
-                        }
-                    }
-                    
-                    UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, companyId, authorities);
-                    
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, userId, authorities);
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                } else {
-                    // Handle JWT authentication
+            // Requests routed through the gateway carry a signed identity header, which is far
+            // cheaper to verify than the JWT. Fall back to the bearer token for direct calls.
+            InternalIdentity identity = identityCodec.decode(request.getHeader(InternalIdentityCodec.HEADER));
+            if (identity != null) {
+                List<SimpleGrantedAuthority> authorities = identity.getRoles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+                UserDetailsImpl userDetails = new UserDetailsImpl(identity.getUserId(), identity.getUsername(),
+                        identity.getCompanyId(), authorities);
+                setAuthentication(request, userDetails, authorities);
+            } else {
+                String jwt = parseJwt(request);
+                if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
                     String username = jwtUtils.getUserNameFromJwtToken(jwt);
                     String userId = jwtUtils.getUserIdFromJwtToken(jwt);
                     String companyId = jwtUtils.getCompanyIdFromJwtToken(jwt);
@@ -67,12 +58,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                             .collect(Collectors.toList());
 
                     UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, companyId, authorities);
-
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, authorities);
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    setAuthentication(request, userDetails, authorities);
                 }
             }
         } catch (Exception e) {
@@ -82,6 +68,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void setAuthentication(HttpServletRequest request, UserDetailsImpl userDetails,
+                                   List<SimpleGrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, authorities);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -89,24 +84,6 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             return headerAuth.substring(7);
         }
 
-        // Check for headers set by API Gateway
-        String userId = request.getHeader("X-User-ID");
-        String username = request.getHeader("X-User-Name");
-        String companyId = request.getHeader("X-Company-ID");
-        String roles = request.getHeader("X-User-Roles");
-
-        if (StringUtils.hasText(userId) && StringUtils.hasText(username)) {
-            logger.debug("Found user info in headers: {} - {}", userId, username);
-            
-            // Store the user ID in the request attributes for later retrieval
-            request.setAttribute("userId", userId);
-            request.setAttribute("username", username);
-            request.setAttribute("companyId", companyId);
-            request.setAttribute("roles", roles);
-            
-            return "PROXY_AUTH";
-        }
-
         return null;
     }
-}
\ No newline at end of file
+}
@@ -21,10 +21,6 @@ public class JwtUtils {
     private String jwtSecret;
 
     public boolean validateJwtToken(String authToken) {
-        if ("PROXY_AUTH".equals(authToken)) {
-            return true;
-        }
-        
         try {
             Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
             return true;
@@ -42,40 +38,22 @@ public class JwtUtils {
     }
 
     public String getUserNameFromJwtToken(String token) {
-        if ("PROXY_AUTH".equals(token)) {
-            // For proxy authentication, the username will be retrieved from the request attributes
-            // in the SecurityContextHolder by the controller
-            return null;
-        }
         return Jwts.parserBuilder().setSigningKey(key()).build()
                 .parseClaimsJws(token).getBody().getSubject();
     }
 
     public String getUserIdFromJwtToken(String token) {
-        if ("PROXY_AUTH".equals(token)) {
-            // For proxy authentication, the user ID will be retrieved from the request attributes
-            // in the SecurityContextHolder by the controller
-            return null;
-        }
         return Jwts.parserBuilder().setSigningKey(key()).build()
                 .parseClaimsJws(token).getBody().get("id", String.class);
     }
 
     public String getCompanyIdFromJwtToken(String token) {
-        if ("PROXY_AUTH".equals(token)) {
-            // For proxy authentication, the company ID will be retrieved from the request attributes
-            // in the SecurityContextHolder by the controller
-            return null;
-        }
         return Jwts.parserBuilder().setSigningKey(key()).build()
                 .parseClaimsJws(token).getBody().get("companyId", String.class);
     }
 
     @SuppressWarnings("unchecked")
     public List<String> getRolesFromJwtToken(String token) {
-        if ("PROXY_AUTH".equals(token)) {
-            return new ArrayList<>();
-        }
         try {
             return Jwts.parserBuilder().setSigningKey(key()).build()
                     .parseClaimsJws(token).getBody().get("roles", List.class);
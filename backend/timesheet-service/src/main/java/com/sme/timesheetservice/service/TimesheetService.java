@@ -5,6 +5,7 @@ import com.sme.timesheetservice.model.TimesheetStatus;
 import com.sme.timesheetservice.payload.request.TimesheetRequest;
 import java.time.LocalDate;
 import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface TimesheetService {
     Timesheet createTimesheet(String userId, TimesheetRequest timesheetRequest);
@@ -21,6 +22,6 @@ public interface TimesheetService {
     Timesheet rejectTimesheet(String id, String reason);
     void deleteTimesheet(String id, String userId);
     List<Timesheet> getAllTimesheetsForCurrentTenant();
-    byte[] generateTimesheetPdf(String id);
-    byte[] generateTimesheetExcel(String id);
+    StreamingResponseBody streamTimesheetPdf(String id);
+    StreamingResponseBody streamTimesheetExcel(String id);
 }
\ No newline at end of file
@@ -18,11 +18,11 @@ import com.sme.timesheetservice.model.WorkingHourConfig;
 import com.sme.timesheetservice.model.ApprovalLog;
 import com.sme.shared.AuditLog;
 import com.sme.timesheetservice.repository.ApprovalLogRepository;
-import java.io.ByteArrayOutputStream;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class TimesheetServiceImpl implements TimesheetService {
@@ -181,51 +181,51 @@ public class TimesheetServiceImpl implements TimesheetService {
     }
 
     @Override
-    public byte[] generateTimesheetPdf(String id) {
+    public StreamingResponseBody streamTimesheetPdf(String id) {
         Timesheet timesheet = getTimesheetById(id);
-        try {
-            Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Timesheet"));
-            document.add(new Paragraph("ID: " + timesheet.getId()));
-            document.add(new Paragraph("User ID: " + timesheet.getUserId()));
-            document.add(new Paragraph("Task ID: " + timesheet.getTaskId()));
-            document.add(new Paragraph("Date: " + timesheet.getDate()));
-            document.add(new Paragraph("Hours: " + timesheet.getHours()));
-            document.add(new Paragraph("Status: " + timesheet.getStatus()));
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
-    }
-
-    @Override
-    public byte[] generateTimesheetExcel(String id) {
+        return out -> {
+            try {
+                Document document = new Document();
+                PdfWriter.getInstance(document, out);
+                document.open();
+                document.add(new Paragraph("Timesheet"));
+                document.add(new Paragraph("ID: " + timesheet.getId()));
+                document.add(new Paragraph("User ID: " + timesheet.getUserId()));
+                document.add(new Paragraph("Task ID: " + timesheet.getTaskId()));
+                document.add(new Paragraph("Date: " + timesheet.getDate()));
+                document.add(new Paragraph("Hours: " + timesheet.getHours()));
+                document.add(new Paragraph("Status: " + timesheet.getStatus()));
+                document.close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate PDF", e);
+            }
+        };
+    }
+
+    @Override
+    public StreamingResponseBody streamTimesheetExcel(String id) {
         Timesheet timesheet = getTimesheetById(id);
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Timesheet");
-            Row row = sheet.createRow(0);
-            row.createCell(0).setCellValue("ID");
-            row.createCell(1).setCellValue(timesheet.getId());
-            row.createCell(2).setCellValue("User ID");
-            row.createCell(3).setCellValue(timesheet.getUserId());
-            row.createCell(4).setCellValue("Task ID");
-            row.createCell(5).setCellValue(timesheet.getTaskId());
-            row.createCell(6).setCellValue("Date");
-            row.createCell(7).setCellValue(timesheet.getDate() != null ? timesheet.getDate().toString() : "");
-            row.createCell(8).setCellValue("Hours");
-            row.createCell(9).setCellValue(timesheet.getHours() != null ? timesheet.getHours().toString() : "");
-            row.createCell(10).setCellValue("Status");
-            row.createCell(11).setCellValue(timesheet.getStatus() != null ? timesheet.getStatus().toString() : "");
-            // ...add more fields as needed...
-            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate Excel", e);
-        }
+        return out -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Timesheet");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue("ID");
+                row.createCell(1).setCellValue(timesheet.getId());
+                row.createCell(2).setCellValue("User ID");
+                row.createCell(3).setCellValue(timesheet.getUserId());
+                row.createCell(4).setCellValue("Task ID");
+                row.createCell(5).setCellValue(timesheet.getTaskId());
+                row.createCell(6).setCellValue("Date");
+                row.createCell(7).setCellValue(timesheet.getDate() != null ? timesheet.getDate().toString() : "");
+                row.createCell(8).setCellValue("Hours");
+                row.createCell(9).setCellValue(timesheet.getHours() != null ? timesheet.getHours().toString() : "");
+                row.createCell(10).setCellValue("Status");
+                row.createCell(11).setCellValue(timesheet.getStatus() != null ? timesheet.getStatus().toString() : "");
+                // ...add more fields as needed...
+                workbook.write(out);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to generate Excel", e);
+            }
+        };
     }
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.sme.userservice.security;
 
 import com.sme.userservice.security.jwt.AuthEntryPointJwt;
 import com.sme.userservice.security.jwt.AuthTokenFilter;
+import com.sme.shared.InternalIdentityCodec;
 import com.sme.userservice.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -57,6 +59,12 @@ public class WebSecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    @Bean
+    public InternalIdentityCodec internalIdentityCodec(@Value("${internal.identity.secret}") String secret,
+                                                       @Value("${internal.identity.ttl-ms:60000}") long ttlMillis) {
+        return new InternalIdentityCodec(secret, ttlMillis);
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -1,5 +1,7 @@
 package com.sme.userservice.security.jwt;
 
+import com.sme.shared.InternalIdentity;
+import com.sme.shared.InternalIdentityCodec;
 import com.sme.userservice.security.services.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,16 +26,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private InternalIdentityCodec identityCodec;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            // Requests routed through the gateway carry a signed identity header, which is far
+            // cheaper to verify than the JWT. Fall back to the bearer token for direct calls.
+            String username = null;
+            InternalIdentity identity = identityCodec.decode(request.getHeader(InternalIdentityCodec.HEADER));
+            if (identity != null) {
+                username = identity.getUsername();
+            } else {
+                String jwt = parseJwt(request);
+                if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+                    username = jwtUtils.getUserNameFromJwtToken(jwt);
+                }
+            }
 
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(